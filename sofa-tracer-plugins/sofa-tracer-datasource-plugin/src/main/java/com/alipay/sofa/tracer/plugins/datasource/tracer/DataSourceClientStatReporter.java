@@ -53,7 +53,7 @@ public class DataSourceClientStatReporter extends AbstractSofaTracerStatisticRep
         //pressure mark
         statKey.setLoadTest(TracerUtils.isLoadTest(sofaTracerSpan));
         //value the count and duration
-        long duration = sofaTracerSpan.getEndTime() - sofaTracerSpan.getStartTime();
+        long duration = this.statCost(sofaTracerSpan);
         long[] values = new long[] { 1, duration };
         //reserve
         this.addStat(statKey, values);
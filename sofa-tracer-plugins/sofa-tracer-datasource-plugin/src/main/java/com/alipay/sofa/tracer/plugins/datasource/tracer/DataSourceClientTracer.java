@@ -131,6 +131,14 @@ public class DataSourceClientTracer extends AbstractClientTracer {
     }
 
     public void endTrace(long cost, String resultCode) {
+        endTrace((Number) cost, resultCode);
+    }
+
+    /**
+     * @param cost       execution cost in milliseconds, with decimals in high resolution timing
+     * @param resultCode result code
+     */
+    public void endTrace(Number cost, String resultCode) {
         SofaTraceContext sofaTraceContext = SofaTraceContextHolder.getSofaTraceContext();
         if (sofaTraceContext != null) {
             SofaTracerSpan sofaTracerSpan = sofaTraceContext.getCurrentSpan();
@@ -17,6 +17,7 @@
 package com.alipay.sofa.tracer.plugins.datasource.tracer;
 
 import com.alipay.common.tracer.core.constants.SofaTracerConstant;
+import com.alipay.common.tracer.core.utils.SpanTiming;
 import com.alipay.sofa.tracer.plugins.datasource.Interceptor;
 
 /**
@@ -34,7 +35,7 @@ public class StatementTracerInterceptor implements Interceptor {
 
     @Override
     public Object intercept(Chain chain) throws Exception {
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
         String resultCode = SofaTracerConstant.RESULT_SUCCESS;
         try {
             clientTracer.startTrace(chain.getOriginalSql());
@@ -43,7 +44,7 @@ public class StatementTracerInterceptor implements Interceptor {
             resultCode = SofaTracerConstant.RESULT_FAILED;
             throw e;
         } finally {
-            clientTracer.endTrace(System.currentTimeMillis() - start, resultCode);
+            clientTracer.endTrace(SpanTiming.millisCost(System.nanoTime() - start), resultCode);
         }
     }
 }
\ No newline at end of file
@@ -57,7 +57,7 @@ public class DubboClientStatJsonReporter extends AbstractSofaTracerStatisticRepo
         statKey.setEnd(buildString(new String[] { getLoadTestMark(sofaTracerSpan) }));
         statKey.setLoadTest(TracerUtils.isLoadTest(sofaTracerSpan));
 
-        long duration = sofaTracerSpan.getEndTime() - sofaTracerSpan.getStartTime();
+        long duration = this.statCost(sofaTracerSpan);
         long[] values = new long[] { 1, duration };
         this.addStat(statKey, values);
     }
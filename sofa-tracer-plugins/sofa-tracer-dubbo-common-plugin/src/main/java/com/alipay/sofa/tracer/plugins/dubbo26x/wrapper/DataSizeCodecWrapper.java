@@ -16,6 +16,7 @@
  */
 package com.alipay.sofa.tracer.plugins.dubbo26x.wrapper;
 
+import com.alipay.common.tracer.core.utils.SpanTiming;
 import com.alibaba.dubbo.remoting.Channel;
 import com.alibaba.dubbo.remoting.Codec2;
 import com.alibaba.dubbo.remoting.buffer.ChannelBuffer;
@@ -69,16 +70,16 @@ public class DataSizeCodecWrapper implements Codec2 {
      */
     protected void encodeRequestWithTracer(Channel channel, ChannelBuffer buffer, Object message,
                                            RpcInvocation invocation) throws IOException {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         int index = buffer.writerIndex();
         // serialization
         codec.encode(channel, buffer, message);
         int reqSize = buffer.writerIndex() - index;
-        long elapsed = System.currentTimeMillis() - startTime;
+        long elapsed = System.nanoTime() - startTime;
         invocation.setAttachment(AttachmentKeyConstants.CLIENT_SERIALIZE_SIZE,
             String.valueOf(reqSize));
         invocation.setAttachment(AttachmentKeyConstants.CLIENT_SERIALIZE_TIME,
-            String.valueOf(elapsed));
+            String.valueOf(SpanTiming.millisCost(elapsed)));
     }
 
     /**
@@ -90,15 +91,15 @@ public class DataSizeCodecWrapper implements Codec2 {
     protected void encodeResultWithTracer(Channel channel, ChannelBuffer buffer, Object message)
                                                                                                 throws IOException {
         Object result = ((Response) message).getResult();
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         int index = buffer.writerIndex();
         codec.encode(channel, buffer, message);
         int respSize = buffer.writerIndex() - index;
-        long elapsed = System.currentTimeMillis() - startTime;
+        long elapsed = System.nanoTime() - startTime;
         ((RpcResult) result).setAttachment(AttachmentKeyConstants.SERVER_SERIALIZE_SIZE,
             String.valueOf(respSize));
         ((RpcResult) result).setAttachment(AttachmentKeyConstants.SERVER_SERIALIZE_TIME,
-            String.valueOf(elapsed));
+            String.valueOf(SpanTiming.millisCost(elapsed)));
     }
 
     /**
@@ -110,11 +111,11 @@ public class DataSizeCodecWrapper implements Codec2 {
      */
     @Override
     public Object decode(Channel channel, ChannelBuffer input) throws IOException {
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
         int index = input.readerIndex();
         Object ret = codec.decode(channel, input);
         int size = input.readerIndex() - index;
-        long elapsed = System.currentTimeMillis() - startTime;
+        long elapsed = System.nanoTime() - startTime;
         if (ret instanceof Request) {
             // server-side deserialize the Request
             Object data = ((Request) ret).getData();
@@ -123,7 +124,7 @@ public class DataSizeCodecWrapper implements Codec2 {
                 invocation.setAttachment(AttachmentKeyConstants.SERVER_DESERIALIZE_SIZE,
                     String.valueOf(size));
                 invocation.setAttachment(AttachmentKeyConstants.SERVER_DESERIALIZE_TIME,
-                    String.valueOf(elapsed));
+                    String.valueOf(SpanTiming.millisCost(elapsed)));
             }
         } else if (ret instanceof Response) {
             // client-side deserialize the Response
@@ -133,7 +134,7 @@ public class DataSizeCodecWrapper implements Codec2 {
                 rpcResult.setAttachment(AttachmentKeyConstants.CLIENT_DESERIALIZE_SIZE,
                     String.valueOf(size));
                 rpcResult.setAttachment(AttachmentKeyConstants.CLIENT_DESERIALIZE_TIME,
-                    String.valueOf(elapsed));
+                    String.valueOf(SpanTiming.millisCost(elapsed)));
             }
         }
         return ret;
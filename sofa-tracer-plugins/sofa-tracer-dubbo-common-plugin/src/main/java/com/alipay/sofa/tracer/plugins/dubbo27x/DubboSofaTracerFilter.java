@@ -43,6 +43,7 @@ import org.apache.dubbo.rpc.RpcContext;
 import org.apache.dubbo.rpc.RpcException;
 import org.apache.dubbo.rpc.support.RpcUtils;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -331,9 +332,9 @@ public class DubboSofaTracerFilter implements Filter {
             respSize = result.getAttachment(AttachmentKeyConstants.CLIENT_DESERIALIZE_SIZE);
             deElapsed = result.getAttachment(AttachmentKeyConstants.CLIENT_DESERIALIZE_TIME);
             sofaTracerSpan.setTag(AttachmentKeyConstants.CLIENT_SERIALIZE_TIME,
-                parseAttachment(elapsed, 0));
+                parseTimeAttachment(elapsed));
             sofaTracerSpan.setTag(AttachmentKeyConstants.CLIENT_DESERIALIZE_TIME,
-                parseAttachment(deElapsed, 0));
+                parseTimeAttachment(deElapsed));
             sofaTracerSpan.setTag(AttachmentKeyConstants.CLIENT_SERIALIZE_SIZE,
                 parseAttachment(reqSize, 0));
             sofaTracerSpan.setTag(AttachmentKeyConstants.CLIENT_DESERIALIZE_SIZE,
@@ -346,11 +347,11 @@ public class DubboSofaTracerFilter implements Filter {
             sofaTracerSpan.setTag(AttachmentKeyConstants.SERVER_DESERIALIZE_SIZE,
                 parseAttachment(reqSize, 0));
             sofaTracerSpan.setTag(AttachmentKeyConstants.SERVER_DESERIALIZE_TIME,
-                parseAttachment(deElapsed, 0));
+                parseTimeAttachment(deElapsed));
             sofaTracerSpan.setTag(AttachmentKeyConstants.SERVER_SERIALIZE_SIZE,
                 parseAttachment(respSize, 0));
             sofaTracerSpan.setTag(AttachmentKeyConstants.SERVER_SERIALIZE_TIME,
-                parseAttachment(elapsed, 0));
+                parseTimeAttachment(elapsed));
         }
 
     }
@@ -366,6 +367,21 @@ public class DubboSofaTracerFilter implements Filter {
         return defaultVal;
     }
 
+    /**
+     * Serialize times are fractional milliseconds in high resolution timing
+     */
+    private Number parseTimeAttachment(String value) {
+        try {
+            if (StringUtils.isNotBlank(value)) {
+                return value.indexOf('.') < 0 ? (Number) Long.parseLong(value) : new BigDecimal(
+                    value);
+            }
+        } catch (Exception e) {
+            SelfLog.error("Failed to parse Dubbo plugin params.", e);
+        }
+        return 0;
+    }
+
     /**
      * set rpc server span tags
      *
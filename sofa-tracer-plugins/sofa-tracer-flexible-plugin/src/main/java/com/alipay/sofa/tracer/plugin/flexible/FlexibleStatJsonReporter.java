@@ -55,7 +55,7 @@ public class FlexibleStatJsonReporter extends AbstractSofaTracerStatisticReporte
         //end
         statKey.setEnd(TracerUtils.getLoadTestMark(sofaTracerSpan));
         //value the count and duration
-        long duration = sofaTracerSpan.getEndTime() - sofaTracerSpan.getStartTime();
+        long duration = this.statCost(sofaTracerSpan);
         long[] values = new long[] { 1, duration };
         //reserve
         this.addStat(statKey, values);
@@ -52,7 +52,7 @@ public class FlexibleStatReporter extends AbstractSofaTracerStatisticReporter {
         //pressure mark
         statKey.setLoadTest(TracerUtils.isLoadTest(sofaTracerSpan));
         //duration
-        long duration = sofaTracerSpan.getEndTime() - sofaTracerSpan.getStartTime();
+        long duration = this.statCost(sofaTracerSpan);
         long[] values = new long[] { 1, duration };
         this.addStat(statKey, values);
     }
@@ -214,11 +214,13 @@ public class FlexibleTracer extends SofaTracer {
         clientSpan.log(LogData.CLIENT_RECV_EVENT_VALUE);
         // set resultCode
         clientSpan.setTag(Tags.ERROR.getKey(), error);
+        // read before finishing, a recycled span is not to be used after
+        SofaTracerSpan parentSpan = clientSpan.getParentSofaTracerSpan();
         // finish client span
         clientSpan.finish();
         // restore parent span
-        if (clientSpan.getParentSofaTracerSpan() != null) {
-            sofaTraceContext.push(clientSpan.getParentSofaTracerSpan());
+        if (parentSpan != null) {
+            sofaTraceContext.push(parentSpan);
         }
     }
 
@@ -20,6 +20,7 @@ import com.alipay.common.tracer.core.constants.SofaTracerConstant;
 import com.alipay.common.tracer.core.reporter.stat.AbstractSofaTracerStatisticReporter;
 import com.alipay.common.tracer.core.reporter.stat.model.StatKey;
 import com.alipay.common.tracer.core.span.CommonSpanTags;
+import com.alipay.common.tracer.core.span.HttpClientPhase;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import com.alipay.common.tracer.core.utils.TracerUtils;
 
@@ -56,9 +57,24 @@ public class HttpClientStatReporter extends AbstractSofaTracerStatisticReporter
         //pressure mark
         statKey.setLoadTest(TracerUtils.isLoadTest(sofaTracerSpan));
         //value the count and duration
-        long duration = sofaTracerSpan.getEndTime() - sofaTracerSpan.getStartTime();
+        long duration = this.statCost(sofaTracerSpan);
         long[] values = new long[] { 1, duration };
         //reserve
         this.addStat(statKey, values);
+        //connection phases, see SofaTracerHttpRequestExecutor
+        Map<String, Number> tagsWithNumber = sofaTracerSpan.getTagsWithNumber();
+        for (HttpClientPhase phase : HttpClientPhase.values()) {
+            Number phaseCost = tagsWithNumber.get(phase.getTagKey());
+            if (phaseCost == null) {
+                continue;
+            }
+            StatKey phaseKey = new StatKey();
+            phaseKey.setKey(buildString(new String[] { localApp, requestUrl, methodName,
+                    phase.getPhaseName() }));
+            phaseKey.setResult(statKey.getResult());
+            phaseKey.setEnd(statKey.getEnd());
+            phaseKey.setLoadTest(statKey.isLoadTest());
+            this.addStat(phaseKey, new long[] { 1, statCost(phaseCost) });
+        }
     }
 }
@@ -16,9 +16,12 @@
  */
 package com.alipay.sofa.tracer.plugins.httpclient;
 
+import com.alipay.common.tracer.core.span.HttpClientPhase;
 import com.alipay.common.tracer.core.tracer.AbstractTracer;
 import com.alipay.sofa.tracer.plugins.httpclient.interceptor.SofaTracerAsyncHttpInterceptor;
+import com.alipay.sofa.tracer.plugins.httpclient.interceptor.SofaTracerDnsResolver;
 import com.alipay.sofa.tracer.plugins.httpclient.interceptor.SofaTracerHttpInterceptor;
+import com.alipay.sofa.tracer.plugins.httpclient.interceptor.SofaTracerHttpRequestExecutor;
 import org.apache.http.HttpRequestInterceptor;
 import org.apache.http.HttpResponseInterceptor;
 import org.apache.http.impl.client.HttpClientBuilder;
@@ -40,8 +43,16 @@ public class SofaTracerHttpClientBuilder {
 
     public static HttpClientBuilder clientBuilder(HttpClientBuilder clientBuilder,
                                                   String currentApp, String targetApp) {
+        boolean phaseTimingEnabled = HttpClientPhase.isEnabled();
         SofaTracerHttpInterceptor interceptor = new SofaTracerHttpInterceptor(
-            getHttpClientTracer(), currentApp, targetApp);
+            getHttpClientTracer(), currentApp, targetApp, phaseTimingEnabled);
+        if (phaseTimingEnabled) {
+            // replaces the request executor and dns resolver already set on the builder, the dns
+            // resolver is not used when the builder is given a connection manager
+            clientBuilder.setRequestExecutor(
+                new SofaTracerHttpRequestExecutor(getHttpClientTracer())).setDnsResolver(
+                new SofaTracerDnsResolver(getHttpClientTracer()));
+        }
         return clientBuilder.addInterceptorFirst((HttpRequestInterceptor) interceptor)
             .addInterceptorFirst((HttpResponseInterceptor) interceptor);
     }
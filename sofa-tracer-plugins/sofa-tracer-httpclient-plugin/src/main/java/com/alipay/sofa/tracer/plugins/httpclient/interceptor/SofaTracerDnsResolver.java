@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.httpclient.interceptor;
+
+import com.alipay.common.tracer.core.span.HttpClientPhase;
+import com.alipay.common.tracer.core.tracer.AbstractTracer;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Records {@link HttpClientPhase#DNS} on the current http client span. The resolver is called
+ * when a new connection is opened, so pooled connections record no dns phase.
+ *
+ * @since 3.1.10
+ */
+public class SofaTracerDnsResolver implements DnsResolver {
+
+    private final AbstractTracer httpClientTracer;
+
+    private final DnsResolver    delegate;
+
+    public SofaTracerDnsResolver(AbstractTracer httpClientTracer) {
+        this(httpClientTracer, SystemDefaultDnsResolver.INSTANCE);
+    }
+
+    public SofaTracerDnsResolver(AbstractTracer httpClientTracer, DnsResolver delegate) {
+        this.httpClientTracer = httpClientTracer;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        long startNanos = System.nanoTime();
+        InetAddress[] addresses = delegate.resolve(host);
+        SofaTracerHttpRequestExecutor.record(httpClientTracer, HttpClientPhase.DNS, startNanos,
+            System.nanoTime());
+        return addresses;
+    }
+}
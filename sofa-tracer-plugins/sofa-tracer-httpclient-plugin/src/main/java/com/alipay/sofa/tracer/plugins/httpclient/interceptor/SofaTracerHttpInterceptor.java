@@ -18,6 +18,7 @@ package com.alipay.sofa.tracer.plugins.httpclient.interceptor;
 
 import com.alipay.common.tracer.core.context.trace.SofaTraceContext;
 import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
+import com.alipay.common.tracer.core.span.HttpClientPhase;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import com.alipay.common.tracer.core.tracer.AbstractTracer;
 import org.apache.http.HttpException;
@@ -41,10 +42,21 @@ public class SofaTracerHttpInterceptor extends AbstractHttpRequestInterceptor
                                                                              HttpRequestInterceptor,
                                                                              HttpResponseInterceptor {
 
+    /**
+     * Whether the client records the phases with a {@link SofaTracerHttpRequestExecutor}
+     */
+    private final boolean phaseTimingEnabled;
+
     public SofaTracerHttpInterceptor(AbstractTracer httpClientTracer, String appName,
                                      String targetAppName) {
+        this(httpClientTracer, appName, targetAppName, false);
+    }
+
+    public SofaTracerHttpInterceptor(AbstractTracer httpClientTracer, String appName,
+                                     String targetAppName, boolean phaseTimingEnabled) {
 
         super(httpClientTracer, appName, targetAppName);
+        this.phaseTimingEnabled = phaseTimingEnabled;
     }
 
     @Override
@@ -56,6 +68,10 @@ public class SofaTracerHttpInterceptor extends AbstractHttpRequestInterceptor
         //span generated
         SofaTracerSpan httpClientSpan = httpClientTracer.clientSend(methodName);
         super.appendHttpClientRequestSpanTags(httpRequest, httpClientSpan);
+        if (phaseTimingEnabled && HttpClientPhase.isRecorded(httpClientSpan)) {
+            httpContext.setAttribute(SofaTracerHttpRequestExecutor.PHASE_START_NANOS_KEY,
+                System.nanoTime());
+        }
     }
 
     @Override
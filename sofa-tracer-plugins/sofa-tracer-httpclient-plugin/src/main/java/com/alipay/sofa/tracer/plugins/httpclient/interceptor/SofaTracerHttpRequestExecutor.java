@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.httpclient.interceptor;
+
+import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
+import com.alipay.common.tracer.core.span.HttpClientPhase;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.common.tracer.core.tracer.AbstractTracer;
+import com.alipay.common.tracer.core.utils.SpanTiming;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+import java.io.IOException;
+
+/**
+ * Records the connection phases of a call on the span created by
+ * {@link SofaTracerHttpInterceptor}, see {@link HttpClientPhase}:
+ * <ul>
+ *     <li>{@link HttpClientPhase#CONNECTION_ACQUIRE}: from the request interceptor to the
+ *     connection being ready to send, which includes connecting a new connection</li>
+ *     <li>{@link HttpClientPhase#TTFB}: from sending the request to the response headers</li>
+ * </ul>
+ * The request interceptors run before the connection is leased, so the start of the call is
+ * passed through the {@link HttpContext}.
+ *
+ * @since 3.1.10
+ */
+public class SofaTracerHttpRequestExecutor extends HttpRequestExecutor {
+
+    static final String          PHASE_START_NANOS_KEY = "httpclient.phase.start.nanos";
+
+    private final AbstractTracer httpClientTracer;
+
+    public SofaTracerHttpRequestExecutor(AbstractTracer httpClientTracer) {
+        this.httpClientTracer = httpClientTracer;
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request, HttpClientConnection conn, HttpContext context)
+                                                                                                    throws IOException,
+                                                                                                    HttpException {
+        Object startNanos = context.getAttribute(PHASE_START_NANOS_KEY);
+        if (!(startNanos instanceof Long)) {
+            return super.execute(request, conn, context);
+        }
+        // an authentication or a redirect may execute again with the same context
+        context.removeAttribute(PHASE_START_NANOS_KEY);
+        long sendNanos = System.nanoTime();
+        record(httpClientTracer, HttpClientPhase.CONNECTION_ACQUIRE, (Long) startNanos, sendNanos);
+        HttpResponse response = super.execute(request, conn, context);
+        record(httpClientTracer, HttpClientPhase.TTFB, sendNanos, System.nanoTime());
+        return response;
+    }
+
+    static void record(AbstractTracer httpClientTracer, HttpClientPhase phase, long startNanos,
+                       long endNanos) {
+        SofaTracerSpan span = SofaTraceContextHolder.getSofaTraceContext().getCurrentSpan();
+        if (HttpClientPhase.isRecorded(span)
+            && span.getSofaTracer() == httpClientTracer.getSofaTracer()) {
+            span.setTag(phase.getTagKey(), SpanTiming.millisCost(endNanos - startNanos));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.httpclient;
+
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.listener.SpanReportListener;
+import com.alipay.common.tracer.core.listener.SpanReportListenerHolder;
+import com.alipay.common.tracer.core.span.CommonSpanTags;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * HttpClientPhaseTimingTest
+ *
+ * @since 3.1.10
+ */
+public class HttpClientPhaseTimingTest {
+
+    private final List<SofaTracerSpan> reportedSpans = new CopyOnWriteArrayList<>();
+
+    private HttpServer                 httpServer;
+
+    @Before
+    public void setUp() throws Exception {
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_HTTP_CLIENT_PHASE_TIMING_ENABLED, "true");
+        SpanReportListenerHolder.addSpanReportListener(new SpanReportListener() {
+            @Override
+            public void onSpanReport(SofaTracerSpan sofaTracerSpan) {
+                reportedSpans.add(sofaTracerSpan);
+            }
+        });
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpServer.createContext("/phase", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] body = "ok".getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream outputStream = exchange.getResponseBody();
+                outputStream.write(body);
+                outputStream.close();
+            }
+        });
+        httpServer.start();
+    }
+
+    @After
+    public void tearDown() {
+        httpServer.stop(0);
+        SofaTracerConfiguration
+            .removeProperty(SofaTracerConfiguration.TRACER_HTTP_CLIENT_PHASE_TIMING_ENABLED);
+        SpanReportListenerHolder.clear();
+    }
+
+    @Test
+    public void testPhasesRecorded() throws Exception {
+        CloseableHttpClient httpClient = SofaTracerHttpClientBuilder.clientBuilder(
+            HttpClientBuilder.create()).build();
+        String url = "http://localhost:" + httpServer.getAddress().getPort() + "/phase";
+        try {
+            CloseableHttpResponse response = httpClient.execute(new HttpGet(url));
+            Assert.assertEquals("ok", EntityUtils.toString(response.getEntity()));
+            response.close();
+            Assert.assertEquals(1, reportedSpans.size());
+            Map<String, Number> tags = reportedSpans.get(0).getTagsWithNumber();
+            Assert.assertNotNull(tags.get(CommonSpanTags.HTTP_DNS_COST));
+            Assert.assertNotNull(tags.get(CommonSpanTags.HTTP_CONNECTION_ACQUIRE_COST));
+            Assert.assertNotNull(tags.get(CommonSpanTags.HTTP_TTFB_COST));
+
+            // pooled connection, no dns lookup
+            response = httpClient.execute(new HttpGet(url));
+            EntityUtils.consume(response.getEntity());
+            response.close();
+            Assert.assertEquals(2, reportedSpans.size());
+            tags = reportedSpans.get(1).getTagsWithNumber();
+            Assert.assertNull(tags.get(CommonSpanTags.HTTP_DNS_COST));
+            Assert.assertNotNull(tags.get(CommonSpanTags.HTTP_TTFB_COST));
+        } finally {
+            httpClient.close();
+        }
+    }
+}
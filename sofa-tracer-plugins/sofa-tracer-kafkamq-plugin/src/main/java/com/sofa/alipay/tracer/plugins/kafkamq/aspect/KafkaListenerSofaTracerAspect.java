@@ -17,7 +17,9 @@
 package com.sofa.alipay.tracer.plugins.kafkamq.aspect;
 
 import com.alipay.common.tracer.core.constants.SofaTracerConstant;
+import com.sofa.alipay.tracer.plugins.kafkamq.properties.KafkaMqProperties;
 import com.sofa.alipay.tracer.plugins.kafkamq.tracers.KafkaMQConsumeTracer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -33,8 +35,20 @@ public class KafkaListenerSofaTracerAspect {
 
     private KafkaMQConsumeTracer consumeTracer;
 
+    private final boolean        batchConsume = KafkaMqProperties.isBatchConsumeEnabled();
+
     @Around("@annotation(org.springframework.kafka.annotation.KafkaListener)")
     public void aroundKafkaConsumeAdvice(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (batchConsume) {
+            //in batch mode poll does not create per record spans, the record context
+            //is only extracted when the listener receives the record itself.
+            ConsumerRecord<?, ?> record = findConsumerRecord(joinPoint.getArgs());
+            if (record == null) {
+                joinPoint.proceed();
+                return;
+            }
+            KafkaMQConsumeTracer.getKafkaMQConsumeTracerSingleton().serverReceive(record);
+        }
         //start aop.
         boolean successFlag = true;
         try {
@@ -50,4 +64,15 @@ public class KafkaListenerSofaTracerAspect {
         }
     }
 
+    private ConsumerRecord<?, ?> findConsumerRecord(Object[] args) {
+        if (args != null) {
+            for (Object arg : args) {
+                if (arg instanceof ConsumerRecord) {
+                    return (ConsumerRecord<?, ?>) arg;
+                }
+            }
+        }
+        return null;
+    }
+
 }
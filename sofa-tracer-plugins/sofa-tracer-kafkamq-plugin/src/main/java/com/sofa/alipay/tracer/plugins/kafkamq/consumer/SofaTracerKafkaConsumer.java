@@ -16,13 +16,9 @@
  */
 package com.sofa.alipay.tracer.plugins.kafkamq.consumer;
 
-import com.alipay.common.tracer.core.SofaTracer;
-import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
-import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
-import com.alipay.common.tracer.core.registry.ExtendFormat;
-import com.alipay.common.tracer.core.span.CommonSpanTags;
+import com.alipay.common.tracer.core.constants.SofaTracerConstant;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
-import com.sofa.alipay.tracer.plugins.kafkamq.carrier.KafkaMqExtractCarrier;
+import com.sofa.alipay.tracer.plugins.kafkamq.properties.KafkaMqProperties;
 import com.sofa.alipay.tracer.plugins.kafkamq.tracers.KafkaMQConsumeTracer;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerGroupMetadata;
@@ -36,9 +32,9 @@ import org.apache.kafka.common.Metric;
 import org.apache.kafka.common.MetricName;
 import org.apache.kafka.common.PartitionInfo;
 import org.apache.kafka.common.TopicPartition;
-import org.apache.kafka.common.header.Headers;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -55,9 +51,17 @@ import java.util.regex.Pattern;
  */
 public class SofaTracerKafkaConsumer<K, V> implements Consumer<K, V> {
 
-    private KafkaMQConsumeTracer kafkaMQConsumeTracer;
+    private KafkaMQConsumeTracer       kafkaMQConsumeTracer;
 
-    private final Consumer<K, V> consumer;
+    private final Consumer<K, V>       consumer;
+
+    private final boolean              batchConsume;
+
+    /**
+     * Spans of the batches returned by the last poll, only used in batch consumption mode.
+     * A consumer is only used by one thread, so no synchronization is needed.
+     */
+    private final List<SofaTracerSpan> batchSpans = new ArrayList<SofaTracerSpan>();
 
     /**
      *  constructor.
@@ -67,11 +71,11 @@ public class SofaTracerKafkaConsumer<K, V> implements Consumer<K, V> {
                                    KafkaMQConsumeTracer kafkaMQConsumeTracer) {
         this.consumer = consumer;
         this.kafkaMQConsumeTracer = kafkaMQConsumeTracer;
+        this.batchConsume = KafkaMqProperties.isBatchConsumeEnabled();
     }
 
     public SofaTracerKafkaConsumer(Consumer<K, V> consumer) {
-        this.consumer = consumer;
-        this.kafkaMQConsumeTracer = KafkaMQConsumeTracer.getKafkaMQConsumeTracerSingleton();
+        this(consumer, KafkaMQConsumeTracer.getKafkaMQConsumeTracerSingleton());
     }
 
     @Override
@@ -117,7 +121,12 @@ public class SofaTracerKafkaConsumer<K, V> implements Consumer<K, V> {
     @Override
     @Deprecated
     public ConsumerRecords<K, V> poll(long timeout) {
-
+        if (batchConsume) {
+            finishBatchSpans();
+            ConsumerRecords<K, V> records = consumer.poll(timeout);
+            startBatchSpans(records);
+            return records;
+        }
         ConsumerRecords<K, V> records = consumer.poll(timeout);
         for (ConsumerRecord<K, V> record : records) {
             //no ss, depends on kafka consumption model.
@@ -129,6 +138,12 @@ public class SofaTracerKafkaConsumer<K, V> implements Consumer<K, V> {
 
     @Override
     public ConsumerRecords<K, V> poll(Duration timeout) {
+        if (batchConsume) {
+            finishBatchSpans();
+            ConsumerRecords<K, V> records = consumer.poll(timeout);
+            startBatchSpans(records);
+            return records;
+        }
         ConsumerRecords<K, V> records = consumer.poll(timeout);
         for (ConsumerRecord<K, V> record : records) {
             //sr, no ss.
@@ -314,11 +329,13 @@ public class SofaTracerKafkaConsumer<K, V> implements Consumer<K, V> {
 
     @Override
     public void close() {
+        finishBatchSpans();
         consumer.close();
     }
 
     @Override
     public void close(Duration timeout) {
+        finishBatchSpans();
         consumer.close(timeout);
     }
 
@@ -328,28 +345,44 @@ public class SofaTracerKafkaConsumer<K, V> implements Consumer<K, V> {
     }
 
     private void appendSpanAndServerReceive(ConsumerRecord<K, V> record) {
-        if (null == kafkaMQConsumeTracer) {
-            kafkaMQConsumeTracer = KafkaMQConsumeTracer.getKafkaMQConsumeTracerSingleton();
-        }
-        SofaTracerSpanContext spanContext = getSpanContextFromHeaders(record.headers());
-        SofaTracerSpan sofaTracerSpan = kafkaMQConsumeTracer.serverReceive(spanContext);
-        appendSpanTags(sofaTracerSpan, record);
+        getKafkaMQConsumeTracer().serverReceive(record);
     }
 
-    private void appendSpanTags(SofaTracerSpan tracerSpan, ConsumerRecord<K, V> record) {
-        tracerSpan.setTag(CommonSpanTags.CURRENT_THREAD_NAME, Thread.currentThread().getName());
-        tracerSpan.setTag(CommonSpanTags.LOCAL_APP,
-            SofaTracerConfiguration.getProperty(SofaTracerConfiguration.TRACER_APPNAME_KEY));
-        tracerSpan.setTag(CommonSpanTags.KAFKA_TOPIC, record.topic());
-        tracerSpan.setTag(CommonSpanTags.KAFKA_PARTITION, record.partition());
-        tracerSpan.setTag(CommonSpanTags.KAFKA_OFFSET, record.offset());
+    /**
+     * Batch consumption mode: one span per partition of the poll, finished by the next poll
+     * or by close, so that it covers the processing of the batch.
+     */
+    private void startBatchSpans(ConsumerRecords<K, V> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        KafkaMQConsumeTracer tracer = getKafkaMQConsumeTracer();
+        for (TopicPartition partition : records.partitions()) {
+            List<ConsumerRecord<K, V>> partitionRecords = records.records(partition);
+            if (partitionRecords.isEmpty()) {
+                continue;
+            }
+            OptionalLong lag = consumer.currentLag(partition);
+            batchSpans.add(tracer.batchReceive(partition, partitionRecords,
+                lag != null && lag.isPresent() ? lag.getAsLong() : -1L));
+        }
     }
 
-    private SofaTracerSpanContext getSpanContextFromHeaders(Headers headers) {
+    private void finishBatchSpans() {
+        if (batchSpans.isEmpty()) {
+            return;
+        }
+        KafkaMQConsumeTracer tracer = getKafkaMQConsumeTracer();
+        for (SofaTracerSpan batchSpan : batchSpans) {
+            tracer.batchFinish(batchSpan, SofaTracerConstant.RESULT_CODE_SUCCESS);
+        }
+        batchSpans.clear();
+    }
 
-        SofaTracer sofaTracer = this.kafkaMQConsumeTracer.getSofaTracer();
-        SofaTracerSpanContext spanContext = (SofaTracerSpanContext) sofaTracer.extract(
-            ExtendFormat.Builtin.B3_TEXT_MAP, new KafkaMqExtractCarrier(headers));
-        return spanContext;
+    private KafkaMQConsumeTracer getKafkaMQConsumeTracer() {
+        if (null == kafkaMQConsumeTracer) {
+            kafkaMQConsumeTracer = KafkaMQConsumeTracer.getKafkaMQConsumeTracerSingleton();
+        }
+        return kafkaMQConsumeTracer;
     }
 }
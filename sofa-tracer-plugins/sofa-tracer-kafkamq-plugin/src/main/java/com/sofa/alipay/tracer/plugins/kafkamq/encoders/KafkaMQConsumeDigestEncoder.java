@@ -21,6 +21,7 @@ import com.alipay.common.tracer.core.appender.builder.XStringBuilder;
 import com.alipay.common.tracer.core.middleware.parent.AbstractDigestSpanEncoder;
 import com.alipay.common.tracer.core.span.CommonSpanTags;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.sofa.alipay.tracer.plugins.kafkamq.properties.KafkaMqProperties;
 
 import java.util.Map;
 
@@ -39,5 +40,17 @@ public class KafkaMQConsumeDigestEncoder extends AbstractDigestSpanEncoder {
         xsb.append(tagWithStr.get(CommonSpanTags.KAFKA_TOPIC));
         xsb.append((Integer) tagsWithNumber.get(CommonSpanTags.KAFKA_PARTITION));
         xsb.append((Long) tagsWithNumber.get(CommonSpanTags.KAFKA_OFFSET));
+        //batch consumption, only in batch mode so that the default layout is kept,
+        //and then on every line, empty when absent
+        if (KafkaMqProperties.isBatchConsumeEnabled()) {
+            xsb.append(toString(tagsWithNumber.get(CommonSpanTags.KAFKA_LAST_OFFSET)));
+            xsb.append(toString(tagsWithNumber.get(CommonSpanTags.KAFKA_BATCH_SIZE)));
+            xsb.append(toString(tagsWithNumber.get(CommonSpanTags.KAFKA_BATCH_BYTES)));
+            xsb.append(toString(tagsWithNumber.get(CommonSpanTags.KAFKA_LAG)));
+        }
+    }
+
+    private static String toString(Number number) {
+        return number == null ? null : number.toString();
     }
 }
@@ -40,5 +40,15 @@ public class KafkaMQConsumeDigestJsonEncoder extends AbstractDigestSpanEncoder {
         jsb.append(CommonSpanTags.KAFKA_PARTITION,
             tagsWithNumber.get(CommonSpanTags.KAFKA_PARTITION));
         jsb.append(CommonSpanTags.KAFKA_OFFSET, tagsWithNumber.get(CommonSpanTags.KAFKA_OFFSET));
+        //batch consumption
+        Number batchSize = tagsWithNumber.get(CommonSpanTags.KAFKA_BATCH_SIZE);
+        if (batchSize != null) {
+            jsb.append(CommonSpanTags.KAFKA_LAST_OFFSET,
+                tagsWithNumber.get(CommonSpanTags.KAFKA_LAST_OFFSET));
+            jsb.append(CommonSpanTags.KAFKA_BATCH_SIZE, batchSize);
+            jsb.append(CommonSpanTags.KAFKA_BATCH_BYTES,
+                tagsWithNumber.get(CommonSpanTags.KAFKA_BATCH_BYTES));
+            jsb.append(CommonSpanTags.KAFKA_LAG, tagsWithNumber.get(CommonSpanTags.KAFKA_LAG));
+        }
     }
 }
\ No newline at end of file
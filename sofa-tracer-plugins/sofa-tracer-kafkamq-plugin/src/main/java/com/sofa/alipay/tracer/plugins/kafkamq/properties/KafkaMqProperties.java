@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sofa.alipay.tracer.plugins.kafkamq.properties;
+
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+
+/**
+ * KafkaMqProperties.
+ *
+ * @since 3.1.10
+ */
+public class KafkaMqProperties {
+
+    /**
+     * Create one consume span per poll and partition instead of one per record
+     */
+    public static final String KAFKA_BATCH_CONSUME_ENABLED_KEY = "com.alipay.sofa.tracer.kafka.batchConsume.enabled";
+
+    private KafkaMqProperties() {
+    }
+
+    public static boolean isBatchConsumeEnabled() {
+        return Boolean.parseBoolean(SofaTracerConfiguration
+            .getProperty(KAFKA_BATCH_CONSUME_ENABLED_KEY));
+    }
+}
@@ -19,14 +19,25 @@ package com.sofa.alipay.tracer.plugins.kafkamq.tracers;
 import com.alipay.common.tracer.core.appender.encoder.SpanEncoder;
 import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.constants.ComponentNameConstants;
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.registry.ExtendFormat;
 import com.alipay.common.tracer.core.reporter.stat.AbstractSofaTracerStatisticReporter;
+import com.alipay.common.tracer.core.span.CommonSpanTags;
+import com.alipay.common.tracer.core.span.LogData;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import com.alipay.common.tracer.core.tracer.AbstractServerTracer;
+import com.alipay.common.tracer.core.utils.StringUtils;
+import com.sofa.alipay.tracer.plugins.kafkamq.carrier.KafkaMqExtractCarrier;
 import com.sofa.alipay.tracer.plugins.kafkamq.encoders.KafkaMQConsumeDigestEncoder;
 import com.sofa.alipay.tracer.plugins.kafkamq.encoders.KafkaMQConsumeDigestJsonEncoder;
 import com.sofa.alipay.tracer.plugins.kafkamq.enums.KafkaMqLogEnum;
 import com.sofa.alipay.tracer.plugins.kafkamq.repoters.KafkaMQConsumeStatJsonReporter;
 import com.sofa.alipay.tracer.plugins.kafkamq.repoters.KafkaMQConsumeStatReporter;
+import io.opentracing.tag.Tags;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.List;
 
 /**
  * KafkaMQConsumeTracer.
@@ -38,6 +49,8 @@ public class KafkaMQConsumeTracer extends AbstractServerTracer {
 
     private volatile static KafkaMQConsumeTracer kafkaMQConsumeTracer;
 
+    private String                               appName;
+
     public KafkaMQConsumeTracer() {
         super(ComponentNameConstants.KAFKAMQ_CONSUMER);
     }
@@ -53,6 +66,74 @@ public class KafkaMQConsumeTracer extends AbstractServerTracer {
         return kafkaMQConsumeTracer;
     }
 
+    /**
+     * Stage SR for a single record, restoring the producer context from the record headers.
+     * @param record consumed record
+     * @return SofaTracerSpan
+     */
+    public SofaTracerSpan serverReceive(ConsumerRecord<?, ?> record) {
+        SofaTracerSpanContext spanContext = (SofaTracerSpanContext) sofaTracer.extract(
+            ExtendFormat.Builtin.B3_TEXT_MAP, new KafkaMqExtractCarrier(record.headers()));
+        SofaTracerSpan sofaTracerSpan = serverReceive(spanContext);
+        sofaTracerSpan.setTag(CommonSpanTags.LOCAL_APP, getAppName());
+        sofaTracerSpan.setTag(CommonSpanTags.KAFKA_TOPIC, record.topic());
+        sofaTracerSpan.setTag(CommonSpanTags.KAFKA_PARTITION, record.partition());
+        sofaTracerSpan.setTag(CommonSpanTags.KAFKA_OFFSET, record.offset());
+        return sofaTracerSpan;
+    }
+
+    /**
+     * Start a span for the records of one partition returned by a poll. The span is a root span
+     * and is not put into the thread context, it is finished by {@link #batchFinish}.
+     *
+     * @param partition topic partition of the batch
+     * @param records records of the partition
+     * @param lag consumer lag of the partition, -1 if unknown
+     * @return SofaTracerSpan
+     */
+    public SofaTracerSpan batchReceive(TopicPartition partition,
+                                       List<? extends ConsumerRecord<?, ?>> records, long lag) {
+        long bytes = 0;
+        for (ConsumerRecord<?, ?> record : records) {
+            bytes += Math.max(record.serializedKeySize(), 0)
+                     + Math.max(record.serializedValueSize(), 0);
+        }
+        SofaTracerSpan batchSpan = (SofaTracerSpan) sofaTracer.buildSpan(StringUtils.EMPTY_STRING)
+            .start();
+        batchSpan.log(LogData.SERVER_RECV_EVENT_VALUE);
+        batchSpan.setTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_SERVER);
+        batchSpan.setTag(CommonSpanTags.CURRENT_THREAD_NAME, Thread.currentThread().getName());
+        batchSpan.setTag(CommonSpanTags.LOCAL_APP, getAppName());
+        batchSpan.setTag(CommonSpanTags.KAFKA_TOPIC, partition.topic());
+        batchSpan.setTag(CommonSpanTags.KAFKA_PARTITION, partition.partition());
+        batchSpan.setTag(CommonSpanTags.KAFKA_OFFSET, records.get(0).offset());
+        batchSpan
+            .setTag(CommonSpanTags.KAFKA_LAST_OFFSET, records.get(records.size() - 1).offset());
+        batchSpan.setTag(CommonSpanTags.KAFKA_BATCH_SIZE, records.size());
+        batchSpan.setTag(CommonSpanTags.KAFKA_BATCH_BYTES, bytes);
+        batchSpan.setTag(CommonSpanTags.KAFKA_LAG, lag);
+        return batchSpan;
+    }
+
+    /**
+     * Stage SS for a span started by {@link #batchReceive}
+     * @param batchSpan batch span
+     * @param resultCode result code
+     */
+    public void batchFinish(SofaTracerSpan batchSpan, String resultCode) {
+        batchSpan.log(LogData.SERVER_SEND_EVENT_VALUE);
+        batchSpan.setTag(CommonSpanTags.RESULT_CODE, resultCode);
+        batchSpan.finish();
+    }
+
+    private String getAppName() {
+        if (appName == null) {
+            appName = SofaTracerConfiguration
+                .getProperty(SofaTracerConfiguration.TRACER_APPNAME_KEY);
+        }
+        return appName;
+    }
+
     @Override
     protected String getServerDigestReporterLogName() {
         return KafkaMqLogEnum.MQ_CONSUME_DIGEST.getDefaultLogName();
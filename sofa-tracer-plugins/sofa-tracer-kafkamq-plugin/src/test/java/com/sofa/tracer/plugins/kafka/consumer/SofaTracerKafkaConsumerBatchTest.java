@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sofa.tracer.plugins.kafka.consumer;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.context.trace.SofaTraceContext;
+import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
+import com.alipay.common.tracer.core.listener.SpanReportListener;
+import com.alipay.common.tracer.core.listener.SpanReportListenerHolder;
+import com.alipay.common.tracer.core.span.CommonSpanTags;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.sofa.alipay.tracer.plugins.kafkamq.consumer.SofaTracerKafkaConsumer;
+import com.sofa.alipay.tracer.plugins.kafkamq.encoders.KafkaMQConsumeDigestEncoder;
+import com.sofa.alipay.tracer.plugins.kafkamq.properties.KafkaMqProperties;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * SofaTracerKafkaConsumerBatchTest
+ *
+ * @since 3.1.10
+ */
+public class SofaTracerKafkaConsumerBatchTest {
+
+    private static final String          TOPIC         = "batch-topic";
+
+    private final List<SofaTracerSpan>   reportedSpans = new CopyOnWriteArrayList<>();
+
+    private MockConsumer<String, String> mockConsumer;
+
+    @Before
+    public void setUp() {
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_APPNAME_KEY,
+            "kafka-test");
+        SofaTracerConfiguration.setProperty(KafkaMqProperties.KAFKA_BATCH_CONSUME_ENABLED_KEY,
+            "true");
+        SpanReportListenerHolder.addSpanReportListener(new SpanReportListener() {
+            @Override
+            public void onSpanReport(SofaTracerSpan sofaTracerSpan) {
+                reportedSpans.add(sofaTracerSpan);
+            }
+        });
+        TopicPartition p0 = new TopicPartition(TOPIC, 0);
+        TopicPartition p1 = new TopicPartition(TOPIC, 1);
+        mockConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        mockConsumer.assign(Arrays.asList(p0, p1));
+        Map<TopicPartition, Long> beginningOffsets = new HashMap<>();
+        beginningOffsets.put(p0, 0L);
+        beginningOffsets.put(p1, 0L);
+        mockConsumer.updateBeginningOffsets(beginningOffsets);
+    }
+
+    @After
+    public void tearDown() {
+        SofaTracerConfiguration.removeProperty(KafkaMqProperties.KAFKA_BATCH_CONSUME_ENABLED_KEY);
+        SpanReportListenerHolder.clear();
+    }
+
+    @Test
+    public void testOneSpanPerPollAndPartition() {
+        mockConsumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 0L, "k", "v1"));
+        mockConsumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 1L, "k", "v2"));
+        mockConsumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 2L, "k", "v3"));
+        mockConsumer.addRecord(new ConsumerRecord<>(TOPIC, 1, 0L, "k", "v4"));
+
+        SofaTracerKafkaConsumer<String, String> consumer = new SofaTracerKafkaConsumer<>(
+            mockConsumer);
+        Assert.assertEquals(4, consumer.poll(Duration.ofMillis(10)).count());
+        // batch spans stay open while the records are processed and never leak into the thread context
+        Assert.assertTrue(reportedSpans.isEmpty());
+        SofaTraceContext traceContext = SofaTraceContextHolder.getSofaTraceContext();
+        Assert.assertTrue(traceContext.isEmpty());
+
+        consumer.poll(Duration.ofMillis(10));
+        Assert.assertEquals(2, reportedSpans.size());
+        SofaTracerSpan span = findSpan(0);
+        Assert.assertNotNull(span);
+        Assert.assertEquals(TOPIC, span.getTagsWithStr().get(CommonSpanTags.KAFKA_TOPIC));
+        Assert.assertEquals(0L, span.getTagsWithNumber().get(CommonSpanTags.KAFKA_OFFSET));
+        Assert.assertEquals(2L, span.getTagsWithNumber().get(CommonSpanTags.KAFKA_LAST_OFFSET));
+        Assert.assertEquals(3, span.getTagsWithNumber().get(CommonSpanTags.KAFKA_BATCH_SIZE));
+        Assert
+            .assertEquals(1, findSpan(1).getTagsWithNumber().get(CommonSpanTags.KAFKA_BATCH_SIZE));
+        Assert.assertEquals("0", span.getSofaTracerSpanContext().getSpanId());
+    }
+
+    @Test
+    public void testCloseFinishesOpenBatch() {
+        mockConsumer.addRecord(new ConsumerRecord<>(TOPIC, 1, 0L, "k", "v"));
+        SofaTracerKafkaConsumer<String, String> consumer = new SofaTracerKafkaConsumer<>(
+            mockConsumer);
+        consumer.poll(Duration.ofMillis(10));
+        consumer.close();
+        Assert.assertEquals(1, reportedSpans.size());
+    }
+
+    @Test
+    public void testEmptyPollReportsNothing() {
+        SofaTracerKafkaConsumer<String, String> consumer = new SofaTracerKafkaConsumer<>(
+            mockConsumer);
+        Assert.assertTrue(consumer.poll(Duration.ofMillis(10)).isEmpty());
+        consumer.poll(Duration.ofMillis(10));
+        Assert.assertEquals(Collections.emptyList(), reportedSpans);
+    }
+
+    @Test
+    public void testDigestLinesHaveSameColumns() throws Exception {
+        mockConsumer.addRecord(new ConsumerRecord<>(TOPIC, 0, 0L, "k", "v1"));
+        SofaTracerKafkaConsumer<String, String> consumer = new SofaTracerKafkaConsumer<>(
+            mockConsumer);
+        consumer.poll(Duration.ofMillis(10));
+        consumer.poll(Duration.ofMillis(10));
+        SofaTracerSpan batch = findSpan(0);
+        SofaTracerSpan single = (SofaTracerSpan) new SofaTracer.Builder("kafka-test").build()
+            .buildSpan("single").withTag(CommonSpanTags.KAFKA_TOPIC, TOPIC)
+            .withTag(CommonSpanTags.KAFKA_PARTITION, 0).withTag(CommonSpanTags.KAFKA_OFFSET, 0L)
+            .start();
+
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT, "false");
+        try {
+            KafkaMQConsumeDigestEncoder encoder = new KafkaMQConsumeDigestEncoder();
+            int columns = encoder.encode(single).split(",", -1).length;
+            Assert.assertEquals(columns, encoder.encode(batch).split(",", -1).length);
+            // the default layout is kept out of batch mode
+            SofaTracerConfiguration.setProperty(KafkaMqProperties.KAFKA_BATCH_CONSUME_ENABLED_KEY,
+                "false");
+            Assert.assertEquals(columns - 4, encoder.encode(single).split(",", -1).length);
+        } finally {
+            SofaTracerConfiguration.removeProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT);
+        }
+    }
+
+    private SofaTracerSpan findSpan(int partition) {
+        for (SofaTracerSpan span : reportedSpans) {
+            if (span.getTagsWithNumber().get(CommonSpanTags.KAFKA_PARTITION).intValue() == partition) {
+                return span;
+            }
+        }
+        return null;
+    }
+}
@@ -20,6 +20,7 @@ import com.alipay.common.tracer.core.constants.SofaTracerConstant;
 import com.alipay.common.tracer.core.reporter.stat.AbstractSofaTracerStatisticReporter;
 import com.alipay.common.tracer.core.reporter.stat.model.StatMapKey;
 import com.alipay.common.tracer.core.span.CommonSpanTags;
+import com.alipay.common.tracer.core.span.HttpClientPhase;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import com.alipay.common.tracer.core.utils.TracerUtils;
 
@@ -31,6 +32,8 @@ import java.util.Map;
  */
 public class OkHttpStatJsonReporter extends AbstractSofaTracerStatisticReporter {
 
+    private static final String PHASE = "phase";
+
     public OkHttpStatJsonReporter(String statTracerName, String rollingPolicy,
                                   String logReserveConfig) {
         super(statTracerName, rollingPolicy, logReserveConfig);
@@ -53,9 +56,27 @@ public class OkHttpStatJsonReporter extends AbstractSofaTracerStatisticReporter
         //end
         statKey.setEnd(TracerUtils.getLoadTestMark(sofaTracerSpan));
         //value the count and duration
-        long duration = sofaTracerSpan.getEndTime() - sofaTracerSpan.getStartTime();
+        long duration = this.statCost(sofaTracerSpan);
         long[] values = new long[] { 1, duration };
         //reserve
         this.addStat(statKey, values);
+        //connection phases, see SofaTracerOkHttpEventListener
+        Map<String, Number> tagsWithNumber = sofaTracerSpan.getTagsWithNumber();
+        for (HttpClientPhase phase : HttpClientPhase.values()) {
+            Number phaseCost = tagsWithNumber.get(phase.getTagKey());
+            if (phaseCost == null) {
+                continue;
+            }
+            StatMapKey phaseKey = new StatMapKey();
+            phaseKey.addKey(CommonSpanTags.LOCAL_APP, tagsWithStr.get(CommonSpanTags.LOCAL_APP));
+            phaseKey
+                .addKey(CommonSpanTags.REQUEST_URL, tagsWithStr.get(CommonSpanTags.REQUEST_URL));
+            phaseKey.addKey(CommonSpanTags.METHOD, tagsWithStr.get(CommonSpanTags.METHOD));
+            phaseKey.addKey(PHASE, phase.getPhaseName());
+            phaseKey.setLoadTest(statKey.isLoadTest());
+            phaseKey.setResult(statKey.getResult());
+            phaseKey.setEnd(statKey.getEnd());
+            this.addStat(phaseKey, new long[] { 1, statCost(phaseCost) });
+        }
     }
 }
\ No newline at end of file
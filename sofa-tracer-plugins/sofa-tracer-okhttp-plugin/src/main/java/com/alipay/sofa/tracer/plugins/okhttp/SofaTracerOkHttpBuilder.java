@@ -16,7 +16,9 @@
  */
 package com.alipay.sofa.tracer.plugins.okhttp;
 
+import com.alipay.common.tracer.core.span.HttpClientPhase;
 import com.alipay.common.tracer.core.tracer.AbstractTracer;
+import com.alipay.sofa.tracer.plugins.okhttp.interceptor.SofaTracerOkHttpEventListener;
 import com.alipay.sofa.tracer.plugins.okhttp.interceptor.SofaTracerOkHttpInterceptor;
 import okhttp3.OkHttpClient;
 
@@ -35,6 +37,11 @@ public class SofaTracerOkHttpBuilder {
                                                      String currentApp, String targetApp) {
         SofaTracerOkHttpInterceptor interceptor = new SofaTracerOkHttpInterceptor(
             getOkHttpTracer(), currentApp, targetApp);
+        if (HttpClientPhase.isEnabled()) {
+            // replaces any event listener factory already set on the builder
+            clientBuilder.eventListenerFactory(new SofaTracerOkHttpEventListener.Factory(
+                getOkHttpTracer()));
+        }
         return clientBuilder.addInterceptor(interceptor);
     }
 
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.okhttp.interceptor;
+
+import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
+import com.alipay.common.tracer.core.span.HttpClientPhase;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.common.tracer.core.tracer.AbstractTracer;
+import com.alipay.common.tracer.core.utils.SpanTiming;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * Records the connection phases of a call on the span created by
+ * {@link SofaTracerOkHttpInterceptor}, see {@link HttpClientPhase}.
+ * <p>
+ * The events are fired on the thread executing the call, where the client span is the current
+ * span, so each phase is set as a tag as soon as it ends. When a redirect or a retry connects
+ * again, the last connection wins.
+ *
+ * @since 3.1.10
+ */
+public class SofaTracerOkHttpEventListener extends EventListener {
+
+    private final AbstractTracer okHttpTracer;
+
+    private long                 callStartNanos;
+
+    private long                 dnsStartNanos;
+
+    private long                 connectStartNanos;
+
+    private long                 secureConnectStartNanos;
+
+    private long                 requestHeadersStartNanos;
+
+    public SofaTracerOkHttpEventListener(AbstractTracer okHttpTracer) {
+        this.okHttpTracer = okHttpTracer;
+    }
+
+    @Override
+    public void callStart(Call call) {
+        callStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(Call call, String domainName) {
+        dnsStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+        record(HttpClientPhase.DNS, dnsStartNanos);
+    }
+
+    @Override
+    public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+        connectStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(Call call) {
+        secureConnectStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(Call call, Handshake handshake) {
+        record(HttpClientPhase.TLS, secureConnectStartNanos);
+    }
+
+    @Override
+    public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                           Protocol protocol) {
+        record(HttpClientPhase.CONNECT, connectStartNanos);
+    }
+
+    @Override
+    public void connectionAcquired(Call call, Connection connection) {
+        record(HttpClientPhase.CONNECTION_ACQUIRE, callStartNanos);
+    }
+
+    @Override
+    public void requestHeadersStart(Call call) {
+        requestHeadersStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersStart(Call call) {
+        record(HttpClientPhase.TTFB, requestHeadersStartNanos);
+    }
+
+    private void record(HttpClientPhase phase, long startNanos) {
+        if (startNanos == 0) {
+            return;
+        }
+        SofaTracerSpan span = SofaTraceContextHolder.getSofaTraceContext().getCurrentSpan();
+        // the interceptor may not be installed, do not tag a span of another tracer
+        if (HttpClientPhase.isRecorded(span)
+            && span.getSofaTracer() == okHttpTracer.getSofaTracer()) {
+            span.setTag(phase.getTagKey(), SpanTiming.millisCost(System.nanoTime() - startNanos));
+        }
+    }
+
+    /**
+     * Creates a listener per call, or {@link EventListener#NONE} when the call is made in an
+     * unsampled trace
+     */
+    public static class Factory implements EventListener.Factory {
+
+        private final AbstractTracer okHttpTracer;
+
+        public Factory(AbstractTracer okHttpTracer) {
+            this.okHttpTracer = okHttpTracer;
+        }
+
+        @Override
+        public EventListener create(Call call) {
+            SofaTracerSpan parentSpan = SofaTraceContextHolder.getSofaTraceContext()
+                .getCurrentSpan();
+            if (parentSpan != null && !parentSpan.getSofaTracerSpanContext().isSampled()) {
+                return EventListener.NONE;
+            }
+            return new SofaTracerOkHttpEventListener(okHttpTracer);
+        }
+    }
+}
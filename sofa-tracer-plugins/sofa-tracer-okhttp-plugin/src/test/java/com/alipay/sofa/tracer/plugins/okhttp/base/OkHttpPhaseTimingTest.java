@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.okhttp.base;
+
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
+import com.alipay.common.tracer.core.listener.SpanReportListener;
+import com.alipay.common.tracer.core.listener.SpanReportListenerHolder;
+import com.alipay.common.tracer.core.span.CommonSpanTags;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.sofa.tracer.plugins.okhttp.OkHttpTracer;
+import com.alipay.sofa.tracer.plugins.okhttp.SofaTracerOkHttpBuilder;
+import com.alipay.sofa.tracer.plugins.okhttp.interceptor.SofaTracerOkHttpEventListener;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * OkHttpPhaseTimingTest
+ *
+ * @since 3.1.10
+ */
+public class OkHttpPhaseTimingTest {
+
+    private final List<SofaTracerSpan> reportedSpans = new CopyOnWriteArrayList<>();
+
+    private HttpServer                 httpServer;
+
+    @Before
+    public void setUp() throws Exception {
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_HTTP_CLIENT_PHASE_TIMING_ENABLED, "true");
+        SpanReportListenerHolder.addSpanReportListener(new SpanReportListener() {
+            @Override
+            public void onSpanReport(SofaTracerSpan sofaTracerSpan) {
+                reportedSpans.add(sofaTracerSpan);
+            }
+        });
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpServer.createContext("/phase", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                byte[] body = "ok".getBytes("UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream outputStream = exchange.getResponseBody();
+                outputStream.write(body);
+                outputStream.close();
+            }
+        });
+        httpServer.start();
+    }
+
+    @After
+    public void tearDown() {
+        httpServer.stop(0);
+        SofaTracerConfiguration
+            .removeProperty(SofaTracerConfiguration.TRACER_HTTP_CLIENT_PHASE_TIMING_ENABLED);
+        SpanReportListenerHolder.clear();
+    }
+
+    @Test
+    public void testPhasesRecorded() throws Exception {
+        OkHttpClient client = SofaTracerOkHttpBuilder.clientBuilder(new OkHttpClient.Builder())
+            .build();
+        Request request = new Request.Builder().url(
+            "http://localhost:" + httpServer.getAddress().getPort() + "/phase").build();
+        Response response = client.newCall(request).execute();
+        Assert.assertEquals("ok", response.body().string());
+
+        Assert.assertEquals(1, reportedSpans.size());
+        Map<String, Number> tags = reportedSpans.get(0).getTagsWithNumber();
+        Assert.assertNotNull(tags.get(CommonSpanTags.HTTP_DNS_COST));
+        Assert.assertNotNull(tags.get(CommonSpanTags.HTTP_CONNECT_COST));
+        Assert.assertNotNull(tags.get(CommonSpanTags.HTTP_CONNECTION_ACQUIRE_COST));
+        Assert.assertNotNull(tags.get(CommonSpanTags.HTTP_TTFB_COST));
+        // plain http
+        Assert.assertNull(tags.get(CommonSpanTags.HTTP_TLS_COST));
+        Assert.assertTrue(tags.get(CommonSpanTags.HTTP_TTFB_COST).doubleValue() >= 0);
+    }
+
+    @Test
+    public void testNoListenerInUnsampledTrace() {
+        SofaTracerSpan parentSpan = (SofaTracerSpan) OkHttpTracer.getOkHttpTracerSingleton()
+            .getSofaTracer().buildSpan("unsampled").start();
+        parentSpan.getSofaTracerSpanContext().setSampled(false);
+        SofaTraceContextHolder.getSofaTraceContext().push(parentSpan);
+        try {
+            EventListener eventListener = new SofaTracerOkHttpEventListener.Factory(
+                OkHttpTracer.getOkHttpTracerSingleton()).create(null);
+            Assert.assertSame(EventListener.NONE, eventListener);
+        } finally {
+            SofaTraceContextHolder.getSofaTraceContext().pop();
+        }
+    }
+}
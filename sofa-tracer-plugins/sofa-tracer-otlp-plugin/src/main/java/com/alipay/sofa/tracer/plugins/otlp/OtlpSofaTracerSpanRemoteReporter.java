@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.otlp;
+
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.listener.SpanReportListener;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.sofa.tracer.plugins.otlp.encoder.OtlpSpanEncoder;
+import com.alipay.sofa.tracer.plugins.otlp.properties.OtlpExportOptions;
+import com.alipay.sofa.tracer.plugins.otlp.sender.OtlpHttpSender;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Export finished spans to an OTLP/HTTP collector as protobuf.
+ * <p>
+ * The reporting thread only offers the span to a bounded queue, spans are dropped when it is
+ * full. A single daemon thread batches them up to {@link OtlpExportOptions#getBatchSize()}
+ * spans or {@link OtlpExportOptions#getFlushIntervalMillis()}, encodes them with
+ * {@link OtlpSpanEncoder} and posts them with {@link OtlpHttpSender}.
+ *
+ * @since 3.1.10
+ */
+public class OtlpSofaTracerSpanRemoteReporter implements SpanReportListener, Flushable, Closeable {
+
+    private final OtlpExportOptions             options;
+
+    private final BlockingQueue<SofaTracerSpan> queue;
+
+    private final OtlpSpanEncoder               encoder;
+
+    private final OtlpHttpSender                sender;
+
+    private final Thread                        worker;
+
+    /**
+     * Export of the worker and of {@link #flush()} are serialized, the encoder and the sender
+     * are not thread safe
+     */
+    private final Object                        exportLock     = new Object();
+
+    private final LongAdder                     spansExported  = new LongAdder();
+
+    private final LongAdder                     spansDropped   = new LongAdder();
+
+    private final LongAdder                     requestsFailed = new LongAdder();
+
+    private volatile boolean                    closed;
+
+    public OtlpSofaTracerSpanRemoteReporter(OtlpExportOptions options) throws IOException {
+        this.options = options;
+        this.queue = new ArrayBlockingQueue<SofaTracerSpan>(options.getQueueSize());
+        this.encoder = new OtlpSpanEncoder();
+        this.sender = new OtlpHttpSender(options);
+        this.worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                exportLoop();
+            }
+        }, "Tracer-Otlp-Exporter");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public void onSpanReport(SofaTracerSpan span) {
+        if (span == null || !span.getSofaTracerSpanContext().isSampled()) {
+            return;
+        }
+        // a recycled span is kept until encoded
+        span.retain();
+        if (closed || !queue.offer(span)) {
+            span.release();
+            spansDropped.increment();
+        }
+    }
+
+    /**
+     * Export the queued spans on the calling thread
+     */
+    @Override
+    public void flush() {
+        List<SofaTracerSpan> batch = new ArrayList<SofaTracerSpan>(options.getBatchSize());
+        while (queue.drainTo(batch, options.getBatchSize()) > 0) {
+            export(batch);
+            batch.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+        try {
+            worker.join(options.getTimeoutMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    public long getSpansExported() {
+        return spansExported.sum();
+    }
+
+    public long getSpansDropped() {
+        return spansDropped.sum();
+    }
+
+    public long getRequestsFailed() {
+        return requestsFailed.sum();
+    }
+
+    public int getQueuedSpans() {
+        return queue.size();
+    }
+
+    private void exportLoop() {
+        int batchSize = options.getBatchSize();
+        List<SofaTracerSpan> batch = new ArrayList<SofaTracerSpan>(batchSize);
+        while (!closed) {
+            try {
+                SofaTracerSpan first = queue.take();
+                batch.add(first);
+                long deadline = System.nanoTime()
+                                + TimeUnit.MILLISECONDS.toNanos(options.getFlushIntervalMillis());
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    SofaTracerSpan next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // closing, the batch is exported below and the rest by close()
+            }
+            if (!batch.isEmpty()) {
+                export(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void export(List<SofaTracerSpan> batch) {
+        synchronized (exportLock) {
+            try {
+                byte[] body;
+                try {
+                    body = encoder.encode(batch);
+                } finally {
+                    for (SofaTracerSpan span : batch) {
+                        span.release();
+                    }
+                }
+                if (sender.send(body)) {
+                    spansExported.add(batch.size());
+                    return;
+                }
+            } catch (Throwable e) {
+                SelfLog.error("Fail to export spans to OTLP collector", e);
+            }
+            requestsFailed.increment();
+            spansDropped.add(batch.size());
+        }
+    }
+}
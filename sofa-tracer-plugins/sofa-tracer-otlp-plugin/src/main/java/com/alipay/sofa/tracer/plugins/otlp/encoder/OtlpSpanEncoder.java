@@ -0,0 +1,499 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.otlp.encoder;
+
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.span.CommonSpanTags;
+import com.alipay.common.tracer.core.span.LogData;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.common.tracer.core.utils.StringUtils;
+import com.alipay.common.tracer.core.utils.TracerUtils;
+import io.opentracing.tag.AbstractTag;
+import io.opentracing.tag.Tags;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encode {@link SofaTracerSpan}s straight into an OTLP {@code ExportTraceServiceRequest}
+ * protobuf message, without an intermediate span model.
+ * <p>
+ * Spans of a batch are grouped by {@code local.app} into resources and by tracer type into
+ * instrumentation scopes. Encoded resources and scopes are cached across batches, so are the
+ * encoded attribute keys, pre-filled with the {@link CommonSpanTags} and opentracing tag keys.
+ * Not thread safe, meant to be used by a single export thread.
+ *
+ * @since 3.1.10
+ */
+public class OtlpSpanEncoder {
+
+    static final String               SERVICE_NAME               = "service.name";
+    static final String               UNKNOWN_SERVICE            = "unknown_service:java";
+
+    /**
+     * Bound of every cache, a cache is simply cleared once full
+     */
+    static final int                  MAX_CACHED                 = 1024;
+
+    // ExportTraceServiceRequest
+    private static final int          REQUEST_RESOURCE_SPANS     = 1;
+    // ResourceSpans
+    private static final int          RESOURCE_SPANS_RESOURCE    = 1;
+    private static final int          RESOURCE_SPANS_SCOPE_SPANS = 2;
+    // Resource
+    private static final int          RESOURCE_ATTRIBUTES        = 1;
+    // ScopeSpans
+    private static final int          SCOPE_SPANS_SCOPE          = 1;
+    private static final int          SCOPE_SPANS_SPANS          = 2;
+    // InstrumentationScope
+    private static final int          SCOPE_NAME                 = 1;
+    // Span
+    private static final int          SPAN_TRACE_ID              = 1;
+    private static final int          SPAN_SPAN_ID               = 2;
+    private static final int          SPAN_PARENT_SPAN_ID        = 4;
+    private static final int          SPAN_NAME                  = 5;
+    private static final int          SPAN_KIND                  = 6;
+    private static final int          SPAN_START_TIME            = 7;
+    private static final int          SPAN_END_TIME              = 8;
+    private static final int          SPAN_ATTRIBUTES            = 9;
+    private static final int          SPAN_EVENTS                = 11;
+    private static final int          SPAN_STATUS                = 15;
+    // Span.Event
+    private static final int          EVENT_TIME                 = 1;
+    private static final int          EVENT_NAME                 = 2;
+    private static final int          EVENT_ATTRIBUTES           = 3;
+    // Status
+    private static final int          STATUS_MESSAGE             = 2;
+    private static final int          STATUS_CODE                = 3;
+    // KeyValue
+    private static final int          KEY_VALUE_KEY              = 1;
+    private static final int          KEY_VALUE_VALUE            = 2;
+    // AnyValue
+    private static final int          ANY_STRING                 = 1;
+    private static final int          ANY_BOOL                   = 2;
+    private static final int          ANY_INT                    = 3;
+    private static final int          ANY_DOUBLE                 = 4;
+
+    static final int                  KIND_INTERNAL              = 1;
+    static final int                  KIND_SERVER                = 2;
+    static final int                  KIND_CLIENT                = 3;
+    static final int                  KIND_PRODUCER              = 4;
+    static final int                  KIND_CONSUMER              = 5;
+
+    static final int                  STATUS_ERROR               = 2;
+
+    private static final long         NANOS_PER_MILLI            = 1000000L;
+
+    private static final String       HOST_NAME                  = hostName();
+
+    /**
+     * Encoded key field of the KeyValue message, by key
+     */
+    private final Map<String, byte[]> keys                       = new HashMap<String, byte[]>();
+
+    /**
+     * Encoded Resource message, by app name
+     */
+    private final Map<String, byte[]> resources                  = new HashMap<String, byte[]>();
+
+    /**
+     * Encoded InstrumentationScope message, by tracer type
+     */
+    private final Map<String, byte[]> scopes                     = new HashMap<String, byte[]>();
+
+    private final Map<String, String> resourceAttributes;
+
+    private final ProtobufWriter      request                    = new ProtobufWriter(64 * 1024);
+    private final ProtobufWriter      resourceSpans              = new ProtobufWriter(64 * 1024);
+    private final ProtobufWriter      scopeSpans                 = new ProtobufWriter(64 * 1024);
+    private final ProtobufWriter      span                       = new ProtobufWriter(1024);
+    private final ProtobufWriter      nested                     = new ProtobufWriter(256);
+    private final byte[]              id                         = new byte[16];
+
+    public OtlpSpanEncoder() {
+        this(null);
+    }
+
+    /**
+     * @param resourceAttributes extra attributes of every resource, may be null
+     */
+    public OtlpSpanEncoder(Map<String, String> resourceAttributes) {
+        this.resourceAttributes = resourceAttributes;
+        internConstants(CommonSpanTags.class);
+        for (Field field : Tags.class.getFields()) {
+            try {
+                Object tag = field.get(null);
+                if (tag instanceof AbstractTag) {
+                    key(((AbstractTag<?>) tag).getKey());
+                }
+            } catch (IllegalAccessException e) {
+                // skip the tag
+            }
+        }
+    }
+
+    /**
+     * @param spans finished spans
+     * @return encoded ExportTraceServiceRequest
+     */
+    public byte[] encode(List<SofaTracerSpan> spans) {
+        Map<String, Map<String, List<SofaTracerSpan>>> groups = new LinkedHashMap<String, Map<String, List<SofaTracerSpan>>>();
+        for (SofaTracerSpan sofaTracerSpan : spans) {
+            String appName = sofaTracerSpan.getTagsWithStr().get(CommonSpanTags.LOCAL_APP);
+            if (StringUtils.isBlank(appName)) {
+                appName = UNKNOWN_SERVICE;
+            }
+            Map<String, List<SofaTracerSpan>> scopeGroups = groups.get(appName);
+            if (scopeGroups == null) {
+                scopeGroups = new LinkedHashMap<String, List<SofaTracerSpan>>();
+                groups.put(appName, scopeGroups);
+            }
+            String tracerType = sofaTracerSpan.getSofaTracer() == null ? StringUtils.EMPTY_STRING
+                : sofaTracerSpan.getSofaTracer().getTracerType();
+            List<SofaTracerSpan> scopeSpanList = scopeGroups.get(tracerType);
+            if (scopeSpanList == null) {
+                scopeSpanList = new ArrayList<SofaTracerSpan>();
+                scopeGroups.put(tracerType, scopeSpanList);
+            }
+            scopeSpanList.add(sofaTracerSpan);
+        }
+
+        request.reset();
+        for (Map.Entry<String, Map<String, List<SofaTracerSpan>>> resourceEntry : groups.entrySet()) {
+            resourceSpans.reset();
+            resourceSpans.writeTag(RESOURCE_SPANS_RESOURCE, ProtobufWriter.WIRE_LENGTH_DELIMITED);
+            byte[] resource = resource(resourceEntry.getKey());
+            resourceSpans.writeVarint(resource.length);
+            resourceSpans.writeRaw(resource);
+            for (Map.Entry<String, List<SofaTracerSpan>> scopeEntry : resourceEntry.getValue()
+                .entrySet()) {
+                scopeSpans.reset();
+                scopeSpans.writeTag(SCOPE_SPANS_SCOPE, ProtobufWriter.WIRE_LENGTH_DELIMITED);
+                byte[] scope = scope(scopeEntry.getKey());
+                scopeSpans.writeVarint(scope.length);
+                scopeSpans.writeRaw(scope);
+                for (SofaTracerSpan sofaTracerSpan : scopeEntry.getValue()) {
+                    encodeSpan(sofaTracerSpan);
+                    scopeSpans.writeMessage(SCOPE_SPANS_SPANS, span);
+                }
+                resourceSpans.writeMessage(RESOURCE_SPANS_SCOPE_SPANS, scopeSpans);
+            }
+            request.writeMessage(REQUEST_RESOURCE_SPANS, resourceSpans);
+        }
+        return request.toByteArray();
+    }
+
+    private void encodeSpan(SofaTracerSpan sofaTracerSpan) {
+        span.reset();
+        SofaTracerSpanContext context = sofaTracerSpan.getSofaTracerSpanContext();
+        traceId(context.getTraceId());
+        span.writeTag(SPAN_TRACE_ID, ProtobufWriter.WIRE_LENGTH_DELIMITED);
+        span.writeVarint(16);
+        span.writeRaw(id, 0, 16);
+        spanId(context.getSpanId());
+        span.writeTag(SPAN_SPAN_ID, ProtobufWriter.WIRE_LENGTH_DELIMITED);
+        span.writeVarint(8);
+        span.writeRaw(id, 0, 8);
+        if (StringUtils.isNotBlank(context.getParentId())) {
+            spanId(context.getParentId());
+            span.writeTag(SPAN_PARENT_SPAN_ID, ProtobufWriter.WIRE_LENGTH_DELIMITED);
+            span.writeVarint(8);
+            span.writeRaw(id, 0, 8);
+        }
+        String operationName = sofaTracerSpan.getOperationName();
+        if (operationName != null && !operationName.isEmpty()) {
+            span.writeString(SPAN_NAME, operationName);
+        }
+        span.writeTag(SPAN_KIND, ProtobufWriter.WIRE_VARINT);
+        span.writeVarint(kind(sofaTracerSpan.getTagsWithStr().get(Tags.SPAN_KIND.getKey())));
+        span.writeTag(SPAN_START_TIME, ProtobufWriter.WIRE_FIXED64);
+        long startNanos = sofaTracerSpan.getStartTime() * NANOS_PER_MILLI;
+        span.writeFixed64(startNanos);
+        span.writeTag(SPAN_END_TIME, ProtobufWriter.WIRE_FIXED64);
+        span.writeFixed64(startNanos + sofaTracerSpan.getDurationMicros() * 1000);
+
+        for (Map.Entry<String, String> entry : sofaTracerSpan.getTagsWithStr().entrySet()) {
+            writeStringAttribute(span, SPAN_ATTRIBUTES, entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, Number> entry : sofaTracerSpan.getTagsWithNumber().entrySet()) {
+            writeNumberAttribute(span, SPAN_ATTRIBUTES, entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, Boolean> entry : sofaTracerSpan.getTagsWithBool().entrySet()) {
+            if (entry.getValue() != null) {
+                writeBoolAttribute(span, SPAN_ATTRIBUTES, entry.getKey(), entry.getValue());
+            }
+        }
+        // span ids are hashed, keep the original ones
+        writeStringAttribute(span, SPAN_ATTRIBUTES, "origin.span.id", context.getSpanId());
+        writeStringAttribute(span, SPAN_ATTRIBUTES, "origin.parent.span.id", context.getParentId());
+        for (Map.Entry<String, String> entry : context.getSysBaggage().entrySet()) {
+            writeStringAttribute(span, SPAN_ATTRIBUTES, entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, String> entry : context.getBizBaggage().entrySet()) {
+            writeStringAttribute(span, SPAN_ATTRIBUTES, entry.getKey(), entry.getValue());
+        }
+
+        for (LogData logData : sofaTracerSpan.getLogs()) {
+            encodeEvent(logData);
+            span.writeMessage(SPAN_EVENTS, nested);
+        }
+
+        if (Boolean.TRUE.equals(sofaTracerSpan.getTagsWithBool().get(Tags.ERROR.getKey()))) {
+            nested.reset();
+            String message = sofaTracerSpan.getTagsWithStr().get(CommonSpanTags.RESULT_CODE);
+            if (StringUtils.isNotBlank(message)) {
+                nested.writeString(STATUS_MESSAGE, message);
+            }
+            nested.writeTag(STATUS_CODE, ProtobufWriter.WIRE_VARINT);
+            nested.writeVarint(STATUS_ERROR);
+            span.writeMessage(SPAN_STATUS, nested);
+        }
+    }
+
+    private void encodeEvent(LogData logData) {
+        nested.reset();
+        nested.writeTag(EVENT_TIME, ProtobufWriter.WIRE_FIXED64);
+        nested.writeFixed64(logData.getTime() * NANOS_PER_MILLI);
+        Map<String, ?> fields = logData.getFields();
+        Object event = fields == null ? null : fields.get(LogData.EVENT_TYPE_KEY);
+        nested.writeString(EVENT_NAME, event == null ? "log" : event.toString());
+        if (fields == null) {
+            return;
+        }
+        for (Map.Entry<String, ?> entry : fields.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null || LogData.EVENT_TYPE_KEY.equals(entry.getKey())) {
+                continue;
+            }
+            if (value instanceof Number) {
+                writeNumberAttribute(nested, EVENT_ATTRIBUTES, entry.getKey(), (Number) value);
+            } else if (value instanceof Boolean) {
+                writeBoolAttribute(nested, EVENT_ATTRIBUTES, entry.getKey(), (Boolean) value);
+            } else {
+                writeStringAttribute(nested, EVENT_ATTRIBUTES, entry.getKey(), value.toString());
+            }
+        }
+    }
+
+    private void writeStringAttribute(ProtobufWriter writer, int field, String key, String value) {
+        if (key == null || value == null) {
+            return;
+        }
+        byte[] encodedKey = key(key);
+        int valueLength = ProtobufWriter.utf8Length(value);
+        int anyValueSize = 1 + ProtobufWriter.varintSize(valueLength) + valueLength;
+        writeKeyValueHeader(writer, field, encodedKey, anyValueSize);
+        writer.writeString(ANY_STRING, value);
+    }
+
+    private void writeBoolAttribute(ProtobufWriter writer, int field, String key, boolean value) {
+        if (key == null) {
+            return;
+        }
+        writeKeyValueHeader(writer, field, key(key), 2);
+        writer.writeTag(ANY_BOOL, ProtobufWriter.WIRE_VARINT);
+        writer.writeVarint(value ? 1 : 0);
+    }
+
+    private void writeNumberAttribute(ProtobufWriter writer, int field, String key, Number value) {
+        if (key == null || value == null) {
+            return;
+        }
+        byte[] encodedKey = key(key);
+        if (value instanceof Double || value instanceof Float || value instanceof BigDecimal) {
+            writeKeyValueHeader(writer, field, encodedKey, 9);
+            writer.writeTag(ANY_DOUBLE, ProtobufWriter.WIRE_FIXED64);
+            writer.writeFixed64(Double.doubleToRawLongBits(value.doubleValue()));
+        } else {
+            long longValue = value.longValue();
+            writeKeyValueHeader(writer, field, encodedKey, 1 + ProtobufWriter.varintSize(longValue));
+            writer.writeTag(ANY_INT, ProtobufWriter.WIRE_VARINT);
+            writer.writeVarint(longValue);
+        }
+    }
+
+    private static void writeKeyValueHeader(ProtobufWriter writer, int field, byte[] encodedKey,
+                                            int anyValueSize) {
+        writer.writeTag(field, ProtobufWriter.WIRE_LENGTH_DELIMITED);
+        writer.writeVarint(encodedKey.length + 1 + ProtobufWriter.varintSize(anyValueSize)
+                           + anyValueSize);
+        writer.writeRaw(encodedKey);
+        writer.writeTag(KEY_VALUE_VALUE, ProtobufWriter.WIRE_LENGTH_DELIMITED);
+        writer.writeVarint(anyValueSize);
+    }
+
+    private byte[] key(String key) {
+        byte[] encoded = keys.get(key);
+        if (encoded == null) {
+            ProtobufWriter writer = new ProtobufWriter(key.length() + 4);
+            writer.writeString(KEY_VALUE_KEY, key);
+            encoded = writer.toByteArray();
+            if (keys.size() >= MAX_CACHED) {
+                keys.clear();
+            }
+            keys.put(key, encoded);
+        }
+        return encoded;
+    }
+
+    private byte[] resource(String appName) {
+        byte[] encoded = resources.get(appName);
+        if (encoded == null) {
+            ProtobufWriter writer = new ProtobufWriter();
+            writeStringAttribute(writer, RESOURCE_ATTRIBUTES, SERVICE_NAME, appName);
+            writeStringAttribute(writer, RESOURCE_ATTRIBUTES, "host.name", HOST_NAME);
+            writeStringAttribute(writer, RESOURCE_ATTRIBUTES, "host.ip",
+                TracerUtils.getInetAddress());
+            String pid = TracerUtils.getPID();
+            if (StringUtils.isNotBlank(pid)) {
+                try {
+                    writeNumberAttribute(writer, RESOURCE_ATTRIBUTES, "process.pid",
+                        Long.parseLong(pid));
+                } catch (NumberFormatException e) {
+                    writeStringAttribute(writer, RESOURCE_ATTRIBUTES, "process.pid", pid);
+                }
+            }
+            writeStringAttribute(writer, RESOURCE_ATTRIBUTES, "telemetry.sdk.name", "sofa-tracer");
+            writeStringAttribute(writer, RESOURCE_ATTRIBUTES, "telemetry.sdk.language", "java");
+            if (resourceAttributes != null) {
+                for (Map.Entry<String, String> entry : resourceAttributes.entrySet()) {
+                    writeStringAttribute(writer, RESOURCE_ATTRIBUTES, entry.getKey(),
+                        entry.getValue());
+                }
+            }
+            encoded = writer.toByteArray();
+            if (resources.size() >= MAX_CACHED) {
+                resources.clear();
+            }
+            resources.put(appName, encoded);
+        }
+        return encoded;
+    }
+
+    private byte[] scope(String tracerType) {
+        byte[] encoded = scopes.get(tracerType);
+        if (encoded == null) {
+            ProtobufWriter writer = new ProtobufWriter();
+            if (!tracerType.isEmpty()) {
+                writer.writeString(SCOPE_NAME, tracerType);
+            }
+            encoded = writer.toByteArray();
+            if (scopes.size() >= MAX_CACHED) {
+                scopes.clear();
+            }
+            scopes.put(tracerType, encoded);
+        }
+        return encoded;
+    }
+
+    /**
+     * SOFA trace ids are hex strings of up to 32 chars (ip, timestamp, sequence and pid), they
+     * are left padded into the 16 bytes OTLP id; any other id is hashed
+     */
+    private void traceId(String traceId) {
+        int length = traceId.length();
+        if (length > 0 && traceId.charAt(length - 1) == 'T') {
+            length--;
+        }
+        if (length > 0 && length <= 32 && isHex(traceId, length)) {
+            for (int i = 0; i < 16; i++) {
+                // index of the low nibble of byte i in the 32 chars padded id
+                int low = length - 32 + i * 2 + 1;
+                id[i] = (byte) ((hexValue(traceId, low - 1) << 4) | hexValue(traceId, low));
+            }
+        } else {
+            putLong(0, fnv64(traceId, 0xcbf29ce484222325L));
+            putLong(8, fnv64(traceId, 0x84222325cbf29ce4L));
+        }
+    }
+
+    private void spanId(String spanId) {
+        putLong(0, fnv64(spanId, 0xcbf29ce484222325L));
+    }
+
+    private void putLong(int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            id[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    static int kind(String spanKind) {
+        if (Tags.SPAN_KIND_SERVER.equals(spanKind)) {
+            return KIND_SERVER;
+        } else if (Tags.SPAN_KIND_CLIENT.equals(spanKind)) {
+            return KIND_CLIENT;
+        } else if (Tags.SPAN_KIND_PRODUCER.equals(spanKind)) {
+            return KIND_PRODUCER;
+        } else if (Tags.SPAN_KIND_CONSUMER.equals(spanKind)) {
+            return KIND_CONSUMER;
+        }
+        return KIND_INTERNAL;
+    }
+
+    /**
+     * Same FNV-1a hash as the zipkin plugin uses for span ids
+     */
+    static long fnv64(String data, long offsetBasis) {
+        long hash = offsetBasis;
+        for (int i = 0; i < data.length(); ++i) {
+            hash ^= data.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static boolean isHex(String value, int length) {
+        for (int i = 0; i < length; i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hexValue(String value, int index) {
+        return index < 0 ? 0 : Character.digit(value.charAt(index), 16);
+    }
+
+    private void internConstants(Class<?> holder) {
+        for (Field field : holder.getFields()) {
+            if (field.getType() == String.class && Modifier.isStatic(field.getModifiers())) {
+                try {
+                    key((String) field.get(null));
+                } catch (IllegalAccessException e) {
+                    // skip the key
+                }
+            }
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.otlp.initialize;
+
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.listener.SpanReportListener;
+import com.alipay.common.tracer.core.listener.SpanReportListenerHolder;
+import com.alipay.sofa.tracer.plugins.otlp.OtlpSofaTracerSpanRemoteReporter;
+import com.alipay.sofa.tracer.plugins.otlp.properties.OtlpExportOptions;
+import com.alipay.sofa.tracer.plugins.otlp.properties.OtlpProperties;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OtlpReportRegisterBean to parse properties and register the OTLP report listener
+ *
+ * @since 3.1.10
+ */
+public class OtlpReportRegisterBean implements InitializingBean {
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!"true".equalsIgnoreCase(SofaTracerConfiguration
+            .getProperty(OtlpProperties.OTLP_IS_ENABLED_KEY))) {
+            return;
+        }
+        SpanReportListener spanReportListener;
+        try {
+            spanReportListener = new OtlpSofaTracerSpanRemoteReporter(
+                OtlpExportOptions.fromConfiguration());
+        } catch (IOException e) {
+            SelfLog.error("Fail to create OTLP span reporter", e);
+            return;
+        }
+        List<SpanReportListener> spanReportListenerList = new ArrayList<SpanReportListener>();
+        spanReportListenerList.add(spanReportListener);
+        SpanReportListenerHolder.addSpanReportListeners(spanReportListenerList);
+    }
+}
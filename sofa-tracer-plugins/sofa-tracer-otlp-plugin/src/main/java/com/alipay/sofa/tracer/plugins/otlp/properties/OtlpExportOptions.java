@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.otlp.properties;
+
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.utils.StringUtils;
+
+/**
+ * Options of the OTLP/HTTP export
+ *
+ * @since 3.1.10
+ */
+public class OtlpExportOptions {
+
+    public static final String DEFAULT_ENDPOINT    = "http://localhost:4318/v1/traces";
+
+    private String             endpoint            = DEFAULT_ENDPOINT;
+    /**
+     * Whether request bodies are gzipped
+     */
+    private boolean            gzipped             = true;
+    /**
+     * Max spans in one request
+     */
+    private int                batchSize           = 512;
+    /**
+     * Max spans waiting to be exported, more are dropped
+     */
+    private int                queueSize           = 8192;
+    /**
+     * Max millis a span waits in a batch before it is sent
+     */
+    private long               flushIntervalMillis = 1000;
+    /**
+     * Connect and read timeout of a request
+     */
+    private int                timeoutMillis       = 10000;
+    /**
+     * Retries of a failed request before its batch is dropped
+     */
+    private int                maxRetries          = 3;
+    /**
+     * Millis before the first retry, doubled at each retry
+     */
+    private long               retryBackoffMillis  = 100;
+
+    /**
+     * Read the options from {@link SofaTracerConfiguration}
+     * @return options
+     */
+    public static OtlpExportOptions fromConfiguration() {
+        OtlpExportOptions options = new OtlpExportOptions();
+        String endpoint = SofaTracerConfiguration.getProperty(OtlpProperties.OTLP_ENDPOINT_KEY);
+        if (StringUtils.isNotBlank(endpoint)) {
+            options.setEndpoint(endpoint.trim());
+        }
+        String gzipped = SofaTracerConfiguration.getProperty(OtlpProperties.OTLP_IS_GZIPPED_KEY);
+        if (StringUtils.isNotBlank(gzipped)) {
+            options.setGzipped(Boolean.parseBoolean(gzipped.trim()));
+        }
+        options.setBatchSize((int) getLong(OtlpProperties.OTLP_BATCH_SIZE_KEY,
+            options.getBatchSize()));
+        options.setQueueSize((int) getLong(OtlpProperties.OTLP_QUEUE_SIZE_KEY,
+            options.getQueueSize()));
+        options.setFlushIntervalMillis(getLong(OtlpProperties.OTLP_FLUSH_INTERVAL_KEY,
+            options.getFlushIntervalMillis()));
+        options.setTimeoutMillis((int) getLong(OtlpProperties.OTLP_TIMEOUT_KEY,
+            options.getTimeoutMillis()));
+        options.setMaxRetries((int) getLong(OtlpProperties.OTLP_MAX_RETRIES_KEY,
+            options.getMaxRetries()));
+        options.setRetryBackoffMillis(getLong(OtlpProperties.OTLP_RETRY_BACKOFF_KEY,
+            options.getRetryBackoffMillis()));
+        return options;
+    }
+
+    private static long getLong(String key, long defaultValue) {
+        String value = SofaTracerConfiguration.getProperty(key);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            SelfLog.warn("Invalid value " + value + " of " + key + ", use " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public boolean isGzipped() {
+        return gzipped;
+    }
+
+    public void setGzipped(boolean gzipped) {
+        this.gzipped = gzipped;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public void setFlushIntervalMillis(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public int getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(int timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public long getRetryBackoffMillis() {
+        return retryBackoffMillis;
+    }
+
+    public void setRetryBackoffMillis(long retryBackoffMillis) {
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.otlp.properties;
+
+/**
+ * OtlpProperties
+ *
+ * @since 3.1.10
+ */
+public class OtlpProperties {
+
+    public static final String OTLP_IS_ENABLED_KEY     = "com.alipay.sofa.tracer.otlp.enabled";
+    /**
+     * Full url of the OTLP/HTTP traces endpoint of the collector
+     */
+    public static final String OTLP_ENDPOINT_KEY       = "com.alipay.sofa.tracer.otlp.endpoint";
+    public static final String OTLP_IS_GZIPPED_KEY     = "com.alipay.sofa.tracer.otlp.gzipped";
+    public static final String OTLP_BATCH_SIZE_KEY     = "com.alipay.sofa.tracer.otlp.batchSize";
+    public static final String OTLP_QUEUE_SIZE_KEY     = "com.alipay.sofa.tracer.otlp.queueSize";
+    public static final String OTLP_FLUSH_INTERVAL_KEY = "com.alipay.sofa.tracer.otlp.flushInterval";
+    public static final String OTLP_TIMEOUT_KEY        = "com.alipay.sofa.tracer.otlp.timeout";
+    public static final String OTLP_MAX_RETRIES_KEY    = "com.alipay.sofa.tracer.otlp.maxRetries";
+    public static final String OTLP_RETRY_BACKOFF_KEY  = "com.alipay.sofa.tracer.otlp.retryBackoff";
+
+}
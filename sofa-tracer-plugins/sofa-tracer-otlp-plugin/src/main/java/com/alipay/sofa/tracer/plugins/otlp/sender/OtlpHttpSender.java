@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.otlp.sender;
+
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.sofa.tracer.plugins.otlp.properties.OtlpExportOptions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Post encoded {@code ExportTraceServiceRequest}s to an OTLP/HTTP endpoint. Throttled (429)
+ * and unavailable (502, 503, 504) responses and I/O errors are retried with exponential
+ * backoff, as the OTLP specification requires; any other failure drops the batch at once.
+ * <p>
+ * Calls are expected from a single export thread, the gzip buffer is reused between them.
+ *
+ * @since 3.1.10
+ */
+public class OtlpHttpSender {
+
+    public static final String          CONTENT_TYPE = "application/x-protobuf";
+
+    private final URL                   endpoint;
+
+    private final OtlpExportOptions     options;
+
+    private final ByteArrayOutputStream gzipBuffer   = new ByteArrayOutputStream(64 * 1024);
+
+    private final byte[]                drainBuffer  = new byte[1024];
+
+    public OtlpHttpSender(OtlpExportOptions options) throws IOException {
+        this.endpoint = new URL(options.getEndpoint());
+        this.options = options;
+    }
+
+    /**
+     * @param body encoded request
+     * @return whether the collector accepted the request, possibly after retries
+     */
+    public boolean send(byte[] body) {
+        byte[] payload = body;
+        if (options.isGzipped()) {
+            try {
+                payload = gzip(body);
+            } catch (IOException e) {
+                SelfLog.error("Fail to gzip OTLP request", e);
+                return false;
+            }
+        }
+        long backoff = options.getRetryBackoffMillis();
+        for (int attempt = 0;; attempt++) {
+            boolean retryable;
+            try {
+                int status = post(payload);
+                if (status >= 200 && status < 300) {
+                    return true;
+                }
+                retryable = status == 429 || status == 502 || status == 503 || status == 504;
+                if (!retryable || attempt >= options.getMaxRetries()) {
+                    SelfLog.warn("OTLP collector " + endpoint + " responded " + status);
+                }
+            } catch (IOException e) {
+                retryable = true;
+                if (attempt >= options.getMaxRetries()) {
+                    SelfLog.error("Fail to post OTLP request to " + endpoint, e);
+                }
+            }
+            if (!retryable || attempt >= options.getMaxRetries()) {
+                return false;
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            backoff <<= 1;
+        }
+    }
+
+    private int post(byte[] payload) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) endpoint.openConnection();
+        try {
+            connection.setConnectTimeout(options.getTimeoutMillis());
+            connection.setReadTimeout(options.getTimeoutMillis());
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(payload.length);
+            connection.setRequestProperty("Content-Type", CONTENT_TYPE);
+            if (options.isGzipped()) {
+                connection.setRequestProperty("Content-Encoding", "gzip");
+            }
+            OutputStream out = connection.getOutputStream();
+            try {
+                out.write(payload);
+            } finally {
+                out.close();
+            }
+            int status = connection.getResponseCode();
+            // read the response out so that the connection is kept alive
+            InputStream in = status < 400 ? connection.getInputStream() : connection
+                .getErrorStream();
+            if (in != null) {
+                try {
+                    while (in.read(drainBuffer) >= 0) {
+                        // discard
+                    }
+                } finally {
+                    in.close();
+                }
+            }
+            return status;
+        } catch (IOException e) {
+            connection.disconnect();
+            throw e;
+        }
+    }
+
+    private byte[] gzip(byte[] body) throws IOException {
+        gzipBuffer.reset();
+        GZIPOutputStream gzip = new GZIPOutputStream(gzipBuffer, 8192);
+        gzip.write(body);
+        gzip.close();
+        return gzipBuffer.toByteArray();
+    }
+}
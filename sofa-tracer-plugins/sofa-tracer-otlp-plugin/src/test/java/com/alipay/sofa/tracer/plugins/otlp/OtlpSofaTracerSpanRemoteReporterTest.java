@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.otlp;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.span.CommonSpanTags;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.sofa.tracer.plugins.otlp.properties.OtlpExportOptions;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Runs the reporter against an in-process OTLP/HTTP receiver
+ *
+ * @since 3.1.10
+ */
+public class OtlpSofaTracerSpanRemoteReporterTest {
+
+    private final SofaTracer                     sofaTracer   = new SofaTracer.Builder(
+                                                                  "otlpTracerType").build();
+    private final BlockingQueue<ProtobufMessage> received     = new LinkedBlockingQueue<ProtobufMessage>();
+    private final AtomicInteger                  failuresLeft = new AtomicInteger();
+    private final OtlpExportOptions              options      = new OtlpExportOptions();
+    private HttpServer                           server;
+    private OtlpSofaTracerSpanRemoteReporter     reporter;
+
+    @Before
+    public void before() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/traces", exchange -> {
+            if (failuresLeft.getAndDecrement() > 0) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            Assert.assertEquals("application/x-protobuf",
+                exchange.getRequestHeaders().getFirst("Content-Type"));
+            InputStream body = exchange.getRequestBody();
+            if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                body = new GZIPInputStream(body);
+            }
+            received.add(new ProtobufMessage(IOUtils.toByteArray(body)));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        options.setEndpoint("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/traces");
+        options.setFlushIntervalMillis(50);
+        options.setRetryBackoffMillis(10);
+    }
+
+    @After
+    public void after() {
+        if (reporter != null) {
+            reporter.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    public void testBatchedExport() throws Exception {
+        options.setBatchSize(10);
+        reporter = new OtlpSofaTracerSpanRemoteReporter(options);
+        for (int i = 0; i < 25; i++) {
+            reporter.onSpanReport(span("op" + i));
+        }
+        int spans = 0;
+        int requests = 0;
+        while (spans < 25) {
+            ProtobufMessage request = received.poll(5, TimeUnit.SECONDS);
+            Assert.assertNotNull(request);
+            int batch = request.messages(1).get(0).messages(2).get(0).messages(2).size();
+            Assert.assertTrue(batch <= 10);
+            spans += batch;
+            requests++;
+        }
+        Assert.assertTrue(requests >= 3);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (reporter.getSpansExported() < 25 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(25, reporter.getSpansExported());
+        Assert.assertEquals(0, reporter.getSpansDropped());
+    }
+
+    @Test
+    public void testUnsampledNotExported() throws Exception {
+        reporter = new OtlpSofaTracerSpanRemoteReporter(options);
+        SofaTracerSpan unsampled = span("unsampled");
+        unsampled.getSofaTracerSpanContext().setSampled(false);
+        reporter.onSpanReport(unsampled);
+        reporter.onSpanReport(span("sampled"));
+        ProtobufMessage request = received.poll(5, TimeUnit.SECONDS);
+        Assert.assertEquals("sampled", request.messages(1).get(0).messages(2).get(0).messages(2)
+            .get(0).string(5));
+        Assert.assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testRetryAndPlainBody() throws Exception {
+        failuresLeft.set(2);
+        options.setGzipped(false);
+        reporter = new OtlpSofaTracerSpanRemoteReporter(options);
+        reporter.onSpanReport(span("retried"));
+        Assert.assertNotNull(received.poll(5, TimeUnit.SECONDS));
+        Assert.assertEquals(0, reporter.getRequestsFailed());
+    }
+
+    @Test
+    public void testDropWhenCollectorUnavailable() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+        options.setMaxRetries(1);
+        reporter = new OtlpSofaTracerSpanRemoteReporter(options);
+        reporter.onSpanReport(span("dropped"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (reporter.getSpansDropped() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, reporter.getSpansDropped());
+        Assert.assertEquals(1, reporter.getRequestsFailed());
+    }
+
+    private SofaTracerSpan span(String operationName) {
+        SofaTracerSpan span = (SofaTracerSpan) sofaTracer.buildSpan(operationName).start();
+        span.setTag(CommonSpanTags.LOCAL_APP, "otlpApp");
+        span.setEndTime(span.getStartTime() + 1);
+        return span;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.otlp;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.span.CommonSpanTags;
+import com.alipay.common.tracer.core.span.LogData;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.sofa.tracer.plugins.otlp.encoder.OtlpSpanEncoder;
+import com.alipay.sofa.tracer.plugins.otlp.encoder.ProtobufWriter;
+import io.opentracing.tag.Tags;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OtlpSpanEncoderTest
+ *
+ * @since 3.1.10
+ */
+public class OtlpSpanEncoderTest {
+
+    private final SofaTracer      sofaTracer = new SofaTracer.Builder("otlpTracerType").build();
+
+    private final OtlpSpanEncoder encoder    = new OtlpSpanEncoder();
+
+    @Test
+    public void testEncode() {
+        SofaTracerSpan server = span("appA", "GET /hello", Tags.SPAN_KIND_SERVER);
+        server.setTag("http.status_code", 200);
+        server.setTag("rt", 1.5d);
+        server.setTag(Tags.ERROR.getKey(), true);
+        server.setTag(CommonSpanTags.RESULT_CODE, "500");
+        server.setBaggageItem("bizKey", "bizValue");
+        Map<String, Object> fields = new HashMap<String, Object>();
+        fields.put(LogData.EVENT_TYPE_KEY, "retry");
+        fields.put("attempt", 2);
+        server.log(new LogData(server.getStartTime() + 1, fields));
+        SofaTracerSpan client = span("appA", "select", Tags.SPAN_KIND_CLIENT);
+        SofaTracerSpan other = span("appB", "consume", Tags.SPAN_KIND_CONSUMER);
+
+        ProtobufMessage request = new ProtobufMessage(encoder.encode(Arrays.asList(server, client,
+            other)));
+        List<ProtobufMessage> resourceSpans = request.messages(1);
+        Assert.assertEquals(2, resourceSpans.size());
+
+        ProtobufMessage appA = resourceSpans.get(0);
+        Map<String, ProtobufMessage> resource = appA.message(1).attributes(1);
+        Assert.assertEquals("appA", resource.get("service.name").string(1));
+        Assert.assertEquals("sofa-tracer", resource.get("telemetry.sdk.name").string(1));
+        Assert.assertTrue(resource.containsKey("process.pid"));
+        List<ProtobufMessage> scopeSpans = appA.messages(2);
+        Assert.assertEquals(1, scopeSpans.size());
+        Assert.assertEquals("otlpTracerType", scopeSpans.get(0).message(1).string(1));
+        List<ProtobufMessage> spans = scopeSpans.get(0).messages(2);
+        Assert.assertEquals(2, spans.size());
+
+        ProtobufMessage span = spans.get(0);
+        Assert.assertArrayEquals(expectedTraceId(server), span.bytes(1));
+        Assert.assertEquals(8, span.bytes(2).length);
+        Assert.assertEquals("GET /hello", span.string(5));
+        Assert.assertEquals(2, span.number(6));
+        Assert.assertEquals(server.getStartTime() * 1000000L, span.number(7));
+        Assert.assertEquals(server.getEndTime() * 1000000L, span.number(8));
+        Map<String, ProtobufMessage> attributes = span.attributes(9);
+        Assert.assertEquals("appA", attributes.get(CommonSpanTags.LOCAL_APP).string(1));
+        Assert.assertEquals(200, attributes.get("http.status_code").number(3));
+        Assert.assertEquals(1.5d, Double.longBitsToDouble(attributes.get("rt").number(4)), 0);
+        Assert.assertEquals(1, attributes.get(Tags.ERROR.getKey()).number(2));
+        Assert.assertEquals("bizValue", attributes.get("bizKey").string(1));
+        Assert.assertEquals(server.getSofaTracerSpanContext().getSpanId(),
+            attributes.get("origin.span.id").string(1));
+        ProtobufMessage event = span.messages(11).get(0);
+        Assert.assertEquals("retry", event.string(2));
+        Assert.assertEquals((server.getStartTime() + 1) * 1000000L, event.number(1));
+        Assert.assertEquals(2, event.attributes(3).get("attempt").number(3));
+        ProtobufMessage status = span.message(15);
+        Assert.assertEquals(2, status.number(3));
+        Assert.assertEquals("500", status.string(2));
+
+        Assert.assertEquals(3, spans.get(1).number(6));
+        Assert.assertFalse(spans.get(1).has(15));
+        ProtobufMessage appB = resourceSpans.get(1);
+        Assert.assertEquals("appB", appB.message(1).attributes(1).get("service.name").string(1));
+        Assert.assertEquals(5, appB.messages(2).get(0).messages(2).get(0).number(6));
+    }
+
+    @Test
+    public void testParentAndHashedIds() {
+        SofaTracerSpan parent = span("appA", "parent", Tags.SPAN_KIND_SERVER);
+        SofaTracerSpan child = (SofaTracerSpan) sofaTracer.buildSpan("child").asChildOf(parent)
+            .start();
+        child.setEndTime(child.getStartTime() + 1);
+        ProtobufMessage parentSpan = firstSpan(encoder.encode(Arrays.asList(parent)));
+        ProtobufMessage childSpan = firstSpan(encoder.encode(Arrays.asList(child)));
+        Assert.assertArrayEquals(parentSpan.bytes(1), childSpan.bytes(1));
+        Assert.assertArrayEquals(parentSpan.bytes(2), childSpan.bytes(4));
+        Assert.assertFalse(parentSpan.has(4));
+        Assert.assertEquals(1, childSpan.number(6));
+
+        // not a hex id, hashed into 16 bytes
+        SofaTracerSpan foreign = span("appA", "foreign", Tags.SPAN_KIND_SERVER);
+        foreign.getSofaTracerSpanContext().setTraceId("not-a-hex-trace-id");
+        Assert.assertEquals(16, firstSpan(encoder.encode(Arrays.asList(foreign))).bytes(1).length);
+    }
+
+    @Test
+    public void testResourceReusedAcrossBatches() {
+        List<SofaTracerSpan> batch = new ArrayList<SofaTracerSpan>();
+        batch.add(span("appA", "first", Tags.SPAN_KIND_SERVER));
+        byte[] first = new ProtobufMessage(encoder.encode(batch)).messages(1).get(0).bytes(1);
+        batch.set(0, span("appA", "second", Tags.SPAN_KIND_SERVER));
+        byte[] second = new ProtobufMessage(encoder.encode(batch)).messages(1).get(0).bytes(1);
+        Assert.assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void testUtf8() {
+        String value = "tracer é中😀";
+        ProtobufWriter writer = new ProtobufWriter(1);
+        writer.writeString(1, value);
+        Assert.assertEquals(value, new ProtobufMessage(writer.toByteArray()).string(1));
+        Assert.assertEquals(ProtobufWriter.utf8Length(value),
+            new ProtobufMessage(writer.toByteArray()).bytes(1).length);
+    }
+
+    private ProtobufMessage firstSpan(byte[] request) {
+        return new ProtobufMessage(request).messages(1).get(0).messages(2).get(0).messages(2)
+            .get(0);
+    }
+
+    private SofaTracerSpan span(String appName, String operationName, String kind) {
+        SofaTracerSpan span = (SofaTracerSpan) sofaTracer.buildSpan(operationName).start();
+        span.setTag(CommonSpanTags.LOCAL_APP, appName);
+        span.setTag(Tags.SPAN_KIND.getKey(), kind);
+        span.setEndTime(span.getStartTime() + 10);
+        return span;
+    }
+
+    private static byte[] expectedTraceId(SofaTracerSpan span) {
+        String traceId = span.getSofaTracerSpanContext().getTraceId();
+        StringBuilder padded = new StringBuilder();
+        for (int i = traceId.length(); i < 32; i++) {
+            padded.append('0');
+        }
+        padded.append(traceId);
+        byte[] expected = new byte[16];
+        for (int i = 0; i < 16; i++) {
+            expected[i] = (byte) Integer.parseInt(padded.substring(i * 2, i * 2 + 2), 16);
+        }
+        return expected;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.otlp;
+
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schemaless protobuf decoder to check encoded OTLP messages: varint and fixed values are
+ * decoded as longs, length delimited ones as byte arrays
+ *
+ * @since 3.1.10
+ */
+class ProtobufMessage {
+
+    private final Map<Integer, List<Object>> fields = new HashMap<Integer, List<Object>>();
+
+    ProtobufMessage(byte[] bytes) {
+        int[] position = new int[] { 0 };
+        while (position[0] < bytes.length) {
+            long tag = readVarint(bytes, position);
+            int field = (int) (tag >>> 3);
+            Object value;
+            switch ((int) (tag & 7)) {
+                case 0:
+                    value = readVarint(bytes, position);
+                    break;
+                case 1:
+                    value = readFixed(bytes, position, 8);
+                    break;
+                case 2:
+                    int length = (int) readVarint(bytes, position);
+                    byte[] nested = new byte[length];
+                    System.arraycopy(bytes, position[0], nested, 0, length);
+                    position[0] += length;
+                    value = nested;
+                    break;
+                case 5:
+                    value = readFixed(bytes, position, 4);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported wire type " + tag);
+            }
+            List<Object> values = fields.get(field);
+            if (values == null) {
+                values = new ArrayList<Object>();
+                fields.put(field, values);
+            }
+            values.add(value);
+        }
+    }
+
+    List<ProtobufMessage> messages(int field) {
+        List<ProtobufMessage> messages = new ArrayList<ProtobufMessage>();
+        for (Object value : values(field)) {
+            messages.add(new ProtobufMessage((byte[]) value));
+        }
+        return messages;
+    }
+
+    ProtobufMessage message(int field) {
+        return new ProtobufMessage(bytes(field));
+    }
+
+    byte[] bytes(int field) {
+        return (byte[]) values(field).get(0);
+    }
+
+    String string(int field) {
+        try {
+            return new String(bytes(field), "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    long number(int field) {
+        return (Long) values(field).get(0);
+    }
+
+    boolean has(int field) {
+        return fields.containsKey(field);
+    }
+
+    List<Object> values(int field) {
+        List<Object> values = fields.get(field);
+        return values == null ? Collections.emptyList() : values;
+    }
+
+    /**
+     * @param field field of repeated KeyValue messages
+     * @return AnyValue messages by key
+     */
+    Map<String, ProtobufMessage> attributes(int field) {
+        Map<String, ProtobufMessage> attributes = new HashMap<String, ProtobufMessage>();
+        for (ProtobufMessage keyValue : messages(field)) {
+            attributes.put(keyValue.string(1), keyValue.message(2));
+        }
+        return attributes;
+    }
+
+    private static long readVarint(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long readFixed(byte[] bytes, int[] position, int size) {
+        long value = 0;
+        for (int i = 0; i < size; i++) {
+            value |= (long) (bytes[position[0]++] & 0xFF) << (i * 8);
+        }
+        return value;
+    }
+}
@@ -32,9 +32,9 @@ import java.util.function.Supplier;
  * @since:
  **/
 public class RedisActionWrapperHelper {
-    protected final SofaTracer    tracer;
-    private final RedisSofaTracer redisSofaTracer;
-    private String                appName;
+    protected final SofaTracer      tracer;
+    protected final RedisSofaTracer redisSofaTracer;
+    private String                  appName;
 
     public RedisActionWrapperHelper() {
         redisSofaTracer = RedisSofaTracer.getRedisSofaTracerSingleton();
@@ -127,7 +127,7 @@ public class RedisActionWrapperHelper {
         }
     }
 
-    private <T> T activateAndCloseSpan(Supplier<T> supplier) {
+    protected <T> T activateAndCloseSpan(Supplier<T> supplier) {
         Throwable candidateThrowable = null;
         try {
             return supplier.get();
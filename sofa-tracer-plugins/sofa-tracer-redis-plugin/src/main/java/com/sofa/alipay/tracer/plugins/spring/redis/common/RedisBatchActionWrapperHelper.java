@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sofa.alipay.tracer.plugins.spring.redis.common;
+
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.sofa.alipay.tracer.plugins.spring.redis.properties.RedisProperties;
+import com.sofa.alipay.tracer.plugins.spring.redis.tracer.RedisSofaTracer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Used by a connection while a pipeline or a MULTI/EXEC block is open: the queued commands
+ * are only counted, and a single span is reported when the batch is flushed.
+ * <p>
+ * Keys are kept as raw bytes and only a bounded sample of them is decoded at flush time.
+ * Instances are bound to one connection and are not thread safe.
+ *
+ * @since 3.1.10
+ */
+public class RedisBatchActionWrapperHelper extends RedisActionWrapperHelper {
+
+    private final String             opener;
+    private final Map<String, int[]> commandCounts = new LinkedHashMap<>();
+    private final byte[][]           sampleKeys;
+    private final int                maxKeyLength;
+    private int                      sampleKeySize;
+    private int                      commandSize;
+
+    public RedisBatchActionWrapperHelper(String opener) {
+        this(opener, SofaTracerConfiguration.getIntegerDefaultIfNull(
+            RedisProperties.REDIS_BATCH_MAX_SAMPLE_KEYS_KEY,
+            RedisProperties.DEFAULT_BATCH_MAX_SAMPLE_KEYS), SofaTracerConfiguration
+            .getIntegerDefaultIfNull(RedisProperties.REDIS_BATCH_MAX_KEY_LENGTH_KEY,
+                RedisProperties.DEFAULT_BATCH_MAX_KEY_LENGTH));
+    }
+
+    public RedisBatchActionWrapperHelper(String opener, int maxSampleKeys, int maxKeyLength) {
+        this.opener = opener;
+        this.sampleKeys = new byte[Math.max(maxSampleKeys, 0)][];
+        this.maxKeyLength = maxKeyLength;
+    }
+
+    /**
+     * Whether pipelines and transactions should be aggregated
+     * @return true if aggregation is enabled
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(SofaTracerConfiguration
+            .getProperty(RedisProperties.REDIS_BATCH_AGGREGATION_ENABLED_KEY));
+    }
+
+    /**
+     * The command which opened this batch, {@link RedisCommand#PIPELINE} or {@link RedisCommand#MULTI}
+     * @return opener command
+     */
+    public String getOpener() {
+        return opener;
+    }
+
+    public int getCommandSize() {
+        return commandSize;
+    }
+
+    @Override
+    public <T> T doInScope(String command, byte[] key, Supplier<T> supplier) {
+        record(command, key);
+        return supplier.get();
+    }
+
+    @Override
+    public <T> T doInScope(String command, Supplier<T> supplier) {
+        record(command, null);
+        return supplier.get();
+    }
+
+    @Override
+    public void doInScope(String command, byte[] key, Runnable runnable) {
+        record(command, key);
+        runnable.run();
+    }
+
+    @Override
+    public void doInScope(String command, Runnable runnable) {
+        record(command, null);
+        runnable.run();
+    }
+
+    @Override
+    public <T> T doInScope(String command, byte[][] keys, Supplier<T> supplier) {
+        record(command, null);
+        if (keys != null) {
+            for (byte[] key : keys) {
+                sampleKey(key);
+            }
+        }
+        return supplier.get();
+    }
+
+    /**
+     * Run the flushing command and report the whole batch as one span
+     * @param command flushing command, e.g. PIPELINE, EXEC or DISCARD
+     * @param supplier the actual flush
+     * @return result of the flush
+     */
+    public <T> T flush(String command, Supplier<T> supplier) {
+        SofaTracerSpan span = redisSofaTracer.startTrace(command);
+        span.setTag(RedisSofaTracer.BATCH_SIZE, commandSize);
+        span.setTag(RedisSofaTracer.BATCH_COMMANDS, getCommandCounts());
+        if (sampleKeySize > 0) {
+            span.setTag(RedisSofaTracer.BATCH_KEYS, getSampleKeys());
+        }
+        return activateAndCloseSpan(supplier);
+    }
+
+    /**
+     * Per command counts, in order of first appearance, e.g. {@code GET=10,SET=2}
+     * @return command counts
+     */
+    public String getCommandCounts() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, int[]> entry : commandCounts.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(entry.getKey()).append('=').append(entry.getValue()[0]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The sampled keys, each one truncated to the configured max length
+     * @return sampled keys
+     */
+    public String getSampleKeys() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < sampleKeySize; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            byte[] key = sampleKeys[i];
+            sb.append(new String(key, 0, Math.min(key.length, maxKeyLength), StandardCharsets.UTF_8));
+        }
+        return sb.append(']').toString();
+    }
+
+    private void record(String command, byte[] key) {
+        commandSize++;
+        int[] count = commandCounts.get(command);
+        if (count == null) {
+            commandCounts.put(command, new int[] { 1 });
+        } else {
+            count[0]++;
+        }
+        sampleKey(key);
+    }
+
+    private void sampleKey(byte[] key) {
+        if (key != null && sampleKeySize < sampleKeys.length) {
+            sampleKeys[sampleKeySize++] = key;
+        }
+    }
+}
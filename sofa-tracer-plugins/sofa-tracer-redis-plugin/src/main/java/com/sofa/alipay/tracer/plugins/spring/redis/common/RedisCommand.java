@@ -157,6 +157,7 @@ public final class RedisCommand {
     public static final String PFCOUNT                       = "PFCOUNT";
     public static final String PFMERGE                       = "PFMERGE";
     public static final String PING                          = "PING";
+    public static final String PIPELINE                      = "PIPELINE";
     public static final String PSETEX                        = "PSETEX";
     public static final String PSUBSCRIBE                    = "PSUBSCRIBE";
     public static final String PUBSUB                        = "PUBSUB";
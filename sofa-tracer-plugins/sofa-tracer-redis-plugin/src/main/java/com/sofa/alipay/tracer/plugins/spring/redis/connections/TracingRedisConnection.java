@@ -17,6 +17,7 @@
 package com.sofa.alipay.tracer.plugins.spring.redis.connections;
 
 import com.sofa.alipay.tracer.plugins.spring.redis.common.RedisActionWrapperHelper;
+import com.sofa.alipay.tracer.plugins.spring.redis.common.RedisBatchActionWrapperHelper;
 import com.sofa.alipay.tracer.plugins.spring.redis.common.RedisCommand;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Range;
@@ -70,6 +71,7 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * OpenTracing instrumentation of a {@link RedisConnection}.
@@ -78,13 +80,39 @@ import java.util.concurrent.TimeUnit;
  */
 public class TracingRedisConnection implements RedisConnection {
     private final RedisConnection          connection;
-    private final RedisActionWrapperHelper actionWrapper;
+    private final RedisActionWrapperHelper defaultActionWrapper;
+    /**
+     * Switched to a {@link RedisBatchActionWrapperHelper} while an aggregated pipeline or transaction is open
+     */
+    private RedisActionWrapperHelper       actionWrapper;
+    private RedisBatchActionWrapperHelper  batchActionWrapper;
 
     public TracingRedisConnection(RedisConnection connection, RedisActionWrapperHelper actionWrapper) {
         this.connection = connection;
+        this.defaultActionWrapper = actionWrapper;
         this.actionWrapper = actionWrapper;
     }
 
+    private boolean beginBatch(String opener) {
+        if (batchActionWrapper != null || !RedisBatchActionWrapperHelper.isEnabled()) {
+            return false;
+        }
+        batchActionWrapper = new RedisBatchActionWrapperHelper(opener);
+        actionWrapper = batchActionWrapper;
+        return true;
+    }
+
+    private boolean isBatchOpenedBy(String opener) {
+        return batchActionWrapper != null && batchActionWrapper.getOpener().equals(opener);
+    }
+
+    private <T> T endBatch(String command, Supplier<T> supplier) {
+        RedisBatchActionWrapperHelper batch = batchActionWrapper;
+        batchActionWrapper = null;
+        actionWrapper = defaultActionWrapper;
+        return batch.flush(command, supplier);
+    }
+
     @Override
     public RedisGeoCommands geoCommands() {
         return connection.geoCommands();
@@ -163,10 +191,14 @@ public class TracingRedisConnection implements RedisConnection {
     @Override
     public void openPipeline() {
         connection.openPipeline();
+        beginBatch(RedisCommand.PIPELINE);
     }
 
     @Override
     public List<Object> closePipeline() throws RedisPipelineException {
+        if (isBatchOpenedBy(RedisCommand.PIPELINE)) {
+            return endBatch(RedisCommand.PIPELINE, connection::closePipeline);
+        }
         return connection.closePipeline();
     }
 
@@ -1182,16 +1214,31 @@ public class TracingRedisConnection implements RedisConnection {
 
     @Override
   public void multi() {
+    if (batchActionWrapper == null && RedisBatchActionWrapperHelper.isEnabled()) {
+      connection.multi();
+      beginBatch(RedisCommand.MULTI);
+      return;
+    }
     actionWrapper.doInScope(RedisCommand.MULTI, () -> connection.multi());
   }
 
     @Override
   public List<Object> exec() {
+    if (isBatchOpenedBy(RedisCommand.MULTI)) {
+      return endBatch(RedisCommand.EXEC, connection::exec);
+    }
     return actionWrapper.doInScope(RedisCommand.EXEC, () -> connection.exec());
   }
 
     @Override
   public void discard() {
+    if (isBatchOpenedBy(RedisCommand.MULTI)) {
+      endBatch(RedisCommand.DISCARD, () -> {
+        connection.discard();
+        return null;
+      });
+      return;
+    }
     actionWrapper.doInScope(RedisCommand.DISCARD, () -> connection.discard());
   }
 
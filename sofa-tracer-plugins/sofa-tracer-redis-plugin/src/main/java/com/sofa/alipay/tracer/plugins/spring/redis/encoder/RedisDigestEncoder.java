@@ -20,6 +20,8 @@ import com.alipay.common.tracer.core.appender.builder.JsonStringBuilder;
 import com.alipay.common.tracer.core.appender.builder.XStringBuilder;
 import com.alipay.common.tracer.core.middleware.parent.AbstractDigestSpanEncoder;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.sofa.alipay.tracer.plugins.spring.redis.common.RedisBatchActionWrapperHelper;
+import com.sofa.alipay.tracer.plugins.spring.redis.tracer.RedisSofaTracer;
 import io.opentracing.tag.Tags;
 
 import java.util.Map;
@@ -37,5 +39,13 @@ public class RedisDigestEncoder extends AbstractDigestSpanEncoder {
         //POST/GET
         xsb.append(tagWithStr.get(Tags.DB_TYPE.getKey()));
         xsb.append(span.getOperationName());
+        //aggregated pipeline or transaction, only in batch mode so that the default layout is kept,
+        //and then on every line, empty for a single command
+        if (RedisBatchActionWrapperHelper.isEnabled()) {
+            Number batchSize = span.getTagsWithNumber().get(RedisSofaTracer.BATCH_SIZE);
+            xsb.append(batchSize == null ? null : String.valueOf(batchSize.longValue()));
+            xsb.appendEscape(tagWithStr.get(RedisSofaTracer.BATCH_COMMANDS));
+            xsb.appendEscape(tagWithStr.get(RedisSofaTracer.BATCH_KEYS));
+        }
     }
 }
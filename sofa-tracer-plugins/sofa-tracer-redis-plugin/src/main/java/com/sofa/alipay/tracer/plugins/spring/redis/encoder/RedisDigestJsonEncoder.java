@@ -21,6 +21,7 @@ import com.alipay.common.tracer.core.appender.builder.XStringBuilder;
 import com.alipay.common.tracer.core.middleware.parent.AbstractDigestSpanEncoder;
 import com.alipay.common.tracer.core.span.CommonSpanTags;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.sofa.alipay.tracer.plugins.spring.redis.tracer.RedisSofaTracer;
 import io.opentracing.tag.Tags;
 
 import java.util.Map;
@@ -38,5 +39,13 @@ public class RedisDigestJsonEncoder extends AbstractDigestSpanEncoder {
         //URL
         jsb.append(Tags.DB_TYPE.getKey(), tagWithStr.get(Tags.DB_TYPE.getKey()));
         jsb.append(CommonSpanTags.METHOD, span.getOperationName());
+        //aggregated pipeline or transaction
+        Number batchSize = span.getTagsWithNumber().get(RedisSofaTracer.BATCH_SIZE);
+        if (batchSize != null) {
+            jsb.append(RedisSofaTracer.BATCH_SIZE, batchSize);
+            jsb.append(RedisSofaTracer.BATCH_COMMANDS,
+                tagWithStr.get(RedisSofaTracer.BATCH_COMMANDS));
+            jsb.append(RedisSofaTracer.BATCH_KEYS, tagWithStr.get(RedisSofaTracer.BATCH_KEYS));
+        }
     }
 }
@@ -0,0 +1,47 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sofa.alipay.tracer.plugins.spring.redis.properties;
+
+/**
+ * RedisProperties
+ *
+ * @since 3.1.10
+ */
+public class RedisProperties {
+
+    /**
+     * Aggregate the commands of a pipeline or a MULTI/EXEC block into one span per flush
+     */
+    public static final String REDIS_BATCH_AGGREGATION_ENABLED_KEY = "com.alipay.sofa.tracer.redis.batchAggregation.enabled";
+
+    /**
+     * Max number of keys sampled into the aggregated span
+     */
+    public static final String REDIS_BATCH_MAX_SAMPLE_KEYS_KEY     = "com.alipay.sofa.tracer.redis.batchAggregation.maxSampleKeys";
+
+    /**
+     * Max number of bytes decoded for each sampled key
+     */
+    public static final String REDIS_BATCH_MAX_KEY_LENGTH_KEY      = "com.alipay.sofa.tracer.redis.batchAggregation.maxKeyLength";
+
+    public static final int    DEFAULT_BATCH_MAX_SAMPLE_KEYS       = 16;
+
+    public static final int    DEFAULT_BATCH_MAX_KEY_LENGTH        = 128;
+
+    private RedisProperties() {
+    }
+}
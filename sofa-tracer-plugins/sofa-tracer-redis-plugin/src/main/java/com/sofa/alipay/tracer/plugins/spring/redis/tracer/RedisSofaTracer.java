@@ -44,6 +44,9 @@ public class RedisSofaTracer extends AbstractClientTracer {
     public static final String              COMMAND         = "command";
     public static final String              COMPONENT_NAME  = "java-redis";
     public static final String              DB_TYPE         = "redis";
+    public static final String              BATCH_SIZE      = "batch.size";
+    public static final String              BATCH_COMMANDS  = "batch.commands";
+    public static final String              BATCH_KEYS      = "batch.keys";
 
     private volatile static RedisSofaTracer redisSofaTracer = null;
 
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.sofa.alipay.tracer.plugins.spring.redis.connections;
+
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.listener.SpanReportListener;
+import com.alipay.common.tracer.core.listener.SpanReportListenerHolder;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.sofa.alipay.tracer.plugins.spring.redis.common.RedisActionWrapperHelper;
+import com.sofa.alipay.tracer.plugins.spring.redis.common.RedisCommand;
+import com.sofa.alipay.tracer.plugins.spring.redis.encoder.RedisDigestEncoder;
+import com.sofa.alipay.tracer.plugins.spring.redis.properties.RedisProperties;
+import com.sofa.alipay.tracer.plugins.spring.redis.tracer.RedisSofaTracer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * TracingRedisConnectionBatchTest
+ *
+ * @since 3.1.10
+ */
+public class TracingRedisConnectionBatchTest {
+
+    private final List<SofaTracerSpan> reportedSpans = new CopyOnWriteArrayList<>();
+
+    private TracingRedisConnection     connection;
+
+    @Before
+    public void setUp() {
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_APPNAME_KEY,
+            "redis-test");
+        SofaTracerConfiguration.setProperty(RedisProperties.REDIS_BATCH_AGGREGATION_ENABLED_KEY,
+            "true");
+        SofaTracerConfiguration.setProperty(RedisProperties.REDIS_BATCH_MAX_SAMPLE_KEYS_KEY, 2);
+        SofaTracerConfiguration.setProperty(RedisProperties.REDIS_BATCH_MAX_KEY_LENGTH_KEY, 4);
+        SpanReportListenerHolder.addSpanReportListener(new SpanReportListener() {
+            @Override
+            public void onSpanReport(SofaTracerSpan sofaTracerSpan) {
+                reportedSpans.add(sofaTracerSpan);
+            }
+        });
+        connection = new TracingRedisConnection(mock(RedisConnection.class),
+            new RedisActionWrapperHelper());
+    }
+
+    @After
+    public void tearDown() {
+        SofaTracerConfiguration.removeProperty(RedisProperties.REDIS_BATCH_AGGREGATION_ENABLED_KEY);
+        SofaTracerConfiguration.removeProperty(RedisProperties.REDIS_BATCH_MAX_SAMPLE_KEYS_KEY);
+        SofaTracerConfiguration.removeProperty(RedisProperties.REDIS_BATCH_MAX_KEY_LENGTH_KEY);
+        SpanReportListenerHolder.clear();
+    }
+
+    @Test
+    public void testPipelineIsReportedAsOneSpan() {
+        connection.openPipeline();
+        connection.get(bytes("key-1"));
+        connection.get(bytes("key-2"));
+        connection.set(bytes("key-3"), bytes("value"));
+        Assert.assertTrue(reportedSpans.isEmpty());
+
+        connection.closePipeline();
+        Assert.assertEquals(1, reportedSpans.size());
+        SofaTracerSpan span = reportedSpans.get(0);
+        Assert.assertEquals(RedisCommand.PIPELINE, span.getOperationName());
+        Assert.assertEquals(3, span.getTagsWithNumber().get(RedisSofaTracer.BATCH_SIZE));
+        Assert.assertEquals("GET=2,SET=1", span.getTagsWithStr()
+            .get(RedisSofaTracer.BATCH_COMMANDS));
+        Assert.assertEquals("[key-, key-]", span.getTagsWithStr().get(RedisSofaTracer.BATCH_KEYS));
+
+        connection.get(bytes("key-4"));
+        Assert.assertEquals(2, reportedSpans.size());
+        Assert.assertEquals(RedisCommand.GET, reportedSpans.get(1).getOperationName());
+    }
+
+    @Test
+    public void testTransactionIsReportedAsOneSpan() {
+        connection.multi();
+        connection.incr(bytes("counter"));
+        connection.del(bytes("a"), bytes("b"));
+        connection.exec();
+        Assert.assertEquals(1, reportedSpans.size());
+        SofaTracerSpan span = reportedSpans.get(0);
+        Assert.assertEquals(RedisCommand.EXEC, span.getOperationName());
+        Assert.assertEquals(2, span.getTagsWithNumber().get(RedisSofaTracer.BATCH_SIZE));
+        Assert.assertEquals("INCR=1,DEL=1",
+            span.getTagsWithStr().get(RedisSofaTracer.BATCH_COMMANDS));
+    }
+
+    @Test
+    public void testDisabledAggregationKeepsOneSpanPerCommand() {
+        SofaTracerConfiguration.setProperty(RedisProperties.REDIS_BATCH_AGGREGATION_ENABLED_KEY,
+            "false");
+        connection.openPipeline();
+        connection.get(bytes("key-1"));
+        connection.get(bytes("key-2"));
+        connection.closePipeline();
+        Assert.assertEquals(2, reportedSpans.size());
+    }
+
+    @Test
+    public void testDigestLinesHaveSameColumns() throws Exception {
+        connection.openPipeline();
+        connection.get(bytes("key-1"));
+        connection.closePipeline();
+        connection.get(bytes("key-2"));
+        Assert.assertEquals(2, reportedSpans.size());
+
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT, "false");
+        try {
+            RedisDigestEncoder encoder = new RedisDigestEncoder();
+            String batch = encoder.encode(reportedSpans.get(0));
+            String single = encoder.encode(reportedSpans.get(1));
+            Assert.assertEquals(batch.split(",", -1).length, single.split(",", -1).length);
+            // the default layout is kept out of batch mode
+            SofaTracerConfiguration.setProperty(
+                RedisProperties.REDIS_BATCH_AGGREGATION_ENABLED_KEY, "false");
+            Assert.assertEquals(single.split(",", -1).length - 3,
+                encoder.encode(reportedSpans.get(1)).split(",", -1).length);
+        } finally {
+            SofaTracerConfiguration.removeProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT);
+        }
+    }
+
+    private static byte[] bytes(String str) {
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+}
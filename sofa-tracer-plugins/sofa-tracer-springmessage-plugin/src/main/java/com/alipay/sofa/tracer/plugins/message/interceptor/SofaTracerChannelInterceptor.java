@@ -213,10 +213,12 @@ public class SofaTracerChannelInterceptor implements ChannelInterceptor, Executo
             currentSpan.setTag(Tags.ERROR.getKey(), exMessage);
         }
         currentSpan.setTag(CommonSpanTags.RESULT_CODE, resultCode);
+        // read before finishing, a recycled span is not to be used after
+        SofaTracerSpan parentSpan = currentSpan.getParentSofaTracerSpan();
         currentSpan.finish();
         // 恢复上下文
-        if (currentSpan.getParentSofaTracerSpan() != null) {
-            sofaTraceContext.push(currentSpan.getParentSofaTracerSpan());
+        if (parentSpan != null) {
+            sofaTraceContext.push(parentSpan);
         }
     }
 
@@ -42,7 +42,7 @@ public class SpringMvcJsonStatReporter extends SpringMvcStatReporter {
         Map<String, String> tagsWithStr = sofaTracerSpan.getTagsWithStr();
         StatMapKey statKey = new StatMapKey();
         statKey.addKey(CommonSpanTags.LOCAL_APP, tagsWithStr.get(CommonSpanTags.LOCAL_APP));
-        statKey.addKey(CommonSpanTags.REQUEST_URL, tagsWithStr.get(CommonSpanTags.REQUEST_URL));
+        statKey.addKey(CommonSpanTags.REQUEST_URL, getRequestRoute(tagsWithStr));
         statKey.addKey(CommonSpanTags.METHOD, tagsWithStr.get(CommonSpanTags.METHOD));
         //pressure mark
         statKey.setLoadTest(TracerUtils.isLoadTest(sofaTracerSpan));
@@ -55,7 +55,7 @@ public class SpringMvcJsonStatReporter extends SpringMvcStatReporter {
         //end
         statKey.setEnd(TracerUtils.getLoadTestMark(sofaTracerSpan));
         //duration
-        long duration = sofaTracerSpan.getEndTime() - sofaTracerSpan.getStartTime();
+        long duration = this.statCost(sofaTracerSpan);
         long[] values = new long[] { 1, duration };
         //reserve
         this.addStat(statKey, values);
@@ -47,7 +47,13 @@ import java.util.HashMap;
  */
 public class SpringMvcSofaTracerFilter implements Filter {
 
-    private String          appName = StringUtils.EMPTY_STRING;
+    /**
+     * Value of org.springframework.web.servlet.HandlerMapping#BEST_MATCHING_PATTERN_ATTRIBUTE,
+     * spring-webmvc is not a dependency of this plugin
+     */
+    static final String     BEST_MATCHING_PATTERN_ATTRIBUTE = "org.springframework.web.servlet.HandlerMapping.bestMatchingPattern";
+
+    private String          appName                         = StringUtils.EMPTY_STRING;
 
     private SpringMvcTracer springMvcTracer;
 
@@ -79,11 +85,12 @@ public class SpringMvcSofaTracerFilter implements Filter {
                 this.appName = SofaTracerConfiguration
                     .getProperty(SofaTracerConfiguration.TRACER_APPNAME_KEY);
             }
-            //set service name
-            springMvcSpan.setOperationName(request.getRequestURL().toString());
+            String requestUrl = request.getRequestURL().toString();
+            //set service name, replaced by the matched route after the chain
+            springMvcSpan.setOperationName(requestUrl);
             //app name
             springMvcSpan.setTag(CommonSpanTags.LOCAL_APP, this.appName);
-            springMvcSpan.setTag(CommonSpanTags.REQUEST_URL, request.getRequestURL().toString());
+            springMvcSpan.setTag(CommonSpanTags.REQUEST_URL, requestUrl);
             springMvcSpan.setTag(CommonSpanTags.METHOD, request.getMethod());
             springMvcSpan.setTag(CommonSpanTags.REQ_SIZE, request.getContentLength());
             //wrapper
@@ -91,11 +98,15 @@ public class SpringMvcSofaTracerFilter implements Filter {
             //filter begin
             filterChain.doFilter(servletRequest, responseWrapper);
             //filter end
+            setRoute(springMvcSpan, request);
             httpStatus = responseWrapper.getStatus();
             responseSize = responseWrapper.getContentLength();
         } catch (Throwable t) {
             httpStatus = 500;
             errorFlag = true;
+            if (springMvcSpan != null) {
+                setRoute(springMvcSpan, (HttpServletRequest) servletRequest);
+            }
             currThrowable = t;
             throw new RuntimeException(t);
         } finally {
@@ -112,6 +123,18 @@ public class SpringMvcSofaTracerFilter implements Filter {
         }
     }
 
+    /**
+     * Use the url template matched by the handler, e.g. /orders/{id}, as the operation name and
+     * the stat dimension, so that path variables do not create a stat key per url
+     */
+    private void setRoute(SofaTracerSpan springMvcSpan, HttpServletRequest request) {
+        Object route = request.getAttribute(BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (route instanceof String) {
+            springMvcSpan.setOperationName((String) route);
+            springMvcSpan.setTag(CommonSpanTags.REQUEST_ROUTE, (String) route);
+        }
+    }
+
     @Override
     public void destroy() {
         // no operation
@@ -42,10 +42,8 @@ public class SpringMvcStatReporter extends AbstractSofaTracerStatisticReporter {
     public void doReportStat(SofaTracerSpan sofaTracerSpan) {
         Map<String, String> tagsWithStr = sofaTracerSpan.getTagsWithStr();
         StatKey statKey = new StatKey();
-        statKey
-            .setKey(buildString(new String[] { tagsWithStr.get(CommonSpanTags.LOCAL_APP),
-                    tagsWithStr.get(CommonSpanTags.REQUEST_URL),
-                    tagsWithStr.get(CommonSpanTags.METHOD) }));
+        statKey.setKey(buildString(new String[] { tagsWithStr.get(CommonSpanTags.LOCAL_APP),
+                getRequestRoute(tagsWithStr), tagsWithStr.get(CommonSpanTags.METHOD) }));
         String resultCode = tagsWithStr.get(CommonSpanTags.RESULT_CODE);
         boolean success = (resultCode != null && resultCode.length() > 0 && this
             .isHttpOrMvcSuccess(resultCode));
@@ -55,8 +53,18 @@ public class SpringMvcStatReporter extends AbstractSofaTracerStatisticReporter {
         //pressure mark
         statKey.setLoadTest(TracerUtils.isLoadTest(sofaTracerSpan));
         //duration
-        long duration = sofaTracerSpan.getEndTime() - sofaTracerSpan.getStartTime();
+        long duration = this.statCost(sofaTracerSpan);
         long[] values = new long[] { 1, duration };
         this.addStat(statKey, values);
     }
-}
\ No newline at end of file
+
+    /**
+     * The url template matched by the handler, or the request url if no handler matched
+     * @param tagsWithStr span tags
+     * @return stat dimension of the request
+     */
+    protected String getRequestRoute(Map<String, String> tagsWithStr) {
+        String route = tagsWithStr.get(CommonSpanTags.REQUEST_ROUTE);
+        return route != null ? route : tagsWithStr.get(CommonSpanTags.REQUEST_URL);
+    }
+}
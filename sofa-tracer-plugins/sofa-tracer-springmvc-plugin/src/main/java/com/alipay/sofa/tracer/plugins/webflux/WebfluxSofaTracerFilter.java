@@ -31,6 +31,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.reactive.HandlerMapping;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
@@ -70,6 +71,12 @@ public class WebfluxSofaTracerFilter implements WebFilter {
         return chain.filter(exchange).doAfterSuccessOrError(((aVoid, throwable) -> {
             SofaTraceableResponse response = new ServerWebExchangeSofaTraceableResponse(
                     throwable != null ? new SofaStatusResponseDecorator(throwable, exchange.getResponse()) : exchange.getResponse());
+            Object route = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (route != null) {
+                // the url template matched by the handler, e.g. /orders/{id}
+                springMvcSpan.setOperationName(route.toString());
+                springMvcSpan.setTag(CommonSpanTags.REQUEST_ROUTE, route.toString());
+            }
             springMvcSpan.setTag(CommonSpanTags.RESP_SIZE, response.getHeaders().getContentLength());
             springMvcTracer.serverSend(String.valueOf(response.getStatus()));
         }));
@@ -20,14 +20,19 @@ import com.alipay.common.tracer.core.listener.SpanReportListener;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import com.alipay.common.tracer.core.utils.TracerUtils;
 import com.alipay.sofa.tracer.plugins.zipkin.adapter.ZipkinV2SpanAdapter;
+import com.alipay.sofa.tracer.plugins.zipkin.metrics.ZipkinExportMetrics;
+import com.alipay.sofa.tracer.plugins.zipkin.properties.ZipkinExportOptions;
+import com.alipay.sofa.tracer.plugins.zipkin.sender.ZipkinAsyncRestTemplateSender;
 import com.alipay.sofa.tracer.plugins.zipkin.sender.ZipkinRestTemplateSender;
 import org.springframework.util.Assert;
 import org.springframework.web.client.RestTemplate;
 import zipkin2.Span;
 import zipkin2.reporter.AsyncReporter;
+import zipkin2.reporter.Sender;
 
 import java.io.Closeable;
 import java.io.Flushable;
+import java.util.concurrent.TimeUnit;
 
 /**
  * zipkin report
@@ -36,19 +41,42 @@ import java.io.Flushable;
  */
 public class ZipkinSofaTracerSpanRemoteReporter implements SpanReportListener, Flushable, Closeable {
 
-    private static String                  processId = TracerUtils.getPID();
+    private static String             processId = TracerUtils.getPID();
 
-    private final ZipkinRestTemplateSender sender;
+    private final Sender              sender;
 
-    private final AsyncReporter<Span>      delegate;
+    private final AsyncReporter<Span> delegate;
 
-    private final ZipkinV2SpanAdapter      zipkinV2SpanAdapter;
+    private final ZipkinV2SpanAdapter zipkinV2SpanAdapter;
+
+    /**
+     * Null unless created with {@link ZipkinExportOptions}
+     */
+    private final ZipkinExportMetrics metrics;
 
     public ZipkinSofaTracerSpanRemoteReporter(RestTemplate restTemplate, String baseUrl) {
 
         this.zipkinV2SpanAdapter = new ZipkinV2SpanAdapter();
         this.sender = new ZipkinRestTemplateSender(restTemplate, baseUrl);
         this.delegate = AsyncReporter.create(sender);
+        this.metrics = null;
+    }
+
+    /**
+     * High throughput export, see {@link ZipkinAsyncRestTemplateSender}
+     * @param restTemplate rest template, gzip it with {@link ZipkinSofaTracerRestTemplateCustomizer}
+     * @param baseUrl zipkin base url
+     * @param options batching and sending options
+     */
+    public ZipkinSofaTracerSpanRemoteReporter(RestTemplate restTemplate, String baseUrl,
+                                              ZipkinExportOptions options) {
+        this.zipkinV2SpanAdapter = new ZipkinV2SpanAdapter();
+        this.metrics = new ZipkinExportMetrics();
+        this.sender = new ZipkinAsyncRestTemplateSender(restTemplate, baseUrl, options, metrics);
+        this.delegate = AsyncReporter.builder(sender).metrics(metrics)
+            .messageMaxBytes(options.getMessageMaxBytes())
+            .messageTimeout(options.getMessageTimeoutMillis(), TimeUnit.MILLISECONDS)
+            .queuedMaxBytes(options.getQueuedMaxBytes()).build();
     }
 
     @Override
@@ -69,6 +97,17 @@ public class ZipkinSofaTracerSpanRemoteReporter implements SpanReportListener, F
     @Override
     public void close() {
         this.delegate.close();
+        if (this.sender instanceof ZipkinAsyncRestTemplateSender) {
+            // let the requests in flight complete
+            ((ZipkinAsyncRestTemplateSender) this.sender).close();
+        }
+    }
+
+    /**
+     * @return export metrics, or null if not created with {@link ZipkinExportOptions}
+     */
+    public ZipkinExportMetrics getMetrics() {
+        return metrics;
     }
 
     /**
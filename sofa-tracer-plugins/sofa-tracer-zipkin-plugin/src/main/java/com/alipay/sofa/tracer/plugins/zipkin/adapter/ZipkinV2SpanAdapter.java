@@ -61,9 +61,8 @@ public class ZipkinV2SpanAdapter {
 
         // timestamp & duration
         long start = sofaTracerSpan.getStartTime() * 1000;
-        long finish = sofaTracerSpan.getEndTime() * 1000;
         zipkinSpanBuilder.timestamp(start);
-        zipkinSpanBuilder.duration(finish - start);
+        zipkinSpanBuilder.duration(sofaTracerSpan.getDurationMicros());
 
         // kind
         Map<String, String> tagsWithStr = sofaTracerSpan.getTagsWithStr();
@@ -22,6 +22,7 @@ import com.alipay.common.tracer.core.listener.SpanReportListenerHolder;
 import com.alipay.common.tracer.core.utils.StringUtils;
 import com.alipay.sofa.tracer.plugins.zipkin.ZipkinSofaTracerRestTemplateCustomizer;
 import com.alipay.sofa.tracer.plugins.zipkin.ZipkinSofaTracerSpanRemoteReporter;
+import com.alipay.sofa.tracer.plugins.zipkin.properties.ZipkinExportOptions;
 import com.alipay.sofa.tracer.plugins.zipkin.properties.ZipkinProperties;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.web.client.RestTemplate;
@@ -50,11 +51,17 @@ public class ZipkinReportRegisterBean implements InitializingBean {
             return;
         }
 
+        boolean highThroughput = "true".equalsIgnoreCase(SofaTracerConfiguration
+            .getProperty(ZipkinProperties.ZIPKIN_HIGH_THROUGHPUT_KEY));
+
+        // gzipped by default in high throughput mode
         boolean gzipped = false;
         String gzippedStr = SofaTracerConfiguration
             .getProperty(ZipkinProperties.ZIPKIN_IS_GZIPPED_KEY);
         if (StringUtils.isNotBlank(gzippedStr) && "true".equalsIgnoreCase(gzippedStr)) {
             gzipped = true;
+        } else if (StringUtils.isBlank(gzippedStr) && highThroughput) {
+            gzipped = true;
         }
 
         RestTemplate restTemplate = new RestTemplate();
@@ -62,8 +69,9 @@ public class ZipkinReportRegisterBean implements InitializingBean {
             gzipped);
         zipkinSofaTracerRestTemplateCustomizer.customize(restTemplate);
         String baseUrl = SofaTracerConfiguration.getProperty(ZipkinProperties.ZIPKIN_BASE_URL_KEY);
-        SpanReportListener spanReportListener = new ZipkinSofaTracerSpanRemoteReporter(
-            restTemplate, baseUrl);
+        SpanReportListener spanReportListener = highThroughput ? new ZipkinSofaTracerSpanRemoteReporter(
+            restTemplate, baseUrl, ZipkinExportOptions.fromConfiguration())
+            : new ZipkinSofaTracerSpanRemoteReporter(restTemplate, baseUrl);
         List<SpanReportListener> spanReportListenerList = new ArrayList<SpanReportListener>();
         spanReportListenerList.add(spanReportListener);
         SpanReportListenerHolder.addSpanReportListeners(spanReportListenerList);
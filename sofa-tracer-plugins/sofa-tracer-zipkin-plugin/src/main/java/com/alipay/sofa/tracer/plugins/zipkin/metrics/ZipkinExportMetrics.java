@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.zipkin.metrics;
+
+import zipkin2.reporter.ReporterMetrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the zipkin export, fed both by the {@link zipkin2.reporter.AsyncReporter}
+ * batching and by the sender for the requests dropped after their retries
+ *
+ * @since 3.1.10
+ */
+public class ZipkinExportMetrics implements ReporterMetrics {
+
+    private final LongAdder messages        = new LongAdder();
+    private final LongAdder messageBytes    = new LongAdder();
+    private final LongAdder messagesDropped = new LongAdder();
+    private final LongAdder spans           = new LongAdder();
+    private final LongAdder spanBytes       = new LongAdder();
+    private final LongAdder spansDropped    = new LongAdder();
+    private final LongAdder retries         = new LongAdder();
+    private volatile int    queuedSpans;
+    private volatile int    queuedBytes;
+
+    @Override
+    public void incrementMessages() {
+        messages.increment();
+    }
+
+    @Override
+    public void incrementMessagesDropped(Throwable cause) {
+        messagesDropped.increment();
+    }
+
+    @Override
+    public void incrementSpans(int quantity) {
+        spans.add(quantity);
+    }
+
+    @Override
+    public void incrementSpanBytes(int quantity) {
+        spanBytes.add(quantity);
+    }
+
+    @Override
+    public void incrementMessageBytes(int quantity) {
+        messageBytes.add(quantity);
+    }
+
+    @Override
+    public void incrementSpansDropped(int quantity) {
+        spansDropped.add(quantity);
+    }
+
+    @Override
+    public void updateQueuedSpans(int update) {
+        queuedSpans = update;
+    }
+
+    @Override
+    public void updateQueuedBytes(int update) {
+        queuedBytes = update;
+    }
+
+    public void incrementRetries() {
+        retries.increment();
+    }
+
+    public long getMessages() {
+        return messages.sum();
+    }
+
+    public long getMessageBytes() {
+        return messageBytes.sum();
+    }
+
+    public long getMessagesDropped() {
+        return messagesDropped.sum();
+    }
+
+    public long getSpans() {
+        return spans.sum();
+    }
+
+    public long getSpanBytes() {
+        return spanBytes.sum();
+    }
+
+    public long getSpansDropped() {
+        return spansDropped.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public int getQueuedSpans() {
+        return queuedSpans;
+    }
+
+    public int getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<String, Object>();
+        snapshot.put("messages", getMessages());
+        snapshot.put("messageBytes", getMessageBytes());
+        snapshot.put("messagesDropped", getMessagesDropped());
+        snapshot.put("spans", getSpans());
+        snapshot.put("spanBytes", getSpanBytes());
+        snapshot.put("spansDropped", getSpansDropped());
+        snapshot.put("retries", getRetries());
+        snapshot.put("queuedSpans", getQueuedSpans());
+        snapshot.put("queuedBytes", getQueuedBytes());
+        return snapshot;
+    }
+}
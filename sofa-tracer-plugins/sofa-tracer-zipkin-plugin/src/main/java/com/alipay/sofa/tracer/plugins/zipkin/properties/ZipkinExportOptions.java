@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.zipkin.properties;
+
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.utils.StringUtils;
+import zipkin2.codec.Encoding;
+
+/**
+ * Options of the high throughput zipkin export
+ *
+ * @since 3.1.10
+ */
+public class ZipkinExportOptions {
+
+    /**
+     * Span encoding, PROTO3 is both smaller and cheaper to encode than JSON
+     */
+    private Encoding encoding             = Encoding.PROTO3;
+    /**
+     * Max bytes of one request, spans are batched up to it
+     */
+    private int      messageMaxBytes      = 512 * 1024;
+    /**
+     * Max millis a span waits in a batch before it is sent
+     */
+    private long     messageTimeoutMillis = 1000;
+    /**
+     * Max bytes of spans waiting to be sent, more are dropped
+     */
+    private int      queuedMaxBytes       = 16 * 1024 * 1024;
+    /**
+     * Max concurrent requests, more batches are dropped
+     */
+    private int      maxInFlight          = 4;
+    /**
+     * Retries of a failed request before its batch is dropped
+     */
+    private int      maxRetries           = 3;
+    /**
+     * Millis before the first retry, doubled at each retry
+     */
+    private long     retryBackoffMillis   = 100;
+
+    /**
+     * Read the options from {@link SofaTracerConfiguration}
+     * @return options
+     */
+    public static ZipkinExportOptions fromConfiguration() {
+        ZipkinExportOptions options = new ZipkinExportOptions();
+        String encoding = SofaTracerConfiguration.getProperty(ZipkinProperties.ZIPKIN_ENCODING_KEY);
+        if (StringUtils.isNotBlank(encoding)) {
+            try {
+                options.setEncoding(Encoding.valueOf(encoding.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                SelfLog.warn("Unknown zipkin encoding " + encoding + ", use "
+                             + options.getEncoding());
+            }
+        }
+        options.setMessageMaxBytes((int) getLong(ZipkinProperties.ZIPKIN_MESSAGE_MAX_BYTES_KEY,
+            options.getMessageMaxBytes()));
+        options.setMessageTimeoutMillis(getLong(ZipkinProperties.ZIPKIN_MESSAGE_TIMEOUT_KEY,
+            options.getMessageTimeoutMillis()));
+        options.setQueuedMaxBytes((int) getLong(ZipkinProperties.ZIPKIN_QUEUED_MAX_BYTES_KEY,
+            options.getQueuedMaxBytes()));
+        options.setMaxInFlight((int) getLong(ZipkinProperties.ZIPKIN_MAX_IN_FLIGHT_KEY,
+            options.getMaxInFlight()));
+        options.setMaxRetries((int) getLong(ZipkinProperties.ZIPKIN_MAX_RETRIES_KEY,
+            options.getMaxRetries()));
+        options.setRetryBackoffMillis(getLong(ZipkinProperties.ZIPKIN_RETRY_BACKOFF_KEY,
+            options.getRetryBackoffMillis()));
+        return options;
+    }
+
+    private static long getLong(String key, long defaultValue) {
+        String value = SofaTracerConfiguration.getProperty(key);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            SelfLog.warn("Invalid value " + value + " of " + key + ", use " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(Encoding encoding) {
+        this.encoding = encoding;
+    }
+
+    public int getMessageMaxBytes() {
+        return messageMaxBytes;
+    }
+
+    public void setMessageMaxBytes(int messageMaxBytes) {
+        this.messageMaxBytes = messageMaxBytes;
+    }
+
+    public long getMessageTimeoutMillis() {
+        return messageTimeoutMillis;
+    }
+
+    public void setMessageTimeoutMillis(long messageTimeoutMillis) {
+        this.messageTimeoutMillis = messageTimeoutMillis;
+    }
+
+    public int getQueuedMaxBytes() {
+        return queuedMaxBytes;
+    }
+
+    public void setQueuedMaxBytes(int queuedMaxBytes) {
+        this.queuedMaxBytes = queuedMaxBytes;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public long getRetryBackoffMillis() {
+        return retryBackoffMillis;
+    }
+
+    public void setRetryBackoffMillis(long retryBackoffMillis) {
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
+}
@@ -23,8 +23,21 @@ package com.alipay.sofa.tracer.plugins.zipkin.properties;
  */
 public class ZipkinProperties {
 
-    public static final String ZIPKIN_IS_ENABLED_KEY = "com.alipay.sofa.tracer.zipkin.enabled";
-    public static final String ZIPKIN_BASE_URL_KEY   = "com.alipay.sofa.tracer.zipkin.baseUrl";
-    public static final String ZIPKIN_IS_GZIPPED_KEY = "com.alipay.sofa.tracer.zipkin.gzipped";
+    public static final String ZIPKIN_IS_ENABLED_KEY        = "com.alipay.sofa.tracer.zipkin.enabled";
+    public static final String ZIPKIN_BASE_URL_KEY          = "com.alipay.sofa.tracer.zipkin.baseUrl";
+    public static final String ZIPKIN_IS_GZIPPED_KEY        = "com.alipay.sofa.tracer.zipkin.gzipped";
+
+    /**
+     * Export with {@link com.alipay.sofa.tracer.plugins.zipkin.sender.ZipkinAsyncRestTemplateSender}:
+     * PROTO3, gzip, bounded batching, concurrent requests with retries
+     */
+    public static final String ZIPKIN_HIGH_THROUGHPUT_KEY   = "com.alipay.sofa.tracer.zipkin.highThroughput";
+    public static final String ZIPKIN_ENCODING_KEY          = "com.alipay.sofa.tracer.zipkin.encoding";
+    public static final String ZIPKIN_MESSAGE_MAX_BYTES_KEY = "com.alipay.sofa.tracer.zipkin.messageMaxBytes";
+    public static final String ZIPKIN_MESSAGE_TIMEOUT_KEY   = "com.alipay.sofa.tracer.zipkin.messageTimeout";
+    public static final String ZIPKIN_QUEUED_MAX_BYTES_KEY  = "com.alipay.sofa.tracer.zipkin.queuedMaxBytes";
+    public static final String ZIPKIN_MAX_IN_FLIGHT_KEY     = "com.alipay.sofa.tracer.zipkin.maxInFlight";
+    public static final String ZIPKIN_MAX_RETRIES_KEY       = "com.alipay.sofa.tracer.zipkin.maxRetries";
+    public static final String ZIPKIN_RETRY_BACKOFF_KEY     = "com.alipay.sofa.tracer.zipkin.retryBackoff";
 
 }
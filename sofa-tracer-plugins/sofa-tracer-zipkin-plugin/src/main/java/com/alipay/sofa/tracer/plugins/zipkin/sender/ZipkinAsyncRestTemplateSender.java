@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.zipkin.sender;
+
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.sofa.tracer.plugins.zipkin.metrics.ZipkinExportMetrics;
+import com.alipay.sofa.tracer.plugins.zipkin.properties.ZipkinExportOptions;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import zipkin2.Call;
+import zipkin2.codec.Encoding;
+import zipkin2.reporter.BytesMessageEncoder;
+import zipkin2.reporter.Sender;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sender of the high throughput zipkin export.
+ * <p>
+ * {@link #sendSpans(List)} only hands the encoded message to a pool of at most
+ * {@link ZipkinExportOptions#getMaxInFlight()} request threads, so the reporter thread keeps
+ * batching while the requests are in flight. A failed request is retried with an exponential
+ * backoff, client errors but 429 excepted. A message is dropped, and counted in the
+ * {@link ZipkinExportMetrics}, once its retries are exhausted or when all the request threads
+ * are busy and one more message is already waiting for each of them.
+ *
+ * @since 3.1.10
+ */
+public class ZipkinAsyncRestTemplateSender extends Sender {
+
+    private static final MediaType    APPLICATION_PROTOBUF = MediaType
+                                                               .valueOf("application/x-protobuf");
+
+    private static final long         CLOSE_TIMEOUT        = TimeUnit.SECONDS.toMillis(5);
+
+    private final RestTemplate        restTemplate;
+    private final String              url;
+    private final Encoding            encoding;
+    private final int                 messageMaxBytes;
+    private final int                 maxRetries;
+    private final long                retryBackoffMillis;
+    private final ZipkinExportMetrics metrics;
+    private final ThreadPoolExecutor  executor;
+
+    public ZipkinAsyncRestTemplateSender(RestTemplate restTemplate, String baseUrl,
+                                         ZipkinExportOptions options, ZipkinExportMetrics metrics) {
+        this.restTemplate = restTemplate;
+        this.url = baseUrl + (baseUrl.endsWith("/") ? "" : "/") + "api/v2/spans";
+        this.encoding = options.getEncoding();
+        this.messageMaxBytes = options.getMessageMaxBytes();
+        this.maxRetries = Math.max(0, options.getMaxRetries());
+        this.retryBackoffMillis = Math.max(1, options.getRetryBackoffMillis());
+        this.metrics = metrics;
+        int maxInFlight = Math.max(1, options.getMaxInFlight());
+        final AtomicInteger index = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxInFlight, maxInFlight, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<Runnable>(maxInFlight), r -> {
+                Thread thread = new Thread(r, "Tracer-Zipkin-Sender-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public Encoding encoding() {
+        return encoding;
+    }
+
+    @Override
+    public int messageMaxBytes() {
+        return messageMaxBytes;
+    }
+
+    @Override
+    public int messageSizeInBytes(List<byte[]> spans) {
+        return encoding.listSizeInBytes(spans);
+    }
+
+    @Override
+    public Call<Void> sendSpans(List<byte[]> encodedSpans) {
+        final byte[] message = BytesMessageEncoder.forEncoding(encoding).encode(encodedSpans);
+        final int spanCount = encodedSpans.size();
+        try {
+            executor.execute(() -> send(message, spanCount));
+        } catch (RejectedExecutionException e) {
+            dropped(spanCount, e);
+        }
+        return Call.create(null);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(CLOSE_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void send(byte[] message, int spanCount) {
+        for (int attempt = 0;; attempt++) {
+            try {
+                post(message);
+                return;
+            } catch (Throwable e) {
+                if (attempt >= maxRetries || !isRetryable(e) || executor.isShutdown()) {
+                    dropped(spanCount, e);
+                    SelfLog.error("Failed to report " + spanCount
+                                  + " spans to remote server. Current rest url is " + url, e);
+                    return;
+                }
+            }
+            metrics.incrementRetries();
+            try {
+                Thread.sleep(retryBackoffMillis << Math.min(attempt, 10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped(spanCount, e);
+                return;
+            }
+        }
+    }
+
+    private void post(byte[] message) {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setContentType(encoding == Encoding.PROTO3 ? APPLICATION_PROTOBUF
+            : MediaType.APPLICATION_JSON);
+        RequestEntity<byte[]> requestEntity = new RequestEntity<byte[]>(message, httpHeaders,
+            HttpMethod.POST, URI.create(this.url));
+        this.restTemplate.exchange(requestEntity, String.class);
+    }
+
+    private static boolean isRetryable(Throwable e) {
+        return !(e instanceof HttpClientErrorException)
+               || ((HttpClientErrorException) e).getStatusCode() == HttpStatus.TOO_MANY_REQUESTS;
+    }
+
+    private void dropped(int spanCount, Throwable cause) {
+        metrics.incrementMessagesDropped(cause);
+        metrics.incrementSpansDropped(spanCount);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.plugins.zipkin;
+
+import com.alipay.sofa.tracer.plugins.zipkin.metrics.ZipkinExportMetrics;
+import com.alipay.sofa.tracer.plugins.zipkin.properties.ZipkinExportOptions;
+import com.alipay.sofa.tracer.plugins.zipkin.sender.ZipkinAsyncRestTemplateSender;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.web.client.RestTemplate;
+import zipkin2.Span;
+import zipkin2.codec.SpanBytesDecoder;
+import zipkin2.codec.SpanBytesEncoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Runs the sender against an in-process stand-in of the zipkin collector
+ *
+ * @since 3.1.10
+ */
+public class ZipkinAsyncRestTemplateSenderTest {
+
+    private HttpServer                      server;
+    private String                          baseUrl;
+    private final BlockingQueue<List<Span>> received      = new LinkedBlockingQueue<List<Span>>();
+    private final AtomicInteger             failuresLeft  = new AtomicInteger();
+    private volatile int                    failureStatus = 503;
+    private final ZipkinExportOptions       options       = new ZipkinExportOptions();
+    private final ZipkinExportMetrics       metrics       = new ZipkinExportMetrics();
+    private ZipkinAsyncRestTemplateSender   sender;
+
+    @Before
+    public void before() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v2/spans", exchange -> {
+            if (failuresLeft.getAndDecrement() > 0) {
+                exchange.sendResponseHeaders(failureStatus, -1);
+                exchange.close();
+                return;
+            }
+            InputStream body = exchange.getRequestBody();
+            if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                body = new GZIPInputStream(body);
+            }
+            Assert.assertEquals("application/x-protobuf",
+                exchange.getRequestHeaders().getFirst("Content-Type"));
+            received.add(SpanBytesDecoder.PROTO3.decodeList(IOUtils.toByteArray(body)));
+            exchange.sendResponseHeaders(202, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        options.setRetryBackoffMillis(10);
+    }
+
+    @After
+    public void after() {
+        if (sender != null) {
+            sender.close();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    public void testGzippedProto3() throws Exception {
+        RestTemplate restTemplate = new RestTemplate();
+        new ZipkinSofaTracerRestTemplateCustomizer(true).customize(restTemplate);
+        sender = new ZipkinAsyncRestTemplateSender(restTemplate, baseUrl, options, metrics);
+        List<Span> spans = spans(3);
+        sender.sendSpans(encode(spans));
+        Assert.assertEquals(spans, received.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testRetry() throws Exception {
+        failuresLeft.set(2);
+        sender = new ZipkinAsyncRestTemplateSender(new RestTemplate(), baseUrl, options, metrics);
+        sender.sendSpans(encode(spans(2)));
+        Assert.assertEquals(2, received.poll(5, TimeUnit.SECONDS).size());
+        Assert.assertEquals(2, metrics.getRetries());
+        Assert.assertEquals(0, metrics.getSpansDropped());
+    }
+
+    @Test
+    public void testDropAfterRetries() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+        failureStatus = 500;
+        options.setMaxRetries(1);
+        sender = new ZipkinAsyncRestTemplateSender(new RestTemplate(), baseUrl, options, metrics);
+        sender.sendSpans(encode(spans(4)));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (metrics.getSpansDropped() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(4, metrics.getSpansDropped());
+        Assert.assertEquals(1, metrics.getMessagesDropped());
+        Assert.assertEquals(1, metrics.getRetries());
+    }
+
+    @Test
+    public void testClientErrorNotRetried() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+        failureStatus = 400;
+        sender = new ZipkinAsyncRestTemplateSender(new RestTemplate(), baseUrl, options, metrics);
+        sender.sendSpans(encode(spans(1)));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (metrics.getSpansDropped() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, metrics.getSpansDropped());
+        Assert.assertEquals(0, metrics.getRetries());
+    }
+
+    private static List<Span> spans(int count) {
+        List<Span> spans = new ArrayList<Span>();
+        for (int i = 0; i < count; i++) {
+            spans.add(Span.newBuilder().traceId("463ac35c9f6413ad").id(Long.toHexString(i + 1))
+                .name("get").kind(Span.Kind.CLIENT).timestamp(1472470996199000L).duration(207000L)
+                .putTag("http.path", "/api").build());
+        }
+        return spans;
+    }
+
+    private static List<byte[]> encode(List<Span> spans) {
+        List<byte[]> encoded = new ArrayList<byte[]>();
+        for (Span span : spans) {
+            encoded.add(SpanBytesEncoder.PROTO3.encode(span));
+        }
+        return encoded;
+    }
+}
@@ -30,7 +30,10 @@ import com.alipay.common.tracer.core.samplers.SamplerFactory;
 import com.alipay.common.tracer.core.samplers.SamplingStatus;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import com.alipay.common.tracer.core.span.SofaTracerSpanReferenceRelationship;
+import com.alipay.common.tracer.core.span.SpanRecycler;
+import com.alipay.common.tracer.core.span.StatsOnlySpan;
 import com.alipay.common.tracer.core.utils.AssertUtils;
+import com.alipay.common.tracer.core.utils.SpanTiming;
 import com.alipay.common.tracer.core.utils.StringUtils;
 import com.alipay.sofa.common.code.LogCode2Description;
 import io.opentracing.References;
@@ -185,8 +188,9 @@ public class SofaTracer implements Tracer {
         if (span == null) {
             return;
         }
-        // //sampler is support &  current span is root span
-        if (sampler != null && (span.isClient() && span.getParentSofaTracerSpan() == null)) {
+        // //sampler is support &  current span is root span, a stats only span keeps the decision of its parent
+        if (sampler != null && !span.isStatsOnly()
+            && (span.isClient() && span.getParentSofaTracerSpan() == null)) {
             span.getSofaTracerSpanContext().setSampled(sampler.sample(span).isSampled());
         }
         //invoke listener
@@ -438,18 +442,39 @@ public class SofaTracer implements Tracer {
 
         @Override
         public Span start() {
+            // the sampling decision is inherited, known before the span is built
+            boolean statsOnly = this.references != null && this.references.size() > 0
+                                && !preferredReference().isSampled() && StatsOnlySpan.isEnabled();
+            SofaTracerSpan recycled = statsOnly ? null : SpanRecycler.acquire();
+            SofaTracerSpanContext reusableContext = recycled != null ? recycled
+                .getSofaTracerSpanContext() : null;
             SofaTracerSpanContext sofaTracerSpanContext;
             if (this.references != null && this.references.size() > 0) {
                 //Parent context exist
-                sofaTracerSpanContext = this.createChildContext();
+                sofaTracerSpanContext = this.createChildContext(reusableContext);
             } else {
                 //Start with new root span context
-                sofaTracerSpanContext = this.createRootSpanContext();
+                sofaTracerSpanContext = this.createRootSpanContext(reusableContext);
             }
 
             long begin = this.startTime > 0 ? this.startTime : System.currentTimeMillis();
-            SofaTracerSpan sofaTracerSpan = new SofaTracerSpan(SofaTracer.this, begin,
-                this.references, this.operationName, sofaTracerSpanContext, this.tags);
+            long beginNanos = this.startTime <= 0 && SpanTiming.isHighResolution() ? System
+                .nanoTime() : 0;
+            SofaTracerSpan sofaTracerSpan;
+            if (statsOnly) {
+                sofaTracerSpan = new StatsOnlySpan(SofaTracer.this, begin, this.references,
+                    this.operationName, sofaTracerSpanContext, this.tags);
+            } else if (recycled != null) {
+                sofaTracerSpan = SpanRecycler.reuse(recycled, SofaTracer.this, begin,
+                    this.references, this.operationName, sofaTracerSpanContext, this.tags);
+            } else {
+                sofaTracerSpan = new SofaTracerSpan(SofaTracer.this, begin, this.references,
+                    this.operationName, sofaTracerSpanContext, this.tags);
+                SpanRecycler.track(sofaTracerSpan);
+            }
+            if (beginNanos != 0) {
+                sofaTracerSpan.setStartNanos(beginNanos);
+            }
 
             // calculate isSampled，but do not change parent's sampler behaviour
             boolean isSampled = calculateSampler(sofaTracerSpan);
@@ -477,18 +502,35 @@ public class SofaTracer implements Tracer {
             return isSampled;
         }
 
-        private SofaTracerSpanContext createRootSpanContext() {
+        /**
+         * @param reusableContext context of a recycled span, null to create one
+         */
+        private SofaTracerSpanContext createRootSpanContext(SofaTracerSpanContext reusableContext) {
             //generate traceId
             String traceId = TraceIdGenerator.generate();
+            if (reusableContext != null) {
+                return reusableContext.reinitialize(traceId, ROOT_SPAN_ID,
+                    StringUtils.EMPTY_STRING, true);
+            }
             return new SofaTracerSpanContext(traceId, ROOT_SPAN_ID, StringUtils.EMPTY_STRING);
         }
 
-        private SofaTracerSpanContext createChildContext() {
+        /**
+         * @param reusableContext context of a recycled span, null to create one
+         */
+        private SofaTracerSpanContext createChildContext(SofaTracerSpanContext reusableContext) {
             SofaTracerSpanContext preferredReference = preferredReference();
 
-            SofaTracerSpanContext sofaTracerSpanContext = new SofaTracerSpanContext(
-                preferredReference.getTraceId(), preferredReference.nextChildContextId(),
-                preferredReference.getSpanId(), preferredReference.isSampled());
+            SofaTracerSpanContext sofaTracerSpanContext;
+            if (reusableContext != null) {
+                sofaTracerSpanContext = reusableContext.reinitialize(
+                    preferredReference.getTraceId(), preferredReference.nextChildContextId(),
+                    preferredReference.getSpanId(), preferredReference.isSampled());
+            } else {
+                sofaTracerSpanContext = new SofaTracerSpanContext(preferredReference.getTraceId(),
+                    preferredReference.nextChildContextId(), preferredReference.getSpanId(),
+                    preferredReference.isSampled());
+            }
             sofaTracerSpanContext.addBizBaggage(this.createChildBaggage(true));
             sofaTracerSpanContext.addSysBaggage(this.createChildBaggage(false));
             return sofaTracerSpanContext;
@@ -497,19 +539,20 @@ public class SofaTracer implements Tracer {
         private Map<String, String> createChildBaggage(boolean isBiz) {
             // optimization for 99% use cases, when there is only one parent
             if (references.size() == 1) {
+                // shared with the parent until one of them writes to it
                 if (isBiz) {
-                    return references.get(0).getSofaTracerSpanContext().getBizBaggage();
+                    return references.get(0).getSofaTracerSpanContext().getBizBaggageSnapshot();
                 } else {
-                    return references.get(0).getSofaTracerSpanContext().getSysBaggage();
+                    return references.get(0).getSofaTracerSpanContext().getSysBaggageSnapshot();
                 }
             }
             Map<String, String> baggage = null;
             for (SofaTracerSpanReferenceRelationship reference : references) {
                 Map<String, String> referenceBaggage;
                 if (isBiz) {
-                    referenceBaggage = reference.getSofaTracerSpanContext().getBizBaggage();
+                    referenceBaggage = reference.getSofaTracerSpanContext().getBizBaggageSnapshot();
                 } else {
-                    referenceBaggage = reference.getSofaTracerSpanContext().getSysBaggage();
+                    referenceBaggage = reference.getSofaTracerSpanContext().getSysBaggageSnapshot();
                 }
                 if (referenceBaggage != null && referenceBaggage.size() > 0) {
                     if (baggage == null) {
@@ -16,7 +16,7 @@
  */
 package com.alipay.common.tracer.core.appender;
 
-import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.appender.self.SynchronizingSelfLog;
 import com.alipay.common.tracer.core.appender.self.TracerDaemon;
 import com.alipay.common.tracer.core.utils.StringUtils;
 import com.alipay.common.tracer.core.utils.TracerUtils;
@@ -84,11 +84,12 @@ public class TracerLogRootDaemon {
 
         LOG_FILE_DIR = tempLogFileDir;
 
+        // the self log appender is created under this directory and logs it, so do not log
+        // through the self log here
         try {
             TracerDaemon.start();
-            SelfLog.info("LOG_FILE_DIR is " + LOG_FILE_DIR);
         } catch (Throwable e) {
-            SelfLog.error("Failed to start Tracer Daemon Thread", e);
+            SynchronizingSelfLog.error("Failed to start Tracer Daemon Thread", e);
         }
     }
 }
@@ -16,6 +16,7 @@
  */
 package com.alipay.common.tracer.core.appender.builder;
 
+import com.alipay.common.tracer.core.appender.file.BinaryDigestWriter;
 import com.alipay.common.tracer.core.utils.StringUtils;
 
 /**
@@ -28,11 +29,23 @@ import com.alipay.common.tracer.core.utils.StringUtils;
  */
 public class JsonStringBuilder {
 
-    private static final int DEFAULT_BUFFER_SIZE = 256;
+    private static final int   DEFAULT_BUFFER_SIZE = 256;
 
-    private StringBuilder    sb;
+    private StringBuilder      sb;
 
-    private boolean          isValueNullCheck    = false;
+    private boolean            isValueNullCheck    = false;
+
+    /**
+     * Set in binary mode, where every field is appended to the current record of the writer
+     * once the next one shows whether it closes the object
+     */
+    private BinaryDigestWriter binary;
+
+    private boolean            open;
+
+    private String             pendingKey;
+
+    private Object             pendingValue;
 
     public JsonStringBuilder() {
         this(false, DEFAULT_BUFFER_SIZE);
@@ -47,7 +60,21 @@ public class JsonStringBuilder {
         this.sb = new StringBuilder(size);
     }
 
+    /**
+     * Append every field to the current record of the writer instead of this builder
+     * @param binary binary digest writer
+     */
+    public JsonStringBuilder(BinaryDigestWriter binary) {
+        this(false, DEFAULT_BUFFER_SIZE);
+        this.binary = binary;
+    }
+
     public JsonStringBuilder appendBegin() {
+        if (binary != null) {
+            appendPending();
+            open = true;
+            return this;
+        }
         sb.append('{');
         return this;
     }
@@ -64,6 +91,13 @@ public class JsonStringBuilder {
                 return this;
             }
         }
+        if (binary != null) {
+            appendPending();
+            pendingKey = (open ? "{\"" : "\"") + key + "\":";
+            pendingValue = value;
+            open = false;
+            return this;
+        }
         this.append(key, value, ',');
         return this;
     }
@@ -73,6 +107,10 @@ public class JsonStringBuilder {
     }
 
     public JsonStringBuilder appendEnd(boolean isNewLine) {
+        if (binary != null) {
+            endBinary(isNewLine);
+            return this;
+        }
         if (this.sb.charAt(sb.length() - 1) == ',') {
             this.sb.deleteCharAt(sb.length() - 1);
         }
@@ -88,19 +126,75 @@ public class JsonStringBuilder {
     }
 
     public JsonStringBuilder appendEnd(String key, Object value, boolean isNewLine) {
+        if (value == null && this.isValueNullCheck) {
+            return this.appendEnd(isNewLine);
+        }
+        if (binary != null) {
+            this.append(key, value);
+            endBinary(isNewLine);
+            return this;
+        }
+        this.append(key, value, '}');
+        if (isNewLine) {
+            this.sb.append(StringUtils.NEWLINE);
+        }
+        return this;
+    }
+
+    private void appendPending() {
+        String key = pendingKey;
+        if (key == null) {
+            return;
+        }
+        Object value = pendingValue;
+        pendingKey = null;
+        pendingValue = null;
         if (value == null) {
-            if (this.isValueNullCheck) {
-                return this.appendEnd(isNewLine);
+            binary.appendString(key, "", true);
+        } else if (value instanceof String) {
+            binary.appendString(key, (String) value, isQuoted((String) value));
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short
+                   || value instanceof Byte) {
+            binary.appendNumber(key, ((Number) value).longValue());
+        } else {
+            binary.appendString(key, String.valueOf(value), false);
+        }
+    }
+
+    /**
+     * The closing brace and line separator end the last segment, it is appended as text
+     */
+    private void endBinary(boolean isNewLine) {
+        StringBuilder last = new StringBuilder();
+        if (pendingKey != null) {
+            last.append(pendingKey);
+            if (pendingValue == null) {
+                last.append("\"\"");
+            } else if (pendingValue instanceof String && isQuoted((String) pendingValue)) {
+                last.append('"').append(pendingValue).append('"');
             } else {
-                this.append(key, value, '}');
+                last.append(pendingValue);
             }
-        } else {
-            this.append(key, value, '}');
+            pendingKey = null;
+            pendingValue = null;
+        } else if (open) {
+            last.append('{');
         }
+        open = false;
+        last.append('}');
         if (isNewLine) {
-            this.sb.append(StringUtils.NEWLINE);
+            last.append(StringUtils.NEWLINE);
         }
-        return this;
+        int length = last.length();
+        boolean newLine = last.charAt(length - 1) == '\n';
+        binary.appendText(last.substring(0, newLine ? length - 1 : length));
+        if (newLine) {
+            binary.endLine();
+        }
+    }
+
+    private static boolean isQuoted(String value) {
+        return value.length() <= 0 || (value.charAt(0) != '{' && value.charAt(0) != '[');
     }
 
     private JsonStringBuilder append(String key, Object value, char endChar) {
@@ -112,7 +206,7 @@ public class JsonStringBuilder {
         }
         if (value instanceof String) {
             String valueStr = (String) value;
-            if (valueStr.length() <= 0 || (valueStr.charAt(0) != '{' && valueStr.charAt(0) != '[')) {
+            if (isQuoted(valueStr)) {
                 //string
                 this.sb.append('"').append(key).append('"').append(':').append('"').append(value)
                     .append('"').append(endChar);
@@ -16,6 +16,7 @@
  */
 package com.alipay.common.tracer.core.appender.builder;
 
+import com.alipay.common.tracer.core.appender.file.BinaryDigestWriter;
 import com.alipay.common.tracer.core.utils.StringUtils;
 
 import java.util.Map;
@@ -47,11 +48,25 @@ public class XStringBuilder {
     private static String      separatorStr             = separator + "";
     private static String      spearatorEscape          = DEFAULT_SEPARATOR_ESCAPE;
     private StringBuilder      sb;
+    /**
+     * Set in binary mode, where sb only holds the segment being appended
+     */
+    private BinaryDigestWriter binary;
 
     public XStringBuilder() {
         this(DEFAULT_BUFFER_SIZE, DEFAULT_SEPARATOR);
     }
 
+    /**
+     * Append every segment, i.e. the text between two default separators, to the current
+     * record of the writer instead of this builder
+     * @param binary binary digest writer
+     */
+    public XStringBuilder(BinaryDigestWriter binary) {
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_SEPARATOR);
+        this.binary = binary;
+    }
+
     public XStringBuilder(int size) {
         this(size, DEFAULT_SEPARATOR);
     }
@@ -66,8 +81,8 @@ public class XStringBuilder {
      * @return this
      */
     public XStringBuilder append(String str) {
-        sb.append(str == null ? StringUtils.EMPTY_STRING : str).append(separator);
-        return this;
+        sb.append(str == null ? StringUtils.EMPTY_STRING : str);
+        return separate(separator);
     }
 
     /**
@@ -75,8 +90,7 @@ public class XStringBuilder {
      * @return this
      */
     public XStringBuilder append(long str) {
-        sb.append(str).append(separator);
-        return this;
+        return append(str, separator);
     }
 
     /**
@@ -85,6 +99,9 @@ public class XStringBuilder {
      * @return this
      */
     public XStringBuilder append(long str, String separator) {
+        if (separator != null && separator.length() == 1) {
+            return append(str, separator.charAt(0));
+        }
         sb.append(str).append(separator);
         return this;
     }
@@ -95,8 +112,12 @@ public class XStringBuilder {
      * @return this
      */
     public XStringBuilder append(long str, char separator) {
-        sb.append(str).append(separator);
-        return this;
+        if (binary != null && separator == DEFAULT_SEPARATOR && sb.length() == 0) {
+            binary.appendNumber(null, str);
+            return this;
+        }
+        sb.append(str);
+        return separate(separator);
     }
 
     /**
@@ -105,7 +126,11 @@ public class XStringBuilder {
      * @return this
      */
     public XStringBuilder append(String str, String separator) {
-        sb.append(str == null ? StringUtils.EMPTY_STRING : str).append(separator);
+        sb.append(str == null ? StringUtils.EMPTY_STRING : str);
+        if (separator != null && separator.length() == 1) {
+            return separate(separator.charAt(0));
+        }
+        sb.append(separator);
         return this;
     }
 
@@ -114,8 +139,7 @@ public class XStringBuilder {
      * @return this
      */
     public XStringBuilder append(int str) {
-        sb.append(str).append(separator);
-        return this;
+        return append(str, separator);
     }
 
     /**
@@ -123,8 +147,8 @@ public class XStringBuilder {
      * @return this
      */
     public XStringBuilder append(char str) {
-        sb.append(str).append(separator);
-        return this;
+        sb.append(str);
+        return separate(separator);
     }
 
     /**
@@ -141,8 +165,8 @@ public class XStringBuilder {
      * @return this
      */
     public XStringBuilder appendEnd(int str) {
-        sb.append(str).append(StringUtils.NEWLINE);
-        return this;
+        sb.append(str);
+        return end();
     }
 
     /**
@@ -150,8 +174,8 @@ public class XStringBuilder {
      * @return this
      */
     public XStringBuilder appendEnd(String str) {
-        sb.append(str == null ? StringUtils.EMPTY_STRING : str).append(StringUtils.NEWLINE);
-        return this;
+        sb.append(str == null ? StringUtils.EMPTY_STRING : str);
+        return end();
     }
 
     /**
@@ -159,8 +183,8 @@ public class XStringBuilder {
      * @return this
      */
     public XStringBuilder appendEnd(long str) {
-        sb.append(str).append(StringUtils.NEWLINE);
-        return this;
+        sb.append(str);
+        return end();
     }
 
     /**
@@ -168,8 +192,8 @@ public class XStringBuilder {
      * @return this
      */
     public XStringBuilder appendEnd(char c) {
-        sb.append(String.valueOf(c)).append(StringUtils.NEWLINE);
-        return this;
+        sb.append(c);
+        return end();
     }
 
     /**
@@ -223,6 +247,31 @@ public class XStringBuilder {
         return appendEnd(str);
     }
 
+    private XStringBuilder separate(char separator) {
+        if (binary != null && separator == DEFAULT_SEPARATOR) {
+            binary.appendText(sb.toString());
+            sb.setLength(0);
+        } else {
+            sb.append(separator);
+        }
+        return this;
+    }
+
+    private XStringBuilder end() {
+        sb.append(StringUtils.NEWLINE);
+        if (binary != null) {
+            // the reader restores the line feed from the new line flag, not from the segment
+            int length = sb.length();
+            boolean newLine = sb.charAt(length - 1) == '\n';
+            binary.appendText(sb.substring(0, newLine ? length - 1 : length));
+            if (newLine) {
+                binary.endLine();
+            }
+            sb.setLength(0);
+        }
+        return this;
+    }
+
     /**
      * @return this
      */
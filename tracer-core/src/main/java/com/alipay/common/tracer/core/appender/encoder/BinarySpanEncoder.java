@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.encoder;
+
+import com.alipay.common.tracer.core.appender.file.BinaryDigestWriter;
+
+import java.io.IOException;
+
+/**
+ * BinarySpanEncoder
+ * <p>
+ * Span encoder writing the binary digest record directly, so that binary digest logs skip the
+ * text line. Encoders without it are written by splitting their text line.
+ * </p>
+ * @since 3.1.10
+ */
+public interface BinarySpanEncoder<T> {
+
+    /**
+     * Write the segments of the span into the current record of the writer
+     *
+     * @param span current span
+     * @param writer binary digest writer
+     * @throws IOException
+     */
+    void encode(T span, BinaryDigestWriter writer) throws IOException;
+}
@@ -19,13 +19,18 @@ package com.alipay.common.tracer.core.appender.file;
 import com.alipay.common.tracer.core.appender.TraceAppender;
 import com.alipay.common.tracer.core.appender.TracerLogRootDaemon;
 import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.metrics.AppenderMetrics;
+import com.alipay.common.tracer.core.metrics.TracerMetrics;
 
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author yangyanzhao
@@ -53,18 +58,44 @@ public abstract class AbstractRollingFileAppender implements TraceAppender {
 
     protected File                 logFile                    = null;
 
+    /**
+     * Buffers the file, or the {@link SharedLogWriter} stream of the file if it is enabled
+     */
     protected BufferedOutputStream bos                        = null;
 
     private long                   nextFlushTime              = 0L;
+    /**
+     * Bytes handed to the current file, not counting the ones still buffered. Added to by the
+     * appending thread and, for the partial chunks of a {@link SharedLogWriter}, by its writer
+     */
+    private final AtomicLong       fileSize                   = new AtomicLong();
     private long                   nextIOExceptionPrintTime   = 0L;
 
+    /**
+     * Null if the tracer metrics are disabled
+     */
+    private final AppenderMetrics  metrics;
+
     public AbstractRollingFileAppender(String file, boolean append) {
         this(file, DEFAULT_BUFFER_SIZE, append);
     }
 
     public AbstractRollingFileAppender(String file, int bufferSize, boolean append) {
+        this(file, bufferSize, append, true);
+    }
+
+    /**
+     * @param file file name
+     * @param bufferSize buffer size
+     * @param append whether to append to the existing content
+     * @param instrumented false for the self log appenders: the metrics log their failures to
+     *                     the self log, which must not depend on itself while it is created
+     */
+    protected AbstractRollingFileAppender(String file, int bufferSize, boolean append,
+                                          boolean instrumented) {
         this.fileName = TracerLogRootDaemon.LOG_FILE_DIR + File.separator + file;
         this.bufferSize = bufferSize;
+        this.metrics = instrumented ? TracerMetrics.appender(fileName) : null;
         setFile(append);
     }
 
@@ -88,8 +119,15 @@ public abstract class AbstractRollingFileAppender implements TraceAppender {
                           + logFile.getAbsolutePath());
                 return;
             }
+            if (SharedLogWriter.isEnabled()) {
+                fileSize.set(append ? logFile.length() : 0L);
+                bos = new BufferedOutputStream(SharedLogWriter.getInstance().open(logFile,
+                    append, this::written), bufferSize);
+                return;
+            }
             //append == true
-            FileOutputStream ostream = new FileOutputStream(logFile, append);
+            OutputStream ostream = new CountingOutputStream(new FileOutputStream(logFile, append));
+            fileSize.set(append ? logFile.length() : 0L);
             bos = new BufferedOutputStream(ostream, bufferSize);
         } catch (Throwable e) {
             SelfLog.error("setFile error", e);
@@ -101,11 +139,15 @@ public abstract class AbstractRollingFileAppender implements TraceAppender {
         if (bos != null) {
             waitUntilRollFinish();
             if (shouldRollOverNow() && isRolling.compareAndSet(false, true)) {
+                long rollStart = System.nanoTime();
                 try {
                     rollOver();
                     nextFlushTime = System.currentTimeMillis() + LOG_FLUSH_INTERVAL;
                 } finally {
                     isRolling.set(false);
+                    if (metrics != null) {
+                        metrics.rolled(System.nanoTime() - rollStart);
+                    }
                 }
             } else {
                 // Refreshed after the specified refresh time has not been refreshed
@@ -116,8 +158,10 @@ public abstract class AbstractRollingFileAppender implements TraceAppender {
                 }
             }
             // Whether you have RollOver or not, you need to write the input to bos
-            byte[] bytes = log.getBytes(TracerLogRootDaemon.DEFAULT_CHARSET);
-            write(bytes);
+            write(log);
+            if (metrics != null) {
+                metrics.appended();
+            }
         }
     }
 
@@ -135,9 +179,18 @@ public abstract class AbstractRollingFileAppender implements TraceAppender {
      */
     protected abstract void rollOver();
 
-    private void write(byte[] bytes) {
+    /**
+     * Write one log to the current file, as text by default
+     * @param log log
+     * @throws IOException if the file cannot be written
+     */
+    protected void writeLog(String log) throws IOException {
+        bos.write(log.getBytes(TracerLogRootDaemon.DEFAULT_CHARSET));
+    }
+
+    private void write(String log) {
         try {
-            bos.write(bytes);
+            writeLog(log);
         } catch (IOException e) {
             long now = System.currentTimeMillis();
             if (now > nextIOExceptionPrintTime) {
@@ -155,6 +208,9 @@ public abstract class AbstractRollingFileAppender implements TraceAppender {
         if (bos != null) {
             try {
                 bos.flush();
+                if (metrics != null) {
+                    metrics.flushed();
+                }
             } catch (IOException e) {
                 long now = System.currentTimeMillis();
                 if (now > nextIOExceptionPrintTime) {
@@ -178,4 +234,40 @@ public abstract class AbstractRollingFileAppender implements TraceAppender {
     private void doSelfLog(String log) {
         System.out.println("[TraceSelfLog]" + log);
     }
+
+    /**
+     * @return the size of the current file, not counting the bytes still buffered
+     */
+    public long getFileSize() {
+        return fileSize.get();
+    }
+
+    private void written(int len) {
+        fileSize.addAndGet(len);
+        if (metrics != null) {
+            metrics.written(len);
+        }
+    }
+
+    /**
+     * Counts what the buffer actually hands to the file
+     */
+    private class CountingOutputStream extends FilterOutputStream {
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            written(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            written(len);
+        }
+    }
 }
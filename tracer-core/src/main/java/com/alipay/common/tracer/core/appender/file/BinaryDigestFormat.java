@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Layout of the binary digest log files shared by {@link BinaryDigestWriter} and
+ * {@link BinaryDigestReader}.
+ * <pre>
+ * file    := block*
+ * block   := 0x00 MAGIC VERSION flags record*
+ * record  := varint(length &gt; 0) varint(segmentCount &lt;&lt; 1 | endsWithNewLine) segment*
+ * segment := header [string(key)] value
+ * string  := varint(0) varint(len) utf8   -- added to the block dictionary
+ *          | varint(1) varint(len) utf8   -- literal
+ *          | varint(id + 2)               -- dictionary reference
+ * </pre>
+ * A line is split on commas into segments, so both the XSB and the JSON lines round-trip
+ * byte for byte. A JSON {@code "key":} prefix is dictionary encoded apart from its value,
+ * numbers, {@code ms} durations and {@code yyyy-MM-dd HH:mm:ss.SSS} timestamps are varint
+ * encoded, timestamps as the delta to the previous one of the block.
+ *
+ * @since 3.1.10
+ */
+public final class BinaryDigestFormat {
+
+    static final byte[]       MAGIC            = { 'S', 'O', 'F', 'B' };
+    static final byte         VERSION          = 1;
+    static final byte         BLOCK_START      = 0;
+
+    static final int          TYPE_MASK        = 0x03;
+    static final int          TYPE_STRING      = 0;
+    static final int          TYPE_NUMBER      = 1;
+    static final int          TYPE_MILLIS      = 2;
+    static final int          TYPE_TIMESTAMP   = 3;
+    static final int          FLAG_QUOTED      = 0x04;
+    static final int          FLAG_KEY         = 0x08;
+    static final int          FLAG_CLOSE       = 0x10;
+
+    static final int          STRING_NEW       = 0;
+    static final int          STRING_LITERAL   = 1;
+    static final int          STRING_REF_BASE  = 2;
+
+    static final String       MILLIS_SUFFIX    = "ms";
+    static final int          TIMESTAMP_LENGTH = 23;
+
+    private static final long MILLIS_PER_DAY   = 86400000L;
+
+    private BinaryDigestFormat() {
+    }
+
+    static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            size++;
+            value >>>= 7;
+        }
+        return size;
+    }
+
+    /**
+     * @return the value, or -1 at the end of the stream before the first byte
+     */
+    static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift == 0) {
+                    return -1;
+                }
+                throw new EOFException("Truncated varint");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * @return the value of a canonical non negative decimal of at most 18 digits, or -1
+     */
+    static long parseNumber(String str, int length) {
+        if (length == 0 || length > 18 || (str.charAt(0) == '0' && length > 1)) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = str.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Parse a {@code yyyy-MM-dd HH:mm:ss.SSS} wall clock time as if it were UTC, which keeps the
+     * round trip exact whatever the time zone of the writer and of the reader.
+     * @return the millis, or {@link Long#MIN_VALUE} if the string is not such a timestamp
+     */
+    static long parseTimestamp(String str) {
+        if (str.length() != TIMESTAMP_LENGTH || str.charAt(4) != '-' || str.charAt(7) != '-'
+            || str.charAt(10) != ' ' || str.charAt(13) != ':' || str.charAt(16) != ':'
+            || str.charAt(19) != '.') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(str, 0, 4);
+        int month = digits(str, 5, 2);
+        int day = digits(str, 8, 2);
+        int hour = digits(str, 11, 2);
+        int minute = digits(str, 14, 2);
+        int second = digits(str, 17, 2);
+        int millis = digits(str, 20, 3);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+            || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59
+            || millis < 0) {
+            return Long.MIN_VALUE;
+        }
+        return daysFromCivil(year, month, day) * MILLIS_PER_DAY
+               + ((hour * 60L + minute) * 60L + second) * 1000L + millis;
+    }
+
+    static String formatTimestamp(long value) {
+        long days = Math.floorDiv(value, MILLIS_PER_DAY);
+        long millisOfDay = Math.floorMod(value, MILLIS_PER_DAY);
+        // civil from days, see http://howardhinnant.github.io/date_algorithms.html
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        long day = doy - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        char[] chars = new char[TIMESTAMP_LENGTH];
+        pad(chars, 0, year, 4);
+        chars[4] = '-';
+        pad(chars, 5, month, 2);
+        chars[7] = '-';
+        pad(chars, 8, day, 2);
+        chars[10] = ' ';
+        pad(chars, 11, millisOfDay / 3600000, 2);
+        chars[13] = ':';
+        pad(chars, 14, millisOfDay / 60000 % 60, 2);
+        chars[16] = ':';
+        pad(chars, 17, millisOfDay / 1000 % 60, 2);
+        chars[19] = '.';
+        pad(chars, 20, millisOfDay % 1000, 3);
+        return new String(chars);
+    }
+
+    private static long daysFromCivil(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    private static int digits(String str, int offset, int length) {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char c = str.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void pad(char[] chars, int offset, long value, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.alipay.common.tracer.core.appender.file.BinaryDigestFormat.*;
+
+/**
+ * Stream the lines back out of a binary digest file, exactly as the digest encoder produced
+ * them, i.e. as JSON or XSB lines depending on {@code global_json_format_output}.
+ * <p>
+ * Also usable from the command line, printing the lines of the given files, or of the
+ * standard input, to the standard output:
+ * <pre>
+ * java -cp tracer-core.jar com.alipay.common.tracer.core.appender.file.BinaryDigestReader rpc-client-digest.bin.log
+ * </pre>
+ *
+ * @since 3.1.10
+ */
+public class BinaryDigestReader implements Closeable {
+
+    private final InputStream   in;
+
+    private final List<String>  dictionary = new ArrayList<String>();
+
+    private final RecordCursor  record     = new RecordCursor();
+
+    private final StringBuilder line       = new StringBuilder(512);
+
+    private byte[]              buffer     = new byte[512];
+
+    private boolean             blockStarted;
+
+    private long                lastTimestamp;
+
+    public BinaryDigestReader(InputStream in) {
+        this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in);
+    }
+
+    /**
+     * @return the next line including its line separator, or null at the end of the stream
+     * @throws IOException if the stream fails or is not a binary digest file
+     */
+    public String readLine() throws IOException {
+        long length;
+        while ((length = readVarint(in)) == BLOCK_START) {
+            startBlock();
+        }
+        if (length < 0) {
+            return null;
+        }
+        if (!blockStarted) {
+            throw new IOException("Not a binary digest file");
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Malformed record length " + length);
+        }
+        readRecord((int) length);
+        return decodeRecord();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void startBlock() throws IOException {
+        for (byte b : MAGIC) {
+            if (in.read() != b) {
+                throw new IOException("Not a binary digest file");
+            }
+        }
+        int version = in.read();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary digest version " + version);
+        }
+        if (in.read() < 0) {
+            throw new EOFException("Truncated block header");
+        }
+        dictionary.clear();
+        lastTimestamp = 0;
+        blockStarted = true;
+    }
+
+    private void readRecord(int length) throws IOException {
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+        int read = 0;
+        while (read < length) {
+            int n = in.read(buffer, read, length - read);
+            if (n < 0) {
+                throw new EOFException("Truncated record");
+            }
+            read += n;
+        }
+        record.set(buffer, length);
+    }
+
+    private String decodeRecord() throws IOException {
+        line.setLength(0);
+        long countAndNewLine = readVarint(record);
+        long segments = countAndNewLine >>> 1;
+        for (long i = 0; i < segments; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            decodeSegment();
+        }
+        if ((countAndNewLine & 1) != 0) {
+            line.append('\n');
+        }
+        return line.toString();
+    }
+
+    private void decodeSegment() throws IOException {
+        int header = record.read();
+        if (header < 0) {
+            throw new EOFException("Truncated segment");
+        }
+        if ((header & FLAG_KEY) != 0) {
+            line.append(readString());
+        }
+        boolean quoted = (header & FLAG_QUOTED) != 0;
+        if (quoted) {
+            line.append('"');
+        }
+        switch (header & TYPE_MASK) {
+            case TYPE_NUMBER:
+                line.append(readVarint(record));
+                break;
+            case TYPE_MILLIS:
+                line.append(readVarint(record)).append(MILLIS_SUFFIX);
+                break;
+            case TYPE_TIMESTAMP:
+                lastTimestamp += unZigZag(readVarint(record));
+                line.append(formatTimestamp(lastTimestamp));
+                break;
+            default:
+                line.append(readString());
+        }
+        if (quoted) {
+            line.append('"');
+        }
+        if ((header & FLAG_CLOSE) != 0) {
+            line.append('}');
+        }
+    }
+
+    private String readString() throws IOException {
+        long ref = readVarint(record);
+        if (ref >= STRING_REF_BASE) {
+            long id = ref - STRING_REF_BASE;
+            if (id >= dictionary.size()) {
+                throw new IOException("Unknown dictionary string " + id);
+            }
+            return dictionary.get((int) id);
+        }
+        if (ref < 0) {
+            throw new EOFException("Truncated string");
+        }
+        int length = (int) readVarint(record);
+        if (length < 0 || length > record.available()) {
+            throw new EOFException("Truncated string");
+        }
+        String str = record.readString(length);
+        if (ref == STRING_NEW) {
+            dictionary.add(str);
+        }
+        return str;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8),
+            64 * 1024);
+        try {
+            if (args.length == 0) {
+                copy(new BinaryDigestReader(System.in), out);
+            }
+            for (String file : args) {
+                BinaryDigestReader reader = new BinaryDigestReader(new FileInputStream(file));
+                try {
+                    copy(reader, out);
+                } finally {
+                    reader.close();
+                }
+            }
+        } finally {
+            out.flush();
+        }
+    }
+
+    private static void copy(BinaryDigestReader reader, Writer out) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            out.write(line);
+        }
+    }
+
+    /**
+     * Reads the record just loaded into the reader buffer
+     */
+    private static class RecordCursor extends ByteArrayInputStream {
+
+        RecordCursor() {
+            super(new byte[0]);
+        }
+
+        void set(byte[] bytes, int length) {
+            this.buf = bytes;
+            this.pos = 0;
+            this.count = length;
+        }
+
+        String readString(int length) {
+            String str = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return str;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import com.alipay.common.tracer.core.appender.encoder.BinarySpanEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.alipay.common.tracer.core.appender.file.BinaryDigestFormat.*;
+
+/**
+ * Encode digest lines into the {@link BinaryDigestFormat binary digest format}.
+ * <p>
+ * Each record is written as soon as it is encoded, so a flushed file is always readable up to
+ * its last record. The dictionary lives as long as the block, a new block is started with an
+ * empty dictionary when the current one exceeds the block size and when {@link #newBlock()}
+ * is called, e.g. after a roll over: every file starts with its own dictionary. Not thread
+ * safe, like the appenders writing it.
+ * <p>
+ * A record is either split from an encoded line or built segment by segment by a
+ * {@link BinarySpanEncoder}, both are read back as the same line.
+ *
+ * @since 3.1.10
+ */
+public class BinaryDigestWriter {
+
+    public static final int            DEFAULT_BLOCK_SIZE      = 1024 * 1024;
+
+    public static final int            DEFAULT_DICTIONARY_SIZE = 16384;
+
+    /**
+     * Longer strings are always written as literals
+     */
+    private static final int           MAX_DICTIONARY_STRING   = 256;
+
+    /**
+     * Shorter hex strings are no ids, e.g. a result code
+     */
+    private static final int           MIN_HEX_ID_LENGTH       = 16;
+
+    private final int                  blockSize;
+
+    private final int                  dictionarySize;
+
+    private final Map<String, Integer> dictionary              = new HashMap<String, Integer>();
+
+    private final RecordBuffer         record                  = new RecordBuffer();
+
+    private int                        segments;
+
+    private boolean                    newLine;
+
+    private boolean                    blockStarted;
+
+    private long                       blockBytes;
+
+    private long                       lastTimestamp;
+
+    public BinaryDigestWriter() {
+        this(DEFAULT_BLOCK_SIZE, DEFAULT_DICTIONARY_SIZE);
+    }
+
+    public BinaryDigestWriter(int blockSize, int dictionarySize) {
+        this.blockSize = blockSize;
+        this.dictionarySize = dictionarySize;
+    }
+
+    /**
+     * Start a new block with an empty dictionary on the next write
+     */
+    public void newBlock() {
+        blockStarted = false;
+    }
+
+    /**
+     * @param out stream of the current file
+     * @param line one encoded digest, usually ending with a line separator
+     * @throws IOException if the stream fails
+     */
+    public void write(OutputStream out, String line) throws IOException {
+        startRecord(out);
+        encode(line);
+        endRecord(out);
+    }
+
+    /**
+     * Write one digest encoded straight into the record by the encoder, with the segment
+     * methods below, instead of encoding it to a line and splitting that line again
+     * @param out stream of the current file
+     * @param span span to encode
+     * @param encoder encoder of the span
+     * @throws IOException if the stream or the encoder fails
+     */
+    public <T> void write(OutputStream out, T span, BinarySpanEncoder<T> encoder)
+                                                                                 throws IOException {
+        startRecord(out);
+        try {
+            encoder.encode(span, this);
+        } catch (IOException | RuntimeException e) {
+            // the dropped record may define dictionary strings the next ones refer to
+            newBlock();
+            throw e;
+        }
+        endRecord(out);
+    }
+
+    /**
+     * Append one segment given as text, i.e. the text between two separators of a line
+     * @param segment segment text
+     */
+    public void appendText(String segment) {
+        String key = null;
+        int keyEnd = segment.indexOf("\":");
+        if (keyEnd >= 0) {
+            key = segment.substring(0, keyEnd + 2);
+            segment = segment.substring(keyEnd + 2);
+        }
+        int header = 0;
+        int length = segment.length();
+        if (length > 0 && segment.charAt(length - 1) == '}') {
+            header |= FLAG_CLOSE;
+            length--;
+            segment = segment.substring(0, length);
+        }
+        if (length >= 2 && segment.charAt(0) == '"' && segment.charAt(length - 1) == '"') {
+            header |= FLAG_QUOTED;
+            segment = segment.substring(1, length - 1);
+        }
+        appendValue(header, key, segment);
+    }
+
+    /**
+     * Append one segment holding a string value
+     * @param key key of a json field including its quotes and colon, e.g. {@code "time":}, or null
+     * @param value value without quotes
+     * @param quoted true to quote the value
+     */
+    public void appendString(String key, String value, boolean quoted) {
+        appendValue(quoted ? FLAG_QUOTED : 0, key, value);
+    }
+
+    /**
+     * Append one segment holding a number value
+     * @param key key of a json field including its quotes and colon, or null
+     * @param value value
+     */
+    public void appendNumber(String key, long value) {
+        if (value < 0) {
+            appendValue(0, key, String.valueOf(value));
+            return;
+        }
+        record.write(TYPE_NUMBER | (key != null ? FLAG_KEY : 0));
+        if (key != null) {
+            writeString(key);
+        }
+        record.writeVarint(value);
+        segments++;
+    }
+
+    /**
+     * End the record with a new line, after its last segment
+     */
+    public void endLine() {
+        newLine = true;
+    }
+
+    private void startRecord(OutputStream out) throws IOException {
+        if (!blockStarted || blockBytes >= blockSize) {
+            out.write(BLOCK_START);
+            out.write(MAGIC);
+            out.write(VERSION);
+            out.write(0);
+            dictionary.clear();
+            lastTimestamp = 0;
+            blockBytes = 0;
+            blockStarted = true;
+        }
+        record.reset();
+        segments = 0;
+        newLine = false;
+    }
+
+    private void endRecord(OutputStream out) throws IOException {
+        long segmentsAndNewLine = ((long) segments << 1) | (newLine ? 1 : 0);
+        int length = varintSize(segmentsAndNewLine) + record.size();
+        writeVarint(out, length);
+        writeVarint(out, segmentsAndNewLine);
+        record.writeTo(out);
+        blockBytes += length;
+    }
+
+    private void encode(String line) {
+        int end = line.length();
+        boolean endsWithNewLine = end > 0 && line.charAt(end - 1) == '\n';
+        if (endsWithNewLine) {
+            end--;
+        }
+        int start = 0;
+        for (int i = 0; i <= end; i++) {
+            if (i == end || line.charAt(i) == ',') {
+                appendText(line.substring(start, i));
+                start = i + 1;
+            }
+        }
+        if (endsWithNewLine) {
+            endLine();
+        }
+    }
+
+    private void appendValue(int header, String key, String value) {
+        if (key != null) {
+            header |= FLAG_KEY;
+        }
+        int length = value.length();
+        long number = parseNumber(value, length);
+        long timestamp = Long.MIN_VALUE;
+        if (number >= 0) {
+            header |= TYPE_NUMBER;
+        } else if (length > 2 && value.endsWith(MILLIS_SUFFIX)
+                   && (number = parseNumber(value, length - 2)) >= 0) {
+            header |= TYPE_MILLIS;
+        } else if ((timestamp = parseTimestamp(value)) != Long.MIN_VALUE) {
+            header |= TYPE_TIMESTAMP;
+        }
+
+        record.write(header);
+        if (key != null) {
+            writeString(key);
+        }
+        switch (header & TYPE_MASK) {
+            case TYPE_NUMBER:
+            case TYPE_MILLIS:
+                record.writeVarint(number);
+                break;
+            case TYPE_TIMESTAMP:
+                record.writeVarint(zigZag(timestamp - lastTimestamp));
+                lastTimestamp = timestamp;
+                break;
+            default:
+                writeString(value);
+        }
+        segments++;
+    }
+
+    private void writeString(String str) {
+        Integer id = dictionary.get(str);
+        if (id != null) {
+            record.writeVarint(id + STRING_REF_BASE);
+            return;
+        }
+        if (dictionary.size() < dictionarySize && str.length() <= MAX_DICTIONARY_STRING
+            && !isHexId(str)) {
+            dictionary.put(str, dictionary.size());
+            record.writeVarint(STRING_NEW);
+        } else {
+            record.writeVarint(STRING_LITERAL);
+        }
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        record.writeVarint(bytes.length);
+        record.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Trace ids and the like are unique, they would only fill the dictionary
+     */
+    private static boolean isHexId(String str) {
+        if (str.length() < MIN_HEX_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f') && (c < 'A' || c > 'F')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reusable buffer of the record being encoded
+     */
+    private static class RecordBuffer extends ByteArrayOutputStream {
+
+        RecordBuffer() {
+            super(256);
+        }
+
+        void writeVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(buf, 0, count);
+        }
+    }
+}
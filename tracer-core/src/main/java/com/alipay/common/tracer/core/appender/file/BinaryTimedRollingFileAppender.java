@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import com.alipay.common.tracer.core.appender.encoder.BinarySpanEncoder;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.common.tracer.core.utils.StringUtils;
+
+import java.io.IOException;
+
+/**
+ * Time based rolling appender writing the {@link BinaryDigestFormat binary digest format}.
+ * Every opened file, rolled or appended to, starts with a new block and dictionary.
+ *
+ * @since 3.1.10
+ */
+public class BinaryTimedRollingFileAppender extends TimedRollingFileAppender {
+
+    /**
+     * Binary files are named apart from the text ones so that the formats never mix in a file
+     */
+    public static final String                FILE_SUFFIX = ".bin.log";
+
+    /**
+     * Null until the first append: the super constructor opens the file before it is assigned
+     */
+    private BinaryDigestWriter                writer;
+
+    /**
+     * Span of the log being appended by {@link #append(SofaTracerSpan, BinarySpanEncoder)}
+     */
+    private SofaTracerSpan                    pendingSpan;
+
+    private BinarySpanEncoder<SofaTracerSpan> pendingEncoder;
+
+    public BinaryTimedRollingFileAppender(String file, String datePattern,
+                                          String logReserveConfigString) {
+        super(file, datePattern, logReserveConfigString);
+    }
+
+    /**
+     * @param logName text log name, e.g. rpc-client-digest.log
+     * @return binary log name, e.g. rpc-client-digest.bin.log
+     */
+    public static String binaryFileName(String logName) {
+        if (logName.endsWith(".log")) {
+            return logName.substring(0, logName.length() - 4) + FILE_SUFFIX;
+        }
+        return logName + FILE_SUFFIX;
+    }
+
+    /**
+     * Append a digest encoded straight into its binary record, without a text line
+     * @param span span
+     * @param encoder encoder of the span
+     * @throws IOException if the file cannot be written
+     */
+    public void append(SofaTracerSpan span, BinarySpanEncoder<SofaTracerSpan> encoder)
+                                                                                      throws IOException {
+        pendingSpan = span;
+        pendingEncoder = encoder;
+        try {
+            append(StringUtils.EMPTY_STRING);
+        } finally {
+            pendingSpan = null;
+            pendingEncoder = null;
+        }
+    }
+
+    @Override
+    protected void setFile(boolean append) {
+        super.setFile(append);
+        if (writer != null) {
+            writer.newBlock();
+        }
+    }
+
+    @Override
+    protected void writeLog(String log) throws IOException {
+        if (writer == null) {
+            writer = new BinaryDigestWriter(getPositiveInt(
+                SofaTracerConfiguration.TRACER_BINARY_DIGEST_BLOCK_SIZE,
+                BinaryDigestWriter.DEFAULT_BLOCK_SIZE), getPositiveInt(
+                SofaTracerConfiguration.TRACER_BINARY_DIGEST_DICTIONARY_SIZE,
+                BinaryDigestWriter.DEFAULT_DICTIONARY_SIZE));
+        }
+        if (pendingEncoder != null) {
+            writer.write(bos, pendingSpan, pendingEncoder);
+        } else {
+            writer.write(bos, log);
+        }
+    }
+
+    private static int getPositiveInt(String key, int defaultValue) {
+        try {
+            int value = Integer.parseInt(SofaTracerConfiguration.getProperty(key,
+                String.valueOf(defaultValue)));
+            return value > 0 ? value : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -17,62 +17,163 @@
 package com.alipay.common.tracer.core.appender.file;
 
 import com.alipay.common.tracer.core.appender.TraceAppender;
+import com.alipay.common.tracer.core.appender.encoder.BinarySpanEncoder;
+import com.alipay.common.tracer.core.appender.info.StaticInfoLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.function.Supplier;
 
 /**
  * LoadTestAwareAppender
+ * <p>
+ * In lazy startup mode, see {@link SofaTracerConfiguration#isLazyStartup()}, each file is only
+ * opened by its first log, so the shadow file of a log type never exists without load tests.
  *
  * @author yangguanchao
  * @since 2017/06/25
  */
 public final class LoadTestAwareAppender implements TraceAppender {
 
+    private final Supplier<TraceAppender> nonLoadTestAppenderFactory;
+
+    private final Supplier<TraceAppender> loadTestAppenderFactory;
+
     /** TraceAppender for non-pressure */
-    private TraceAppender nonLoadTestTraceAppender;
+    private volatile TraceAppender        nonLoadTestTraceAppender;
     /** TraceAppender for pressure*/
-    private TraceAppender loadTestTraceAppender;
+    private volatile TraceAppender        loadTestTraceAppender;
+    /** true if both appenders are binary digest appenders */
+    private final boolean                 binary;
+
+    private LoadTestAwareAppender(Supplier<TraceAppender> nonLoadTestAppenderFactory,
+                                  Supplier<TraceAppender> loadTestAppenderFactory) {
+        this(nonLoadTestAppenderFactory, loadTestAppenderFactory, false);
+    }
 
-    private LoadTestAwareAppender(TraceAppender nonLoadTestTraceAppender,
-                                  TraceAppender loadTestTraceAppender) {
-        this.nonLoadTestTraceAppender = nonLoadTestTraceAppender;
-        this.loadTestTraceAppender = loadTestTraceAppender;
+    private LoadTestAwareAppender(Supplier<TraceAppender> nonLoadTestAppenderFactory,
+                                  Supplier<TraceAppender> loadTestAppenderFactory, boolean binary) {
+        this.nonLoadTestAppenderFactory = nonLoadTestAppenderFactory;
+        this.loadTestAppenderFactory = loadTestAppenderFactory;
+        this.binary = binary;
+        if (!SofaTracerConfiguration.isLazyStartup()) {
+            this.nonLoadTestTraceAppender = nonLoadTestAppenderFactory.get();
+            this.loadTestTraceAppender = loadTestAppenderFactory.get();
+        }
     }
 
     public static LoadTestAwareAppender createLoadTestAwareTimedRollingFileAppender(String logName,
                                                                                     boolean append) {
-        TraceAppender nonLoadTestTraceAppender = new TimedRollingFileAppender(logName, append);
-        TraceAppender loadTestTraceAppender = new TimedRollingFileAppender("shadow"
-                                                                           + File.separator
-                                                                           + logName, append);
-        return new LoadTestAwareAppender(nonLoadTestTraceAppender, loadTestTraceAppender);
+        return new LoadTestAwareAppender(() -> new TimedRollingFileAppender(logName, append),
+            () -> new TimedRollingFileAppender("shadow" + File.separator + logName, append));
     }
 
     public static LoadTestAwareAppender createLoadTestAwareTimedRollingFileAppender(String logName,
                                                                                     String rollingPolicy,
                                                                                     String logReserveConfig) {
-        TraceAppender nonLoadTestTraceAppender = new TimedRollingFileAppender(logName,
-            rollingPolicy, logReserveConfig);
-        TraceAppender loadTestTraceAppender = new TimedRollingFileAppender("shadow"
+        return new LoadTestAwareAppender(() -> new TimedRollingFileAppender(logName,
+            rollingPolicy, logReserveConfig), () -> new TimedRollingFileAppender("shadow"
+                                                                                + File.separator
+                                                                                + logName,
+            rollingPolicy, logReserveConfig));
+    }
+
+    /**
+     * Create the appender of a digest log, writing the binary digest format instead of text
+     * when {@link SofaTracerConfiguration#TRACER_DIGEST_LOG_FORMAT} is binary. Text digest logs
+     * are indexed by traceId when {@link SofaTracerConfiguration#TRACER_TRACE_ID_INDEX_ENABLED}
+     * @param logName digest log name
+     * @param rollingPolicy rolling policy
+     * @param logReserveConfig log reserve config
+     * @return appender
+     */
+    public static LoadTestAwareAppender createLoadTestAwareDigestFileAppender(String logName,
+                                                                              String rollingPolicy,
+                                                                              String logReserveConfig) {
+        if (!"binary".equalsIgnoreCase(SofaTracerConfiguration
+            .getProperty(SofaTracerConfiguration.TRACER_DIGEST_LOG_FORMAT))) {
+            boolean traceIdIndex = TraceIdIndex.isEnabled();
+            return new LoadTestAwareAppender(() -> digestFileAppender(logName, rollingPolicy,
+                logReserveConfig, traceIdIndex), () -> digestFileAppender("shadow"
                                                                            + File.separator
                                                                            + logName,
-            rollingPolicy, logReserveConfig);
-        return new LoadTestAwareAppender(nonLoadTestTraceAppender, loadTestTraceAppender);
+                rollingPolicy, logReserveConfig, traceIdIndex));
+        }
+        String binaryLogName = BinaryTimedRollingFileAppender.binaryFileName(logName);
+        return new LoadTestAwareAppender(() -> new BinaryTimedRollingFileAppender(binaryLogName,
+            rollingPolicy, logReserveConfig), () -> new BinaryTimedRollingFileAppender("shadow"
+                                                                                      + File.separator
+                                                                                      + binaryLogName,
+            rollingPolicy, logReserveConfig), true);
+    }
+
+    private static TraceAppender digestFileAppender(String logName, String rollingPolicy,
+                                                    String logReserveConfig, boolean traceIdIndex) {
+        TimedRollingFileAppender appender = new TimedRollingFileAppender(logName, rollingPolicy,
+            logReserveConfig);
+        if (traceIdIndex) {
+            appender.enableTraceIdIndex();
+        }
+        return appender;
     }
 
     public void append(String log, boolean loadTest) throws IOException {
         if (loadTest) {
-            loadTestTraceAppender.append(log);
+            loadTestTraceAppender().append(log);
+        } else {
+            nonLoadTestTraceAppender().append(log);
+        }
+    }
+
+    /**
+     * Append a digest log, passing its traceId to the index of the target file if any
+     * @param log log
+     * @param loadTest true if it is a load test log
+     * @param traceId traceId of the log
+     * @throws IOException if the file cannot be written
+     */
+    public void append(String log, boolean loadTest, String traceId) throws IOException {
+        TraceAppender appender = loadTest ? loadTestTraceAppender() : nonLoadTestTraceAppender();
+        if (appender instanceof TimedRollingFileAppender) {
+            ((TimedRollingFileAppender) appender).append(log, traceId);
         } else {
-            nonLoadTestTraceAppender.append(log);
+            appender.append(log);
         }
     }
 
+    /**
+     * @return true if the digests are written in the binary format, see
+     * {@link #append(SofaTracerSpan, BinarySpanEncoder, boolean)}
+     */
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Append a digest encoded straight into its binary record, only if {@link #isBinary()}
+     * @param span span
+     * @param encoder encoder of the span
+     * @param loadTest true if it is a load test log
+     * @throws IOException if the file cannot be written
+     */
+    public void append(SofaTracerSpan span, BinarySpanEncoder<SofaTracerSpan> encoder,
+                       boolean loadTest) throws IOException {
+        TraceAppender appender = loadTest ? loadTestTraceAppender() : nonLoadTestTraceAppender();
+        ((BinaryTimedRollingFileAppender) appender).append(span, encoder);
+    }
+
     @Override
     public void flush() throws IOException {
-        nonLoadTestTraceAppender.flush();
-        loadTestTraceAppender.flush();
+        TraceAppender nonLoadTest = nonLoadTestTraceAppender;
+        if (nonLoadTest != null) {
+            nonLoadTest.flush();
+        }
+        TraceAppender loadTest = loadTestTraceAppender;
+        if (loadTest != null) {
+            loadTest.flush();
+        }
     }
 
     @Override
@@ -82,7 +183,43 @@ public final class LoadTestAwareAppender implements TraceAppender {
 
     @Override
     public void cleanup() {
-        nonLoadTestTraceAppender.cleanup();
-        loadTestTraceAppender.cleanup();
+        TraceAppender nonLoadTest = nonLoadTestTraceAppender;
+        if (nonLoadTest != null) {
+            nonLoadTest.cleanup();
+        }
+        TraceAppender loadTest = loadTestTraceAppender;
+        if (loadTest != null) {
+            loadTest.cleanup();
+        }
+    }
+
+    private TraceAppender nonLoadTestTraceAppender() {
+        TraceAppender appender = nonLoadTestTraceAppender;
+        if (appender == null) {
+            synchronized (this) {
+                appender = nonLoadTestTraceAppender;
+                if (appender == null) {
+                    StaticInfoLog.logStaticInfoOnce();
+                    appender = nonLoadTestAppenderFactory.get();
+                    nonLoadTestTraceAppender = appender;
+                }
+            }
+        }
+        return appender;
+    }
+
+    private TraceAppender loadTestTraceAppender() {
+        TraceAppender appender = loadTestTraceAppender;
+        if (appender == null) {
+            synchronized (this) {
+                appender = loadTestTraceAppender;
+                if (appender == null) {
+                    StaticInfoLog.logStaticInfoOnce();
+                    appender = loadTestAppenderFactory.get();
+                    loadTestTraceAppender = appender;
+                }
+            }
+        }
+        return appender;
     }
 }
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.utils.TracerUtils;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Global disk quota of the tracer log files, {@link SofaTracerConfiguration#TRACER_LOG_TOTAL_SIZE_CAP}.
+ * <p>
+ * The rolled files of every registered appender, the load test ones under {@code shadow/}
+ * included, are scanned once at registration and then tracked in memory as they are rolled,
+ * compressed and cleaned up. Whenever a file is rolled, the oldest rolled files are deleted
+ * until the rolled files plus the current files of all the appenders fit in the quota again.
+ * The current files are never deleted, so the quota should leave room for them. The traceId
+ * index of a rolled file, see {@link TraceIdIndex}, is not counted and goes with it.
+ *
+ * @since 3.1.10
+ */
+public final class LogFileQuotaManager {
+
+    private static final List<AbstractRollingFileAppender> appenders      = new CopyOnWriteArrayList<AbstractRollingFileAppender>();
+
+    /**
+     * Rolled files, oldest first
+     */
+    private static final TreeSet<Segment>                  segments       = new TreeSet<Segment>();
+
+    private static final Map<String, Segment>              segmentsByPath = new HashMap<String, Segment>();
+
+    private static long                                    rolledBytes;
+
+    private LogFileQuotaManager() {
+    }
+
+    /**
+     * @return quota in bytes, 0 if there is none
+     */
+    public static long getQuota() {
+        return TracerUtils.parseLogSize(SofaTracerConfiguration
+            .getProperty(SofaTracerConfiguration.TRACER_LOG_TOTAL_SIZE_CAP));
+    }
+
+    /**
+     * Track the files of an appender, scanning its rolled files once
+     *
+     * @param appender appender
+     * @param logFile current file of the appender
+     */
+    public static void register(AbstractRollingFileAppender appender, File logFile) {
+        if (getQuota() <= 0 || logFile == null) {
+            return;
+        }
+        appenders.add(appender);
+        File parent = logFile.getParentFile();
+        final String baseName = logFile.getName();
+        File[] rolledFiles = parent == null ? null : parent.listFiles((dir, name) ->
+                name.startsWith(baseName) && !name.equals(baseName)
+                && !name.endsWith(RolledFileCompressor.TEMP_SUFFIX)
+                && !TraceIdIndex.isIndexFile(name));
+        if (rolledFiles != null) {
+            for (File rolledFile : rolledFiles) {
+                add(rolledFile);
+            }
+        }
+    }
+
+    /**
+     * @param rolledFile file just rolled
+     */
+    public static synchronized void add(File rolledFile) {
+        if (getQuota() <= 0 || !rolledFile.isFile()) {
+            return;
+        }
+        remove(rolledFile);
+        Segment segment = new Segment(rolledFile.getPath(), rolledFile.length(),
+            rolledFile.lastModified());
+        segments.add(segment);
+        segmentsByPath.put(segment.path, segment);
+        rolledBytes += segment.size;
+    }
+
+    /**
+     * @param file rolled file deleted
+     */
+    public static synchronized void remove(File file) {
+        Segment segment = segmentsByPath.remove(file.getPath());
+        if (segment != null) {
+            segments.remove(segment);
+            rolledBytes -= segment.size;
+        }
+    }
+
+    /**
+     * @param source rolled file replaced
+     * @param target file replacing it, e.g. its compressed copy
+     */
+    public static synchronized void replace(File source, File target) {
+        remove(source);
+        add(target);
+    }
+
+    /**
+     * Delete the oldest rolled files until the quota is met
+     */
+    public static void enforce() {
+        long quota = getQuota();
+        if (quota <= 0) {
+            return;
+        }
+        long currentBytes = 0;
+        for (AbstractRollingFileAppender appender : appenders) {
+            currentBytes += appender.getFileSize();
+        }
+        List<String> evicted = new ArrayList<String>();
+        synchronized (LogFileQuotaManager.class) {
+            while (rolledBytes + currentBytes > quota && !segments.isEmpty()) {
+                Segment segment = segments.pollFirst();
+                segmentsByPath.remove(segment.path);
+                rolledBytes -= segment.size;
+                evicted.add(segment.path);
+            }
+        }
+        for (String path : evicted) {
+            File file = new File(path);
+            if (file.delete() || !file.exists()) {
+                TraceIdIndex.deleteIndexOf(file);
+                SelfLog.warn("Deleted log file " + path + " to keep the tracer logs under " + quota
+                             + " bytes");
+            } else {
+                SelfLog.error("Fail to delete log file " + path + " over the tracer log quota");
+            }
+        }
+    }
+
+    static synchronized long getRolledBytes() {
+        return rolledBytes;
+    }
+
+    static synchronized void reset() {
+        appenders.clear();
+        segments.clear();
+        segmentsByPath.clear();
+        rolledBytes = 0;
+    }
+
+    private static class Segment implements Comparable<Segment> {
+
+        private final String path;
+        private final long   size;
+        private final long   lastModified;
+
+        Segment(String path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public int compareTo(Segment other) {
+            if (lastModified != other.lastModified) {
+                return lastModified < other.lastModified ? -1 : 1;
+            }
+            return path.compareTo(other.path);
+        }
+    }
+}
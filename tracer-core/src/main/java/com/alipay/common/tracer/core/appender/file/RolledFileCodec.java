@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Codec the rolled log files are compressed with, see {@link RolledFileCompressor}.
+ * Implementations need a public no-arg constructor to be configured by class name.
+ *
+ * @since 3.1.10
+ */
+public interface RolledFileCodec {
+
+    /**
+     * Suffix appended to the rolled file name, e.g. ".gz"
+     *
+     * @return suffix
+     */
+    String getSuffix();
+
+    /**
+     * Wrap the stream of the compressed file, closing the returned stream must close it
+     *
+     * @param out stream of the compressed file
+     * @return compressing stream
+     * @throws IOException if the codec fails
+     */
+    OutputStream wrap(OutputStream out) throws IOException;
+}
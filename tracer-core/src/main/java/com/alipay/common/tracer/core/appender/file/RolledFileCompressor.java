@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.utils.StringUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compress the rolled log files on a single low priority background thread, throttled to
+ * {@link SofaTracerConfiguration#TRACER_ROLLED_FILE_COMPRESSION_RATE} bytes per second so
+ * that it never competes with the live appends for the disk.
+ * <p>
+ * The compressed data is written to a temporary file which is synced and atomically renamed
+ * before the rolled file is deleted, so a crash leaves either the rolled file or its complete
+ * compressed copy. Rolled files left uncompressed by a crash are submitted again by the next
+ * cleanup.
+ *
+ * @since 3.1.10
+ */
+public final class RolledFileCompressor {
+
+    public static final String                                  TEMP_SUFFIX  = ".tmp";
+
+    private static final long                                   DEFAULT_RATE = 8 * 1024 * 1024;
+
+    private static final int                                    CHUNK_SIZE   = 64 * 1024;
+
+    private static final ConcurrentMap<String, RolledFileCodec> codecs       = new ConcurrentHashMap<String, RolledFileCodec>();
+
+    private static final Set<String>                            pending      = Collections
+                                                                                 .newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private static volatile ExecutorService                     executor;
+
+    private RolledFileCompressor() {
+    }
+
+    /**
+     * The configured codec: gzip, or the class name of a {@link RolledFileCodec}
+     *
+     * @return codec, or null if the rolled files are not compressed
+     */
+    public static RolledFileCodec getCodec() {
+        String name = SofaTracerConfiguration
+            .getProperty(SofaTracerConfiguration.TRACER_ROLLED_FILE_COMPRESSION);
+        if (StringUtils.isBlank(name) || "none".equalsIgnoreCase(name)) {
+            return null;
+        }
+        name = name.trim();
+        RolledFileCodec codec = codecs.get(name);
+        if (codec == null) {
+            codec = createCodec(name);
+            if (codec == null) {
+                return null;
+            }
+            codecs.putIfAbsent(name, codec);
+        }
+        return codec;
+    }
+
+    /**
+     * Compress a rolled file in background if a codec is configured
+     *
+     * @param rolledFile rolled file
+     */
+    public static void submit(final File rolledFile) {
+        final RolledFileCodec codec = getCodec();
+        if (codec == null || !pending.add(rolledFile.getPath())) {
+            return;
+        }
+        try {
+            getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        compress(rolledFile, codec, getRate());
+                    } catch (Throwable e) {
+                        SelfLog.error("Fail to compress rolled file " + rolledFile.getPath(), e);
+                    } finally {
+                        pending.remove(rolledFile.getPath());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(rolledFile.getPath());
+        }
+    }
+
+    /**
+     * @param file file
+     * @return true if it is being compressed or waits for it
+     */
+    public static boolean isPending(File file) {
+        String path = file.getPath();
+        if (path.endsWith(TEMP_SUFFIX)) {
+            path = stripSuffix(path.substring(0, path.length() - TEMP_SUFFIX.length()));
+        }
+        return pending.contains(path);
+    }
+
+    /**
+     * @param fileName file name
+     * @return true if it ends with the suffix of a known codec
+     */
+    public static boolean isCompressed(String fileName) {
+        return !stripSuffix(fileName).equals(fileName);
+    }
+
+    /**
+     * @param fileName rolled file name, compressed or not
+     * @return the rolled file name without compression suffix
+     */
+    public static String stripSuffix(String fileName) {
+        if (fileName.endsWith(GzipRolledFileCodec.SUFFIX)) {
+            return fileName.substring(0, fileName.length() - GzipRolledFileCodec.SUFFIX.length());
+        }
+        for (RolledFileCodec codec : codecs.values()) {
+            String suffix = codec.getSuffix();
+            if (StringUtils.isNotBlank(suffix) && fileName.endsWith(suffix)) {
+                return fileName.substring(0, fileName.length() - suffix.length());
+            }
+        }
+        return fileName;
+    }
+
+    static void compress(File source, RolledFileCodec codec, long rate) throws IOException {
+        if (!source.isFile()) {
+            return;
+        }
+        File target = new File(source.getPath() + codec.getSuffix());
+        File temp = new File(target.getPath() + TEMP_SUFFIX);
+        long start = System.currentTimeMillis();
+        long total = 0;
+        InputStream in = new FileInputStream(source);
+        try {
+            OutputStream out = codec.wrap(new FileOutputStream(temp));
+            try {
+                byte[] buffer = new byte[CHUNK_SIZE];
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, n);
+                    total += n;
+                    long ahead = total * 1000 / rate - (System.currentTimeMillis() - start);
+                    if (ahead > 0) {
+                        TimeUnit.MILLISECONDS.sleep(ahead);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while compressing " + source.getPath());
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        } finally {
+            in.close();
+        }
+        FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE);
+        try {
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        if (!source.delete()) {
+            SelfLog.warn("Fail to delete compressed rolled file " + source.getPath());
+        }
+        LogFileQuotaManager.replace(source, target);
+    }
+
+    private static long getRate() {
+        try {
+            long rate = Long.parseLong(SofaTracerConfiguration.getProperty(
+                SofaTracerConfiguration.TRACER_ROLLED_FILE_COMPRESSION_RATE,
+                String.valueOf(DEFAULT_RATE)));
+            return rate > 0 ? rate : DEFAULT_RATE;
+        } catch (NumberFormatException e) {
+            return DEFAULT_RATE;
+        }
+    }
+
+    private static RolledFileCodec createCodec(String name) {
+        if (GzipRolledFileCodec.NAME.equalsIgnoreCase(name)) {
+            return new GzipRolledFileCodec();
+        }
+        try {
+            Class<?> clazz = Class.forName(name);
+            return (RolledFileCodec) clazz.newInstance();
+        } catch (Throwable e) {
+            SelfLog.error("Fail to create rolled file codec " + name, e);
+            return null;
+        }
+    }
+
+    private static ExecutorService getExecutor() {
+        if (executor == null) {
+            synchronized (RolledFileCompressor.class) {
+                if (executor == null) {
+                    ThreadPoolExecutor localExecutor = new ThreadPoolExecutor(1, 1, 0L,
+                        TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), r -> {
+                            Thread thread = new Thread(r, "Tracer-Compressor");
+                            thread.setDaemon(true);
+                            thread.setPriority(Thread.MIN_PRIORITY);
+                            return thread;
+                        });
+                    executor = localExecutor;
+                }
+            }
+        }
+        return executor;
+    }
+}
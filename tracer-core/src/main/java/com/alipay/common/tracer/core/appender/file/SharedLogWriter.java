@@ -0,0 +1,461 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.utils.TracerUtils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * One I/O thread owning the channels of all the tracer log files, enabled by
+ * {@link SofaTracerConfiguration#TRACER_SHARED_LOG_WRITER_ENABLED}.
+ * <p>
+ * The appending threads only encode: their bytes go to a direct buffer chunk taken from a pool
+ * shared by all the files, and only full chunks are handed off to the writer thread. A flush of
+ * the stream hands nothing off, the consumers flush after every span; instead the writer takes
+ * the partial chunks of all the open files once per flush interval, on sync and on close. The
+ * writer drains everything handed off since its last pass and writes the chunks of each file
+ * with a single gathering write. The pool is bounded by
+ * {@link SofaTracerConfiguration#TRACER_SHARED_LOG_WRITER_BUFFER_SIZE}: once it is used up the
+ * appending threads wait for the writer, which holds the async appenders back exactly like a
+ * slow disk would.
+ * <p>
+ * The writer thread logs through {@link SelfLog} only, which never waits for a chunk.
+ *
+ * @since 3.1.10
+ */
+public final class SharedLogWriter {
+
+    private static final int                DEFAULT_CHUNK_SIZE  = 16 * 1024;
+
+    private static final long               DEFAULT_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    private static final long               SHUTDOWN_TIMEOUT    = TimeUnit.SECONDS.toMillis(3);
+
+    /**
+     * Same as the flush interval of the rolling appenders
+     */
+    private static final long               FLUSH_INTERVAL      = TimeUnit.SECONDS.toMillis(1);
+
+    private static volatile SharedLogWriter instance;
+
+    private final int                       chunkSize;
+
+    private final int                       maxChunks;
+
+    private final AtomicInteger             allocatedChunks     = new AtomicInteger();
+
+    private final BlockingQueue<ByteBuffer> freeChunks          = new LinkedBlockingQueue<ByteBuffer>();
+
+    private final BlockingQueue<Command>    commands            = new LinkedBlockingQueue<Command>();
+
+    private final Set<FileStream>           openFiles           = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param chunkSize  size of each pooled buffer
+     * @param bufferSize total size of the pooled buffers, at least two chunks are allocated
+     */
+    SharedLogWriter(int chunkSize, long bufferSize) {
+        this.chunkSize = chunkSize;
+        this.maxChunks = (int) Math.max(2, Math.min(Integer.MAX_VALUE, bufferSize / chunkSize));
+        Thread thread = new Thread(this::run, "Tracer-LogWriter");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Whether the log files are written by the shared writer, false by default
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(SofaTracerConfiguration
+            .getProperty(SofaTracerConfiguration.TRACER_SHARED_LOG_WRITER_ENABLED));
+    }
+
+    /**
+     * The writer is started on first use, with a shutdown hook writing what is handed off
+     * @return the shared writer
+     */
+    public static SharedLogWriter getInstance() {
+        SharedLogWriter writer = instance;
+        if (writer == null) {
+            synchronized (SharedLogWriter.class) {
+                writer = instance;
+                if (writer == null) {
+                    long chunkSize = TracerUtils.parseLogSize(SofaTracerConfiguration
+                        .getProperty(SofaTracerConfiguration.TRACER_SHARED_LOG_WRITER_CHUNK_SIZE));
+                    long bufferSize = TracerUtils.parseLogSize(SofaTracerConfiguration
+                        .getProperty(SofaTracerConfiguration.TRACER_SHARED_LOG_WRITER_BUFFER_SIZE));
+                    writer = new SharedLogWriter(chunkSize > 0 ? (int) Math.min(chunkSize,
+                        Integer.MAX_VALUE) : DEFAULT_CHUNK_SIZE,
+                        bufferSize > 0 ? bufferSize : DEFAULT_BUFFER_SIZE);
+                    final SharedLogWriter shutdownWriter = writer;
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                        try {
+                            shutdownWriter.sync(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }, "Tracer-LogWriter-Shutdown"));
+                    instance = writer;
+                }
+            }
+        }
+        return writer;
+    }
+
+    /**
+     * Open a log file written by this writer. The stream is meant for one appending thread at a
+     * time; a failed write of the writer thread is thrown by the next write, flush or close.
+     *
+     * @param file      log file
+     * @param append    whether to append to the existing content
+     * @param handedOff notified of the bytes of each chunk handed off, on the appending thread
+     *                  for full chunks and on the writer thread for partial ones
+     * @return the stream of the file
+     * @throws IOException if the file cannot be opened
+     */
+    public OutputStream open(File file, boolean append, IntConsumer handedOff) throws IOException {
+        FileStream stream = new FileStream(new FileOutputStream(file, append).getChannel(),
+            handedOff);
+        openFiles.add(stream);
+        return stream;
+    }
+
+    /**
+     * Wait until everything written to the open files so far is written
+     * @param timeout max time to wait
+     * @param unit unit of the timeout
+     * @return false if the timeout elapsed first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean sync(long timeout, TimeUnit unit) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        commands.add(new Command(null, null, done));
+        return done.await(timeout, unit);
+    }
+
+    int getMaxChunks() {
+        return maxChunks;
+    }
+
+    int getAllocatedChunks() {
+        return allocatedChunks.get();
+    }
+
+    private ByteBuffer acquire() throws InterruptedIOException {
+        ByteBuffer chunk = freeChunks.poll();
+        if (chunk != null) {
+            return chunk;
+        }
+        for (;;) {
+            int allocated = allocatedChunks.get();
+            if (allocated >= maxChunks) {
+                break;
+            }
+            if (allocatedChunks.compareAndSet(allocated, allocated + 1)) {
+                return ByteBuffer.allocateDirect(chunkSize);
+            }
+        }
+        try {
+            return freeChunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for a log buffer");
+        }
+    }
+
+    private void run() {
+        List<Command> batch = new ArrayList<Command>();
+        Map<FileStream, List<ByteBuffer>> pending = new LinkedHashMap<FileStream, List<ByteBuffer>>();
+        long nextFlushTime = System.currentTimeMillis() + FLUSH_INTERVAL;
+        for (;;) {
+            try {
+                Command first = commands.poll(FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    commands.drainTo(batch);
+                }
+                for (Command command : batch) {
+                    if (command.chunk != null) {
+                        addPending(pending, command.file, command.chunk);
+                    } else if (command.file != null) {
+                        write(command.file, pending.remove(command.file));
+                        command.file.closeChannel();
+                        command.done.countDown();
+                    } else {
+                        takePartialChunks(pending);
+                        writeAll(pending);
+                        command.done.countDown();
+                    }
+                }
+                long now = System.currentTimeMillis();
+                if (now >= nextFlushTime) {
+                    takePartialChunks(pending);
+                    nextFlushTime = now + FLUSH_INTERVAL;
+                }
+                writeAll(pending);
+            } catch (InterruptedException e) {
+                // daemon thread, keep draining
+            } catch (Throwable t) {
+                SelfLog.error("Shared log writer failed", t);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void takePartialChunks(Map<FileStream, List<ByteBuffer>> pending) {
+        for (FileStream file : openFiles) {
+            ByteBuffer chunk = file.takePartialChunk();
+            if (chunk != null) {
+                addPending(pending, file, chunk);
+            }
+        }
+    }
+
+    private static void addPending(Map<FileStream, List<ByteBuffer>> pending, FileStream file,
+                                   ByteBuffer chunk) {
+        List<ByteBuffer> chunks = pending.get(file);
+        if (chunks == null) {
+            chunks = new ArrayList<ByteBuffer>();
+            pending.put(file, chunks);
+        }
+        chunks.add(chunk);
+    }
+
+    private void writeAll(Map<FileStream, List<ByteBuffer>> pending) {
+        for (Map.Entry<FileStream, List<ByteBuffer>> entry : pending.entrySet()) {
+            write(entry.getKey(), entry.getValue());
+        }
+        pending.clear();
+    }
+
+    private void write(FileStream file, List<ByteBuffer> chunks) {
+        if (chunks == null) {
+            return;
+        }
+        try {
+            ByteBuffer[] buffers = chunks.toArray(new ByteBuffer[chunks.size()]);
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers) {
+                remaining += buffer.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= file.channel.write(buffers);
+            }
+        } catch (IOException e) {
+            file.failure = e;
+        } finally {
+            for (ByteBuffer chunk : chunks) {
+                chunk.clear();
+                freeChunks.add(chunk);
+            }
+        }
+    }
+
+    /**
+     * A chunk to write, a file to close or, with neither, a sync point
+     */
+    private static class Command {
+
+        final FileStream     file;
+
+        final ByteBuffer     chunk;
+
+        final CountDownLatch done;
+
+        Command(FileStream file, ByteBuffer chunk, CountDownLatch done) {
+            this.file = file;
+            this.chunk = chunk;
+            this.done = done;
+        }
+    }
+
+    private class FileStream extends OutputStream {
+
+        private final FileChannel    channel;
+
+        private final IntConsumer    handedOff;
+
+        /**
+         * Set by the appending thread only, the writer thread takes it when it is partially
+         * filled; guarded by this stream
+         */
+        private volatile ByteBuffer  chunk;
+
+        private boolean              closed;
+
+        private volatile IOException failure;
+
+        FileStream(FileChannel channel, IntConsumer handedOff) {
+            this.channel = channel;
+            this.handedOff = handedOff;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkFailure();
+            for (;;) {
+                ensureChunk();
+                synchronized (this) {
+                    if (chunk == null) {
+                        // taken by the writer meanwhile
+                        continue;
+                    }
+                    chunk.put((byte) b);
+                    if (!chunk.hasRemaining()) {
+                        handOff();
+                    }
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkFailure();
+            while (len > 0) {
+                ensureChunk();
+                synchronized (this) {
+                    if (chunk == null) {
+                        // taken by the writer meanwhile
+                        continue;
+                    }
+                    int n = Math.min(len, chunk.remaining());
+                    chunk.put(b, off, n);
+                    off += n;
+                    len -= n;
+                    if (!chunk.hasRemaining()) {
+                        handOff();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Hands nothing off: partial chunks are taken by the timed flush of the writer
+         */
+        @Override
+        public void flush() throws IOException {
+            checkFailure();
+        }
+
+        /**
+         * Wait until the file is written and closed, e.g. before it is rolled
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            synchronized (this) {
+                handOff();
+            }
+            openFiles.remove(this);
+            CountDownLatch done = new CountDownLatch(1);
+            commands.add(new Command(this, null, done));
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while closing a log file");
+            }
+            checkFailure();
+        }
+
+        /**
+         * A chunk is acquired outside of the lock, waiting for a free one needs the writer
+         */
+        private void ensureChunk() throws InterruptedIOException {
+            if (chunk != null) {
+                return;
+            }
+            ByteBuffer free = acquire();
+            synchronized (this) {
+                if (chunk == null) {
+                    chunk = free;
+                    return;
+                }
+            }
+            freeChunks.add(free);
+        }
+
+        /**
+         * Called with the lock held
+         */
+        private void handOff() {
+            ByteBuffer full = take();
+            if (full != null) {
+                commands.add(new Command(this, full, null));
+            }
+        }
+
+        private synchronized ByteBuffer takePartialChunk() {
+            return take();
+        }
+
+        private ByteBuffer take() {
+            ByteBuffer taken = chunk;
+            if (taken == null || taken.position() == 0) {
+                return null;
+            }
+            int len = taken.position();
+            taken.flip();
+            chunk = null;
+            handedOff.accept(len);
+            return taken;
+        }
+
+        private void closeChannel() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        private void checkFailure() throws IOException {
+            IOException e = failure;
+            if (e != null) {
+                failure = null;
+                throw e;
+            }
+        }
+    }
+}
@@ -16,6 +16,7 @@
  */
 package com.alipay.common.tracer.core.appender.file;
 
+import com.alipay.common.tracer.core.appender.TracerLogRootDaemon;
 import com.alipay.common.tracer.core.appender.config.LogReserveConfig;
 import com.alipay.common.tracer.core.appender.self.SelfLog;
 import com.alipay.common.tracer.core.appender.self.TracerDaemon;
@@ -94,6 +95,25 @@ public class TimedRollingFileAppender extends AbstractRollingFileAppender {
                                                             SofaTracerConfiguration.DEFAULT_LOG_RESERVE_DAY,
                                                             0);
 
+    /**
+     * Size after which the file is also rolled within the period, 0 if unlimited
+     */
+    private final long          maxFileSize             = TracerUtils
+                                                            .parseLogSize(SofaTracerConfiguration
+                                                                .getProperty(SofaTracerConfiguration.TRACER_LOG_MAX_FILE_SIZE));
+    /**
+     * Index of the last file rolled by size within the current period
+     */
+    private int                 sizeIndex               = 0;
+    /**
+     * Null unless the file is indexed by traceId
+     */
+    private TraceIdIndex        traceIdIndex;
+    /**
+     * TraceId of the log being appended, only set by the appending thread
+     */
+    private String              pendingTraceId;
+
     public TimedRollingFileAppender(String file, boolean append) {
         this(file, DEFAULT_BUFFER_SIZE, append, DEFAULT_ROLLING_PATTERN);
     }
@@ -107,6 +127,19 @@ public class TimedRollingFileAppender extends AbstractRollingFileAppender {
         this.logReserveConfig = TracerUtils.parseLogReserveConfig(logReserveConfigString);
     }
 
+    /**
+     * @param file fileName
+     * @param datePattern date format
+     * @param logReserveConfigString log reserve config
+     * @param instrumented false for the self log appenders, see
+     *                     {@link AbstractRollingFileAppender#AbstractRollingFileAppender(String, int, boolean, boolean)}
+     */
+    public TimedRollingFileAppender(String file, String datePattern, String logReserveConfigString,
+                                    boolean instrumented) {
+        this(file, DEFAULT_BUFFER_SIZE, true, datePattern, instrumented);
+        this.logReserveConfig = TracerUtils.parseLogReserveConfig(logReserveConfigString);
+    }
+
     public TimedRollingFileAppender(String file, int bufferSize, boolean append) {
         this(file, bufferSize, append, DEFAULT_ROLLING_PATTERN);
     }
@@ -119,7 +152,12 @@ public class TimedRollingFileAppender extends AbstractRollingFileAppender {
      */
     public TimedRollingFileAppender(String file, int bufferSize, boolean append,
                                     String datePatternParam) {
-        super(file, bufferSize, append);
+        this(file, bufferSize, append, datePatternParam, true);
+    }
+
+    private TimedRollingFileAppender(String file, int bufferSize, boolean append,
+                                     String datePatternParam, boolean instrumented) {
+        super(file, bufferSize, append, instrumented);
         if (StringUtils.isBlank(datePatternParam)) {
             this.datePattern = DEFAULT_ROLLING_PATTERN;
         } else {
@@ -129,6 +167,53 @@ public class TimedRollingFileAppender extends AbstractRollingFileAppender {
         rc.setType(computeCheckPeriod());
         scheduledFilename = fileName + sdf.format(new Date(logFile.lastModified()));
         TracerDaemon.watch(this);
+        LogFileQuotaManager.register(this, logFile);
+    }
+
+    /**
+     * Index the lines of this file by traceId, see {@link TraceIdIndex}. A file which already
+     * has lines is only indexed from its next roll over.
+     */
+    public void enableTraceIdIndex() {
+        if (traceIdIndex == null) {
+            traceIdIndex = new TraceIdIndex(fileName);
+            traceIdIndex.open(logFile.length());
+        }
+    }
+
+    /**
+     * Append a log, recording its traceId in the index if enabled
+     * @param log log
+     * @param traceId traceId of the log
+     * @throws IOException if the file cannot be written
+     */
+    public void append(String log, String traceId) throws IOException {
+        pendingTraceId = traceId;
+        try {
+            append(log);
+        } finally {
+            pendingTraceId = null;
+        }
+    }
+
+    @Override
+    protected void setFile(boolean append) {
+        super.setFile(append);
+        // null while called by the super constructor
+        if (traceIdIndex != null) {
+            traceIdIndex.open(logFile.length());
+        }
+    }
+
+    @Override
+    protected void writeLog(String log) throws IOException {
+        if (traceIdIndex == null) {
+            super.writeLog(log);
+            return;
+        }
+        byte[] bytes = log.getBytes(TracerLogRootDaemon.DEFAULT_CHARSET);
+        traceIdIndex.add(pendingTraceId, bytes.length);
+        bos.write(bytes);
     }
 
     /**
@@ -144,7 +229,7 @@ public class TimedRollingFileAppender extends AbstractRollingFileAppender {
             return true;
         }
 
-        return false;
+        return maxFileSize > 0 && getFileSize() >= maxFileSize;
     }
 
     /**
@@ -175,13 +260,33 @@ public class TimedRollingFileAppender extends AbstractRollingFileAppender {
             for (File logFile : logFiles) {
                 String logFileName = logFile.getName();
 
-                int lastDot = logFileName.lastIndexOf(".");
+                if (TraceIdIndex.isIndexFile(logFileName)) {
+                    TraceIdIndex.cleanup(logFile, this.logFile);
+                    continue;
+                }
+
+                if (logFileName.endsWith(RolledFileCompressor.TEMP_SUFFIX)) {
+                    // left by a crash while compressing
+                    if (!RolledFileCompressor.isPending(logFile)) {
+                        logFile.delete();
+                    }
+                    continue;
+                }
+
+                String rolledFileName = RolledFileCompressor.stripSuffix(logFileName);
+                int end = rolledFileName.length();
+                int lastDot = rolledFileName.lastIndexOf(".");
+                if (lastDot > 0 && isSizeIndex(rolledFileName.substring(lastDot + 1))) {
+                    // rolled by size within its period
+                    end = lastDot;
+                    lastDot = rolledFileName.lastIndexOf(".", lastDot - 1);
+                }
 
                 if (lastDot < 0) {
                     continue;
                 }
 
-                String logTime = logFileName.substring(lastDot);
+                String logTime = rolledFileName.substring(lastDot, end);
                 SimpleDateFormat dailyRollingSdf = new SimpleDateFormat(DAILY_ROLLING_PATTERN);
                 SimpleDateFormat hourlyRollingSdf = new SimpleDateFormat(HOURLY_ROLLING_PATTERN);
 
@@ -226,12 +331,17 @@ public class TimedRollingFileAppender extends AbstractRollingFileAppender {
                 logCal.setTime(date);
 
                 if (!logCal.before(compareCal)) {
+                    if (rolledFileName.equals(logFileName)) {
+                        RolledFileCompressor.submit(logFile);
+                    }
                     continue;
                 }
 
                 boolean success = logFile.delete() && !logFile.exists();
 
                 if (success) {
+                    TraceIdIndex.deleteIndexOf(logFile);
+                    LogFileQuotaManager.remove(logFile);
                     SelfLog.info("Deleted log file: " + logFileName);
                 } else {
                     SelfLog.error(String.format(LogCode2Description.convert(SPACE_ID,"01-00005"),logFileName));
@@ -255,30 +365,75 @@ public class TimedRollingFileAppender extends AbstractRollingFileAppender {
         // bounds of the current interval. Rollover will occur once the
         // next interval is reached.
         if (scheduledFilename.equals(datedFilename)) {
+            if (maxFileSize > 0 && getFileSize() >= maxFileSize) {
+                // Too big to wait for the next interval, roll to an indexed file of this one
+                String indexedFilename;
+                do {
+                    indexedFilename = scheduledFilename + "." + (++sizeIndex);
+                } while (rolledFileExists(indexedFilename));
+                rollTo(indexedFilename);
+            }
             return;
         }
 
+        File target = new File(scheduledFilename);
+        if (target.exists()) {
+            target.delete();
+            TraceIdIndex.deleteIndexOf(target);
+        }
+
+        rollTo(scheduledFilename);
+        sizeIndex = 0;
+        scheduledFilename = datedFilename;
+    }
+
+    private void rollTo(String targetFilename) {
         try {
             bos.close();
         } catch (IOException e) {
             SelfLog.error(LogCode2Description.convert(SPACE_ID, "01-00008"), e);
         }
 
-        File target = new File(scheduledFilename);
-        if (target.exists()) {
-            target.delete();
-        }
-
+        File target = new File(targetFilename);
         boolean result = logFile.renameTo(target);
         if (result) {
-            SelfLog.info(fileName + " -> " + scheduledFilename);
+            SelfLog.info(fileName + " -> " + targetFilename);
+            LogFileQuotaManager.add(target);
+            if (traceIdIndex != null) {
+                traceIdIndex.roll(target);
+            }
+            RolledFileCompressor.submit(target);
         } else {
             SelfLog.error(String.format(LogCode2Description.convert(SPACE_ID, "01-00009"),
-                fileName, scheduledFilename));
+                fileName, targetFilename));
         }
 
         this.setFile(false);
-        scheduledFilename = datedFilename;
+        LogFileQuotaManager.enforce();
+    }
+
+    /**
+     * Only the daily and hourly patterns are cleaned up, none of them ends with digits only
+     */
+    private static boolean isSizeIndex(String suffix) {
+        if (suffix.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (!Character.isDigit(suffix.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean rolledFileExists(String rolledFilename) {
+        if (new File(rolledFilename).exists()
+            || new File(rolledFilename + GzipRolledFileCodec.SUFFIX).exists()) {
+            return true;
+        }
+        RolledFileCodec codec = RolledFileCompressor.getCodec();
+        return codec != null && new File(rolledFilename + codec.getSuffix()).exists();
     }
 
     // This method computes the roll over period by looping over the
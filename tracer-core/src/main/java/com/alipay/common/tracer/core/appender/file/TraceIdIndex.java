@@ -0,0 +1,489 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sidecar traceId index of a digest log file, see {@link TraceIdIndexQuery} for the lookup.
+ * <p>
+ * The file is split into blocks of {@link SofaTracerConfiguration#TRACER_TRACE_ID_INDEX_BLOCK_SIZE}
+ * bytes. While lines are appended, the entries go to the {@link #PART_SUFFIX} file next to the
+ * log file. That file starts with the block size. It then holds one
+ * {@code (hash of traceId, block)} entry per trace and block in which a line of the trace
+ * starts. Appending a line costs one hash and one buffered write. When the log file is rolled,
+ * its entries are sorted by hash in background. A bloom filter of the hashes is put in front of
+ * them, in the {@link #INDEX_SUFFIX} file of the rolled file:
+ * <pre>
+ * 'SOFI' version(1) blockSize(4) hashCount(4) bloomLongs(4) entryCount(8) bloom entries
+ * </pre>
+ * where an entry is {@code hash(8) block(4)}. Only files created by the appender are indexed,
+ * so that an index never misses the lines written before a restart.
+ *
+ * @since 3.1.10
+ */
+public class TraceIdIndex {
+
+    public static final String              INDEX_SUFFIX       = ".idx";
+    public static final String              PART_SUFFIX        = ".idx.part";
+    static final String                     NEW_SUFFIX         = ".idx.new";
+
+    static final byte[]                     MAGIC              = { 'S', 'O', 'F', 'I' };
+    static final byte                       VERSION            = 1;
+    static final int                        HEADER_SIZE        = 4 + 1 + 4 + 4 + 4 + 8;
+    static final int                        ENTRY_SIZE         = 12;
+    static final int                        DEFAULT_BLOCK_SIZE = 64 * 1024;
+    static final int                        BITS_PER_ENTRY     = 10;
+    static final int                        HASH_COUNT         = 7;
+
+    private static final Set<String>        pending            = Collections
+                                                                   .newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private static volatile ExecutorService executor;
+
+    private final String                    fileName;
+    private final int                       blockSize;
+
+    /**
+     * Null while the current log file is not indexed
+     */
+    private DataOutputStream                out;
+    private long                            offset;
+    private long                            block              = -1;
+    /**
+     * Open addressing set of the hashes already recorded in the current block, 0 is free
+     */
+    private long[]                          blockHashes        = new long[256];
+    private int                             blockHashCount;
+
+    /**
+     * @param fileName path of the log file
+     */
+    public TraceIdIndex(String fileName) {
+        this.fileName = fileName;
+        int size;
+        try {
+            size = Integer.parseInt(SofaTracerConfiguration.getProperty(
+                SofaTracerConfiguration.TRACER_TRACE_ID_INDEX_BLOCK_SIZE,
+                String.valueOf(DEFAULT_BLOCK_SIZE)));
+        } catch (NumberFormatException e) {
+            size = DEFAULT_BLOCK_SIZE;
+        }
+        this.blockSize = size > 0 ? size : DEFAULT_BLOCK_SIZE;
+    }
+
+    /**
+     * @return true if the digest log files are indexed
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(SofaTracerConfiguration
+            .getProperty(SofaTracerConfiguration.TRACER_TRACE_ID_INDEX_ENABLED));
+    }
+
+    /**
+     * Start the index of the log file just opened
+     * @param logFileLength length of the log file
+     */
+    void open(long logFileLength) {
+        close();
+        File part = new File(fileName + PART_SUFFIX);
+        part.delete();
+        if (logFileLength > 0) {
+            // lines of a previous run are not indexed, the file is not either
+            return;
+        }
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(part), 8192));
+            out.writeInt(blockSize);
+            offset = 0;
+            block = -1;
+        } catch (IOException e) {
+            SelfLog.error("Fail to create traceId index " + part.getPath(), e);
+        }
+    }
+
+    /**
+     * Record a line about to be written at the end of the log file
+     * @param traceId traceId of the line, null if unknown
+     * @param length bytes of the line
+     */
+    void add(String traceId, int length) {
+        if (out == null) {
+            return;
+        }
+        if (traceId != null) {
+            long lineBlock = offset / blockSize;
+            if (lineBlock != block) {
+                block = lineBlock;
+                Arrays.fill(blockHashes, 0L);
+                blockHashCount = 0;
+            }
+            long hash = hash(traceId);
+            if (addBlockHash(hash)) {
+                try {
+                    out.writeLong(hash);
+                    out.writeInt((int) lineBlock);
+                } catch (IOException e) {
+                    SelfLog.error("Fail to write traceId index of " + fileName, e);
+                    close();
+                    new File(fileName + PART_SUFFIX).delete();
+                    return;
+                }
+            }
+        }
+        offset += length;
+    }
+
+    /**
+     * Hand the entries of the log file just rolled to the background indexer
+     * @param rolledFile rolled log file
+     */
+    void roll(File rolledFile) {
+        if (out == null) {
+            return;
+        }
+        close();
+        File part = new File(fileName + PART_SUFFIX);
+        File rolledPart = new File(rolledFile.getPath() + PART_SUFFIX);
+        if (part.renameTo(rolledPart)) {
+            submit(rolledFile);
+        } else {
+            part.delete();
+        }
+    }
+
+    void close() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                SelfLog.error("Fail to close traceId index of " + fileName, e);
+            }
+            out = null;
+        }
+    }
+
+    /**
+     * @param fileName file name
+     * @return true if it is an index file, complete or not
+     */
+    public static boolean isIndexFile(String fileName) {
+        return fileName.endsWith(INDEX_SUFFIX) || fileName.endsWith(PART_SUFFIX)
+               || fileName.endsWith(NEW_SUFFIX);
+    }
+
+    /**
+     * @param indexFile index file, complete or not
+     * @return the rolled log file name it belongs to
+     */
+    static String logFileName(String indexFile) {
+        for (String suffix : new String[] { INDEX_SUFFIX, PART_SUFFIX, NEW_SUFFIX }) {
+            if (indexFile.endsWith(suffix)) {
+                return indexFile.substring(0, indexFile.length() - suffix.length());
+            }
+        }
+        return indexFile;
+    }
+
+    /**
+     * @param logFile rolled log file, compressed or not
+     * @return its index file
+     */
+    public static File indexFileOf(File logFile) {
+        return new File(logFile.getParentFile(),
+            RolledFileCompressor.stripSuffix(logFile.getName()) + INDEX_SUFFIX);
+    }
+
+    /**
+     * Delete the index files of a deleted rolled log file
+     * @param logFile rolled log file, compressed or not
+     */
+    public static void deleteIndexOf(File logFile) {
+        String base = new File(logFile.getParentFile(), RolledFileCompressor.stripSuffix(logFile
+            .getName())).getPath();
+        new File(base + INDEX_SUFFIX).delete();
+        new File(base + PART_SUFFIX).delete();
+        new File(base + NEW_SUFFIX).delete();
+    }
+
+    /**
+     * Clean up an index file found next to the log files: finish the interrupted ones, delete
+     * the ones whose log file is gone
+     * @param indexFile index file
+     * @param currentLogFile current log file of the appender, its entries are in use
+     */
+    static void cleanup(File indexFile, File currentLogFile) {
+        String logFileName = logFileName(indexFile.getPath());
+        if (logFileName.equals(currentLogFile.getPath()) || pending.contains(logFileName)) {
+            return;
+        }
+        File logFile = new File(logFileName);
+        if (!logFile.exists() && !new File(logFileName + GzipRolledFileCodec.SUFFIX).exists()) {
+            RolledFileCodec codec = RolledFileCompressor.getCodec();
+            if (codec == null || !new File(logFileName + codec.getSuffix()).exists()) {
+                indexFile.delete();
+                return;
+            }
+        }
+        if (indexFile.getName().endsWith(NEW_SUFFIX)) {
+            indexFile.delete();
+        } else if (indexFile.getName().endsWith(PART_SUFFIX)) {
+            submit(logFile);
+        }
+    }
+
+    static long hash(String traceId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < traceId.length(); i++) {
+            hash ^= traceId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        // fmix64 of murmur3, spreads the bits for the bloom filter
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+
+    static int bloomIndex(long hash, int i, long bits) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return (int) (((h1 + i * h2) & Integer.MAX_VALUE) % bits);
+    }
+
+    private boolean addBlockHash(long hash) {
+        if ((blockHashCount + 1) * 4 > blockHashes.length * 3) {
+            long[] old = blockHashes;
+            blockHashes = new long[old.length * 2];
+            blockHashCount = 0;
+            for (long h : old) {
+                if (h != 0) {
+                    addBlockHash(h);
+                }
+            }
+        }
+        int mask = blockHashes.length - 1;
+        int i = (int) hash & mask;
+        while (blockHashes[i] != 0) {
+            if (blockHashes[i] == hash) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        blockHashes[i] = hash;
+        blockHashCount++;
+        return true;
+    }
+
+    private static void submit(final File rolledFile) {
+        if (!pending.add(rolledFile.getPath())) {
+            return;
+        }
+        try {
+            getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        build(rolledFile);
+                    } catch (Throwable e) {
+                        SelfLog.error("Fail to build traceId index of " + rolledFile.getPath(), e);
+                    } finally {
+                        pending.remove(rolledFile.getPath());
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(rolledFile.getPath());
+        }
+    }
+
+    /**
+     * Sort the entries of a rolled log file and write its index
+     * @param rolledFile rolled log file, not compressed
+     */
+    static void build(File rolledFile) throws IOException {
+        File part = new File(rolledFile.getPath() + PART_SUFFIX);
+        if (!part.isFile()) {
+            return;
+        }
+        if (part.length() < 4) {
+            // the process stopped before the block size was flushed
+            part.delete();
+            return;
+        }
+        int count = (int) ((part.length() - 4) / ENTRY_SIZE);
+        long[] hashes = new long[count];
+        int[] blocks = new int[count];
+        int blockSize;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(part),
+            64 * 1024));
+        try {
+            blockSize = in.readInt();
+            for (int i = 0; i < count; i++) {
+                hashes[i] = in.readLong();
+                blocks[i] = in.readInt();
+            }
+        } finally {
+            in.close();
+        }
+        sort(hashes, blocks, 0, count - 1);
+
+        long bits = Math.max(64, (long) count * BITS_PER_ENTRY);
+        int bloomLongs = (int) ((bits + 63) / 64);
+        bits = bloomLongs * 64L;
+        long[] bloom = new long[bloomLongs];
+        for (int i = 0; i < count; i++) {
+            for (int k = 0; k < HASH_COUNT; k++) {
+                int bit = bloomIndex(hashes[i], k, bits);
+                bloom[bit >>> 6] |= 1L << (bit & 63);
+            }
+        }
+
+        File temp = new File(rolledFile.getPath() + NEW_SUFFIX);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(
+            temp), 64 * 1024));
+        try {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(blockSize);
+            out.writeInt(HASH_COUNT);
+            out.writeInt(bloomLongs);
+            out.writeLong(count);
+            for (long word : bloom) {
+                out.writeLong(word);
+            }
+            for (int i = 0; i < count; i++) {
+                out.writeLong(hashes[i]);
+                out.writeInt(blocks[i]);
+            }
+        } finally {
+            out.close();
+        }
+        Files.move(temp.toPath(), new File(rolledFile.getPath() + INDEX_SUFFIX).toPath(),
+            StandardCopyOption.ATOMIC_MOVE);
+        part.delete();
+    }
+
+    /**
+     * Sort by hash then block
+     */
+    private static void sort(long[] hashes, int[] blocks, int low, int high) {
+        while (low < high) {
+            if (high - low < 16) {
+                for (int i = low + 1; i <= high; i++) {
+                    for (int j = i; j > low && compare(hashes, blocks, j - 1, j) > 0; j--) {
+                        swap(hashes, blocks, j - 1, j);
+                    }
+                }
+                return;
+            }
+            int middle = (low + high) >>> 1;
+            if (compare(hashes, blocks, middle, low) < 0) {
+                swap(hashes, blocks, middle, low);
+            }
+            if (compare(hashes, blocks, high, low) < 0) {
+                swap(hashes, blocks, high, low);
+            }
+            if (compare(hashes, blocks, high, middle) < 0) {
+                swap(hashes, blocks, high, middle);
+            }
+            long pivotHash = hashes[middle];
+            int pivotBlock = blocks[middle];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(hashes[i], blocks[i], pivotHash, pivotBlock) < 0) {
+                    i++;
+                }
+                while (compare(hashes[j], blocks[j], pivotHash, pivotBlock) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(hashes, blocks, i++, j--);
+                }
+            }
+            // recurse into the smaller half to bound the stack
+            if (j - low < high - i) {
+                sort(hashes, blocks, low, j);
+                low = i;
+            } else {
+                sort(hashes, blocks, i, high);
+                high = j;
+            }
+        }
+    }
+
+    private static int compare(long[] hashes, int[] blocks, int i, int j) {
+        return compare(hashes[i], blocks[i], hashes[j], blocks[j]);
+    }
+
+    private static int compare(long hash1, int block1, long hash2, int block2) {
+        if (hash1 != hash2) {
+            return hash1 < hash2 ? -1 : 1;
+        }
+        return Integer.compare(block1, block2);
+    }
+
+    private static void swap(long[] hashes, int[] blocks, int i, int j) {
+        long hash = hashes[i];
+        hashes[i] = hashes[j];
+        hashes[j] = hash;
+        int block = blocks[i];
+        blocks[i] = blocks[j];
+        blocks[j] = block;
+    }
+
+    private static ExecutorService getExecutor() {
+        if (executor == null) {
+            synchronized (TraceIdIndex.class) {
+                if (executor == null) {
+                    executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<Runnable>(), r -> {
+                            Thread thread = new Thread(r, "Tracer-Indexer");
+                            thread.setDaemon(true);
+                            thread.setPriority(Thread.MIN_PRIORITY);
+                            return thread;
+                        });
+                }
+            }
+        }
+        return executor;
+    }
+}
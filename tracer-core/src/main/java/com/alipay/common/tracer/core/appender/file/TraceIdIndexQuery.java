@@ -0,0 +1,305 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import com.alipay.common.tracer.core.appender.TracerLogRootDaemon;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Find the lines of a trace in a digest log file and its rolled files.
+ * <p>
+ * A rolled file with a {@link TraceIdIndex} is only read if its bloom filter may contain the
+ * traceId, and then only in the blocks its entries point to. The other files, the current one
+ * included, are read fully. Rolled files compressed with gzip are read too, the ones
+ * compressed with another codec are skipped.
+ * <p>
+ * Also usable from the command line, printing the lines to the standard output:
+ * <pre>
+ * java -cp tracer-core.jar com.alipay.common.tracer.core.appender.file.TraceIdIndexQuery ~/logs/tracelog/rpc-client-digest.log 0a0fe8ec1592378542341100112345
+ * </pre>
+ *
+ * @since 3.1.10
+ */
+public class TraceIdIndexQuery {
+
+    private static final long WHOLE_FILE = Long.MAX_VALUE;
+
+    private TraceIdIndexQuery() {
+    }
+
+    /**
+     * @param logFile current file of a digest log
+     * @param traceId traceId
+     * @return the lines of the trace, oldest file first
+     * @throws IOException if a file cannot be read
+     */
+    public static List<String> find(File logFile, String traceId) throws IOException {
+        List<String> lines = new ArrayList<String>();
+        for (File file : listFiles(logFile)) {
+            find(file, traceId, lines);
+        }
+        return lines;
+    }
+
+    /**
+     * Find the lines of a trace in one file
+     * @param file log file, rolled or not
+     * @param traceId traceId
+     * @param lines found lines
+     * @throws IOException if the file cannot be read
+     */
+    static void find(File file, String traceId, List<String> lines) throws IOException {
+        long[] blocks;
+        int blockSize;
+        File indexFile = TraceIdIndex.indexFileOf(file);
+        if (indexFile.isFile()) {
+            RandomAccessFile index = new RandomAccessFile(indexFile, "r");
+            try {
+                blockSize = readBlockSize(index);
+                blocks = lookup(index, TraceIdIndex.hash(traceId));
+            } finally {
+                index.close();
+            }
+            if (blocks.length == 0) {
+                return;
+            }
+        } else {
+            blockSize = 0;
+            blocks = null;
+        }
+        InputStream in = open(file);
+        try {
+            LineScanner scanner = new LineScanner(in, traceId, lines);
+            if (blocks == null) {
+                scanner.scan(0, WHOLE_FILE);
+            } else {
+                for (long block : blocks) {
+                    scanner.scan(block * blockSize, (block + 1) * blockSize);
+                }
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @param indexFile traceId index
+     * @param traceId traceId
+     * @return false if the bloom filter of the index does not contain the traceId
+     * @throws IOException if the index cannot be read
+     */
+    static boolean mightContain(File indexFile, String traceId) throws IOException {
+        RandomAccessFile index = new RandomAccessFile(indexFile, "r");
+        try {
+            readBlockSize(index);
+            return mightContain(index, TraceIdIndex.hash(traceId));
+        } finally {
+            index.close();
+        }
+    }
+
+    /**
+     * @return the current file and its rolled files which can be read, oldest first
+     */
+    static List<File> listFiles(File logFile) {
+        File parent = logFile.getAbsoluteFile().getParentFile();
+        final String baseName = logFile.getName();
+        File[] files = parent == null ? null : parent.listFiles((dir, name) ->
+                name.startsWith(baseName) && !name.endsWith(RolledFileCompressor.TEMP_SUFFIX)
+                && !TraceIdIndex.isIndexFile(name));
+        List<File> result = new ArrayList<File>();
+        if (files == null) {
+            return result;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(GzipRolledFileCodec.SUFFIX)) {
+                // still there while being compressed
+                if (!new File(parent, RolledFileCompressor.stripSuffix(name)).exists()) {
+                    result.add(file);
+                }
+            } else if (!RolledFileCompressor.isCompressed(name)) {
+                result.add(file);
+            }
+        }
+        result.sort(Comparator.comparingLong(File::lastModified));
+        return result;
+    }
+
+    private static int readBlockSize(RandomAccessFile index) throws IOException {
+        byte[] magic = new byte[TraceIdIndex.MAGIC.length];
+        index.readFully(magic);
+        if (!Arrays.equals(magic, TraceIdIndex.MAGIC) || index.readByte() != TraceIdIndex.VERSION) {
+            throw new IOException("Not a traceId index");
+        }
+        return index.readInt();
+    }
+
+    /**
+     * @return the blocks pointed to by the entries of the hash, ascending
+     */
+    private static long[] lookup(RandomAccessFile index, long hash) throws IOException {
+        if (!mightContain(index, hash)) {
+            return new long[0];
+        }
+        index.seek(TraceIdIndex.HEADER_SIZE - 12);
+        int bloomLongs = index.readInt();
+        long count = index.readLong();
+        long entries = TraceIdIndex.HEADER_SIZE + bloomLongs * 8L;
+        long low = 0;
+        long high = count;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            index.seek(entries + middle * TraceIdIndex.ENTRY_SIZE);
+            if (index.readLong() < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        long[] blocks = new long[4];
+        int found = 0;
+        index.seek(entries + low * TraceIdIndex.ENTRY_SIZE);
+        for (long i = low; i < count && index.readLong() == hash; i++) {
+            if (found == blocks.length) {
+                blocks = Arrays.copyOf(blocks, found * 2);
+            }
+            blocks[found++] = index.readInt();
+        }
+        return Arrays.copyOf(blocks, found);
+    }
+
+    /**
+     * Check the bloom filter, the index is positioned after the block size
+     */
+    private static boolean mightContain(RandomAccessFile index, long hash) throws IOException {
+        int hashCount = index.readInt();
+        long bits = index.readInt() * 64L;
+        for (int i = 0; i < hashCount; i++) {
+            int bit = TraceIdIndex.bloomIndex(hash, i, bits);
+            index.seek(TraceIdIndex.HEADER_SIZE + (bit >>> 6) * 8L);
+            if ((index.readLong() & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static InputStream open(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        if (file.getName().endsWith(GzipRolledFileCodec.SUFFIX)) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        return new BufferedInputStream(in, 64 * 1024);
+    }
+
+    /**
+     * Reads the lines starting in ascending ranges of a file, keeping the ones of a trace
+     */
+    private static class LineScanner {
+
+        private final InputStream           in;
+        private final String                traceId;
+        private final List<String>          lines;
+        private final ByteArrayOutputStream line     = new ByteArrayOutputStream(512);
+
+        /**
+         * Offset of the next byte, always at the start of a line after a scan
+         */
+        private long                        position = 0;
+
+        LineScanner(InputStream in, String traceId, List<String> lines) {
+            this.in = in;
+            this.traceId = traceId;
+            this.lines = lines;
+        }
+
+        void scan(long start, long end) throws IOException {
+            if (position < start) {
+                // a plain file seeks, a compressed one is decompressed up to the block
+                skip(start - 1 - position);
+                int b = in.read();
+                position++;
+                if (b < 0) {
+                    return;
+                }
+                // the line across the block start belongs to the previous block
+                while (b != '\n') {
+                    if ((b = in.read()) < 0) {
+                        return;
+                    }
+                    position++;
+                }
+            }
+            while (position < end && readLine()) {
+                String log = new String(line.toByteArray(), TracerLogRootDaemon.DEFAULT_CHARSET);
+                if (log.contains(traceId)) {
+                    lines.add(log);
+                }
+            }
+        }
+
+        private boolean readLine() throws IOException {
+            line.reset();
+            int b;
+            while ((b = in.read()) >= 0) {
+                position++;
+                if (b == '\n') {
+                    return true;
+                }
+                line.write(b);
+            }
+            return line.size() > 0;
+        }
+
+        private void skip(long bytes) throws IOException {
+            while (bytes > 0) {
+                long skipped = in.skip(bytes);
+                if (skipped <= 0) {
+                    if (in.read() < 0) {
+                        return;
+                    }
+                    skipped = 1;
+                }
+                bytes -= skipped;
+                position += skipped;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TraceIdIndexQuery <digest log file> <traceId>");
+            System.exit(1);
+        }
+        for (String line : find(new File(args[0]), args[1])) {
+            System.out.println(line);
+        }
+    }
+}
@@ -33,6 +33,8 @@ public class StaticInfoLog {
 
     static private TraceAppender appender;
 
+    static private boolean       logged;
+
     public synchronized static void logStaticInfo() {
         try {
             if (appender == null) {
@@ -44,8 +46,19 @@ public class StaticInfoLog {
             log = log + (TracerUtils.getDefaultTimeZone());
             appender.append(log + "\n");
             appender.flush();
+            logged = true;
         } catch (IOException e) {
             SelfLog.error("", e);
         }
     }
+
+    /**
+     * Log the static info unless already logged, see
+     * {@link com.alipay.common.tracer.core.configuration.SofaTracerConfiguration#isLazyStartup()}
+     */
+    public synchronized static void logStaticInfoOnce() {
+        if (!logged) {
+            logStaticInfo();
+        }
+    }
 }
@@ -20,6 +20,8 @@ import com.alipay.common.tracer.core.appender.TraceAppender;
 import com.alipay.common.tracer.core.appender.file.TimedRollingFileAppender;
 import com.alipay.common.tracer.core.appender.self.SynchronizingSelfLog;
 import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.metrics.RingBufferMetrics;
+import com.alipay.common.tracer.core.metrics.TracerMetrics;
 import com.alipay.common.tracer.core.utils.StringUtils;
 import com.alipay.disruptor.BlockingWaitStrategy;
 import com.alipay.disruptor.EventHandler;
@@ -55,6 +57,8 @@ public class AsyncCommonAppenderManager {
     private boolean                     isOutDiscardId;
     private long                        discardOutThreshold;
     private PaddedAtomicLong            discardCount;
+    private final boolean               instrumented;
+    private RingBufferMetrics           ringBufferMetrics;
 
     private static final String         DEFAULT_ALLOW_DISCARD         = "true";
     private static final String         DEFAULT_IS_OUT_DISCARD_NUMBER = "true";
@@ -63,6 +67,26 @@ public class AsyncCommonAppenderManager {
     private static final String         DEFAULT_DISCARD_OUT_THRESHOLD = "500";
 
     public AsyncCommonAppenderManager(int queueSize, int consumerNumber, String logName) {
+        this(queueSize, consumerNumber, logName, true);
+    }
+
+    public AsyncCommonAppenderManager(int queueSize, String logName) {
+        this(queueSize, DEFAULT_CONSUMER_NUMBER, logName);
+    }
+
+    /**
+     * @param queueSize queue size
+     * @param logName log file name
+     * @param instrumented false for the self log, see
+     *                     {@link TimedRollingFileAppender#TimedRollingFileAppender(String, String, String, boolean)}
+     */
+    public AsyncCommonAppenderManager(int queueSize, String logName, boolean instrumented) {
+        this(queueSize, DEFAULT_CONSUMER_NUMBER, logName, instrumented);
+    }
+
+    private AsyncCommonAppenderManager(int queueSize, int consumerNumber, String logName,
+                                       boolean instrumented) {
+        this.instrumented = instrumented;
         int realQueueSize = 1 << (32 - Integer.numberOfLeadingZeros(queueSize - 1));
         disruptor = new Disruptor<StringEvent>(new StringEventFactory(), realQueueSize,
             threadFactory, ProducerType.MULTI, new BlockingWaitStrategy());
@@ -105,18 +129,16 @@ public class AsyncCommonAppenderManager {
         }
 
         this.appender = new TimedRollingFileAppender(logName, rollingPolicy,
-            String.valueOf(globalLogReserveDay));
-    }
-
-    public AsyncCommonAppenderManager(int queueSize, String logName) {
-        this(queueSize, DEFAULT_CONSUMER_NUMBER, logName);
+            String.valueOf(globalLogReserveDay), instrumented);
     }
 
     public void start(final String workerName) {
         this.threadFactory.setWorkName(workerName);
 
         this.ringBuffer = this.disruptor.start();
-
+        if (instrumented) {
+            this.ringBufferMetrics = TracerMetrics.registerRingBuffer(workerName, ringBuffer);
+        }
     }
 
     public boolean append(String string) {
@@ -125,6 +147,9 @@ public class AsyncCommonAppenderManager {
             try {
                 sequence = ringBuffer.tryNext();
             } catch (InsufficientCapacityException e) {
+                if (ringBufferMetrics != null) {
+                    ringBufferMetrics.discarded();
+                }
 
                 if (isOutDiscardId) {
                     if (string != null) {
@@ -153,6 +178,9 @@ public class AsyncCommonAppenderManager {
             return false;
         }
         ringBuffer.publish(sequence);
+        if (ringBufferMetrics != null) {
+            ringBufferMetrics.published();
+        }
         return true;
     }
 
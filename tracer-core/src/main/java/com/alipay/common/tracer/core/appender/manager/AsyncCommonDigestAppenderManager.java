@@ -17,27 +17,39 @@
 package com.alipay.common.tracer.core.appender.manager;
 
 import com.alipay.common.tracer.core.appender.TraceAppender;
+import com.alipay.common.tracer.core.appender.encoder.BinarySpanEncoder;
 import com.alipay.common.tracer.core.appender.encoder.SpanEncoder;
 import com.alipay.common.tracer.core.appender.file.LoadTestAwareAppender;
 import com.alipay.common.tracer.core.appender.self.SynchronizingSelfLog;
 import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.metrics.LogTypeMetrics;
+import com.alipay.common.tracer.core.metrics.RingBufferMetrics;
+import com.alipay.common.tracer.core.metrics.TracerMetrics;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import com.alipay.common.tracer.core.utils.TracerUtils;
 import com.alipay.disruptor.BlockingWaitStrategy;
 import com.alipay.disruptor.EventHandler;
 import com.alipay.disruptor.InsufficientCapacityException;
 import com.alipay.disruptor.RingBuffer;
+import com.alipay.disruptor.WaitStrategy;
 import com.alipay.disruptor.dsl.Disruptor;
 import com.alipay.disruptor.dsl.ProducerType;
 
+import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -47,33 +59,61 @@ import java.util.concurrent.atomic.AtomicLong;
  * @version $Id: AsyncCommonDigestAppenderManager.java, v 0.1 October 23, 2017 9：47 AM liangen Exp $
  */
 public class AsyncCommonDigestAppenderManager {
-    private final Map<String, TraceAppender> appenders                     = new ConcurrentHashMap<String, TraceAppender>();
-    private final Map<String, SpanEncoder>   contextEncoders               = new ConcurrentHashMap<String, SpanEncoder>();
-
-    private Disruptor<SofaTracerSpanEvent>   disruptor;
-    private RingBuffer<SofaTracerSpanEvent>  ringBuffer;
-    private final ConsumerThreadFactory      threadFactory                 = new ConsumerThreadFactory();
-
-    private List<Consumer>                   consumers;
-    private AtomicInteger                    index                         = new AtomicInteger(0);
-    private static final int                 DEFAULT_CONSUMER_NUMBER       = 3;
-
-    private boolean                          allowDiscard;
-    private boolean                          isOutDiscardNumber;
-    private boolean                          isOutDiscardId;
-    private long                             discardOutThreshold;
-    private PaddedAtomicLong                 discardCount;
-
-    private static final String              DEFAULT_ALLOW_DISCARD         = "true";
-    private static final String              DEFAULT_IS_OUT_DISCARD_NUMBER = "true";
-    private static final String              DEFAULT_IS_OUT_DISCARD_ID     = "false";
-
-    private static final String              DEFAULT_DISCARD_OUT_THRESHOLD = "500";
+    private final Map<String, TraceAppender>  appenders                     = new ConcurrentHashMap<String, TraceAppender>();
+    private final Map<String, SpanEncoder>    contextEncoders               = new ConcurrentHashMap<String, SpanEncoder>();
+    private final Map<String, LogTypeMetrics> logTypeMetrics                = new ConcurrentHashMap<String, LogTypeMetrics>();
+
+    private Disruptor<SofaTracerSpanEvent>    disruptor;
+    private RingBuffer<SofaTracerSpanEvent>   ringBuffer;
+    private final ConsumerThreadFactory       threadFactory                 = new ConsumerThreadFactory();
+
+    private List<Consumer>                    consumers;
+    private AtomicInteger                     index                         = new AtomicInteger(0);
+    public static final int                   DEFAULT_CONSUMER_NUMBER       = 3;
+
+    private boolean                           allowDiscard;
+    private boolean                           isOutDiscardNumber;
+    private boolean                           isOutDiscardId;
+    private long                              discardOutThreshold;
+    private PaddedAtomicLong                  discardCount;
+    private RingBufferMetrics                 ringBufferMetrics;
+    /**
+     * Null unless {@link DigestOverloadPolicy#isEnabled()}
+     */
+    private DigestOverloadPolicy              overloadPolicy;
+    /**
+     * Greater than 1 if the producers publish in batches, see {@link ProducerBatch}
+     */
+    private final int                         producerBatchSize;
+    private final long                        producerBatchMaxDelayMillis;
+    private final ThreadLocal<ProducerBatch>  producerBatch                 = new ThreadLocal<ProducerBatch>();
+    private final Set<ProducerBatch>          producerBatches               = Collections
+                                                                                .newSetFromMap(new ConcurrentHashMap<ProducerBatch, Boolean>());
+    private ScheduledExecutorService          producerBatchFlusher;
+
+    private static final String               DEFAULT_ALLOW_DISCARD         = "true";
+    private static final String               DEFAULT_IS_OUT_DISCARD_NUMBER = "true";
+    private static final String               DEFAULT_IS_OUT_DISCARD_ID     = "false";
+
+    private static final String               DEFAULT_DISCARD_OUT_THRESHOLD = "500";
+
+    private static final String               DEFAULT_PRODUCER_BATCH_SIZE   = "1";
+    private static final String               DEFAULT_PRODUCER_BATCH_DELAY  = "5";
 
     public AsyncCommonDigestAppenderManager(int queueSize, int consumerNumber) {
+        this(queueSize, consumerNumber, new BlockingWaitStrategy());
+    }
+
+    /**
+     * @param queueSize      ring buffer size, rounded up to a power of 2
+     * @param consumerNumber number of consumer threads
+     * @param waitStrategy   strategy the consumers use to wait for new spans
+     */
+    public AsyncCommonDigestAppenderManager(int queueSize, int consumerNumber,
+                                            WaitStrategy waitStrategy) {
         int realQueueSize = 1 << (32 - Integer.numberOfLeadingZeros(queueSize - 1));
         disruptor = new Disruptor<SofaTracerSpanEvent>(new SofaTracerSpanEventFactory(),
-            realQueueSize, threadFactory, ProducerType.MULTI, new BlockingWaitStrategy());
+            realQueueSize, threadFactory, ProducerType.MULTI, waitStrategy);
 
         this.consumers = new ArrayList<Consumer>(consumerNumber);
 
@@ -101,17 +141,54 @@ public class AsyncCommonDigestAppenderManager {
                 this.discardCount = new PaddedAtomicLong(0L);
             }
         }
+
+        if (DigestOverloadPolicy.isEnabled()) {
+            this.overloadPolicy = new DigestOverloadPolicy();
+        }
+
+        // a batch is claimed at once, so it cannot be larger than the ring
+        this.producerBatchSize = (int) Math.min(
+            realQueueSize,
+            parse(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_PRODUCER_BATCH_SIZE,
+                DEFAULT_PRODUCER_BATCH_SIZE));
+        long maxDelay = parse(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_PRODUCER_BATCH_MAX_DELAY,
+            DEFAULT_PRODUCER_BATCH_DELAY);
+        this.producerBatchMaxDelayMillis = maxDelay > 0 ? maxDelay : Long
+            .parseLong(DEFAULT_PRODUCER_BATCH_DELAY);
     }
 
     public AsyncCommonDigestAppenderManager(int queueSize) {
         this(queueSize, DEFAULT_CONSUMER_NUMBER);
     }
 
+    private static long parse(String key, String defaultValue) {
+        String value = SofaTracerConfiguration.getProperty(key, defaultValue);
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            SynchronizingSelfLog.warn("invalid value [" + value + "] of " + key + ", use "
+                                      + defaultValue);
+            return Long.parseLong(defaultValue);
+        }
+    }
+
     public void start(final String workerName) {
         this.threadFactory.setWorkName(workerName);
 
         this.ringBuffer = this.disruptor.start();
+        this.ringBufferMetrics = TracerMetrics.registerRingBuffer(workerName, ringBuffer);
+        if (producerBatchSize > 1) {
+            startProducerBatchFlusher(workerName);
+        }
+    }
 
+    /**
+     * Publish the spans buffered by the producer threads, a no-op unless producer batching is
+     * enabled
+     */
+    public void flush() {
+        flushProducerBatches(true);
     }
 
     public void addAppender(String logType, TraceAppender appender, SpanEncoder encoder) {
@@ -123,6 +200,10 @@ public class AsyncCommonDigestAppenderManager {
 
         appenders.put(logType, appender);
         contextEncoders.put(logType, encoder);
+        LogTypeMetrics metrics = TracerMetrics.logType(logType);
+        if (metrics != null) {
+            logTypeMetrics.put(logType, metrics);
+        }
 
         consumers.get(index.incrementAndGet() % consumers.size()).addLogType(logType);
     }
@@ -140,47 +221,240 @@ public class AsyncCommonDigestAppenderManager {
     }
 
     public boolean append(SofaTracerSpan sofaTracerSpan) {
+        boolean compact = false;
+        if (overloadPolicy != null) {
+            long bufferSize = ringBuffer.getBufferSize();
+            long remainingCapacity = ringBuffer.remainingCapacity();
+            int level = overloadPolicy.level(bufferSize, remainingCapacity);
+            if (level == DigestOverloadPolicy.STATS_ONLY
+                && !overloadPolicy.sample(bufferSize, remainingCapacity)) {
+                if (ringBufferMetrics != null) {
+                    ringBufferMetrics.degraded();
+                }
+                return false;
+            }
+            compact = level != DigestOverloadPolicy.NORMAL;
+        }
+
+        if (producerBatchSize > 1) {
+            return appendToProducerBatch(sofaTracerSpan, compact);
+        }
+
         long sequence = 0L;
-        if (allowDiscard) {
+        // the overload policy never blocks the caller
+        if (allowDiscard || overloadPolicy != null) {
             try {
                 sequence = ringBuffer.tryNext();
             } catch (InsufficientCapacityException e) {
-
-                if (isOutDiscardId) {
-                    SofaTracerSpanContext sofaTracerSpanContext = sofaTracerSpan
-                        .getSofaTracerSpanContext();
-                    if (sofaTracerSpanContext != null) {
-                        SynchronizingSelfLog.warn("discarded tracer: traceId["
-                                                  + sofaTracerSpanContext.getTraceId()
-                                                  + "];spanId[" + sofaTracerSpanContext.getSpanId()
-                                                  + "]");
-                    }
-                }
-
-                if ((isOutDiscardNumber) && discardCount.incrementAndGet() == discardOutThreshold) {
-                    discardCount.set(0);
-                    if (isOutDiscardNumber) {
-                        SynchronizingSelfLog.warn("discarded " + discardOutThreshold + " logs");
-                    }
-                }
-
+                discarded(sofaTracerSpan);
                 return false;
             }
         } else {
             sequence = ringBuffer.next();
         }
 
+        // a recycled span is kept until encoded
+        sofaTracerSpan.retain();
         try {
             SofaTracerSpanEvent event = ringBuffer.get(sequence);
+            event.setCompact(compact);
             event.setSofaTracerSpan(sofaTracerSpan);
         } catch (Exception e) {
+            sofaTracerSpan.release();
             SynchronizingSelfLog.error("fail to add event");
             return false;
         }
         ringBuffer.publish(sequence);
+        if (ringBufferMetrics != null) {
+            ringBufferMetrics.published();
+            if (compact) {
+                ringBufferMetrics.compacted();
+            }
+        }
+        return true;
+    }
+
+    private void discarded(SofaTracerSpan sofaTracerSpan) {
+        if (ringBufferMetrics != null) {
+            ringBufferMetrics.discarded();
+        }
+
+        if (isOutDiscardId) {
+            SofaTracerSpanContext sofaTracerSpanContext = sofaTracerSpan.getSofaTracerSpanContext();
+            if (sofaTracerSpanContext != null) {
+                SynchronizingSelfLog.warn("discarded tracer: traceId["
+                                          + sofaTracerSpanContext.getTraceId() + "];spanId["
+                                          + sofaTracerSpanContext.getSpanId() + "]");
+            }
+        }
+
+        if ((isOutDiscardNumber) && discardCount.incrementAndGet() == discardOutThreshold) {
+            discardCount.set(0);
+            if (isOutDiscardNumber) {
+                SynchronizingSelfLog.warn("discarded " + discardOutThreshold + " logs");
+            }
+        }
+    }
+
+    private boolean appendToProducerBatch(SofaTracerSpan sofaTracerSpan, boolean compact) {
+        ProducerBatch batch = producerBatch.get();
+        if (batch == null) {
+            batch = new ProducerBatch(producerBatchSize);
+            producerBatch.set(batch);
+            producerBatches.add(batch);
+        }
+        // a recycled span is kept until encoded
+        sofaTracerSpan.retain();
+        // only contended when the flusher publishes the batch of an idle thread
+        synchronized (batch) {
+            batch.add(sofaTracerSpan, compact);
+            // the max delay is left to the flusher, no clock read per span
+            if (batch.size == producerBatchSize) {
+                publishProducerBatch(batch);
+            }
+        }
         return true;
     }
 
+    /**
+     * Claim and publish the whole batch as one range, the caller holds the lock of the batch.
+     * If the ring cannot take the whole batch and discarding is allowed, the batch is discarded.
+     */
+    private void publishProducerBatch(ProducerBatch batch) {
+        int size = batch.size;
+        if (size == 0) {
+            return;
+        }
+        long hi;
+        if (allowDiscard || overloadPolicy != null) {
+            try {
+                hi = ringBuffer.tryNext(size);
+            } catch (InsufficientCapacityException e) {
+                for (int i = 0; i < size; i++) {
+                    discarded(batch.spans[i]);
+                    batch.spans[i].release();
+                }
+                batch.clear();
+                return;
+            }
+        } else {
+            hi = ringBuffer.next(size);
+        }
+        long lo = hi - size + 1;
+        for (int i = 0; i < size; i++) {
+            SofaTracerSpanEvent event = ringBuffer.get(lo + i);
+            event.setCompact(batch.compacts[i]);
+            event.setSofaTracerSpan(batch.spans[i]);
+            if (ringBufferMetrics != null) {
+                ringBufferMetrics.published();
+                if (batch.compacts[i]) {
+                    ringBufferMetrics.compacted();
+                }
+            }
+        }
+        batch.clear();
+        ringBuffer.publish(lo, hi);
+    }
+
+    private void flushProducerBatches(boolean all) {
+        long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(producerBatchMaxDelayMillis);
+        for (Iterator<ProducerBatch> iterator = producerBatches.iterator(); iterator.hasNext();) {
+            ProducerBatch batch = iterator.next();
+            synchronized (batch) {
+                if (batch.size > 0
+                    && (all || System.nanoTime() - batch.firstNanos >= maxDelayNanos)) {
+                    publishProducerBatch(batch);
+                }
+                if (batch.size == 0 && batch.isOwnerTerminated()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * The owner threads publish their batch when it is full, the flusher publishes the batches
+     * which are older than the max delay, e.g. of idle threads, so a span waits about twice the
+     * max delay at most.
+     * The remaining batches are published on shutdown.
+     */
+    private void startProducerBatchFlusher(final String workerName) {
+        this.producerBatchFlusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Tracer-ProducerBatch-" + workerName);
+            thread.setDaemon(true);
+            return thread;
+        });
+        producerBatchFlusher.scheduleWithFixedDelay(() -> {
+            try {
+                flushProducerBatches(false);
+            } catch (Throwable t) {
+                SynchronizingSelfLog.error("fail to flush producer batches", t);
+            }
+        }, producerBatchMaxDelayMillis, producerBatchMaxDelayMillis, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(
+            new Thread(this::flush, "Tracer-ProducerBatch-" + workerName + "-Shutdown"));
+    }
+
+    /**
+     * Spans appended by one thread and not yet published. Publishing a batch claims its
+     * sequences with a single update of the multi producer cursor instead of one per span.
+     */
+    private static class ProducerBatch {
+
+        private final SofaTracerSpan[]      spans;
+        private final boolean[]             compacts;
+        private final WeakReference<Thread> owner = new WeakReference<Thread>(
+                                                      Thread.currentThread());
+        private int                         size;
+        private long                        firstNanos;
+
+        ProducerBatch(int capacity) {
+            this.spans = new SofaTracerSpan[capacity];
+            this.compacts = new boolean[capacity];
+        }
+
+        void add(SofaTracerSpan sofaTracerSpan, boolean compact) {
+            if (size == 0) {
+                firstNanos = System.nanoTime();
+            }
+            spans[size] = sofaTracerSpan;
+            compacts[size] = compact;
+            size++;
+        }
+
+        void clear() {
+            Arrays.fill(spans, 0, size, null);
+            size = 0;
+        }
+
+        boolean isOwnerTerminated() {
+            Thread thread = owner.get();
+            return thread == null || !thread.isAlive();
+        }
+    }
+
+    /**
+     * Binary digests are encoded straight into the record while appending, so the encode time
+     * of their metrics includes the buffered write
+     */
+    private static void appendBinary(LoadTestAwareAppender appender,
+                                     BinarySpanEncoder<SofaTracerSpan> encoder,
+                                     SofaTracerSpan span, boolean loadTest, LogTypeMetrics metrics)
+                                                                                                   throws IOException {
+        if (metrics == null) {
+            appender.append(span, encoder, loadTest);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            appender.append(span, encoder, loadTest);
+        } catch (IOException | RuntimeException e) {
+            metrics.encodeFailed();
+            throw e;
+        }
+        metrics.encoded(System.nanoTime() - start);
+    }
+
     private class Consumer implements EventHandler<SofaTracerSpanEvent> {
 
         protected Set<String> logTypes = Collections.synchronizedSet(new HashSet<String>());
@@ -192,19 +466,50 @@ public class AsyncCommonDigestAppenderManager {
             SofaTracerSpan sofaTracerSpan = event.getSofaTracerSpan();
 
             if (sofaTracerSpan != null) {
+                boolean handled = false;
                 try {
 
                     String logType = sofaTracerSpan.getLogType();
                     if (logTypes.contains(logType)) {
+                        handled = true;
+                        SofaTracerSpan encodeSpan = sofaTracerSpan;
+                        if (event.isCompact()) {
+                            encodeSpan = sofaTracerSpan.compactInstance(overloadPolicy
+                                .getMaxTagLength());
+                        }
                         SpanEncoder encoder = contextEncoders.get(logType);
                         TraceAppender appender = appenders.get(logType);
 
-                        String encodedStr = encoder.encode(sofaTracerSpan);
-                        if (appender instanceof LoadTestAwareAppender) {
-                            ((LoadTestAwareAppender) appender).append(encodedStr,
-                                TracerUtils.isLoadTest(sofaTracerSpan));
+                        LogTypeMetrics metrics = logTypeMetrics.get(logType);
+                        if (appender instanceof LoadTestAwareAppender
+                            && ((LoadTestAwareAppender) appender).isBinary()
+                            && encoder instanceof BinarySpanEncoder) {
+                            appendBinary((LoadTestAwareAppender) appender,
+                                (BinarySpanEncoder<SofaTracerSpan>) encoder, encodeSpan,
+                                TracerUtils.isLoadTest(sofaTracerSpan), metrics);
                         } else {
-                            appender.append(encodedStr);
+                            String encodedStr;
+                            if (metrics != null) {
+                                long start = System.nanoTime();
+                                try {
+                                    encodedStr = encoder.encode(encodeSpan);
+                                } catch (Exception e) {
+                                    metrics.encodeFailed();
+                                    throw e;
+                                }
+                                metrics.encoded(System.nanoTime() - start);
+                            } else {
+                                encodedStr = encoder.encode(encodeSpan);
+                            }
+                            if (appender instanceof LoadTestAwareAppender) {
+                                SofaTracerSpanContext spanContext = sofaTracerSpan
+                                    .getSofaTracerSpanContext();
+                                ((LoadTestAwareAppender) appender).append(encodedStr, TracerUtils
+                                    .isLoadTest(sofaTracerSpan), spanContext == null ? null
+                                    : spanContext.getTraceId());
+                            } else {
+                                appender.append(encodedStr);
+                            }
                         }
                         appender.flush();
                         event.clear();
@@ -222,6 +527,10 @@ public class AsyncCommonDigestAppenderManager {
                             "fail to async write log.And the sofaTracerSpanContext is null", e);
                     }
 
+                } finally {
+                    if (handled) {
+                        sofaTracerSpan.release();
+                    }
                 }
             }
 
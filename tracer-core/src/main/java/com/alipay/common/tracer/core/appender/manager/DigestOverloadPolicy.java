@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.manager;
+
+import com.alipay.common.tracer.core.appender.self.SynchronizingSelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Tiered degradation of the digest ring buffer, driven by its occupancy:
+ * <ol>
+ *     <li>{@link #SHED}: spans are still enqueued but encoded in compact form, without logs
+ *     and baggage and with truncated string tags, so the consumers catch up faster</li>
+ *     <li>{@link #STATS_ONLY}: digests are no longer enqueued, stats are already recorded on the
+ *     caller side. A random sample is still let through in compact form so that visibility is
+ *     never lost at once; the sample interval doubles while the occupancy stays above the
+ *     sampling watermark and halves again once the consumers catch up</li>
+ * </ol>
+ * Each level is left only when the occupancy falls {@code hysteresis} percent below the
+ * watermark which entered it, so the policy does not flap around a watermark.
+ *
+ * @since 3.1.10
+ */
+public class DigestOverloadPolicy {
+
+    public static final int     NORMAL                       = 0;
+    public static final int     SHED                         = 1;
+    public static final int     STATS_ONLY                   = 2;
+
+    static final int            INITIAL_SAMPLE_INTERVAL      = 2;
+    static final int            MAX_SAMPLE_INTERVAL          = 1024;
+
+    private static final String DEFAULT_SHED_WATERMARK       = "50";
+    private static final String DEFAULT_STATS_ONLY_WATERMARK = "75";
+    private static final String DEFAULT_SAMPLING_WATERMARK   = "90";
+    private static final String DEFAULT_HYSTERESIS           = "10";
+    private static final String DEFAULT_MAX_TAG_LENGTH       = "256";
+
+    private final int           shedWatermark;
+    private final int           statsOnlyWatermark;
+    private final int           samplingWatermark;
+    private final int           hysteresis;
+    private final int           maxTagLength;
+
+    private volatile int        level                        = NORMAL;
+    private volatile int        sampleInterval               = INITIAL_SAMPLE_INTERVAL;
+
+    public DigestOverloadPolicy() {
+        this(parse(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_OVERLOAD_SHED_WATERMARK,
+            DEFAULT_SHED_WATERMARK), parse(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_OVERLOAD_STATS_ONLY_WATERMARK,
+            DEFAULT_STATS_ONLY_WATERMARK), parse(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_OVERLOAD_SAMPLING_WATERMARK,
+            DEFAULT_SAMPLING_WATERMARK), parse(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_OVERLOAD_HYSTERESIS, DEFAULT_HYSTERESIS),
+            parse(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_OVERLOAD_MAX_TAG_LENGTH,
+                DEFAULT_MAX_TAG_LENGTH));
+    }
+
+    /**
+     * @param shedWatermark      occupancy percent entering {@link #SHED}
+     * @param statsOnlyWatermark occupancy percent entering {@link #STATS_ONLY}
+     * @param samplingWatermark  occupancy percent above which the sample interval grows
+     * @param hysteresis         percent below a watermark needed to leave its level
+     * @param maxTagLength       max length of string tags in compact form
+     */
+    public DigestOverloadPolicy(int shedWatermark, int statsOnlyWatermark, int samplingWatermark,
+                                int hysteresis, int maxTagLength) {
+        this.shedWatermark = shedWatermark;
+        this.statsOnlyWatermark = statsOnlyWatermark;
+        this.samplingWatermark = samplingWatermark;
+        this.hysteresis = hysteresis;
+        this.maxTagLength = maxTagLength;
+    }
+
+    /**
+     * Whether the overload policy is enabled, false by default
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(SofaTracerConfiguration
+            .getProperty(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_OVERLOAD_POLICY_ENABLED));
+    }
+
+    /**
+     * Update the level from the current ring occupancy
+     * @param bufferSize ring buffer size
+     * @param remainingCapacity remaining capacity of the ring buffer
+     * @return the level to apply to the span being appended
+     */
+    public int level(long bufferSize, long remainingCapacity) {
+        int occupancy = occupancy(bufferSize, remainingCapacity);
+        int current = level;
+        int next;
+        if (occupancy >= statsOnlyWatermark
+            || (current >= STATS_ONLY && occupancy >= statsOnlyWatermark - hysteresis)) {
+            next = STATS_ONLY;
+        } else if (occupancy >= shedWatermark
+                   || (current >= SHED && occupancy >= shedWatermark - hysteresis)) {
+            next = SHED;
+        } else {
+            next = NORMAL;
+        }
+        if (next != current) {
+            level = next;
+            if (next == STATS_ONLY) {
+                sampleInterval = INITIAL_SAMPLE_INTERVAL;
+            }
+            SynchronizingSelfLog.warn("digest overload level changed from " + current + " to "
+                                      + next + ", ring occupancy " + occupancy + "%");
+        }
+        return next;
+    }
+
+    /**
+     * Whether a span should still be enqueued in {@link #STATS_ONLY} level
+     * @param bufferSize ring buffer size
+     * @param remainingCapacity remaining capacity of the ring buffer
+     * @return true if the span is sampled
+     */
+    public boolean sample(long bufferSize, long remainingCapacity) {
+        int interval = sampleInterval;
+        if (ThreadLocalRandom.current().nextInt(interval) != 0) {
+            return false;
+        }
+        int occupancy = occupancy(bufferSize, remainingCapacity);
+        if (occupancy >= samplingWatermark) {
+            sampleInterval = Math.min(interval << 1, MAX_SAMPLE_INTERVAL);
+        } else if (occupancy < statsOnlyWatermark && interval > INITIAL_SAMPLE_INTERVAL) {
+            sampleInterval = interval >> 1;
+        }
+        return true;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    public int getMaxTagLength() {
+        return maxTagLength;
+    }
+
+    private static int occupancy(long bufferSize, long remainingCapacity) {
+        return (int) ((bufferSize - remainingCapacity) * 100 / bufferSize);
+    }
+
+    static int parse(String key, String defaultValue) {
+        String value = SofaTracerConfiguration.getProperty(key, defaultValue);
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            SynchronizingSelfLog.warn("invalid value [" + value + "] of " + key + ", use "
+                                      + defaultValue);
+            return Integer.parseInt(defaultValue);
+        }
+    }
+}
@@ -24,6 +24,11 @@ import com.alipay.common.tracer.core.span.SofaTracerSpan;
 public class SofaTracerSpanEvent implements ObjectEvent {
     private volatile SofaTracerSpan sofaTracerSpan;
 
+    /**
+     * Whether the span should be encoded in compact form, see {@link DigestOverloadPolicy}
+     */
+    private boolean                 compact;
+
     /**
      * Getter method for property <tt>sofaTracerSpan</tt>.
      *
@@ -42,8 +47,17 @@ public class SofaTracerSpanEvent implements ObjectEvent {
         this.sofaTracerSpan = sofaTracerSpan;
     }
 
+    public boolean isCompact() {
+        return compact;
+    }
+
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
     @Override
     public void clear() {
         setSofaTracerSpan(null);
+        compact = false;
     }
 }
\ No newline at end of file
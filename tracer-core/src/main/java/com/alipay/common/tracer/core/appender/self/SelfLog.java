@@ -16,7 +16,9 @@
  */
 package com.alipay.common.tracer.core.appender.self;
 
+import com.alipay.common.tracer.core.appender.TracerLogRootDaemon;
 import com.alipay.common.tracer.core.appender.manager.AsyncCommonAppenderManager;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.utils.StringUtils;
 import com.alipay.common.tracer.core.utils.TracerUtils;
 
@@ -38,11 +40,23 @@ public class SelfLog {
      */
     static protected final String             SELF_LOG_FILE = "tracer-self.log";
 
-    static private AsyncCommonAppenderManager selfLogAppenderManager;
+    /**
+     * Created on the first log in lazy startup mode
+     */
+    static private volatile AsyncCommonAppenderManager selfLogAppenderManager;
+
+    /**
+     * Deduplicates the warnings and errors repeated by a failure storm
+     */
+    static private final SelfLogLimiter       limiter       = new SelfLogLimiter(
+                                                                summary -> appenderManager()
+                                                                    .append(summary
+                                                                            + StringUtils.NEWLINE));
 
     static {
-        selfLogAppenderManager = new AsyncCommonAppenderManager(1024, SELF_LOG_FILE);
-        selfLogAppenderManager.start("SelfLogAppender");
+        if (!SofaTracerConfiguration.isLazyStartup()) {
+            appenderManager();
+        }
     }
 
     /**
@@ -64,16 +78,19 @@ public class SelfLog {
 
     public static void logWithException(String prefix, String log, Throwable e) {
         try {
+            int decision = limiter.acquire(prefix, log, e);
+            if (decision == SelfLogLimiter.SUPPRESS) {
+                return;
+            }
             String timestamp = Timestamp.currentTime();
             StringWriter sw = new StringWriter(4096);
             PrintWriter pw = new PrintWriter(sw, false);
             pw.append(timestamp).append(prefix).append(log).append(StringUtils.NEWLINE);
             if (e != null) {
-                e.printStackTrace(pw);
-                pw.println();
+                printStackTrace(e, decision, pw);
             }
             pw.flush();
-            selfLogAppenderManager.append(sw.toString());
+            appenderManager().append(sw.toString());
         } catch (Throwable t) {
             t.printStackTrace();
         }
@@ -87,22 +104,25 @@ public class SelfLog {
      */
     public static void errorWithTraceId(String log, Throwable e) {
         try {
+            int decision = limiter.acquire(ERROR_PREFIX, log, e);
+            if (decision == SelfLogLimiter.SUPPRESS) {
+                return;
+            }
             String timestamp = Timestamp.currentTime();
             StringWriter sw = new StringWriter(4096);
             PrintWriter pw = new PrintWriter(sw, false);
             pw.append(timestamp).append(ERROR_PREFIX).append("[").append(TracerUtils.getTraceId())
                 .append("]").append(log).append(StringUtils.NEWLINE);
-            e.printStackTrace(pw);
-            pw.println();
+            printStackTrace(e, decision, pw);
             pw.flush();
-            selfLogAppenderManager.append(sw.toString());
+            appenderManager().append(sw.toString());
         } catch (Throwable t) {
             t.printStackTrace();
         }
     }
 
     public static void error(String log) {
-        doLog(log, ERROR_PREFIX);
+        doLimitedLog(log, ERROR_PREFIX, ERROR_PREFIX);
     }
 
     /**
@@ -112,7 +132,7 @@ public class SelfLog {
      * @param traceId traceId
      */
     public static void errorWithTraceId(String log, String traceId) {
-        doLog(log, ERROR_PREFIX + "[" + traceId + "]");
+        doLimitedLog(log, ERROR_PREFIX, ERROR_PREFIX + "[" + traceId + "]");
     }
 
     /**
@@ -121,11 +141,11 @@ public class SelfLog {
      * @param log
      */
     public static void errorWithTraceId(String log) {
-        doLog(log, ERROR_PREFIX + "[" + TracerUtils.getTraceId() + "]");
+        doLimitedLog(log, ERROR_PREFIX, ERROR_PREFIX + "[" + TracerUtils.getTraceId() + "]");
     }
 
     public static void warn(String log) {
-        doLog(log, WARN_PREFIX);
+        doLimitedLog(log, WARN_PREFIX, WARN_PREFIX);
     }
 
     public static void info(String log) {
@@ -140,14 +160,49 @@ public class SelfLog {
         //async flush, do nothing.
     }
 
+    /**
+     * Print the stack trace, or only the exception if it was printed in this window
+     */
+    static void printStackTrace(Throwable e, int decision, PrintWriter pw) {
+        if (decision == SelfLogLimiter.LOG_WITHOUT_STACK) {
+            pw.append(e.toString()).append(" (repeated, stack trace omitted)")
+                .append(StringUtils.NEWLINE);
+        } else {
+            e.printStackTrace(pw);
+            pw.println();
+        }
+    }
+
+    static private void doLimitedLog(String log, String level, String prefix) {
+        if (limiter.acquire(level, log, null) != SelfLogLimiter.SUPPRESS) {
+            doLog(log, prefix);
+        }
+    }
+
     static private void doLog(String log, String prefix) {
         try {
             String timestamp = Timestamp.currentTime();
             StringBuilder sb = new StringBuilder();
             sb.append(timestamp).append(prefix).append(log).append(StringUtils.NEWLINE);
-            selfLogAppenderManager.append(sb.toString());
+            appenderManager().append(sb.toString());
         } catch (Throwable t) {
             t.printStackTrace();
         }
     }
+
+    static private AsyncCommonAppenderManager appenderManager() {
+        AsyncCommonAppenderManager manager = selfLogAppenderManager;
+        if (manager == null) {
+            synchronized (SelfLog.class) {
+                manager = selfLogAppenderManager;
+                if (manager == null) {
+                    manager = new AsyncCommonAppenderManager(1024, SELF_LOG_FILE, false);
+                    manager.start("SelfLogAppender");
+                    selfLogAppenderManager = manager;
+                    info("LOG_FILE_DIR is " + TracerLogRootDaemon.LOG_FILE_DIR);
+                }
+            }
+        }
+        return manager;
+    }
 }
@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.self;
+
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the self log readable and cheap when the same failure repeats, e.g. a broken remote
+ * endpoint or a full disk failing every span.
+ * <p>
+ * Warnings and errors are fingerprinted by level, exception type and message template, i.e.
+ * the message without its digits and {@code [...]} values, which stands for the call site as
+ * the caller is not known without capturing a stack. In each window a fingerprint is logged at
+ * most {@code maxRepeats} times and its stack trace rendered only the first time; further
+ * repeats are only counted, then summarized in one line when the window ends. Counting a
+ * repeat hashes a bounded prefix of the message and allocates nothing.
+ *
+ * @since 3.1.10
+ */
+final class SelfLogLimiter {
+
+    /**
+     * Log the message and the stack trace
+     */
+    static final int                                 LOG                 = 0;
+    /**
+     * Log the message, the stack trace was already rendered in this window
+     */
+    static final int                                 LOG_WITHOUT_STACK   = 1;
+    /**
+     * Only count the repeat
+     */
+    static final int                                 SUPPRESS            = 2;
+
+    static final int                                 DEFAULT_WINDOW      = 60;
+    static final int                                 DEFAULT_MAX_REPEATS = 5;
+
+    private static final int                         TABLE_SIZE          = 1024;
+    private static final int                         MAX_PROBES          = 8;
+    private static final int                         MAX_HASHED_CHARS    = 256;
+
+    private static volatile ScheduledExecutorService summaryExecutor;
+
+    private final Consumer<String>                   summarySink;
+    private final AtomicReferenceArray<Fingerprint>  fingerprints        = new AtomicReferenceArray<Fingerprint>(
+                                                                             TABLE_SIZE);
+    /**
+     * Shared by the fingerprints which do not fit in the table
+     */
+    private final Fingerprint                        overflow            = new Fingerprint(0,
+                                                                             "[WARN]  ",
+                                                                             "other messages", null);
+
+    private volatile boolean                         configured;
+    private boolean                                  enabled;
+    private long                                     windowMillis;
+    private int                                      maxRepeats;
+    private volatile boolean                         summaryScheduled;
+
+    /**
+     * @param summarySink writes a complete summary line to the self log
+     */
+    SelfLogLimiter(Consumer<String> summarySink) {
+        this.summarySink = summarySink;
+    }
+
+    SelfLogLimiter(Consumer<String> summarySink, boolean enabled, long windowMillis, int maxRepeats) {
+        this.summarySink = summarySink;
+        this.enabled = enabled;
+        this.windowMillis = windowMillis;
+        this.maxRepeats = maxRepeats;
+        this.configured = true;
+    }
+
+    /**
+     * Decide how to log a warning or an error
+     * @param level level prefix
+     * @param log message
+     * @param e exception, may be null
+     * @return {@link #LOG}, {@link #LOG_WITHOUT_STACK} or {@link #SUPPRESS}
+     */
+    int acquire(String level, String log, Throwable e) {
+        if (!configured) {
+            configure();
+        }
+        if (!enabled) {
+            return LOG;
+        }
+        long hash = fingerprint(level, log, e);
+        Fingerprint fingerprint = lookup(hash, level, log, e);
+        long now = System.currentTimeMillis();
+        int decision;
+        synchronized (fingerprint) {
+            if (now - fingerprint.windowStart >= windowMillis) {
+                roll(fingerprint, now);
+            }
+            int count = ++fingerprint.count;
+            if (count > maxRepeats) {
+                fingerprint.suppressed++;
+                decision = SUPPRESS;
+            } else if (e != null && fingerprint.stackRendered) {
+                decision = LOG_WITHOUT_STACK;
+            } else {
+                fingerprint.stackRendered = e != null;
+                decision = LOG;
+            }
+        }
+        if (decision == SUPPRESS && !summaryScheduled) {
+            scheduleSummary();
+        }
+        return decision;
+    }
+
+    /**
+     * Summarize the fingerprints whose window ended
+     */
+    void summarize() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            Fingerprint fingerprint = fingerprints.get(i);
+            if (fingerprint != null) {
+                summarize(fingerprint, now);
+            }
+        }
+        summarize(overflow, now);
+    }
+
+    private void summarize(Fingerprint fingerprint, long now) {
+        synchronized (fingerprint) {
+            if (fingerprint.suppressed > 0 && now - fingerprint.windowStart >= windowMillis) {
+                roll(fingerprint, now);
+            }
+        }
+    }
+
+    /**
+     * Start a new window, summarizing the repeats suppressed in the previous one
+     */
+    private void roll(Fingerprint fingerprint, long now) {
+        if (fingerprint.suppressed > 0) {
+            StringBuilder summary = new StringBuilder(256);
+            summary.append(Timestamp.currentTime()).append(fingerprint.level).append("Suppressed ")
+                .append(fingerprint.suppressed).append(" repeats in ")
+                .append((now - fingerprint.windowStart) / 1000).append("s of: ")
+                .append(fingerprint.sample);
+            if (fingerprint.exceptionType != null) {
+                summary.append(" (").append(fingerprint.exceptionType).append(')');
+            }
+            summarySink.accept(summary.toString());
+        }
+        fingerprint.windowStart = now;
+        fingerprint.count = 0;
+        fingerprint.suppressed = 0;
+        fingerprint.stackRendered = false;
+    }
+
+    private Fingerprint lookup(long hash, String level, String log, Throwable e) {
+        int index = (int) (hash ^ (hash >>> 32)) & (TABLE_SIZE - 1);
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = (index + probe) & (TABLE_SIZE - 1);
+            Fingerprint fingerprint = fingerprints.get(slot);
+            if (fingerprint == null) {
+                Fingerprint created = new Fingerprint(hash, level, log, e == null ? null : e
+                    .getClass().getName());
+                if (fingerprints.compareAndSet(slot, null, created)) {
+                    return created;
+                }
+                fingerprint = fingerprints.get(slot);
+            }
+            if (fingerprint.hash == hash) {
+                return fingerprint;
+            }
+        }
+        return overflow;
+    }
+
+    static long fingerprint(String level, String log, Throwable e) {
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ level.hashCode()) * 0x100000001b3L;
+        if (e != null) {
+            hash = (hash ^ e.getClass().getName().hashCode()) * 0x100000001b3L;
+        }
+        if (log != null) {
+            int length = Math.min(log.length(), MAX_HASHED_CHARS);
+            int depth = 0;
+            for (int i = 0; i < length; i++) {
+                char c = log.charAt(i);
+                if (c == '[') {
+                    depth++;
+                } else if (c == ']') {
+                    if (depth > 0) {
+                        depth--;
+                    }
+                } else if (depth > 0 || (c >= '0' && c <= '9')) {
+                    // variable parts: ids, sizes, dates
+                    continue;
+                }
+                hash = (hash ^ c) * 0x100000001b3L;
+            }
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private void configure() {
+        boolean configuredEnabled = true;
+        long configuredWindow = DEFAULT_WINDOW * 1000L;
+        int configuredMaxRepeats = DEFAULT_MAX_REPEATS;
+        try {
+            configuredEnabled = !"false".equalsIgnoreCase(SofaTracerConfiguration
+                .getProperty(SofaTracerConfiguration.TRACER_SELF_LOG_RATE_LIMIT_ENABLED));
+            configuredWindow = Long.parseLong(SofaTracerConfiguration.getProperty(
+                SofaTracerConfiguration.TRACER_SELF_LOG_RATE_LIMIT_WINDOW,
+                String.valueOf(DEFAULT_WINDOW))) * 1000L;
+            configuredMaxRepeats = Integer.parseInt(SofaTracerConfiguration.getProperty(
+                SofaTracerConfiguration.TRACER_SELF_LOG_MAX_REPEATS,
+                String.valueOf(DEFAULT_MAX_REPEATS)));
+        } catch (Throwable e) {
+            // the configuration may be logging while it is initialized, keep the defaults
+        }
+        windowMillis = configuredWindow > 0 ? configuredWindow : DEFAULT_WINDOW * 1000L;
+        maxRepeats = configuredMaxRepeats > 0 ? configuredMaxRepeats : DEFAULT_MAX_REPEATS;
+        enabled = configuredEnabled;
+        configured = true;
+    }
+
+    private synchronized void scheduleSummary() {
+        if (summaryScheduled) {
+            return;
+        }
+        summaryScheduled = true;
+        if (summaryExecutor == null) {
+            synchronized (SelfLogLimiter.class) {
+                if (summaryExecutor == null) {
+                    summaryExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, "Tracer-SelfLog-Summary");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        summaryExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                summarize();
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+        }, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static class Fingerprint {
+
+        private final long   hash;
+        private final String level;
+        /**
+         * First message of the fingerprint, shown in the summaries
+         */
+        private final String sample;
+        private final String exceptionType;
+
+        private long         windowStart;
+        private int          count;
+        private long         suppressed;
+        private boolean      stackRendered;
+
+        Fingerprint(long hash, String level, String sample, String exceptionType) {
+            this.hash = hash;
+            this.level = level;
+            this.sample = sample;
+            this.exceptionType = exceptionType;
+            this.windowStart = System.currentTimeMillis();
+        }
+    }
+}
@@ -46,6 +46,15 @@ public class SynchronizingSelfLog {
 
     static private AbstractRollingFileAppender selfAppender;
 
+    static private final SelfLogLimiter        limiter       = new SelfLogLimiter(summary -> {
+        try {
+            selfAppender.append(summary + StringUtils.NEWLINE);
+            selfAppender.flush();
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+    });
+
     static {
 
         String globalLogReserveDay = SofaTracerConfiguration.getProperty(
@@ -59,7 +68,7 @@ public class SynchronizingSelfLog {
         }
 
         selfAppender = new TimedRollingFileAppender(SELF_LOG_FILE, rollingPolicy,
-            String.valueOf(globalLogReserveDay));
+            String.valueOf(globalLogReserveDay), false);
     }
 
     /**
@@ -68,12 +77,15 @@ public class SynchronizingSelfLog {
      */
     public static void error(String log, Throwable e) {
         try {
+            int decision = limiter.acquire(ERROR_PREFIX, log, e);
+            if (decision == SelfLogLimiter.SUPPRESS) {
+                return;
+            }
             String timestamp = Timestamp.currentTime();
             StringWriter sw = new StringWriter(4096);
             PrintWriter pw = new PrintWriter(sw, false);
             pw.append(timestamp).append(ERROR_PREFIX).append(log).append(StringUtils.NEWLINE);
-            e.printStackTrace(pw);
-            pw.println();
+            SelfLog.printStackTrace(e, decision, pw);
             pw.flush();
             selfAppender.append(sw.toString());
             selfAppender.flush();
@@ -90,13 +102,16 @@ public class SynchronizingSelfLog {
      */
     public static void errorWithTraceId(String log, Throwable e) {
         try {
+            int decision = limiter.acquire(ERROR_PREFIX, log, e);
+            if (decision == SelfLogLimiter.SUPPRESS) {
+                return;
+            }
             String timestamp = Timestamp.currentTime();
             StringWriter sw = new StringWriter(4096);
             PrintWriter pw = new PrintWriter(sw, false);
             pw.append(timestamp).append(ERROR_PREFIX).append("[").append(TracerUtils.getTraceId())
                 .append("]").append(log).append(StringUtils.NEWLINE);
-            e.printStackTrace(pw);
-            pw.println();
+            SelfLog.printStackTrace(e, decision, pw);
             pw.flush();
             selfAppender.append(sw.toString());
             selfAppender.flush();
@@ -106,7 +121,7 @@ public class SynchronizingSelfLog {
     }
 
     public static void error(String log) {
-        doLog(log, ERROR_PREFIX);
+        doLimitedLog(log, ERROR_PREFIX, ERROR_PREFIX);
     }
 
     /**
@@ -116,7 +131,7 @@ public class SynchronizingSelfLog {
      * @param traceId traceId
      */
     public static void errorWithTraceId(String log, String traceId) {
-        doLog(log, ERROR_PREFIX + "[" + traceId + "]");
+        doLimitedLog(log, ERROR_PREFIX, ERROR_PREFIX + "[" + traceId + "]");
     }
 
     /**
@@ -125,11 +140,11 @@ public class SynchronizingSelfLog {
      * @param log
      */
     public static void errorWithTraceId(String log) {
-        doLog(log, ERROR_PREFIX + "[" + TracerUtils.getTraceId() + "]");
+        doLimitedLog(log, ERROR_PREFIX, ERROR_PREFIX + "[" + TracerUtils.getTraceId() + "]");
     }
 
     public static void warn(String log) {
-        doLog(log, WARN_PREFIX);
+        doLimitedLog(log, WARN_PREFIX, WARN_PREFIX);
     }
 
     public static void info(String log) {
@@ -144,6 +159,12 @@ public class SynchronizingSelfLog {
         selfAppender.flush();
     }
 
+    static private void doLimitedLog(String log, String level, String prefix) {
+        if (limiter.acquire(level, log, null) != SelfLogLimiter.SUPPRESS) {
+            doLog(log, prefix);
+        }
+    }
+
     static private void doLog(String log, String prefix) {
         try {
             String timestamp = Timestamp.currentTime();
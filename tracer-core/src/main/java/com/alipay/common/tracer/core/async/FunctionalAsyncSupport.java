@@ -33,6 +33,8 @@ public class FunctionalAsyncSupport {
         this.traceContext = traceContext;
         if (!traceContext.isEmpty()) {
             this.currentSpan = traceContext.getCurrentSpan();
+            // the task may run at any time, a recycled span it captures is never reused
+            this.currentSpan.retain();
         } else {
             this.currentSpan = null;
         }
@@ -41,94 +41,263 @@ public class SofaTracerConfiguration {
     /**
      * Whether to open the Digest log of the middleware, closing this switch will close the Digest log of all middleware.
      */
-    public static final String                     DISABLE_MIDDLEWARE_DIGEST_LOG_KEY            = "disable_middleware_digest_log";
+    public static final String                     DISABLE_MIDDLEWARE_DIGEST_LOG_KEY                   = "disable_middleware_digest_log";
     /**
      * com.alipay.sofa.tracer.disableConfiguration[logType]=true
      */
-    public final static String                     DISABLE_DIGEST_LOG_KEY                       = "disable_digest_log";
+    public final static String                     DISABLE_DIGEST_LOG_KEY                              = "disable_digest_log";
 
     /**
      * Tracer's Global Rolling configured Key
      */
-    public final static String                     TRACER_GLOBAL_ROLLING_KEY                    = "tracer_global_rolling_policy";
+    public final static String                     TRACER_GLOBAL_ROLLING_KEY                           = "tracer_global_rolling_policy";
 
     /**
      * Tracer's global log retention days configured Key
      */
-    public final static String                     TRACER_GLOBAL_LOG_RESERVE_DAY                = "tracer_global_log_reserve_day";
+    public final static String                     TRACER_GLOBAL_LOG_RESERVE_DAY                       = "tracer_global_log_reserve_day";
 
     /**
      * Default log retention days
      */
-    public static final int                        DEFAULT_LOG_RESERVE_DAY                      = 7;
+    public static final int                        DEFAULT_LOG_RESERVE_DAY                             = 7;
 
     /**
      * Threshold, the length of the service transparent field
      */
-    public final static int                        PEN_ATTRS_LENGTH_TRESHOLD                    = 1024;
+    public final static int                        PEN_ATTRS_LENGTH_TRESHOLD                           = 1024;
 
     /**
      * The configuration of the maximum value of the tracer's penetration data
      */
-    public static final String                     TRACER_PENETRATE_ATTRIBUTE_MAX_LENGTH        = "tracer_penetrate_attribute_max_length";
+    public static final String                     TRACER_PENETRATE_ATTRIBUTE_MAX_LENGTH               = "tracer_penetrate_attribute_max_length";
 
     /**
      * The configuration key of the maximum value of the Tracer system penetration data
      */
-    public static final String                     TRACER_SYSTEM_PENETRATE_ATTRIBUTE_MAX_LENGTH = "tracer_system_penetrate_attribute_max_length";
+    public static final String                     TRACER_SYSTEM_PENETRATE_ATTRIBUTE_MAX_LENGTH        = "tracer_system_penetrate_attribute_max_length";
 
     /**
      * The interval for printing the stat log.
      * This option is mainly for testability considerations. System attribute keywords.
      */
-    public static final String                     STAT_LOG_INTERVAL                            = "stat_log_interval";
+    public static final String                     STAT_LOG_INTERVAL                                   = "stat_log_interval";
 
-    public static final String                     FILL_MINUTE_SWITCH                           = "fill_minute_switch";
+    public static final String                     FILL_MINUTE_SWITCH                                  = "fill_minute_switch";
 
     /***************** Asynchronous queue configuration item  start ***************/
 
     /**
      * Whether to allow lost logs
      */
-    public static final String                     TRACER_ASYNC_APPENDER_ALLOW_DISCARD          = "tracer_async_appender_allow_discard";
+    public static final String                     TRACER_ASYNC_APPENDER_ALLOW_DISCARD                 = "tracer_async_appender_allow_discard";
     /**
      * Whether the log output loses the number of logs
      */
-    public static final String                     TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_NUMBER  = "tracer_async_appender_is_out_discard_number";
+    public static final String                     TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_NUMBER         = "tracer_async_appender_is_out_discard_number";
     /**
      * Whether the log output loses the trace of the TraceId and RpcId
      */
-    public static final String                     TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_ID      = "tracer_async_appender_is_out_discard_id";
+    public static final String                     TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_ID             = "tracer_async_appender_is_out_discard_id";
     /**
      * The number of lost logs reaches this threshold for a log output
      */
-    public static final String                     TRACER_ASYNC_APPENDER_DISCARD_OUT_THRESHOLD  = "tracer_async_appender_discard_out_threshold";
+    public static final String                     TRACER_ASYNC_APPENDER_DISCARD_OUT_THRESHOLD         = "tracer_async_appender_discard_out_threshold";
+    /**
+     * Whether to degrade digests by ring occupancy instead of blocking or discarding, default is false
+     */
+    public static final String                     TRACER_ASYNC_APPENDER_OVERLOAD_POLICY_ENABLED       = "tracer_async_appender_overload_policy_enabled";
+    /**
+     * Ring occupancy percent above which digests are encoded in compact form
+     */
+    public static final String                     TRACER_ASYNC_APPENDER_OVERLOAD_SHED_WATERMARK       = "tracer_async_appender_overload_shed_watermark";
+    /**
+     * Ring occupancy percent above which only a sample of the digests is enqueued
+     */
+    public static final String                     TRACER_ASYNC_APPENDER_OVERLOAD_STATS_ONLY_WATERMARK = "tracer_async_appender_overload_stats_only_watermark";
+    /**
+     * Ring occupancy percent above which the digest sample interval keeps growing
+     */
+    public static final String                     TRACER_ASYNC_APPENDER_OVERLOAD_SAMPLING_WATERMARK   = "tracer_async_appender_overload_sampling_watermark";
+    /**
+     * Percent below a watermark the occupancy must fall to leave its level
+     */
+    public static final String                     TRACER_ASYNC_APPENDER_OVERLOAD_HYSTERESIS           = "tracer_async_appender_overload_hysteresis";
+    /**
+     * Max length of the string tags of compact digests
+     */
+    public static final String                     TRACER_ASYNC_APPENDER_OVERLOAD_MAX_TAG_LENGTH       = "tracer_async_appender_overload_max_tag_length";
+    /**
+     * Number of digests a business thread buffers before claiming and publishing them at once, default is 1 (no batching)
+     */
+    public static final String                     TRACER_ASYNC_APPENDER_PRODUCER_BATCH_SIZE           = "tracer_async_appender_producer_batch_size";
+    /**
+     * Max milliseconds a digest stays in a producer batch, default is 5
+     */
+    public static final String                     TRACER_ASYNC_APPENDER_PRODUCER_BATCH_MAX_DELAY      = "tracer_async_appender_producer_batch_max_delay";
+    /**
+     * Prefix of the async appender group of a digest log type, e.g. tracer_async_appender_group.kafka-mq-consume-digest.log=mq.
+     * Log types without a group share the default async appender
+     */
+    public static final String                     TRACER_ASYNC_APPENDER_GROUP_PREFIX                  = "tracer_async_appender_group.";
+    /**
+     * Prefix of the ring buffer size of an async appender group, default is 1024
+     */
+    public static final String                     TRACER_ASYNC_APPENDER_QUEUE_SIZE_PREFIX             = "tracer_async_appender_queue_size.";
+    /**
+     * Prefix of the consumer thread number of an async appender group, default is 3
+     */
+    public static final String                     TRACER_ASYNC_APPENDER_CONSUMER_NUMBER_PREFIX        = "tracer_async_appender_consumer_number.";
+    /**
+     * Prefix of the consumer wait strategy of an async appender group: blocking (default), lite_blocking, yielding, sleeping or phased_backoff
+     */
+    public static final String                     TRACER_ASYNC_APPENDER_WAIT_STRATEGY_PREFIX          = "tracer_async_appender_wait_strategy.";
 
     /***************** Asynchronous queue configuration item   end ***************/
 
+    /**
+     * Whether to record metrics about the tracer internals, default is false
+     */
+    public static final String                     TRACER_METRICS_ENABLED                              = "tracer_metrics_enabled";
+    /**
+     * Whether to register the tracer internal metrics as JMX MBeans, default is true
+     */
+    public static final String                     TRACER_METRICS_JMX_ENABLED                          = "tracer_metrics_jmx_enabled";
+
     /**
      * app name
      */
-    public static final String                     TRACER_APPNAME_KEY                           = "spring.application.name";
+    public static final String                     TRACER_APPNAME_KEY                                  = "spring.application.name";
     /**
      * jdbc url
      */
-    public static final String                     TRACER_JDBC_URL_KEY                          = "spring.datasource.url";
+    public static final String                     TRACER_JDBC_URL_KEY                                 = "spring.datasource.url";
 
-    private static Map<String, Object>             properties                                   = new ConcurrentHashMap<String, Object>();
+    private static Map<String, Object>             properties                                          = new ConcurrentHashMap<String, Object>();
 
-    private static Properties                      fileProperties                               = new Properties();
+    private static Properties                      fileProperties                                      = new Properties();
 
-    private static SofaTracerExternalConfiguration sofaTracerExternalConfiguration              = null;
+    private static SofaTracerExternalConfiguration sofaTracerExternalConfiguration                     = null;
 
     /** The key of Sampling policy name */
-    public static final String                     SAMPLER_STRATEGY_NAME_KEY                    = "tracer_sampler_strategy_name_key";
+    public static final String                     SAMPLER_STRATEGY_NAME_KEY                           = "tracer_sampler_strategy_name_key";
     /** Custom sampling rule class name */
-    public static final String                     SAMPLER_STRATEGY_CUSTOM_RULE_CLASS_NAME      = "tracer_sampler_strategy_custom_rule_class_name";
+    public static final String                     SAMPLER_STRATEGY_CUSTOM_RULE_CLASS_NAME             = "tracer_sampler_strategy_custom_rule_class_name";
     /** The key of Sampling rate */
-    public static final String                     SAMPLER_STRATEGY_PERCENTAGE_KEY              = "tracer_sampler_strategy_percentage_key";
+    public static final String                     SAMPLER_STRATEGY_PERCENTAGE_KEY                     = "tracer_sampler_strategy_percentage_key";
 
-    public static final String                     JSON_FORMAT_OUTPUT                           = "global_json_format_output";
+    public static final String                     JSON_FORMAT_OUTPUT                                  = "global_json_format_output";
+
+    /**
+     * Format of the digest log files: text (default) or binary, see BinaryDigestWriter
+     */
+    public static final String                     TRACER_DIGEST_LOG_FORMAT                            = "tracer_digest_log_format";
+    /**
+     * Bytes after which a binary digest file starts a new block with an empty dictionary, default is 1048576
+     */
+    public static final String                     TRACER_BINARY_DIGEST_BLOCK_SIZE                     = "tracer_binary_digest_block_size";
+    /**
+     * Max number of dictionary strings per binary digest block, default is 16384
+     */
+    public static final String                     TRACER_BINARY_DIGEST_DICTIONARY_SIZE                = "tracer_binary_digest_dictionary_size";
+    /**
+     * Codec compressing the rolled log files in background: none (default), gzip, or the class name of a RolledFileCodec
+     */
+    public static final String                     TRACER_ROLLED_FILE_COMPRESSION                      = "tracer_rolled_file_compression";
+    /**
+     * Max bytes per second read by the rolled file compression, default is 8388608
+     */
+    public static final String                     TRACER_ROLLED_FILE_COMPRESSION_RATE                 = "tracer_rolled_file_compression_rate";
+    /**
+     * Size after which a log file is also rolled within its time period, e.g. 100MB, no limit by default
+     */
+    public static final String                     TRACER_LOG_MAX_FILE_SIZE                            = "tracer_log_max_file_size";
+    /**
+     * Total size of all the tracer log files, e.g. 10GB, the oldest rolled files are deleted beyond it, no limit by default
+     */
+    public static final String                     TRACER_LOG_TOTAL_SIZE_CAP                           = "tracer_log_total_size_cap";
+    /**
+     * Max memory of the recent trace store, e.g. 64MB (default)
+     */
+    public static final String                     TRACER_RECENT_TRACE_STORE_MAX_SIZE                  = "tracer_recent_trace_store_max_size";
+    /**
+     * Minutes the recent trace store keeps the spans at most, default is 10
+     */
+    public static final String                     TRACER_RECENT_TRACE_STORE_RETENTION                 = "tracer_recent_trace_store_retention";
+    /**
+     * Milliseconds from which the recent trace store indexes a span as slow, default is 1000
+     */
+    public static final String                     TRACER_RECENT_TRACE_STORE_SLOW_THRESHOLD            = "tracer_recent_trace_store_slow_threshold";
+    /**
+     * Max spans waiting to be inserted into the recent trace store, more are dropped, default is 4096
+     */
+    public static final String                     TRACER_RECENT_TRACE_STORE_QUEUE_SIZE                = "tracer_recent_trace_store_queue_size";
+    /**
+     * Whether the text digest log files get a traceId index and bloom filter per rolled file, default is false
+     */
+    public static final String                     TRACER_TRACE_ID_INDEX_ENABLED                       = "tracer_trace_id_index_enabled";
+    /**
+     * Bytes of the log file blocks the traceId index points to, default is 65536
+     */
+    public static final String                     TRACER_TRACE_ID_INDEX_BLOCK_SIZE                    = "tracer_trace_id_index_block_size";
+    /**
+     * Whether repeated self log warnings and errors are deduplicated and summarized, default is true
+     */
+    public static final String                     TRACER_SELF_LOG_RATE_LIMIT_ENABLED                  = "tracer_self_log_rate_limit_enabled";
+    /**
+     * Seconds of the window in which the self log repeats are counted, default is 60
+     */
+    public static final String                     TRACER_SELF_LOG_RATE_LIMIT_WINDOW                   = "tracer_self_log_rate_limit_window";
+    /**
+     * Times the same self log warning or error is logged per window before only being counted, default is 5
+     */
+    public static final String                     TRACER_SELF_LOG_MAX_REPEATS                         = "tracer_self_log_max_repeats";
+    /**
+     * Whether finished spans and their contexts are pooled and reused, default is false. A span
+     * used after its release is detected and not reused as long as it is in quarantine; once
+     * reused, only {@link com.alipay.common.tracer.core.span.SofaTracerSpan#isStale(int)} tells
+     * a holder that it records another trace
+     */
+    public static final String                     TRACER_SPAN_RECYCLING_ENABLED                       = "tracer_span_recycling_enabled";
+    /**
+     * Max recycled spans pooled per thread, default is 256
+     */
+    public static final String                     TRACER_SPAN_RECYCLING_POOL_SIZE                     = "tracer_span_recycling_pool_size";
+    /**
+     * Milliseconds a released span stays in the pool before it is reused, default is 1000
+     */
+    public static final String                     TRACER_SPAN_RECYCLING_QUARANTINE                    = "tracer_span_recycling_quarantine";
+    /**
+     * Whether span durations are measured with System.nanoTime and logged with microseconds, default is false
+     */
+    public static final String                     TRACER_HIGH_RESOLUTION_TIMING_ENABLED               = "tracer_high_resolution_timing_enabled";
+
+    /**
+     * Whether the http client plugins record the dns, connect, tls, connection acquire and time to first byte phases, default is false
+     */
+    public static final String                     TRACER_HTTP_CLIENT_PHASE_TIMING_ENABLED             = "tracer_http_client_phase_timing_enabled";
+
+    /**
+     * Whether the self log, common log and load test files and their threads are created on first use, default is false.
+     * Set it as a system property or in sofa.tracer.properties to also defer the static info log
+     */
+    public static final String                     TRACER_LAZY_STARTUP_ENABLED                         = "tracer_lazy_startup_enabled";
+    /**
+     * Whether all the log files are written by one shared I/O thread instead of the appending threads, default is false
+     */
+    public static final String                     TRACER_SHARED_LOG_WRITER_ENABLED                    = "tracer_shared_log_writer_enabled";
+    /**
+     * Size of the pooled direct buffers handed to the shared log writer, 16KB by default
+     */
+    public static final String                     TRACER_SHARED_LOG_WRITER_CHUNK_SIZE                 = "tracer_shared_log_writer_chunk_size";
+    /**
+     * Total size of the buffers of the shared log writer, 4MB by default, appends block once it is used up
+     */
+    public static final String                     TRACER_SHARED_LOG_WRITER_BUFFER_SIZE                = "tracer_shared_log_writer_buffer_size";
+    /**
+     * Whether the children of unsampled spans are built as lightweight stats only spans, default is false
+     */
+    public static final String                     TRACER_STATS_ONLY_SPAN_ENABLED                      = "tracer_stats_only_span_enabled";
 
     static {
         InputStream inputStream = null;
@@ -142,8 +311,10 @@ public class SofaTracerConfiguration {
         } catch (Exception e) {
             SelfLog.info("sofa.tracer.properties文件不存在");
         }
-        //Static statistics
-        StaticInfoLog.logStaticInfo();
+        //Static statistics, logged with the first digest file in lazy startup mode
+        if (!isLazyStartup()) {
+            StaticInfoLog.logStaticInfo();
+        }
     }
 
     /**
@@ -311,6 +482,14 @@ public class SofaTracerConfiguration {
         return samplerName;
     }
 
+    /**
+     * Whether the tracer creates its threads and files on first use
+     * @return true if {@link #TRACER_LAZY_STARTUP_ENABLED} is true
+     */
+    public static boolean isLazyStartup() {
+        return Boolean.parseBoolean(getProperty(TRACER_LAZY_STARTUP_ENABLED));
+    }
+
     /**
      * use json to print
      * @return
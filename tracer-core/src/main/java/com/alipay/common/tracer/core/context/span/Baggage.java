@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.context.span;
+
+import com.alipay.common.tracer.core.utils.StringUtils;
+import com.alipay.common.tracer.util.DesensitizationHelper;
+import com.alipay.common.tracer.util.Desensitizer;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable baggage of a {@link SofaTracerSpanContext}. Contexts share one instance, e.g. a
+ * child and its parent or a clone and its origin, until one of them writes to its baggage,
+ * which replaces its instance by a modified copy.
+ * <p>
+ * The serialized forms are computed once per instance, and so are only computed again after
+ * a write.
+ *
+ * @since 3.1.10
+ */
+public final class Baggage extends AbstractMap<String, String> {
+
+    public static final Baggage       EMPTY = new Baggage(new HashMap<String, String>());
+
+    private final Map<String, String> items;
+
+    private volatile String           serialized;
+
+    /**
+     * prefix and serialized form with this prefix
+     */
+    private volatile String[]         prefixedSerialized;
+
+    /**
+     * desensitizer and desensitized serialized form
+     */
+    private volatile Object[]         desensitizedSerialized;
+
+    private Baggage(Map<String, String> items) {
+        this.items = Collections.unmodifiableMap(items);
+    }
+
+    /**
+     * @param map baggage items, null for none
+     * @return the baggage with the items of the map, the map itself if it is a baggage
+     */
+    public static Baggage of(Map<String, String> map) {
+        if (map instanceof Baggage) {
+            return (Baggage) map;
+        }
+        if (map instanceof SofaTracerSpanContext.BaggageView) {
+            return ((SofaTracerSpanContext.BaggageView) map).current();
+        }
+        return EMPTY.withAll(map);
+    }
+
+    /**
+     * @param key   key
+     * @param value value, null to remove the key
+     * @return a copy with the item, or this baggage if it already has it
+     */
+    public Baggage with(String key, String value) {
+        if (value == null) {
+            return without(key);
+        }
+        if (value.equals(this.items.get(key))) {
+            return this;
+        }
+        Map<String, String> copy = new HashMap<String, String>(this.items);
+        copy.put(key, value);
+        return new Baggage(copy);
+    }
+
+    /**
+     * @param map items to add
+     * @return a copy with the items, or the added baggage itself if this one is empty
+     */
+    public Baggage withAll(Map<String, String> map) {
+        if (map == null || map.isEmpty()) {
+            return this;
+        }
+        if (this.items.isEmpty()) {
+            if (map instanceof Baggage) {
+                return (Baggage) map;
+            }
+            if (map instanceof SofaTracerSpanContext.BaggageView) {
+                return ((SofaTracerSpanContext.BaggageView) map).current();
+            }
+        }
+        Map<String, String> copy = new HashMap<String, String>(this.items);
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            // same as the concurrent maps used before, null keys and values are not kept
+            if (entry.getKey() != null && entry.getValue() != null) {
+                copy.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return copy.isEmpty() ? EMPTY : new Baggage(copy);
+    }
+
+    /**
+     * @param key key
+     * @return a copy without the item, or this baggage if it does not have it
+     */
+    public Baggage without(Object key) {
+        if (!this.items.containsKey(key)) {
+            return this;
+        }
+        if (this.items.size() == 1) {
+            return EMPTY;
+        }
+        Map<String, String> copy = new HashMap<String, String>(this.items);
+        copy.remove(key);
+        return new Baggage(copy);
+    }
+
+    /**
+     * @return the items escaped and joined as {@code k1=v1&k2=v2&}
+     */
+    public String getSerialized() {
+        String result = this.serialized;
+        if (result == null) {
+            result = StringUtils.mapToString(this.items);
+            this.serialized = result;
+        }
+        return result;
+    }
+
+    /**
+     * @param prefix prefix of every key
+     * @return the items escaped and joined as {@code prefixk1=v1&prefixk2=v2&}
+     */
+    public String getSerialized(String prefix) {
+        if (prefix == null) {
+            prefix = StringUtils.EMPTY_STRING;
+        }
+        String[] memo = this.prefixedSerialized;
+        if (memo != null && memo[0].equals(prefix)) {
+            return memo[1];
+        }
+        String result = StringUtils.mapToStringWithPrefix(this.items, prefix);
+        this.prefixedSerialized = new String[] { prefix, result };
+        return result;
+    }
+
+    /**
+     * @return {@link #getSerialized()} desensitized if desensitization is enabled
+     */
+    public String getDesensitizedSerialized() {
+        Desensitizer desensitizer = DesensitizationHelper.getEnabledDesensitizer();
+        if (desensitizer == null || this.items.isEmpty()) {
+            return getSerialized();
+        }
+        Object[] memo = this.desensitizedSerialized;
+        if (memo != null && memo[0] == desensitizer) {
+            return (String) memo[1];
+        }
+        String result = DesensitizationHelper.desensitize(desensitizer, getSerialized());
+        this.desensitizedSerialized = new Object[] { desensitizer, result };
+        return result;
+    }
+
+    @Override
+    public String get(Object key) {
+        return this.items.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.items.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return this.items.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.items.isEmpty();
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return this.items.entrySet();
+    }
+}
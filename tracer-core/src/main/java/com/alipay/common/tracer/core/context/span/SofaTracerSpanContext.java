@@ -23,9 +23,10 @@ import com.alipay.common.tracer.core.utils.StringUtils;
 import com.alipay.common.tracer.core.utils.TracerUtils;
 import io.opentracing.SpanContext;
 
+import java.util.AbstractMap;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -37,50 +38,52 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class SofaTracerSpanContext implements SpanContext {
 
     //spanId separator
-    public static final String        RPC_ID_SEPARATOR       = ".";
+    public static final String  RPC_ID_SEPARATOR       = ".";
 
     //======================== The following is the key for serializing data ========================
 
-    private static final String       TRACE_ID_KET           = "tcid";
+    private static final String TRACE_ID_KET           = "tcid";
 
-    private static final String       SPAN_ID_KET            = "spid";
+    private static final String SPAN_ID_KET            = "spid";
 
-    private static final String       PARENT_SPAN_ID_KET     = "pspid";
+    private static final String PARENT_SPAN_ID_KET     = "pspid";
 
-    private static final String       SAMPLE_KET             = "sample";
+    private static final String SAMPLE_KET             = "sample";
 
     /**
      * The serialization system transparently passes the prefix of the attribute key
      */
-    private static final String       SYS_BAGGAGE_PREFIX_KEY = "_sys_";
+    private static final String SYS_BAGGAGE_PREFIX_KEY = "_sys_";
 
-    private String                    traceId                = StringUtils.EMPTY_STRING;
+    private String              traceId                = StringUtils.EMPTY_STRING;
 
-    private String                    spanId                 = StringUtils.EMPTY_STRING;
+    private String              spanId                 = StringUtils.EMPTY_STRING;
 
-    private String                    parentId               = StringUtils.EMPTY_STRING;
+    private String              parentId               = StringUtils.EMPTY_STRING;
 
     /**
      * Default will not be sampled
      */
-    private boolean                   isSampled              = true;
+    private boolean             isSampled              = true;
 
     /**
      * The system transparently transmits data,
      * mainly refers to the transparent transmission data of the system dimension.
      * Note that this field cannot be used for transparent transmission of business.
+     * Copy on write, it may be shared with other contexts.
      */
-    private final Map<String, String> sysBaggage             = new ConcurrentHashMap<String, String>();
+    private volatile Baggage    sysBaggage             = Baggage.EMPTY;
 
     /**
-     * Transparent transmission of data, mainly refers to the transparent transmission data of the business
+     * Transparent transmission of data, mainly refers to the transparent transmission data of the business.
+     * Copy on write, it may be shared with other contexts.
      */
-    private final Map<String, String> bizBaggage             = new ConcurrentHashMap<String, String>();
+    private volatile Baggage    bizBaggage             = Baggage.EMPTY;
 
     /**
      * sub-context counter
      */
-    private AtomicInteger             childContextIndex      = new AtomicInteger(0);
+    private AtomicInteger       childContextIndex      = new AtomicInteger(0);
 
     /**
      * clone a SofaTracerSpanContext instance
@@ -89,8 +92,8 @@ public class SofaTracerSpanContext implements SpanContext {
     public SofaTracerSpanContext cloneInstance() {
         SofaTracerSpanContext spanContext = new SofaTracerSpanContext(this.traceId, this.spanId,
             this.parentId, this.isSampled);
-        spanContext.addSysBaggage(this.sysBaggage);
-        spanContext.addBizBaggage(this.bizBaggage);
+        spanContext.sysBaggage = this.sysBaggage;
+        spanContext.bizBaggage = this.bizBaggage;
         spanContext.childContextIndex = this.childContextIndex;
         return spanContext;
     }
@@ -117,16 +120,43 @@ public class SofaTracerSpanContext implements SpanContext {
         this.isSampled = isSampled;
     }
 
+    /**
+     * Reinitialize the context of a recycled span as if just constructed, see
+     * {@link com.alipay.common.tracer.core.span.SpanRecycler}
+     *
+     * @param traceId traceId
+     * @param spanId spanId
+     * @param parentId parentId
+     * @param isSampled isSampled
+     * @return this
+     */
+    public SofaTracerSpanContext reinitialize(String traceId, String spanId, String parentId,
+                                              boolean isSampled) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentId = StringUtils.isBlank(parentId) ? this.genParentSpanId(spanId) : parentId;
+        this.isSampled = isSampled;
+        this.sysBaggage = Baggage.EMPTY;
+        this.bizBaggage = Baggage.EMPTY;
+        // may be shared with clones still in use
+        this.childContextIndex = new AtomicInteger(0);
+        return this;
+    }
+
     public SofaTracerSpanContext addBizBaggage(Map<String, String> bizBaggage) {
         if (bizBaggage != null && bizBaggage.size() > 0) {
-            this.bizBaggage.putAll(bizBaggage);
+            synchronized (this) {
+                this.bizBaggage = this.bizBaggage.withAll(bizBaggage);
+            }
         }
         return this;
     }
 
     public SofaTracerSpanContext addSysBaggage(Map<String, String> sysBaggage) {
         if (sysBaggage != null && sysBaggage.size() > 0) {
-            this.sysBaggage.putAll(sysBaggage);
+            synchronized (this) {
+                this.sysBaggage = this.sysBaggage.withAll(sysBaggage);
+            }
         }
         return this;
     }
@@ -137,13 +167,16 @@ public class SofaTracerSpanContext implements SpanContext {
      */
     @Override
     public Iterable<Map.Entry<String, String>> baggageItems() {
-        Map<String, String> allBaggage = new HashMap<String, String>();
-        if (this.bizBaggage != null && this.bizBaggage.size() > 0) {
-            allBaggage.putAll(this.bizBaggage);
+        Baggage bizBaggage = this.bizBaggage;
+        Baggage sysBaggage = this.sysBaggage;
+        if (sysBaggage.isEmpty()) {
+            return bizBaggage.entrySet();
         }
-        if (this.sysBaggage != null && this.sysBaggage.size() > 0) {
-            allBaggage.putAll(this.sysBaggage);
+        if (bizBaggage.isEmpty()) {
+            return sysBaggage.entrySet();
         }
+        Map<String, String> allBaggage = new HashMap<String, String>(bizBaggage);
+        allBaggage.putAll(sysBaggage);
         return allBaggage.entrySet();
     }
 
@@ -163,11 +196,11 @@ public class SofaTracerSpanContext implements SpanContext {
      * @return
      */
     public String getBizSerializedBaggage() {
-        return StringUtils.mapToString(bizBaggage);
+        return this.bizBaggage.getSerialized();
     }
 
     public String getSysSerializedBaggage() {
-        return StringUtils.mapToString(this.sysBaggage);
+        return this.sysBaggage.getSerialized();
     }
 
     /**
@@ -179,7 +212,9 @@ public class SofaTracerSpanContext implements SpanContext {
      * @param bizBaggageAttrs serialized penetration properties
      */
     public void deserializeBizBaggage(String bizBaggageAttrs) {
-        StringUtils.stringToMap(bizBaggageAttrs, this.bizBaggage);
+        Map<String, String> bizBaggage = new HashMap<String, String>();
+        StringUtils.stringToMap(bizBaggageAttrs, bizBaggage);
+        this.addBizBaggage(bizBaggage);
 
         if (StringUtils.isNotBlank(bizBaggageAttrs)) {
             if (bizBaggageAttrs.length() > TracerUtils.getBaggageMaxLength() / 2) {
@@ -190,7 +225,9 @@ public class SofaTracerSpanContext implements SpanContext {
     }
 
     public void deserializeSysBaggage(String sysBaggageAttrs) {
-        StringUtils.stringToMap(sysBaggageAttrs, this.sysBaggage);
+        Map<String, String> sysBaggage = new HashMap<String, String>();
+        StringUtils.stringToMap(sysBaggageAttrs, sysBaggage);
+        this.addSysBaggage(sysBaggage);
 
         if (StringUtils.isNotBlank(sysBaggageAttrs)) {
             if (sysBaggageAttrs.length() > TracerUtils.getSysBaggageMaxLength() / 2) {
@@ -217,13 +254,14 @@ public class SofaTracerSpanContext implements SpanContext {
         serializedValue.append(SAMPLE_KET).append(StringUtils.EQUAL).append(isSampled)
             .append(StringUtils.AND);
         //system bizBaggage
-        if (this.sysBaggage.size() > 0) {
-            serializedValue.append(StringUtils.mapToStringWithPrefix(this.sysBaggage,
-                SYS_BAGGAGE_PREFIX_KEY));
+        Baggage sysBaggage = this.sysBaggage;
+        if (sysBaggage.size() > 0) {
+            serializedValue.append(sysBaggage.getSerialized(SYS_BAGGAGE_PREFIX_KEY));
         }
         //bizBaggage
-        if (this.bizBaggage.size() > 0) {
-            serializedValue.append(StringUtils.mapToString(bizBaggage));
+        Baggage bizBaggage = this.bizBaggage;
+        if (bizBaggage.size() > 0) {
+            serializedValue.append(bizBaggage.getSerialized());
         }
         return serializedValue.toString();
     }
@@ -339,7 +377,9 @@ public class SofaTracerSpanContext implements SpanContext {
         if (StringUtils.isBlank(key)) {
             return this;
         }
-        this.bizBaggage.put(key, value);
+        synchronized (this) {
+            this.bizBaggage = this.bizBaggage.with(key, value);
+        }
         return this;
     }
 
@@ -351,7 +391,9 @@ public class SofaTracerSpanContext implements SpanContext {
         if (StringUtils.isBlank(key) || StringUtils.isBlank(value)) {
             return this;
         }
-        this.sysBaggage.put(key, value);
+        synchronized (this) {
+            this.sysBaggage = this.sysBaggage.with(key, value);
+        }
         return this;
     }
 
@@ -371,12 +413,32 @@ public class SofaTracerSpanContext implements SpanContext {
         return StringUtils.isBlank(parentId) ? StringUtils.EMPTY_STRING : parentId;
     }
 
+    /**
+     * @return live view of the business baggage, writes through it are copied on write
+     */
     public Map<String, String> getBizBaggage() {
-        return bizBaggage;
+        return new BaggageView(true);
     }
 
+    /**
+     * @return live view of the system baggage, writes through it are copied on write
+     */
     public Map<String, String> getSysBaggage() {
-        return sysBaggage;
+        return new BaggageView(false);
+    }
+
+    /**
+     * @return current business baggage, not affected by later writes
+     */
+    public Baggage getBizBaggageSnapshot() {
+        return this.bizBaggage;
+    }
+
+    /**
+     * @return current system baggage, not affected by later writes
+     */
+    public Baggage getSysBaggageSnapshot() {
+        return this.sysBaggage;
     }
 
     public boolean isSampled() {
@@ -448,4 +510,92 @@ public class SofaTracerSpanContext implements SpanContext {
                + ", childContextIndex=" + childContextIndex + '}';
     }
 
+    /**
+     * Mutable map view over the current baggage of this context
+     */
+    final class BaggageView extends AbstractMap<String, String> {
+
+        private final boolean biz;
+
+        BaggageView(boolean biz) {
+            this.biz = biz;
+        }
+
+        Baggage current() {
+            return biz ? bizBaggage : sysBaggage;
+        }
+
+        private void update(Baggage baggage) {
+            if (biz) {
+                bizBaggage = baggage;
+            } else {
+                sysBaggage = baggage;
+            }
+        }
+
+        @Override
+        public String get(Object key) {
+            return current().get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return current().containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return current().size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return current().isEmpty();
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return current().entrySet();
+        }
+
+        @Override
+        public String put(String key, String value) {
+            if (key == null || value == null) {
+                throw new NullPointerException();
+            }
+            synchronized (SofaTracerSpanContext.this) {
+                Baggage baggage = current();
+                update(baggage.with(key, value));
+                return baggage.get(key);
+            }
+        }
+
+        @Override
+        public void putAll(Map<? extends String, ? extends String> map) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> items = (Map<String, String>) map;
+            if (biz) {
+                addBizBaggage(items);
+            } else {
+                addSysBaggage(items);
+            }
+        }
+
+        @Override
+        public String remove(Object key) {
+            synchronized (SofaTracerSpanContext.this) {
+                Baggage baggage = current();
+                update(baggage.without(key));
+                return baggage.get(key);
+            }
+        }
+
+        @Override
+        public void clear() {
+            synchronized (SofaTracerSpanContext.this) {
+                update(Baggage.EMPTY);
+            }
+        }
+    }
+
 }
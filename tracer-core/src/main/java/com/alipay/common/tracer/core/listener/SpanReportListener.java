@@ -28,7 +28,9 @@ public interface SpanReportListener {
 
     /**
      * Reporter extension callback method
-     * It can be printed to the log, or it can be reported to some remote server
+     * It can be printed to the log, or it can be reported to some remote server.
+     * A listener keeping the span after it returns must {@link SofaTracerSpan#retain()} it
+     * and {@link SofaTracerSpan#release()} it when done, the span may be recycled otherwise
      * @param sofaTracerSpan
      */
     void onSpanReport(SofaTracerSpan sofaTracerSpan);
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * I/O metrics of one log file.
+ * <p>
+ * {@link #getBytesWritten()} and {@link #getWriteCalls()} are counted below the output buffer,
+ * so they reflect what actually reached the file and how many write system calls it took.
+ *
+ * @since 3.1.10
+ */
+public class AppenderMetrics implements AppenderMetricsMBean {
+
+    private final String    fileName;
+
+    private final LongAdder appendCount  = new LongAdder();
+
+    private final LongAdder bytesWritten = new LongAdder();
+
+    private final LongAdder writeCalls   = new LongAdder();
+
+    private final LongAdder flushCount   = new LongAdder();
+
+    private final LongAdder rollCount    = new LongAdder();
+
+    private final LongAdder rollNanos    = new LongAdder();
+
+    private volatile long   lastRollNanos;
+
+    public AppenderMetrics(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public void appended() {
+        appendCount.increment();
+    }
+
+    public void written(int bytes) {
+        writeCalls.increment();
+        bytesWritten.add(bytes);
+    }
+
+    public void flushed() {
+        flushCount.increment();
+    }
+
+    public void rolled(long nanos) {
+        rollCount.increment();
+        rollNanos.add(nanos);
+        lastRollNanos = nanos;
+    }
+
+    @Override
+    public String getFileName() {
+        return fileName;
+    }
+
+    @Override
+    public long getAppendCount() {
+        return appendCount.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getWriteCalls() {
+        return writeCalls.sum();
+    }
+
+    @Override
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    @Override
+    public long getRollCount() {
+        return rollCount.sum();
+    }
+
+    @Override
+    public long getRollTotalNanos() {
+        return rollNanos.sum();
+    }
+
+    @Override
+    public long getLastRollNanos() {
+        return lastRollNanos;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<String, Object>();
+        snapshot.put("appendCount", getAppendCount());
+        snapshot.put("bytesWritten", getBytesWritten());
+        snapshot.put("writeCalls", getWriteCalls());
+        snapshot.put("flushCount", getFlushCount());
+        snapshot.put("rollCount", getRollCount());
+        snapshot.put("rollTotalNanos", getRollTotalNanos());
+        snapshot.put("lastRollNanos", getLastRollNanos());
+        return snapshot;
+    }
+}
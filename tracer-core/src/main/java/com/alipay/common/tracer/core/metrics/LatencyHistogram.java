@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free latency histogram with power of two microsecond buckets.
+ * <p>
+ * Bucket {@code 0} counts samples below 1us, bucket {@code i} counts samples in
+ * {@code [2^(i-1), 2^i)} us and the last bucket counts everything above. Every bucket
+ * is a {@link LongAdder}, so concurrent recording threads do not contend on one cache line.
+ *
+ * @since 3.1.10
+ */
+public class LatencyHistogram {
+
+    public static final int   BUCKET_SIZE = 22;
+
+    private final LongAdder[] buckets     = new LongAdder[BUCKET_SIZE];
+
+    private final LongAdder   count       = new LongAdder();
+
+    private final LongAdder   totalNanos  = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets[bucketIndex(nanos)].increment();
+        count.increment();
+        totalNanos.add(nanos);
+    }
+
+    static int bucketIndex(long nanos) {
+        long micros = nanos / 1000;
+        int index = 64 - Long.numberOfLeadingZeros(micros);
+        return index < BUCKET_SIZE ? index : BUCKET_SIZE - 1;
+    }
+
+    /**
+     * Exclusive upper bound in microseconds of every bucket but the last one
+     * @return upper bounds
+     */
+    public static long[] getBucketUpperBoundsMicros() {
+        long[] bounds = new long[BUCKET_SIZE - 1];
+        for (int i = 0; i < bounds.length; i++) {
+            bounds[i] = 1L << i;
+        }
+        return bounds;
+    }
+
+    public long[] getBucketCounts() {
+        long[] counts = new long[BUCKET_SIZE];
+        for (int i = 0; i < BUCKET_SIZE; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Encoding metrics of one digest log type
+ *
+ * @since 3.1.10
+ */
+public class LogTypeMetrics implements LogTypeMetricsMBean {
+
+    private final String           logType;
+
+    private final LatencyHistogram encodeHistogram  = new LatencyHistogram();
+
+    private final LongAdder        encodeErrorCount = new LongAdder();
+
+    public LogTypeMetrics(String logType) {
+        this.logType = logType;
+    }
+
+    public void encoded(long nanos) {
+        encodeHistogram.record(nanos);
+    }
+
+    public void encodeFailed() {
+        encodeErrorCount.increment();
+    }
+
+    @Override
+    public String getLogType() {
+        return logType;
+    }
+
+    @Override
+    public long getEncodeCount() {
+        return encodeHistogram.getCount();
+    }
+
+    @Override
+    public long getEncodeTotalNanos() {
+        return encodeHistogram.getTotalNanos();
+    }
+
+    @Override
+    public long getEncodeErrorCount() {
+        return encodeErrorCount.sum();
+    }
+
+    @Override
+    public long[] getEncodeHistogramBucketUpperBoundsMicros() {
+        return LatencyHistogram.getBucketUpperBoundsMicros();
+    }
+
+    @Override
+    public long[] getEncodeHistogramBucketCounts() {
+        return encodeHistogram.getBucketCounts();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<String, Object>();
+        snapshot.put("encodeCount", getEncodeCount());
+        snapshot.put("encodeTotalNanos", getEncodeTotalNanos());
+        snapshot.put("encodeErrorCount", getEncodeErrorCount());
+        snapshot.put("encodeHistogramBucketUpperBoundsMicros",
+            getEncodeHistogramBucketUpperBoundsMicros());
+        snapshot.put("encodeHistogramBucketCounts", getEncodeHistogramBucketCounts());
+        return snapshot;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.metrics;
+
+import com.alipay.common.tracer.core.reporter.stat.AbstractSofaTracerStatisticReporter;
+import com.alipay.common.tracer.core.reporter.stat.SofaTracerStatisticReporter;
+import com.alipay.common.tracer.core.reporter.stat.manager.SofaTracerStatisticReporterCycleTimesManager;
+import com.alipay.common.tracer.core.reporter.stat.manager.SofaTracerStatisticReporterManager;
+import com.alipay.common.tracer.core.reporter.stat.model.StatKey;
+import com.alipay.common.tracer.core.reporter.stat.model.StatMapKey;
+import com.alipay.common.tracer.core.reporter.stat.model.StatValues;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Renders the stat data of every registered {@link AbstractSofaTracerStatisticReporter} in the
+ * Prometheus text exposition format, straight from the live stat maps.
+ * <p>
+ * The values are the ones accumulated in the current stat cycle, the same that the stat log
+ * will print at the end of the cycle, so they are exposed as gauges. The maps are iterated in
+ * place, without copying them and without switching them, so rendering never interferes with
+ * {@link SofaTracerStatisticReporter#shiftCurrentIndex()}. Numbers and escaped label values are
+ * written char by char to the writer, which should be buffered.
+ *
+ * @since 3.1.10
+ */
+public class PrometheusStatWriter {
+
+    public static final String  CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final String COUNT        = "sofatracer_stat_count";
+
+    private static final String COST         = "sofatracer_stat_cost_seconds";
+
+    private final Writer        writer;
+
+    private final char[]        digits       = new char[20];
+
+    public PrometheusStatWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Write the count and cost families of all the stat reporters
+     * @throws IOException if the writer fails
+     */
+    public void write() throws IOException {
+        writeHeader(COUNT, "Spans counted in the current stat cycle");
+        for (SofaTracerStatisticReporterManager manager : SofaTracerStatisticReporterCycleTimesManager
+            .getCycleTimesManager().values()) {
+            for (SofaTracerStatisticReporter statReporter : manager.getStatReporters().values()) {
+                if (statReporter instanceof AbstractSofaTracerStatisticReporter) {
+                    writeSamples(COUNT, (AbstractSofaTracerStatisticReporter) statReporter, true);
+                }
+            }
+        }
+        writeHeader(COST, "Total cost of the spans counted in the current stat cycle");
+        for (SofaTracerStatisticReporterManager manager : SofaTracerStatisticReporterCycleTimesManager
+            .getCycleTimesManager().values()) {
+            for (SofaTracerStatisticReporter statReporter : manager.getStatReporters().values()) {
+                if (statReporter instanceof AbstractSofaTracerStatisticReporter) {
+                    writeSamples(COST, (AbstractSofaTracerStatisticReporter) statReporter, false);
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeHeader(String name, String help) throws IOException {
+        writer.write("# HELP ");
+        writer.write(name);
+        writer.write(' ');
+        writer.write(help);
+        writer.write("\n# TYPE ");
+        writer.write(name);
+        writer.write(" gauge\n");
+    }
+
+    private void writeSamples(String name, AbstractSofaTracerStatisticReporter statReporter,
+                              boolean count) throws IOException {
+        String statTracerName = statReporter.getStatTracerName();
+        // micro seconds cost, or milli seconds
+        int costScale = statReporter.isMicrosecondCost() ? 6 : 3;
+        for (Map.Entry<StatKey, StatValues> entry : statReporter.getCurrentStatData().entrySet()) {
+            long[] values = entry.getValue().getCurrentValue();
+            if (values.length < 2 || values[0] <= 0) {
+                continue;
+            }
+            writer.write(name);
+            writer.write("{stat=\"");
+            writeLabelValue(statTracerName);
+            writer.write('"');
+            writeLabels(entry.getKey());
+            writer.write("} ");
+            if (count) {
+                writeDecimal(values[0], 0);
+            } else {
+                writeDecimal(values[1], costScale);
+            }
+            writer.write('\n');
+        }
+    }
+
+    private void writeLabels(StatKey statKey) throws IOException {
+        if (statKey instanceof StatMapKey) {
+            for (Map.Entry<String, String> label : ((StatMapKey) statKey).getKeyMap().entrySet()) {
+                writeLabel(label.getKey(), label.getValue());
+            }
+        } else {
+            writeLabel("key", statKey.getKey());
+        }
+        writeLabel("result", statKey.getResult());
+        writeLabel("load_test", statKey.isLoadTest() ? "true" : "false");
+    }
+
+    private void writeLabel(String name, String value) throws IOException {
+        if (name == null || name.isEmpty() || value == null) {
+            return;
+        }
+        writer.write(',');
+        // label names match [a-zA-Z_][a-zA-Z0-9_]*, e.g. local.app is written local_app
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean valid = c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                            || (i > 0 && c >= '0' && c <= '9');
+            writer.write(valid ? c : '_');
+        }
+        writer.write("=\"");
+        writeLabelValue(value);
+        writer.write('"');
+    }
+
+    private void writeLabelValue(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c == '\n') {
+                writer.write("\\n");
+            } else {
+                writer.write(c);
+            }
+        }
+    }
+
+    /**
+     * Write {@code value / 10^scale} without going through a String or a double
+     */
+    void writeDecimal(long value, int scale) throws IOException {
+        if (value < 0) {
+            writer.write('-');
+            value = -value;
+        }
+        int pos = digits.length;
+        int written = 0;
+        do {
+            digits[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+            written++;
+            if (written == scale) {
+                digits[--pos] = '.';
+            }
+        } while (value > 0 || written <= scale);
+        writer.write(digits, pos, digits.length - pos);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.metrics;
+
+import com.alipay.disruptor.RingBuffer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of one async appender ring buffer.
+ * <p>
+ * Occupancy is read from the ring buffer itself when the metrics are read, only the
+ * publish and discard counters are updated by the producers.
+ *
+ * @since 3.1.10
+ */
+public class RingBufferMetrics implements RingBufferMetricsMBean {
+
+    private final String        name;
+
+    private final RingBuffer<?> ringBuffer;
+
+    private final LongAdder     publishCount = new LongAdder();
+
+    private final LongAdder     discardCount = new LongAdder();
+
+    private final LongAdder     compactCount = new LongAdder();
+
+    private final LongAdder     degradeCount = new LongAdder();
+
+    public RingBufferMetrics(String name, RingBuffer<?> ringBuffer) {
+        this.name = name;
+        this.ringBuffer = ringBuffer;
+    }
+
+    public void published() {
+        publishCount.increment();
+    }
+
+    public void discarded() {
+        discardCount.increment();
+    }
+
+    public void compacted() {
+        compactCount.increment();
+    }
+
+    public void degraded() {
+        degradeCount.increment();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getBufferSize() {
+        return ringBuffer.getBufferSize();
+    }
+
+    @Override
+    public long getRemainingCapacity() {
+        return ringBuffer.remainingCapacity();
+    }
+
+    /**
+     * Number of published events the consumers have not processed yet
+     * @return consumer lag
+     */
+    @Override
+    public long getConsumerLag() {
+        return ringBuffer.getBufferSize() - ringBuffer.remainingCapacity();
+    }
+
+    @Override
+    public long getPublishCount() {
+        return publishCount.sum();
+    }
+
+    @Override
+    public long getDiscardCount() {
+        return discardCount.sum();
+    }
+
+    /**
+     * Number of spans enqueued in compact form by the overload policy
+     * @return compact count
+     */
+    @Override
+    public long getCompactCount() {
+        return compactCount.sum();
+    }
+
+    /**
+     * Number of spans kept out of the ring by the overload policy, only their stats were recorded
+     * @return degrade count
+     */
+    @Override
+    public long getDegradeCount() {
+        return degradeCount.sum();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<String, Object>();
+        snapshot.put("bufferSize", getBufferSize());
+        snapshot.put("remainingCapacity", getRemainingCapacity());
+        snapshot.put("consumerLag", getConsumerLag());
+        snapshot.put("publishCount", getPublishCount());
+        snapshot.put("discardCount", getDiscardCount());
+        snapshot.put("compactCount", getCompactCount());
+        snapshot.put("degradeCount", getDegradeCount());
+        return snapshot;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.metrics;
+
+import com.alipay.common.tracer.core.reporter.stat.AbstractSofaTracerStatisticReporter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Number of stat keys currently aggregated by a stat reporter, read on demand.
+ *
+ * @since 3.1.10
+ */
+public class StatReporterMetrics implements StatReporterMetricsMBean {
+
+    private final AbstractSofaTracerStatisticReporter statReporter;
+
+    public StatReporterMetrics(AbstractSofaTracerStatisticReporter statReporter) {
+        this.statReporter = statReporter;
+    }
+
+    @Override
+    public String getStatTracerName() {
+        return statReporter.getStatTracerName();
+    }
+
+    @Override
+    public int getStatKeyCount() {
+        return statReporter.getStatKeySize();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<String, Object>();
+        snapshot.put("statKeyCount", getStatKeyCount());
+        return snapshot;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.metrics;
+
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.reporter.stat.AbstractSofaTracerStatisticReporter;
+import com.alipay.disruptor.RingBuffer;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the metrics about the tracer itself: async appender ring buffers, digest
+ * encoding, log file I/O and stat reporters.
+ * <p>
+ * All counters are {@link java.util.concurrent.atomic.LongAdder} based and gauges are only
+ * computed when read, so recording stays cheap on the reporting path. Every metrics object
+ * is also registered as a standard MBean under the {@link #JMX_DOMAIN} domain unless
+ * {@link SofaTracerConfiguration#TRACER_METRICS_JMX_ENABLED} is false. Nothing is recorded
+ * nor registered unless {@link SofaTracerConfiguration#TRACER_METRICS_ENABLED} is true.
+ *
+ * @since 3.1.10
+ */
+public class TracerMetrics {
+
+    public static final String                                      JMX_DOMAIN    = "com.alipay.sofa.tracer";
+
+    private static final ConcurrentMap<String, RingBufferMetrics>   ringBuffers   = new ConcurrentHashMap<String, RingBufferMetrics>();
+
+    private static final ConcurrentMap<String, LogTypeMetrics>      logTypes      = new ConcurrentHashMap<String, LogTypeMetrics>();
+
+    private static final ConcurrentMap<String, AppenderMetrics>     appenders     = new ConcurrentHashMap<String, AppenderMetrics>();
+
+    private static final ConcurrentMap<String, StatReporterMetrics> statReporters = new ConcurrentHashMap<String, StatReporterMetrics>();
+
+    private TracerMetrics() {
+    }
+
+    /**
+     * Whether the tracer internals are instrumented, false by default
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(SofaTracerConfiguration
+            .getProperty(SofaTracerConfiguration.TRACER_METRICS_ENABLED));
+    }
+
+    /**
+     * Register the ring buffer of an async appender manager. Managers started with the same
+     * worker name get a numbered suffix.
+     * @param name worker name of the manager
+     * @param ringBuffer started ring buffer
+     * @return metrics, or null if metrics are disabled
+     */
+    public static RingBufferMetrics registerRingBuffer(String name, RingBuffer<?> ringBuffer) {
+        if (!isEnabled()) {
+            return null;
+        }
+        String uniqueName = name;
+        for (int i = 2;; i++) {
+            RingBufferMetrics metrics = new RingBufferMetrics(uniqueName, ringBuffer);
+            if (ringBuffers.putIfAbsent(uniqueName, metrics) == null) {
+                registerMBean("RingBuffer", uniqueName, metrics);
+                return metrics;
+            }
+            uniqueName = name + "-" + i;
+        }
+    }
+
+    /**
+     * @param logType digest log type
+     * @return metrics, or null if metrics are disabled
+     */
+    public static LogTypeMetrics logType(String logType) {
+        if (!isEnabled()) {
+            return null;
+        }
+        LogTypeMetrics metrics = logTypes.get(logType);
+        if (metrics == null) {
+            LogTypeMetrics created = new LogTypeMetrics(logType);
+            metrics = logTypes.putIfAbsent(logType, created);
+            if (metrics == null) {
+                metrics = created;
+                registerMBean("LogType", logType, metrics);
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Appenders writing the same file share one metrics object
+     * @param fileName log file name
+     * @return metrics, or null if metrics are disabled
+     */
+    public static AppenderMetrics appender(String fileName) {
+        if (!isEnabled()) {
+            return null;
+        }
+        AppenderMetrics metrics = appenders.get(fileName);
+        if (metrics == null) {
+            AppenderMetrics created = new AppenderMetrics(fileName);
+            metrics = appenders.putIfAbsent(fileName, created);
+            if (metrics == null) {
+                metrics = created;
+                registerMBean("Appender", fileName, metrics);
+            }
+        }
+        return metrics;
+    }
+
+    public static void registerStatReporter(AbstractSofaTracerStatisticReporter statReporter) {
+        if (!isEnabled()) {
+            return;
+        }
+        StatReporterMetrics metrics = new StatReporterMetrics(statReporter);
+        if (statReporters.putIfAbsent(statReporter.getStatTracerName(), metrics) == null) {
+            registerMBean("StatReporter", statReporter.getStatTracerName(), metrics);
+        }
+    }
+
+    public static Map<String, RingBufferMetrics> getRingBuffers() {
+        return ringBuffers;
+    }
+
+    public static Map<String, LogTypeMetrics> getLogTypes() {
+        return logTypes;
+    }
+
+    public static Map<String, AppenderMetrics> getAppenders() {
+        return appenders;
+    }
+
+    public static Map<String, StatReporterMetrics> getStatReporters() {
+        return statReporters;
+    }
+
+    /**
+     * Point in time view of all the metrics, e.g. for an HTTP endpoint
+     * @return nested maps of metric values
+     */
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<String, Object>();
+        Map<String, Object> ringBufferSnapshot = new LinkedHashMap<String, Object>();
+        for (Map.Entry<String, RingBufferMetrics> entry : ringBuffers.entrySet()) {
+            ringBufferSnapshot.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        snapshot.put("ringBuffers", ringBufferSnapshot);
+        Map<String, Object> logTypeSnapshot = new LinkedHashMap<String, Object>();
+        for (Map.Entry<String, LogTypeMetrics> entry : logTypes.entrySet()) {
+            logTypeSnapshot.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        snapshot.put("logTypes", logTypeSnapshot);
+        Map<String, Object> appenderSnapshot = new LinkedHashMap<String, Object>();
+        for (Map.Entry<String, AppenderMetrics> entry : appenders.entrySet()) {
+            appenderSnapshot.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        snapshot.put("appenders", appenderSnapshot);
+        Map<String, Object> statReporterSnapshot = new LinkedHashMap<String, Object>();
+        for (Map.Entry<String, StatReporterMetrics> entry : statReporters.entrySet()) {
+            statReporterSnapshot.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        snapshot.put("statReporters", statReporterSnapshot);
+        return snapshot;
+    }
+
+    static ObjectName objectName(String type, String name) throws Exception {
+        return new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+    }
+
+    private static void registerMBean(String type, String name, Object mbean) {
+        if ("false".equalsIgnoreCase(SofaTracerConfiguration
+            .getProperty(SofaTracerConfiguration.TRACER_METRICS_JMX_ENABLED))) {
+            return;
+        }
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = objectName(type, name);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(mbean, objectName);
+            }
+        } catch (Throwable e) {
+            SelfLog.warn("Fail to register tracer metrics mbean " + type + ":" + name + ", " + e);
+        }
+    }
+}
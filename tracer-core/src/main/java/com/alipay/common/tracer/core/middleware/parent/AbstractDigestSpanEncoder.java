@@ -18,13 +18,16 @@ package com.alipay.common.tracer.core.middleware.parent;
 
 import com.alipay.common.tracer.core.appender.builder.JsonStringBuilder;
 import com.alipay.common.tracer.core.appender.builder.XStringBuilder;
+import com.alipay.common.tracer.core.appender.encoder.BinarySpanEncoder;
 import com.alipay.common.tracer.core.appender.encoder.SpanEncoder;
+import com.alipay.common.tracer.core.appender.file.BinaryDigestWriter;
 import com.alipay.common.tracer.core.appender.self.Timestamp;
 import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.constants.SofaTracerConstant;
 import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
 import com.alipay.common.tracer.core.span.CommonSpanTags;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.common.tracer.core.utils.SpanTiming;
 import com.alipay.common.tracer.util.DesensitizationHelper;
 
 import io.opentracing.tag.Tags;
@@ -32,32 +35,44 @@ import io.opentracing.tag.Tags;
 import java.io.IOException;
 import java.util.Map;
 
-import static com.alipay.common.tracer.util.DesensitizationHelper.desensitize;
-
 /**
  *
  * @author luoguimu123
  * @version $Id: AbstractDigestSpanEncoder.java, v 0.1 August 28, 2017 10:23 AM luoguimu123 Exp $
  */
-public abstract class AbstractDigestSpanEncoder implements SpanEncoder<SofaTracerSpan> {
+public abstract class AbstractDigestSpanEncoder implements SpanEncoder<SofaTracerSpan>,
+                                               BinarySpanEncoder<SofaTracerSpan> {
 
     @Override
     public String encode(SofaTracerSpan span) throws IOException {
         if ("false".equalsIgnoreCase(SofaTracerConfiguration
             .getProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT))) {
-            return encodeXsbSpan(span);
+            XStringBuilder xsb = new XStringBuilder();
+            encodeXsbSpan(xsb, span);
+            return xsb.toString();
         } else {
-            return encodeJsbSpan(span);
+            JsonStringBuilder jsb = new JsonStringBuilder();
+            encodeJsbSpan(jsb, span);
+            return jsb.toString();
+        }
+    }
+
+    @Override
+    public void encode(SofaTracerSpan span, BinaryDigestWriter writer) throws IOException {
+        if ("false".equalsIgnoreCase(SofaTracerConfiguration
+            .getProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT))) {
+            encodeXsbSpan(new XStringBuilder(writer), span);
+        } else {
+            encodeJsbSpan(new JsonStringBuilder(writer), span);
         }
     }
 
     /**
      * encodeJsbSpan
+     * @param jsb
      * @param span
-     * @return
      */
-    private String encodeJsbSpan(SofaTracerSpan span) {
-        JsonStringBuilder jsb = new JsonStringBuilder();
+    private void encodeJsbSpan(JsonStringBuilder jsb, SofaTracerSpan span) {
         // common tag
         appendJsonCommonSlot(jsb, span);
         // component tag
@@ -67,17 +82,14 @@ public abstract class AbstractDigestSpanEncoder implements SpanEncoder<SofaTrace
             baggageSystemSerialized(span.getSofaTracerSpanContext()));
         jsb.appendEnd(CommonSpanTags.BIZ_BAGGAGE,
             baggageSerialized(span.getSofaTracerSpanContext()));
-
-        return jsb.toString();
     }
 
     /**
      * encodeXsbSpan
+     * @param xsb
      * @param span
-     * @return
      */
-    private String encodeXsbSpan(SofaTracerSpan span) {
-        XStringBuilder xsb = new XStringBuilder();
+    private void encodeXsbSpan(XStringBuilder xsb, SofaTracerSpan span) {
         // common tag
         appendXsbCommonSlot(xsb, span);
         // component tag
@@ -86,7 +98,6 @@ public abstract class AbstractDigestSpanEncoder implements SpanEncoder<SofaTrace
         xsb.append(baggageSystemSerialized(span.getSofaTracerSpanContext()));
         // biz baggage
         xsb.appendEnd(baggageSerialized(span.getSofaTracerSpanContext()));
-        return xsb.toString();
     }
 
     /**
@@ -105,7 +116,7 @@ public abstract class AbstractDigestSpanEncoder implements SpanEncoder<SofaTrace
      * @return String
      */
     protected String baggageSystemSerialized(SofaTracerSpanContext spanContext) {
-        return desensitize(spanContext.getSysSerializedBaggage());
+        return spanContext.getSysBaggageSnapshot().getDesensitizedSerialized();
     }
 
     /**
@@ -114,7 +125,7 @@ public abstract class AbstractDigestSpanEncoder implements SpanEncoder<SofaTrace
      * @return
      */
     protected String baggageSerialized(SofaTracerSpanContext spanContext) {
-        return desensitize(spanContext.getBizSerializedBaggage());
+        return spanContext.getBizBaggageSnapshot().getDesensitizedSerialized();
     }
 
     /**
@@ -141,7 +152,7 @@ public abstract class AbstractDigestSpanEncoder implements SpanEncoder<SofaTrace
         jsb.append(CommonSpanTags.CURRENT_THREAD_NAME,
             tagWithStr.get(CommonSpanTags.CURRENT_THREAD_NAME));
         // time.cost.milliseconds
-        jsb.append(CommonSpanTags.TIME_COST_MILLISECONDS, (span.getEndTime() - span.getStartTime())
+        jsb.append(CommonSpanTags.TIME_COST_MILLISECONDS, SpanTiming.formatCost(span)
                                                           + SofaTracerConstant.MS);
     }
 
@@ -168,6 +179,6 @@ public abstract class AbstractDigestSpanEncoder implements SpanEncoder<SofaTrace
         // thread name
         xsb.append(tagWithStr.get(CommonSpanTags.CURRENT_THREAD_NAME));
         // time.cost.milliseconds
-        xsb.append((span.getEndTime() - span.getStartTime()) + SofaTracerConstant.MS);
+        xsb.append(SpanTiming.formatCost(span) + SofaTracerConstant.MS);
     }
 }
\ No newline at end of file
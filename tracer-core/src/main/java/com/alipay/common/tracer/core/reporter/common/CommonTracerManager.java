@@ -38,21 +38,42 @@ import static com.alipay.common.tracer.core.constants.SofaTracerConstant.SPACE_I
 public class CommonTracerManager {
 
     /**
-     * Asynchronous log print, all middleware common to print general logs
+     * Asynchronous log print, all middleware common to print general logs. Created on first use
+     * in lazy startup mode
      */
-    private static volatile AsyncCommonDigestAppenderManager commonReporterAsyncManager = new AsyncCommonDigestAppenderManager(
-                                                                                            1024);
+    private static volatile AsyncCommonDigestAppenderManager commonReporterAsyncManager;
 
-    private static SpanEncoder                               commonSpanEncoder          = new CommonSpanEncoder();
+    private static SpanEncoder                               commonSpanEncoder = new CommonSpanEncoder();
 
     static {
+        if (!SofaTracerConfiguration.isLazyStartup()) {
+            getCommonReporterAsyncManager();
+        }
+    }
+
+    private static AsyncCommonDigestAppenderManager getCommonReporterAsyncManager() {
+        AsyncCommonDigestAppenderManager manager = commonReporterAsyncManager;
+        if (manager == null) {
+            synchronized (CommonTracerManager.class) {
+                manager = commonReporterAsyncManager;
+                if (manager == null) {
+                    manager = createCommonReporterAsyncManager();
+                    commonReporterAsyncManager = manager;
+                }
+            }
+        }
+        return manager;
+    }
+
+    private static AsyncCommonDigestAppenderManager createCommonReporterAsyncManager() {
+        AsyncCommonDigestAppenderManager manager = new AsyncCommonDigestAppenderManager(1024);
         String logName = TracerSystemLogEnum.MIDDLEWARE_ERROR.getDefaultLogName();
         TraceAppender traceAppender = LoadTestAwareAppender
             .createLoadTestAwareTimedRollingFileAppender(logName, SofaTracerConfiguration
                 .getProperty(TracerSystemLogEnum.MIDDLEWARE_ERROR.getRollingKey()),
                 SofaTracerConfiguration.getProperty(TracerSystemLogEnum.MIDDLEWARE_ERROR
                     .getLogReverseKey()));
-        commonReporterAsyncManager.addAppender(logName, traceAppender, commonSpanEncoder);
+        manager.addAppender(logName, traceAppender, commonSpanEncoder);
 
         String profileLogName = TracerSystemLogEnum.RPC_PROFILE.getDefaultLogName();
         TraceAppender profileTraceAppender = LoadTestAwareAppender
@@ -60,10 +81,10 @@ public class CommonTracerManager {
                 .getProperty(TracerSystemLogEnum.RPC_PROFILE.getRollingKey()),
                 SofaTracerConfiguration.getProperty(TracerSystemLogEnum.RPC_PROFILE
                     .getLogReverseKey()));
-        commonReporterAsyncManager.addAppender(profileLogName, profileTraceAppender,
-            commonSpanEncoder);
+        manager.addAppender(profileLogName, profileTraceAppender, commonSpanEncoder);
         //start
-        commonReporterAsyncManager.start("CommonProfileErrorAppender");
+        manager.start("CommonProfileErrorAppender");
+        return manager;
     }
 
     /**
@@ -76,13 +97,13 @@ public class CommonTracerManager {
         if (StringUtils.isBlank(logFileName)) {
             return;
         }
-        if (commonReporterAsyncManager.isAppenderAndEncoderExist(logFileName)) {
+        if (getCommonReporterAsyncManager().isAppenderAndEncoderExist(logFileName)) {
             SelfLog.warn(logFileName + " has existed in CommonTracerManager");
             return;
         }
         TraceAppender traceAppender = LoadTestAwareAppender
             .createLoadTestAwareTimedRollingFileAppender(logFileName, rollingPolicy, logReserveDay);
-        commonReporterAsyncManager.addAppender(logFileName, traceAppender, commonSpanEncoder);
+        getCommonReporterAsyncManager().addAppender(logFileName, traceAppender, commonSpanEncoder);
     }
 
     /**
@@ -102,7 +123,7 @@ public class CommonTracerManager {
         }
         TraceAppender traceAppender = LoadTestAwareAppender
             .createLoadTestAwareTimedRollingFileAppender(logFileName, rollingPolicy, logReserveDay);
-        commonReporterAsyncManager.addAppender(logTypeStr, traceAppender, commonSpanEncoder);
+        getCommonReporterAsyncManager().addAppender(logTypeStr, traceAppender, commonSpanEncoder);
     }
 
     /**
@@ -114,7 +135,7 @@ public class CommonTracerManager {
         if (StringUtils.isBlank(logType)) {
             return false;
         }
-        return commonReporterAsyncManager.isAppenderAndEncoderExist(logType);
+        return getCommonReporterAsyncManager().isAppenderAndEncoderExist(logType);
     }
 
     /**
@@ -130,7 +151,7 @@ public class CommonTracerManager {
             SelfLog.error(LogCode2Description.convert(SPACE_ID, "01-00011"));
             return;
         }
-        commonReporterAsyncManager.append(commonLogSpan);
+        getCommonReporterAsyncManager().append(commonLogSpan);
     }
 
     public static void reportProfile(CommonLogSpan sofaTracerSpan) {
@@ -138,7 +159,7 @@ public class CommonTracerManager {
             return;
         }
         sofaTracerSpan.setLogType(TracerSystemLogEnum.RPC_PROFILE.getDefaultLogName());
-        commonReporterAsyncManager.append(sofaTracerSpan);
+        getCommonReporterAsyncManager().append(sofaTracerSpan);
 
     }
 
@@ -147,6 +168,6 @@ public class CommonTracerManager {
             return;
         }
         sofaTracerSpan.setLogType(TracerSystemLogEnum.MIDDLEWARE_ERROR.getDefaultLogName());
-        commonReporterAsyncManager.append(sofaTracerSpan);
+        getCommonReporterAsyncManager().append(sofaTracerSpan);
     }
 }
@@ -127,7 +127,7 @@ public class DiskReporterImpl extends AbstractDiskReporter {
             this.initDigestFile();
         }
         AsyncCommonDigestAppenderManager asyncDigestManager = SofaTracerDigestReporterAsyncManager
-            .getSofaTracerDigestReporterAsyncManager();
+            .getSofaTracerDigestReporterAsyncManager(this.digestLogType);
         if (asyncDigestManager.isAppenderAndEncoderExist(this.digestLogType)) {
             //Print only when appender and encoder are present
             asyncDigestManager.append(span);
@@ -187,11 +187,11 @@ public class DiskReporterImpl extends AbstractDiskReporter {
             }
         }
         TraceAppender digestTraceAppender = LoadTestAwareAppender
-            .createLoadTestAwareTimedRollingFileAppender(this.digestLogType,
-                this.digestRollingPolicy, this.digestLogReserveConfig);
+            .createLoadTestAwareDigestFileAppender(this.digestLogType, this.digestRollingPolicy,
+                this.digestLogReserveConfig);
         //registry digest
         AsyncCommonDigestAppenderManager asyncDigestManager = SofaTracerDigestReporterAsyncManager
-            .getSofaTracerDigestReporterAsyncManager();
+            .getSofaTracerDigestReporterAsyncManager(this.digestLogType);
         if (!asyncDigestManager.isAppenderAndEncoderExist(this.digestLogType)) {
             asyncDigestManager.addAppender(this.digestLogType, digestTraceAppender,
                 this.contextEncoder);
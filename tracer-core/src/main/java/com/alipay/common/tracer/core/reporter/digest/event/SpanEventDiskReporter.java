@@ -102,7 +102,7 @@ public class SpanEventDiskReporter extends AbstractDiskReporter {
             this.initDigestFile();
         }
         AsyncCommonDigestAppenderManager asyncDigestManager = SofaTracerDigestReporterAsyncManager
-            .getSofaTracerDigestReporterAsyncManager();
+            .getSofaTracerDigestReporterAsyncManager(this.eventLogType);
         if (asyncDigestManager.isAppenderAndEncoderExist(this.eventLogType)) {
             //Print only when appender and encoder are present
             asyncDigestManager.append(span);
@@ -172,11 +172,11 @@ public class SpanEventDiskReporter extends AbstractDiskReporter {
             }
         }
         TraceAppender digestTraceAppender = LoadTestAwareAppender
-            .createLoadTestAwareTimedRollingFileAppender(this.eventLogType,
-                this.eventRollingPolicy, this.eventLogReserveConfig);
+            .createLoadTestAwareDigestFileAppender(this.eventLogType, this.eventRollingPolicy,
+                this.eventLogReserveConfig);
         //registry digest
         AsyncCommonDigestAppenderManager asyncDigestManager = SofaTracerDigestReporterAsyncManager
-            .getSofaTracerDigestReporterAsyncManager();
+            .getSofaTracerDigestReporterAsyncManager(this.eventLogType);
         if (!asyncDigestManager.isAppenderAndEncoderExist(this.eventLogType)) {
             asyncDigestManager.addAppender(this.eventLogType, digestTraceAppender,
                 this.contextEncoder);
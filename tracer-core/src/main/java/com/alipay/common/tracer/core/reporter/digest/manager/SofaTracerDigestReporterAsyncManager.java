@@ -17,19 +17,48 @@
 package com.alipay.common.tracer.core.reporter.digest.manager;
 
 import com.alipay.common.tracer.core.appender.manager.AsyncCommonDigestAppenderManager;
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.utils.StringUtils;
+import com.alipay.disruptor.BlockingWaitStrategy;
+import com.alipay.disruptor.LiteBlockingWaitStrategy;
+import com.alipay.disruptor.PhasedBackoffWaitStrategy;
+import com.alipay.disruptor.SleepingWaitStrategy;
+import com.alipay.disruptor.WaitStrategy;
+import com.alipay.disruptor.YieldingWaitStrategy;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * SofaTracerDigestReporterAsyncManager
+ * <p>
+ * Digest log types share the default async appender unless they are assigned to a group with
+ * {@link SofaTracerConfiguration#TRACER_ASYNC_APPENDER_GROUP_PREFIX}. Each group gets its own
+ * ring buffer and consumer threads, sized by the group keys, so that a chatty plugin can no
+ * longer fill the ring the RPC digests are waiting on.
  *
  * @author yangguanchao
  * @since  2017/06/20
  */
 public final class SofaTracerDigestReporterAsyncManager {
 
+    public static final String                                                   DEFAULT_GROUP         = "default";
+
+    private static final int                                                     DEFAULT_QUEUE_SIZE    = 1024;
+
+    private static final String                                                  DEFAULT_WAIT_STRATEGY = "blocking";
+
     /**
      * Asynchronous log print, all middleware digest logs share a SofaTracerDigestReporterAsyncManager AsyncAppender to print logs
      */
-    private static volatile AsyncCommonDigestAppenderManager asyncCommonDigestAppenderManager;
+    private static volatile AsyncCommonDigestAppenderManager                     asyncCommonDigestAppenderManager;
+
+    /**
+     * Isolated async appenders by group name
+     */
+    private static final ConcurrentMap<String, AsyncCommonDigestAppenderManager> groupAppenderManagers = new ConcurrentHashMap<String, AsyncCommonDigestAppenderManager>();
 
     /**
      * get singleton instance
@@ -39,8 +68,7 @@ public final class SofaTracerDigestReporterAsyncManager {
         if (asyncCommonDigestAppenderManager == null) {
             synchronized (SofaTracerDigestReporterAsyncManager.class) {
                 if (asyncCommonDigestAppenderManager == null) {
-                    AsyncCommonDigestAppenderManager localManager = new AsyncCommonDigestAppenderManager(
-                        1024);
+                    AsyncCommonDigestAppenderManager localManager = createManager(DEFAULT_GROUP);
                     localManager.start("NetworkAppender");
                     asyncCommonDigestAppenderManager = localManager;
                 }
@@ -48,4 +76,89 @@ public final class SofaTracerDigestReporterAsyncManager {
         }
         return asyncCommonDigestAppenderManager;
     }
+
+    /**
+     * Get the async appender of the group a digest log type is assigned to
+     * @param logType digest log type
+     * @return the group async appender, or the default one if the log type has no group
+     */
+    public static AsyncCommonDigestAppenderManager getSofaTracerDigestReporterAsyncManager(String logType) {
+        String group = getGroup(logType);
+        if (StringUtils.isBlank(group) || DEFAULT_GROUP.equals(group)) {
+            return getSofaTracerDigestReporterAsyncManager();
+        }
+        AsyncCommonDigestAppenderManager manager = groupAppenderManagers.get(group);
+        if (manager == null) {
+            synchronized (SofaTracerDigestReporterAsyncManager.class) {
+                manager = groupAppenderManagers.get(group);
+                if (manager == null) {
+                    manager = createManager(group);
+                    manager.start("NetworkAppender-" + group);
+                    groupAppenderManagers.put(group, manager);
+                }
+            }
+        }
+        return manager;
+    }
+
+    /**
+     * @param logType digest log type
+     * @return the configured group, or null
+     */
+    public static String getGroup(String logType) {
+        if (StringUtils.isBlank(logType)) {
+            return null;
+        }
+        String group = SofaTracerConfiguration
+            .getProperty(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_GROUP_PREFIX + logType);
+        return group == null ? null : group.trim();
+    }
+
+    static AsyncCommonDigestAppenderManager createManager(String group) {
+        int queueSize = getPositiveInt(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_QUEUE_SIZE_PREFIX + group,
+            DEFAULT_QUEUE_SIZE);
+        int consumerNumber = getPositiveInt(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_CONSUMER_NUMBER_PREFIX + group,
+            AsyncCommonDigestAppenderManager.DEFAULT_CONSUMER_NUMBER);
+        WaitStrategy waitStrategy = createWaitStrategy(SofaTracerConfiguration.getProperty(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_WAIT_STRATEGY_PREFIX + group,
+            DEFAULT_WAIT_STRATEGY));
+        return new AsyncCommonDigestAppenderManager(queueSize, consumerNumber, waitStrategy);
+    }
+
+    public static WaitStrategy createWaitStrategy(String name) {
+        String normalized = name.trim().toLowerCase().replace('-', '_');
+        if ("blocking".equals(normalized)) {
+            return new BlockingWaitStrategy();
+        } else if ("lite_blocking".equals(normalized)) {
+            return new LiteBlockingWaitStrategy();
+        } else if ("yielding".equals(normalized)) {
+            return new YieldingWaitStrategy();
+        } else if ("sleeping".equals(normalized)) {
+            return new SleepingWaitStrategy();
+        } else if ("phased_backoff".equals(normalized)) {
+            return PhasedBackoffWaitStrategy.withLiteLock(10, 100, TimeUnit.MICROSECONDS);
+        }
+        SelfLog.warn("Unknown async appender wait strategy " + name + ", use blocking instead");
+        return new BlockingWaitStrategy();
+    }
+
+    private static int getPositiveInt(String key, int defaultValue) {
+        String value = SofaTracerConfiguration.getProperty(key);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            int result = Integer.parseInt(value.trim());
+            if (result > 0) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        SelfLog
+            .warn("Invalid value " + value + " of " + key + ", use " + defaultValue + " instead");
+        return defaultValue;
+    }
 }
@@ -24,6 +24,7 @@ import com.alipay.common.tracer.core.appender.self.SelfLog;
 import com.alipay.common.tracer.core.appender.self.Timestamp;
 import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.constants.SofaTracerConstant;
+import com.alipay.common.tracer.core.metrics.TracerMetrics;
 import com.alipay.common.tracer.core.reporter.stat.manager.SofaTracerStatisticReporterCycleTimesManager;
 import com.alipay.common.tracer.core.reporter.stat.manager.SofaTracerStatisticReporterManager;
 import com.alipay.common.tracer.core.reporter.stat.model.StatKey;
@@ -32,8 +33,10 @@ import com.alipay.common.tracer.core.reporter.stat.model.StatValues;
 import com.alipay.common.tracer.core.span.CommonSpanTags;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
 import com.alipay.common.tracer.core.utils.AssertUtils;
+import com.alipay.common.tracer.core.utils.SpanTiming;
 import com.alipay.common.tracer.core.utils.StringUtils;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -91,6 +94,11 @@ public abstract class AbstractSofaTracerStatisticReporter implements SofaTracerS
      */
     private long                       countCycle    = 0;
 
+    /**
+     * Whether the cost values are microseconds, see {@link #statCost(SofaTracerSpan)}
+     */
+    private volatile boolean           microsecondCost;
+
     /**
      * "Statistics" scrolling array
      */
@@ -128,6 +136,7 @@ public abstract class AbstractSofaTracerStatisticReporter implements SofaTracerS
         this.statDatas = statDatasPair[currentIndex];
         //Register a scheduled task and start
         SofaTracerStatisticReporterCycleTimesManager.registerStatReporter(this);
+        TracerMetrics.registerStatReporter(this);
     }
 
     /**
@@ -185,6 +194,36 @@ public abstract class AbstractSofaTracerStatisticReporter implements SofaTracerS
      */
     public abstract void doReportStat(SofaTracerSpan sofaTracerSpan);
 
+    /**
+     * Cost of a span to add to the stat values after the count. In microseconds when the high
+     * resolution timing is enabled, and then printed as milliseconds with three decimals.
+     *
+     * @param sofaTracerSpan finished span
+     * @return milliseconds, or microseconds
+     */
+    protected long statCost(SofaTracerSpan sofaTracerSpan) {
+        if (SpanTiming.isHighResolution()) {
+            this.microsecondCost = true;
+            return sofaTracerSpan.getDurationMicros();
+        }
+        return sofaTracerSpan.getEndTime() - sofaTracerSpan.getStartTime();
+    }
+
+    /**
+     * Cost measured by the caller and recorded as a number tag with
+     * {@link SpanTiming#millisCost(long)}, in the same unit as {@link #statCost(SofaTracerSpan)}
+     *
+     * @param millisCost milliseconds, with decimals if high resolution timing is enabled
+     * @return milliseconds, or microseconds
+     */
+    protected long statCost(Number millisCost) {
+        if (SpanTiming.isHighResolution()) {
+            this.microsecondCost = true;
+            return Math.round(millisCost.doubleValue() * 1000);
+        }
+        return millisCost.longValue();
+    }
+
     /**
      * By default, only the accumulated stat methods are provided.
      *
@@ -238,6 +277,32 @@ public abstract class AbstractSofaTracerStatisticReporter implements SofaTracerS
         return new HashMap<>(statDatas);
     }
 
+    /**
+     * Return the live statistical data of the current cycle, without copying it. The map is
+     * switched by the stat printer every cycle and must not be modified.
+     *
+     * @return current stat data
+     */
+    public Map<StatKey, StatValues> getCurrentStatData() {
+        return statDatas;
+    }
+
+    /**
+     * @return true if the cost values are microseconds, see {@link #statCost(SofaTracerSpan)}
+     */
+    public boolean isMicrosecondCost() {
+        return microsecondCost;
+    }
+
+    /**
+     * Return the number of keys currently being counted, without copying them
+     *
+     * @return stat key size
+     */
+    public int getStatKeySize() {
+        return statDatas.size();
+    }
+
     /**
      * Get another set of data that is not currently being counted,
      * Total: two sets of data for statistics and printing
@@ -273,9 +338,9 @@ public abstract class AbstractSofaTracerStatisticReporter implements SofaTracerS
             buffer.append(Timestamp.currentTime()).append(statKey.getKey());
             int i = 0;
             for (; i < values.length - 1; i++) {
-                buffer.append(values[i]);
+                appendValue(i, values[i]);
             }
-            buffer.append(values[i]);
+            appendValue(i, values[i]);
             buffer.append(statKey.getResult());
             buffer.appendEnd(statKey.getEnd());
             if (appender instanceof LoadTestAwareAppender) {
@@ -290,6 +355,14 @@ public abstract class AbstractSofaTracerStatisticReporter implements SofaTracerS
         }
     }
 
+    private void appendValue(int index, long value) {
+        if (index == 1 && microsecondCost) {
+            buffer.append(SpanTiming.formatMillis(value));
+        } else {
+            buffer.append(value);
+        }
+    }
+
     protected void printJsbStat(StatKey statKey, long[] values) {
 
         if (!(statKey instanceof StatMapKey)) {
@@ -302,7 +375,8 @@ public abstract class AbstractSofaTracerStatisticReporter implements SofaTracerS
             jsonBuffer.append(CommonSpanTags.TIME, Timestamp.currentTime());
             jsonBuffer.append(CommonSpanTags.STAT_KEY, this.statKeySplit(statMapKey));
             jsonBuffer.append(CommonSpanTags.COUNT, values[0]);
-            jsonBuffer.append(CommonSpanTags.TOTAL_COST_MILLISECONDS, values[1]);
+            jsonBuffer.append(CommonSpanTags.TOTAL_COST_MILLISECONDS,
+                microsecondCost ? BigDecimal.valueOf(values[1], 3) : values[1]);
             jsonBuffer.append(CommonSpanTags.SUCCESS, statMapKey.getResult());
             //pressure test mark
             jsonBuffer.appendEnd(CommonSpanTags.LOAD_TEST, statMapKey.getEnd());
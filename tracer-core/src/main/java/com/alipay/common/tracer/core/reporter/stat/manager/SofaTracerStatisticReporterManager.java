@@ -58,6 +58,11 @@ public class SofaTracerStatisticReporterManager {
      */
     static final AtomicInteger                       THREAD_NUMBER            = new AtomicInteger(0);
 
+    /**
+     * Shared by all the cycle times in lazy startup mode, see {@link SofaTracerConfiguration#isLazyStartup()}
+     */
+    private static volatile ScheduledExecutorService sharedExecutor;
+
     /**
      * Every fixed-cycle schedule will have such an instance.
      */
@@ -76,16 +81,20 @@ public class SofaTracerStatisticReporterManager {
 
     SofaTracerStatisticReporterManager(final long cycleTime) {
         this.cycleTime = cycleTime;
-        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
-            @Override
-            public Thread newThread(Runnable r) {
-                final Thread thread = new Thread(r, "Tracer-TimedAppender-"
-                                                    + THREAD_NUMBER.incrementAndGet() + "-"
-                                                    + cycleTime);
-                thread.setDaemon(true);
-                return thread;
-            }
-        });
+        if (SofaTracerConfiguration.isLazyStartup()) {
+            this.executor = getSharedExecutor();
+        } else {
+            this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    final Thread thread = new Thread(r, "Tracer-TimedAppender-"
+                                                        + THREAD_NUMBER.incrementAndGet() + "-"
+                                                        + cycleTime);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
         start();
     }
 
@@ -101,6 +110,21 @@ public class SofaTracerStatisticReporterManager {
             TimeUnit.MILLISECONDS);
     }
 
+    private static ScheduledExecutorService getSharedExecutor() {
+        if (sharedExecutor == null) {
+            synchronized (SofaTracerStatisticReporterManager.class) {
+                if (sharedExecutor == null) {
+                    sharedExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, "Tracer-TimedAppender-Shared");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return sharedExecutor;
+    }
+
     /**
      * Get a stat Reporter instance by statTracerName
      * @param statTracerName Stat log tracer name
@@ -27,194 +27,244 @@ public class CommonSpanTags {
     /**
      * LOCAL_APP records the currnt app name
      */
-    public static final String LOCAL_APP               = "local.app";
+    public static final String LOCAL_APP                    = "local.app";
 
     /**
      * REMOTE_APP records the target app name
      */
-    public static final String REMOTE_APP              = "remote.app";
+    public static final String REMOTE_APP                   = "remote.app";
 
     /**
      * CURRENT_THREAD_NAME records handler result
      */
-    public static final String RESULT_CODE             = "result.code";
+    public static final String RESULT_CODE                  = "result.code";
 
     /**
      * CURRENT_THREAD_NAME records current thread name
      */
-    public static final String CURRENT_THREAD_NAME     = "current.thread.name";
+    public static final String CURRENT_THREAD_NAME          = "current.thread.name";
 
     /**
      * REQUEST_URL records the url of the incoming request.
      */
-    public static final String REQUEST_URL             = "request.url";
+    public static final String REQUEST_URL                  = "request.url";
+
+    /**
+     * REQUEST_ROUTE records the url template matched by the handler, e.g. /orders/{id}.
+     */
+    public static final String REQUEST_ROUTE                = "request.route";
 
     /**
      * METHOD records the request method name,(rpc method or http method).
      */
-    public static final String METHOD                  = "method";
+    public static final String METHOD                       = "method";
 
     /**
      * REQ_SIZE records the request body size.
      */
-    public static final String REQ_SIZE                = "req.size.bytes";
+    public static final String REQ_SIZE                     = "req.size.bytes";
 
     /**
      * RESP_SIZE records the response body size.
      */
-    public static final String RESP_SIZE               = "resp.size.bytes";
+    public static final String RESP_SIZE                    = "resp.size.bytes";
 
     /**
      * PROTOCOL records the request protocol type.
      */
-    public static final String PROTOCOL                = "protocol";
+    public static final String PROTOCOL                     = "protocol";
 
     /**
      * SERVICE records the rpc service interface.
      */
-    public static final String SERVICE                 = "service";
+    public static final String SERVICE                      = "service";
 
     /**
      * REMOTE_HOST records the rpc target host.
      */
-    public static final String REMOTE_HOST             = "remote.host";
+    public static final String REMOTE_HOST                  = "remote.host";
     /**
      * REMOTE_PORT records the rpc target port.
      */
-    public static final String REMOTE_PORT             = "remote.port";
+    public static final String REMOTE_PORT                  = "remote.port";
 
     /**
      * LOCAL_HOST records the local host.
      */
-    public static final String LOCAL_HOST              = "local.host";
+    public static final String LOCAL_HOST                   = "local.host";
 
-    public static final String PEER_HOST               = "peer.host";
+    public static final String PEER_HOST                    = "peer.host";
 
     /**
      * LOCAL_PORT records the local port.
      */
-    public static final String LOCAL_PORT              = "local.port";
+    public static final String LOCAL_PORT                   = "local.port";
 
     /**
      * INVOKE_TYPE records the invoke type(oneway/sync/async).
      */
-    public static final String INVOKE_TYPE             = "invoke.type";
+    public static final String INVOKE_TYPE                  = "invoke.type";
 
     /**
      * RPC_TRACE_NAME constants key for dubbo rpc transfer.
      */
-    public static final String RPC_TRACE_NAME          = "dubbo.rpc.sofa.tracer";
+    public static final String RPC_TRACE_NAME               = "dubbo.rpc.sofa.tracer";
 
     /**
      * CLIENT_SERIALIZE_TIME records the rpc client serializes the request body time
      */
-    public static final String CLIENT_SERIALIZE_TIME   = "client.serialize.time";
+    public static final String CLIENT_SERIALIZE_TIME        = "client.serialize.time";
 
     /**
      * SERVER_SERIALIZE_TIME records the rpc server serializes the response body time
      */
-    public static final String SERVER_SERIALIZE_TIME   = "server.serialize.time";
+    public static final String SERVER_SERIALIZE_TIME        = "server.serialize.time";
 
     /**
      * CLIENT_DESERIALIZE_TIME records the rpc client deserialize the response body time
      */
-    public static final String CLIENT_DESERIALIZE_TIME = "client.deserialize.time";
+    public static final String CLIENT_DESERIALIZE_TIME      = "client.deserialize.time";
 
     /**
      * SERVER_DESERIALIZE_TIME records the rpc server deserialize the request body time
      */
-    public static final String SERVER_DESERIALIZE_TIME = "server.deserialize.time";
+    public static final String SERVER_DESERIALIZE_TIME      = "server.deserialize.time";
 
     /**
      * SPAN_ID records the current span's id
      */
-    public static final String SPAN_ID                 = "spanId";
+    public static final String SPAN_ID                      = "spanId";
 
     /**
      * TRACE_ID records the current span's traceId
      */
-    public static final String TRACE_ID                = "traceId";
+    public static final String TRACE_ID                     = "traceId";
 
     /**
      * BAGGAGE records the span's baggage
      */
-    public static final String BAGGAGE                 = "baggage";
+    public static final String BAGGAGE                      = "baggage";
 
-    public static final String BIZ_BAGGAGE             = "biz.baggage";
+    public static final String BIZ_BAGGAGE                  = "biz.baggage";
 
-    public static final String SYS_BAGGAGE             = "sys.baggage";
+    public static final String SYS_BAGGAGE                  = "sys.baggage";
 
     /**
      * TIME records the current span's begin time
      */
-    public static final String TIME                    = "time";
+    public static final String TIME                         = "time";
 
     /**
      * TIME_COST_MILLISECONDS records the current span's cost time
      */
-    public static final String TIME_COST_MILLISECONDS  = "time.cost.milliseconds";
+    public static final String TIME_COST_MILLISECONDS       = "time.cost.milliseconds";
 
     /**
      * TOTAL_COST_MILLISECONDS records the span's cost time period
      */
-    public static final String TOTAL_COST_MILLISECONDS = "total.cost.milliseconds";
+    public static final String TOTAL_COST_MILLISECONDS      = "total.cost.milliseconds";
 
     /**
      * STAT_KEY is the span's stat log key for stat.key
      */
-    public static final String STAT_KEY                = "stat.key";
+    public static final String STAT_KEY                     = "stat.key";
 
     /**
      * COUNT is the span's stat log key for count
      */
-    public static final String COUNT                   = "count";
+    public static final String COUNT                        = "count";
 
     /**
      * SUCCESS is the span's stat log key for success
      */
-    public static final String SUCCESS                 = "success";
+    public static final String SUCCESS                      = "success";
 
     /**
      * LOAD_TEST is the span's stat log key for load.test
      */
-    public static final String LOAD_TEST               = "load.test";
+    public static final String LOAD_TEST                    = "load.test";
 
-    public static final String MSG_TOPIC               = "msg.topic";
-    public static final String MSG_ID                  = "msg.id";
-    public static final String MSG_CHANNEL             = "msg.channel";
+    public static final String MSG_TOPIC                    = "msg.topic";
+    public static final String MSG_ID                       = "msg.id";
+    public static final String MSG_CHANNEL                  = "msg.channel";
 
     /**
      * RABBIT_EXCHANGE records the rabbit exchange.
      */
-    public static final String RABBIT_EXCHANGE         = "exchange";
+    public static final String RABBIT_EXCHANGE              = "exchange";
 
     /**
      * RABBIT_ROUNTING_KEY records the rabbit rounting key.
      */
-    public static final String RABBIT_ROUNTING_KEY     = "rountingKey";
+    public static final String RABBIT_ROUNTING_KEY          = "rountingKey";
 
     /**
      * RABBIT_QUEUE_NAME records the rabbit queue name.
      */
-    public static final String RABBIT_QUEUE_NAME       = "queueName";
+    public static final String RABBIT_QUEUE_NAME            = "queueName";
 
     /**
      * RABBIT_REPLY_TIME_OUT records the rabbit reply time out.
      */
-    public static final String RABBIT_REPLY_TIME_OUT   = "replyTimeout";
+    public static final String RABBIT_REPLY_TIME_OUT        = "replyTimeout";
     /**
      * KAFKA_TOPIC records the current span's topic.
      */
-    public static final String KAFKA_TOPIC             = "kafka.topic";
+    public static final String KAFKA_TOPIC                  = "kafka.topic";
 
     /**
      * KAFKA_TOPIC records the current span's partition.
      */
-    public static final String KAFKA_PARTITION         = "kafka.partition";
+    public static final String KAFKA_PARTITION              = "kafka.partition";
 
     /**
      * KAFKA_TOPIC records the current span's offset.
      */
-    public static final String KAFKA_OFFSET            = "kafka.offset";
+    public static final String KAFKA_OFFSET                 = "kafka.offset";
+
+    /**
+     * KAFKA_LAST_OFFSET records the last offset of a consumed batch.
+     */
+    public static final String KAFKA_LAST_OFFSET            = "kafka.last.offset";
+
+    /**
+     * KAFKA_BATCH_SIZE records the number of records of a consumed batch.
+     */
+    public static final String KAFKA_BATCH_SIZE             = "kafka.batch.size";
+
+    /**
+     * KAFKA_BATCH_BYTES records the serialized key and value bytes of a consumed batch.
+     */
+    public static final String KAFKA_BATCH_BYTES            = "kafka.batch.bytes";
+
+    /**
+     * KAFKA_LAG records the consumer lag of the partition after a batch is fetched.
+     */
+    public static final String KAFKA_LAG                    = "kafka.lag";
+
+    /**
+     * HTTP_DNS_COST records the milliseconds spent resolving the host of an http client call.
+     */
+    public static final String HTTP_DNS_COST                = "http.dns.cost";
+
+    /**
+     * HTTP_CONNECT_COST records the milliseconds spent connecting, tls handshake included.
+     */
+    public static final String HTTP_CONNECT_COST            = "http.connect.cost";
+
+    /**
+     * HTTP_TLS_COST records the milliseconds spent in the tls handshake.
+     */
+    public static final String HTTP_TLS_COST                = "http.tls.cost";
+
+    /**
+     * HTTP_CONNECTION_ACQUIRE_COST records the milliseconds until a connection is ready, pool wait, dns and connect included.
+     */
+    public static final String HTTP_CONNECTION_ACQUIRE_COST = "http.connection.acquire.cost";
+
+    /**
+     * HTTP_TTFB_COST records the milliseconds from sending the request to receiving the response headers.
+     */
+    public static final String HTTP_TTFB_COST               = "http.ttfb.cost";
 
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.span;
+
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tags of a {@link StatsOnlySpan}: keys and values in one array, searched linearly, which is
+ * smaller and faster than a hash map for the dozen tags a span holds. Thread safe; like a
+ * {@link java.util.concurrent.ConcurrentHashMap} it rejects null keys and values, and it
+ * iterates over a snapshot.
+ *
+ * @since 3.1.10
+ */
+final class CompactTagMap<V> extends AbstractMap<String, V> {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * key, value, key, value..., allocated by the first put
+     */
+    private Object[]         entries;
+
+    private int              size;
+
+    @Override
+    public synchronized V get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : value(index);
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public synchronized V put(String key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        int index = indexOf(key);
+        if (index >= 0) {
+            V previous = value(index);
+            entries[index + 1] = value;
+            return previous;
+        }
+        if (entries == null) {
+            entries = new Object[INITIAL_CAPACITY * 2];
+        } else if (size * 2 == entries.length) {
+            Object[] grown = new Object[entries.length * 2];
+            System.arraycopy(entries, 0, grown, 0, entries.length);
+            entries = grown;
+        }
+        entries[size * 2] = key;
+        entries[size * 2 + 1] = value;
+        size++;
+        return null;
+    }
+
+    @Override
+    public synchronized V remove(Object key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V previous = value(index);
+        int last = (size - 1) * 2;
+        entries[index] = entries[last];
+        entries[index + 1] = entries[last + 1];
+        entries[last] = null;
+        entries[last + 1] = null;
+        size--;
+        return previous;
+    }
+
+    @Override
+    public synchronized void clear() {
+        if (entries != null) {
+            for (int i = 0; i < size * 2; i++) {
+                entries[i] = null;
+            }
+        }
+        size = 0;
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized Set<Map.Entry<String, V>> entrySet() {
+        Map<String, V> snapshot = new LinkedHashMap<String, V>(size * 2);
+        for (int i = 0; i < size * 2; i += 2) {
+            snapshot.put((String) entries[i], value(i));
+        }
+        return snapshot.entrySet();
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < size * 2; i += 2) {
+            if (entries[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int index) {
+        return (V) entries[index + 1];
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.span;
+
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+
+/**
+ * Phases of an http client call recorded by the http client plugins when
+ * {@link com.alipay.common.tracer.core.configuration.SofaTracerConfiguration#TRACER_HTTP_CLIENT_PHASE_TIMING_ENABLED}
+ * is true. Each phase is a number tag of the client span, in milliseconds, and the stat
+ * reporters aggregate each phase under its own stat key.
+ *
+ * @since 3.1.10
+ */
+public enum HttpClientPhase {
+
+    DNS("dns", CommonSpanTags.HTTP_DNS_COST),
+
+    CONNECT("connect", CommonSpanTags.HTTP_CONNECT_COST),
+
+    TLS("tls", CommonSpanTags.HTTP_TLS_COST),
+
+    CONNECTION_ACQUIRE("acquire", CommonSpanTags.HTTP_CONNECTION_ACQUIRE_COST),
+
+    TTFB("ttfb", CommonSpanTags.HTTP_TTFB_COST);
+
+    private final String phaseName;
+
+    private final String tagKey;
+
+    HttpClientPhase(String phaseName, String tagKey) {
+        this.phaseName = phaseName;
+        this.tagKey = tagKey;
+    }
+
+    public String getPhaseName() {
+        return phaseName;
+    }
+
+    public String getTagKey() {
+        return tagKey;
+    }
+
+    /**
+     * Whether the http client plugins record the phases, false by default
+     * @return true if enabled
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(SofaTracerConfiguration
+            .getProperty(SofaTracerConfiguration.TRACER_HTTP_CLIENT_PHASE_TIMING_ENABLED));
+    }
+
+    /**
+     * Phases are only recorded for the spans which may be printed in the digest log: the root
+     * spans, sampled again when reported, and the children of sampled traces
+     *
+     * @param span client span
+     * @return true if the phases of the span should be recorded
+     */
+    public static boolean isRecorded(SofaTracerSpan span) {
+        return span != null
+               && (span.getParentSofaTracerSpan() == null || span.getSofaTracerSpanContext()
+                   .isSampled());
+    }
+}
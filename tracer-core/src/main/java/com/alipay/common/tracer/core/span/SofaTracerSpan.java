@@ -40,6 +40,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * SofaTracerSpan
@@ -52,46 +53,95 @@ public class SofaTracerSpan implements Span {
     /**
      * The constant ARRAY_SEPARATOR.
      */
-    public static final char                                ARRAY_SEPARATOR      = '|';
+    public static final char                                       ARRAY_SEPARATOR      = '|';
 
-    private final SofaTracer                                sofaTracer;
+    private static final AtomicIntegerFieldUpdater<SofaTracerSpan> REFERENCES           = AtomicIntegerFieldUpdater
+                                                                                            .newUpdater(
+                                                                                                SofaTracerSpan.class,
+                                                                                                "references");
 
-    private final List<SofaTracerSpanReferenceRelationship> spanReferences;
+    private SofaTracer                                             sofaTracer;
+
+    private List<SofaTracerSpanReferenceRelationship>              spanReferences;
     /**
      * tags for String
      */
-    private final Map<String, String>                       tagsWithStr          = new ConcurrentHashMap<>();
+    private final Map<String, String>                              tagsWithStr;
     /**
      * tags for Boolean
      */
-    private final Map<String, Boolean>                      tagsWithBool         = new ConcurrentHashMap<>();
+    private final Map<String, Boolean>                             tagsWithBool;
     /**
      * tags for Number
      */
-    private final Map<String, Number>                       tagsWithNumber       = new ConcurrentHashMap<>();
+    private final Map<String, Number>                              tagsWithNumber;
+
+    /**
+     * Null for a {@link StatsOnlySpan}, which records no logs
+     */
+    private final ConcurrentLinkedQueue<LogData>                   logs;
 
-    private final ConcurrentLinkedQueue<LogData>            logs                 = new ConcurrentLinkedQueue<>();
+    private SpanEventData                                          eventData;
 
-    private SpanEventData                                   eventData;
+    private String                                                 operationName        = StringUtils.EMPTY_STRING;
 
-    private String                                          operationName        = StringUtils.EMPTY_STRING;
+    private SofaTracerSpanContext                                  sofaTracerSpanContext;
 
-    private final SofaTracerSpanContext                     sofaTracerSpanContext;
+    private long                                                   startTime;
+    private long                                                   endTime              = -1;
 
-    private long                                            startTime;
-    private long                                            endTime              = -1;
+    /**
+     * System.nanoTime() when the span started, 0 if the duration is not measured with it
+     */
+    private long                                                   startNanos;
+
+    /**
+     * Duration measured with System.nanoTime(), -1 if not measured
+     */
+    private long                                                   durationNanos        = -1;
 
     /**
      * Only meaningful when reporting
      * Digest log type,The logs correctly printed key information.
      * For example, the client is rpc-client-digest.log and the server is rpc-server-digest.log
      */
-    private String                                          logType              = StringUtils.EMPTY_STRING;
+    private String                                                 logType              = StringUtils.EMPTY_STRING;
 
     /**
      * parent span. Describe the child-of relationship
      */
-    private SofaTracerSpan                                  parentSofaTracerSpan = null;
+    private SofaTracerSpan                                         parentSofaTracerSpan = null;
+
+    /**
+     * References held on a recycled span, 0 once released to its pool, -1 if the span is not
+     * recycled, see {@link SpanRecycler}
+     */
+    private volatile int                                           references           = -1;
+
+    /**
+     * Pool the span goes back to, null if it is not recycled
+     */
+    private SpanRecycler.Pool                                      pool;
+
+    /**
+     * Incremented each time a recycled span is reused
+     */
+    private volatile int                                           generation;
+
+    /**
+     * Whether the reference of the tracer was released by {@link #finish(long)}
+     */
+    private boolean                                                ownerReleased;
+
+    /**
+     * Next span in the released stack of {@link #pool}
+     */
+    SofaTracerSpan                                                 nextPooled;
+
+    /**
+     * Time of the last release
+     */
+    long                                                           releasedAt;
 
     /**
      * Clone instance sofa tracer span.
@@ -112,12 +162,59 @@ public class SofaTracerSpan implements Span {
             }
         }
         cloneSpan.setEndTime(this.endTime);
+        cloneSpan.durationNanos = this.durationNanos;
         cloneSpan.setLogType(this.logType);
         cloneSpan.setParentSofaTracerSpan(this.parentSofaTracerSpan);
 
         return cloneSpan;
     }
 
+    /**
+     * A reduced copy of a finished span used when the digest pipeline is overloaded: no logs,
+     * no baggage but the load test mark, and string tags truncated to {@code maxTagLength}.
+     * <p>
+     * Unlike {@link #cloneInstance()} the span extensions are not notified, the copy is
+     * only meant to be encoded.
+     *
+     * @param maxTagLength max length of the string tags
+     * @return the compact sofa tracer span
+     */
+    public SofaTracerSpan compactInstance(int maxTagLength) {
+        SofaTracerSpanContext spanContext = new SofaTracerSpanContext(
+            this.sofaTracerSpanContext.getTraceId(), this.sofaTracerSpanContext.getSpanId(),
+            this.sofaTracerSpanContext.getParentId(), this.sofaTracerSpanContext.isSampled());
+        String loadTest = this.sofaTracerSpanContext
+            .getBizBaggageItem(SofaTracerConstant.LOAD_TEST_TAG);
+        if (loadTest != null) {
+            spanContext.setBizBaggageItem(SofaTracerConstant.LOAD_TEST_TAG, loadTest);
+        }
+        SofaTracerSpan compactSpan = new SofaTracerSpan(this, spanContext);
+        for (Map.Entry<String, String> entry : this.tagsWithStr.entrySet()) {
+            String value = entry.getValue();
+            compactSpan.tagsWithStr.put(entry.getKey(),
+                value.length() > maxTagLength ? value.substring(0, maxTagLength) : value);
+        }
+        compactSpan.tagsWithBool.putAll(this.tagsWithBool);
+        compactSpan.tagsWithNumber.putAll(this.tagsWithNumber);
+        return compactSpan;
+    }
+
+    private SofaTracerSpan(SofaTracerSpan source, SofaTracerSpanContext sofaTracerSpanContext) {
+        this.tagsWithStr = new ConcurrentHashMap<>();
+        this.tagsWithBool = new ConcurrentHashMap<>();
+        this.tagsWithNumber = new ConcurrentHashMap<>();
+        this.logs = new ConcurrentLinkedQueue<>();
+        this.sofaTracer = source.sofaTracer;
+        this.startTime = source.startTime;
+        this.endTime = source.endTime;
+        this.durationNanos = source.durationNanos;
+        this.spanReferences = source.spanReferences;
+        this.operationName = source.operationName;
+        this.sofaTracerSpanContext = sofaTracerSpanContext;
+        this.logType = source.logType;
+        this.parentSofaTracerSpan = source.parentSofaTracerSpan;
+    }
+
     /**
      * As a server-Side(Kind.type is server): After reverting back to {@link SofaTracerSpanContext},
      * you can directly construct Server Span (traceId, spanId unchanged)
@@ -153,11 +250,41 @@ public class SofaTracerSpan implements Span {
                           List<SofaTracerSpanReferenceRelationship> spanReferences,
                           String operationName, SofaTracerSpanContext sofaTracerSpanContext,
                           Map<String, ?> tags) {
+        this(sofaTracer, startTime, spanReferences, operationName, sofaTracerSpanContext, tags,
+            false);
+    }
+
+    /**
+     * @param statsOnly true for a {@link StatsOnlySpan}: compact tags, no logs, and the
+     *                  references of the builder are kept as is
+     */
+    SofaTracerSpan(SofaTracer sofaTracer, long startTime,
+                   List<SofaTracerSpanReferenceRelationship> spanReferences, String operationName,
+                   SofaTracerSpanContext sofaTracerSpanContext, Map<String, ?> tags,
+                   boolean statsOnly) {
         AssertUtils.notNull(sofaTracer);
         AssertUtils.notNull(sofaTracerSpanContext);
+        if (statsOnly) {
+            this.tagsWithStr = new CompactTagMap<>();
+            this.tagsWithBool = new CompactTagMap<>();
+            this.tagsWithNumber = new CompactTagMap<>();
+            this.logs = null;
+        } else {
+            this.tagsWithStr = new ConcurrentHashMap<>();
+            this.tagsWithBool = new ConcurrentHashMap<>();
+            this.tagsWithNumber = new ConcurrentHashMap<>();
+            this.logs = new ConcurrentLinkedQueue<>();
+        }
         this.sofaTracer = sofaTracer;
         this.startTime = startTime;
-        this.spanReferences = spanReferences != null ? new ArrayList<>(spanReferences) : null;
+        if (spanReferences == null) {
+            this.spanReferences = null;
+        } else if (statsOnly && spanReferences.size() == 1) {
+            // the single reference list of the builder is immutable
+            this.spanReferences = spanReferences;
+        } else {
+            this.spanReferences = new ArrayList<>(spanReferences);
+        }
         this.operationName = operationName;
         this.sofaTracerSpanContext = sofaTracerSpanContext;
         this.setTags(tags);
@@ -167,20 +294,160 @@ public class SofaTracerSpan implements Span {
 
     @Override
     public SpanContext context() {
+        this.checkNotReleased();
         return this.sofaTracerSpanContext;
     }
 
     @Override
     public void finish() {
-        this.finish(System.currentTimeMillis());
+        if (this.startNanos != 0) {
+            // monotonic, the end time is derived from the duration
+            long durationNanos = System.nanoTime() - this.startNanos;
+            this.doFinish(this.startTime + durationNanos / 1000000, durationNanos);
+        } else {
+            this.finish(System.currentTimeMillis());
+        }
     }
 
     @Override
     public void finish(long endTime) {
+        this.doFinish(endTime, -1);
+    }
+
+    private void doFinish(long endTime, long durationNanos) {
+        this.checkNotReleased();
         this.setEndTime(endTime);
+        this.durationNanos = durationNanos;
         //Key record:report span
         this.sofaTracer.reportSpan(this);
         SpanExtensionFactory.logStoppedSpan(this);
+        if (!this.ownerReleased) {
+            this.ownerReleased = true;
+            this.release();
+        }
+    }
+
+    /**
+     * Keep a recycled span from being reused until {@link #release()}, e.g. when it is
+     * handled asynchronously after {@link #finish()}. Does nothing if the span is not recycled.
+     */
+    public void retain() {
+        for (;;) {
+            int current = this.references;
+            if (current < 0) {
+                return;
+            }
+            if (current == 0) {
+                // already released, the span is not reused anymore
+                if (REFERENCES.compareAndSet(this, 0, -1)) {
+                    SpanRecycler.escaped();
+                    return;
+                }
+            } else if (REFERENCES.compareAndSet(this, current, current + 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Release a reference taken by {@link #retain()}, the last one returns a recycled span to
+     * its pool
+     */
+    public void release() {
+        for (;;) {
+            int current = this.references;
+            if (current <= 0) {
+                return;
+            }
+            if (REFERENCES.compareAndSet(this, current, current - 1)) {
+                if (current == 1) {
+                    this.pool.offer(this);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Make the span recyclable, it holds the reference of the tracer
+     */
+    void track(SpanRecycler.Pool pool) {
+        this.pool = pool;
+        this.references = 1;
+    }
+
+    /**
+     * @return true if the span taken out of its pool can be reused
+     */
+    boolean claim() {
+        if (REFERENCES.compareAndSet(this, 0, 1)) {
+            this.ownerReleased = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reinitialize a recycled span as if just constructed
+     */
+    void reuse(SofaTracer sofaTracer, long startTime,
+               List<SofaTracerSpanReferenceRelationship> spanReferences, String operationName,
+               SofaTracerSpanContext sofaTracerSpanContext, Map<String, ?> tags) {
+        SofaTracerSpan parent = this.parentSofaTracerSpan;
+        this.parentSofaTracerSpan = null;
+        if (parent != null) {
+            parent.release();
+        }
+        this.tagsWithStr.clear();
+        this.tagsWithBool.clear();
+        this.tagsWithNumber.clear();
+        this.logs.clear();
+        this.eventData = null;
+        this.endTime = -1;
+        this.startNanos = 0;
+        this.durationNanos = -1;
+        this.logType = StringUtils.EMPTY_STRING;
+        this.generation++;
+        this.sofaTracer = sofaTracer;
+        this.startTime = startTime;
+        this.spanReferences = spanReferences != null ? new ArrayList<>(spanReferences) : null;
+        this.operationName = operationName;
+        this.sofaTracerSpanContext = sofaTracerSpanContext;
+        this.setTags(tags);
+
+        SpanExtensionFactory.logStartedSpan(this);
+    }
+
+    /**
+     * Generation of a recycled span, incremented each time it is reused. Code holding a span
+     * after its release without {@link #retain()} can compare it with {@link #isStale(int)}
+     * to detect that the span now records another trace. Always 0 if the span is not recycled.
+     *
+     * @return the generation
+     */
+    public int getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * @param generation generation read by {@link #getGeneration()} while the span was held
+     * @return true if the span was reused since, its getters then return another trace
+     */
+    public boolean isStale(int generation) {
+        return this.generation != generation;
+    }
+
+    /**
+     * Using a recycled span after its release, to write or read it, is a bug of the caller,
+     * keep the span from being reused so that it neither corrupts nor leaks another span.
+     * A use after the span was already reused can only be detected with {@link #isStale(int)}.
+     */
+    private void checkNotReleased() {
+        if (this.references == 0 && REFERENCES.compareAndSet(this, 0, -1)) {
+            SpanRecycler.escaped();
+            SelfLog.warn("Span used after its release, it is not recycled anymore: "
+                         + this.operationName);
+        }
     }
 
     /**
@@ -215,6 +482,7 @@ public class SofaTracerSpan implements Span {
         if (StringUtils.isBlank(key) || StringUtils.isBlank(value)) {
             return this;
         }
+        this.checkNotReleased();
         this.tagsWithStr.put(key, value);
         //to set log type by span kind type
         if (isServer()) {
@@ -233,6 +501,7 @@ public class SofaTracerSpan implements Span {
 
     @Override
     public Span setTag(String key, boolean value) {
+        this.checkNotReleased();
         this.tagsWithBool.put(key, value);
         return this;
     }
@@ -242,6 +511,7 @@ public class SofaTracerSpan implements Span {
         if (number == null) {
             return this;
         }
+        this.checkNotReleased();
         this.tagsWithNumber.put(key, number);
         return this;
     }
@@ -270,6 +540,7 @@ public class SofaTracerSpan implements Span {
         if (logData == null) {
             return this;
         }
+        this.checkNotReleased();
         this.logs.add(logData);
         return this;
     }
@@ -277,6 +548,7 @@ public class SofaTracerSpan implements Span {
     @Override
     public Span log(long currentTime, Map<String, ?> map) {
         AssertUtils.isTrue(currentTime >= startTime, "current time must greater than start time");
+        this.checkNotReleased();
         this.logs.add(new LogData(currentTime, map));
         return this;
     }
@@ -310,6 +582,7 @@ public class SofaTracerSpan implements Span {
      */
     @Override
     public Span setBaggageItem(String key, String value) {
+        this.checkNotReleased();
         this.sofaTracerSpanContext.setBizBaggageItem(key, value);
         return this;
     }
@@ -322,11 +595,13 @@ public class SofaTracerSpan implements Span {
      */
     @Override
     public String getBaggageItem(String key) {
+        this.checkNotReleased();
         return this.sofaTracerSpanContext.getBizBaggageItem(key);
     }
 
     @Override
     public Span setOperationName(String operationName) {
+        this.checkNotReleased();
         this.operationName = operationName;
         return this;
     }
@@ -413,9 +688,7 @@ public class SofaTracerSpan implements Span {
         if (StringUtils.countMatches(rpcId, '.') + 1 > SofaTracerConstant.MAX_LAYER) {
             SofaTracerSpanContext parentSpanContext = SofaTracerSpanContext.rootStart();
             // discard tags
-            Map<String, String> baggage = new HashMap<>();
-            baggage.putAll(this.sofaTracerSpanContext.getBizBaggage());
-            parentSpanContext.addBizBaggage(baggage);
+            parentSpanContext.addBizBaggage(this.sofaTracerSpanContext.getBizBaggageSnapshot());
             parent = new SofaTracerSpan(this.sofaTracer, System.currentTimeMillis(),
                 this.operationName, parentSpanContext, null);
             // Record in the log to prevent this from happening but not to know quickly
@@ -458,6 +731,7 @@ public class SofaTracerSpan implements Span {
      * @return the start time
      */
     public long getStartTime() {
+        this.checkNotReleased();
         return startTime;
     }
 
@@ -476,6 +750,7 @@ public class SofaTracerSpan implements Span {
      * @return the end time
      */
     public long getEndTime() {
+        this.checkNotReleased();
         return endTime;
     }
 
@@ -486,6 +761,17 @@ public class SofaTracerSpan implements Span {
      */
     public void setEndTime(long endTime) {
         this.endTime = endTime;
+        this.durationNanos = -1;
+    }
+
+    /**
+     * Measure the duration with System.nanoTime() when finished without an explicit end time,
+     * see {@link com.alipay.common.tracer.core.utils.SpanTiming}
+     *
+     * @param startNanos System.nanoTime() when the span started
+     */
+    public void setStartNanos(long startNanos) {
+        this.startNanos = startNanos;
     }
 
     /**
@@ -494,15 +780,32 @@ public class SofaTracerSpan implements Span {
      * @return the duration microseconds
      */
     public long getDurationMicroseconds() {
+        this.checkNotReleased();
         return this.endTime - this.startTime;
     }
 
+    /**
+     * Gets the duration in microseconds, measured with System.nanoTime() when possible. Note
+     * that {@link #getDurationMicroseconds()} returns the difference of the millisecond
+     * timestamps.
+     *
+     * @return the duration in microseconds
+     */
+    public long getDurationMicros() {
+        this.checkNotReleased();
+        if (this.durationNanos >= 0) {
+            return this.durationNanos / 1000;
+        }
+        return (this.endTime - this.startTime) * 1000;
+    }
+
     /**
      * Gets tags with str.
      *
      * @return the tags with str
      */
     public Map<String, String> getTagsWithStr() {
+        this.checkNotReleased();
         return tagsWithStr;
     }
 
@@ -512,6 +815,7 @@ public class SofaTracerSpan implements Span {
      * @return the tags with bool
      */
     public Map<String, Boolean> getTagsWithBool() {
+        this.checkNotReleased();
         return tagsWithBool;
     }
 
@@ -521,6 +825,7 @@ public class SofaTracerSpan implements Span {
      * @return the tags with number
      */
     public Map<String, Number> getTagsWithNumber() {
+        this.checkNotReleased();
         return tagsWithNumber;
     }
 
@@ -530,6 +835,7 @@ public class SofaTracerSpan implements Span {
      * @return the operation name
      */
     public String getOperationName() {
+        this.checkNotReleased();
         return operationName;
     }
 
@@ -539,16 +845,27 @@ public class SofaTracerSpan implements Span {
      * @return the sofa tracer span context
      */
     public SofaTracerSpanContext getSofaTracerSpanContext() {
+        this.checkNotReleased();
         return sofaTracerSpanContext;
     }
 
     /**
      * Gets logs.
      *
-     * @return the logs
+     * @return the logs, a new empty queue for a {@link StatsOnlySpan}
      */
     public ConcurrentLinkedQueue<LogData> getLogs() {
-        return logs;
+        this.checkNotReleased();
+        return logs != null ? logs : new ConcurrentLinkedQueue<LogData>();
+    }
+
+    /**
+     * Whether only the stat of this span is recorded, see {@link StatsOnlySpan}
+     *
+     * @return true if stats only
+     */
+    public boolean isStatsOnly() {
+        return false;
     }
 
     /**
@@ -557,6 +874,7 @@ public class SofaTracerSpan implements Span {
      * @return the log type
      */
     public String getLogType() {
+        this.checkNotReleased();
         return logType;
     }
 
@@ -575,6 +893,7 @@ public class SofaTracerSpan implements Span {
      * @return the event data
      */
     public SpanEventData getEventData() {
+        this.checkNotReleased();
         return eventData;
     }
 
@@ -593,6 +912,7 @@ public class SofaTracerSpan implements Span {
      * @return the parent sofa tracer span
      */
     public SofaTracerSpan getParentSofaTracerSpan() {
+        this.checkNotReleased();
         if (this.parentSofaTracerSpan != null) {
             return this.parentSofaTracerSpan.getThisAsParentWhenExceedLayer();
         }
@@ -605,7 +925,15 @@ public class SofaTracerSpan implements Span {
      * @param parentSofaTracerSpan the parent sofa tracer span
      */
     public void setParentSofaTracerSpan(SofaTracerSpan parentSofaTracerSpan) {
+        // a recycled parent is kept as long as its child
+        if (parentSofaTracerSpan != null) {
+            parentSofaTracerSpan.retain();
+        }
+        SofaTracerSpan previous = this.parentSofaTracerSpan;
         this.parentSofaTracerSpan = parentSofaTracerSpan;
+        if (previous != null) {
+            previous.release();
+        }
     }
 
     /**
@@ -614,6 +942,7 @@ public class SofaTracerSpan implements Span {
      * @return the boolean
      */
     public boolean isServer() {
+        this.checkNotReleased();
         return Tags.SPAN_KIND_SERVER.equals(tagsWithStr.get(Tags.SPAN_KIND.getKey()));
     }
 
@@ -623,6 +952,7 @@ public class SofaTracerSpan implements Span {
      * @return the boolean
      */
     public boolean isClient() {
+        this.checkNotReleased();
         return Tags.SPAN_KIND_CLIENT.equals(tagsWithStr.get(Tags.SPAN_KIND.getKey()));
     }
 
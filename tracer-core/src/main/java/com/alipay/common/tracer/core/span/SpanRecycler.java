@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.span;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in recycling of the spans built by {@link com.alipay.common.tracer.core.SofaTracer},
+ * together with their {@link com.alipay.common.tracer.core.context.span.SofaTracerSpanContext},
+ * see {@link SofaTracerConfiguration#TRACER_SPAN_RECYCLING_ENABLED}.
+ * <p>
+ * A recycled span is reference counted: the tracer holds one reference until {@link
+ * SofaTracerSpan#finish()} returns, and whatever keeps the span after that, e.g. the digest
+ * ring buffer until the span is encoded, a child span through its parent or a span report
+ * listener working asynchronously, holds one through {@link SofaTracerSpan#retain()} and
+ * {@link SofaTracerSpan#release()}. When the last reference is released the span goes back to
+ * the pool of the thread which built it, and is only reused after a quarantine so that code
+ * still reading it right after {@code finish()} is not affected.
+ * <p>
+ * A span written to or retained after its last release is detected and never reused again,
+ * it is simply left to the garbage collector. So are the spans which are never finished or
+ * released, and the spans built when the pool of the thread is empty.
+ *
+ * @since 3.1.10
+ */
+public final class SpanRecycler {
+
+    static final int                       DEFAULT_POOL_SIZE  = 256;
+    static final long                      DEFAULT_QUARANTINE = 1000;
+
+    private static final ThreadLocal<Pool> pools              = new ThreadLocal<Pool>();
+
+    private static final LongAdder         reused             = new LongAdder();
+    private static final LongAdder         allocated          = new LongAdder();
+    private static final LongAdder         escaped            = new LongAdder();
+
+    private static volatile boolean        configured;
+    private static boolean                 enabled;
+    private static int                     poolSize;
+    private static long                    quarantine;
+
+    private SpanRecycler() {
+    }
+
+    /**
+     * @return true if the spans are recycled
+     */
+    public static boolean isEnabled() {
+        if (!configured) {
+            configure();
+        }
+        return enabled;
+    }
+
+    /**
+     * Take a recycled span out of the pool of the current thread. Its context is to be
+     * reinitialized, and then the span by {@link #reuse}.
+     *
+     * @return the span, or null if recycling is disabled or no span is ready
+     */
+    public static SofaTracerSpan acquire() {
+        if (!isEnabled()) {
+            return null;
+        }
+        Pool pool = pools.get();
+        if (pool == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        SofaTracerSpan span;
+        while ((span = pool.poll(now)) != null) {
+            if (span.claim()) {
+                reused.increment();
+                return span;
+            }
+            // used after its release, left to the garbage collector
+        }
+        return null;
+    }
+
+    /**
+     * Reinitialize a span returned by {@link #acquire()} as if just constructed
+     *
+     * @param span                  recycled span
+     * @param sofaTracer            sofaTracer
+     * @param startTime             startTime
+     * @param spanReferences        spanReferences
+     * @param operationName         operationName
+     * @param sofaTracerSpanContext its reinitialized context
+     * @param tags                  tags
+     * @return the span
+     */
+    public static SofaTracerSpan reuse(SofaTracerSpan span, SofaTracer sofaTracer, long startTime,
+                                       List<SofaTracerSpanReferenceRelationship> spanReferences,
+                                       String operationName,
+                                       SofaTracerSpanContext sofaTracerSpanContext,
+                                       Map<String, ?> tags) {
+        span.reuse(sofaTracer, startTime, spanReferences, operationName, sofaTracerSpanContext,
+            tags);
+        return span;
+    }
+
+    /**
+     * Make a span built without a recycled one recyclable, it will go back to the pool of
+     * the current thread
+     *
+     * @param span span just built
+     */
+    public static void track(SofaTracerSpan span) {
+        if (!isEnabled()) {
+            return;
+        }
+        Pool pool = pools.get();
+        if (pool == null) {
+            pool = new Pool(poolSize, quarantine);
+            pools.set(pool);
+        }
+        span.track(pool);
+        allocated.increment();
+    }
+
+    /**
+     * @return spans taken out of a pool
+     */
+    public static long getReused() {
+        return reused.sum();
+    }
+
+    /**
+     * @return recyclable spans allocated because no pooled span was ready
+     */
+    public static long getAllocated() {
+        return allocated.sum();
+    }
+
+    /**
+     * @return spans used after their last release, and so never reused
+     */
+    public static long getEscaped() {
+        return escaped.sum();
+    }
+
+    static void escaped() {
+        escaped.increment();
+    }
+
+    /**
+     * Read the configuration again, only the pools created afterwards use the new sizes
+     */
+    static synchronized void configure() {
+        enabled = Boolean.parseBoolean(SofaTracerConfiguration
+            .getProperty(SofaTracerConfiguration.TRACER_SPAN_RECYCLING_ENABLED));
+        poolSize = parse(SofaTracerConfiguration.TRACER_SPAN_RECYCLING_POOL_SIZE, DEFAULT_POOL_SIZE);
+        quarantine = parse(SofaTracerConfiguration.TRACER_SPAN_RECYCLING_QUARANTINE,
+            DEFAULT_QUARANTINE);
+        configured = true;
+    }
+
+    /**
+     * Drop the pool of the current thread, its spans are left to the garbage collector
+     */
+    static void dropPool() {
+        pools.remove();
+    }
+
+    private static int parse(String key, long defaultValue) {
+        try {
+            long value = Long.parseLong(SofaTracerConfiguration.getProperty(key,
+                String.valueOf(defaultValue)));
+            return (int) (value >= 0 ? value : defaultValue);
+        } catch (NumberFormatException e) {
+            return (int) defaultValue;
+        }
+    }
+
+    /**
+     * Released spans of one thread. Any thread pushes the released spans on a lock free stack,
+     * only the owner thread moves them to its queue, oldest first, and polls them.
+     */
+    static final class Pool {
+
+        private final int                             capacity;
+        private final long                            quarantine;
+        private final AtomicInteger                   size     = new AtomicInteger();
+        private final AtomicReference<SofaTracerSpan> returned = new AtomicReference<SofaTracerSpan>();
+        /**
+         * Only used by the owner thread
+         */
+        private final ArrayDeque<SofaTracerSpan>      ready;
+
+        Pool(int capacity, long quarantine) {
+            this.capacity = capacity;
+            this.quarantine = quarantine;
+            this.ready = new ArrayDeque<SofaTracerSpan>(Math.max(capacity, 1));
+        }
+
+        /**
+         * @param span span whose last reference was released, by any thread
+         */
+        void offer(SofaTracerSpan span) {
+            if (size.incrementAndGet() > capacity) {
+                size.decrementAndGet();
+                return;
+            }
+            span.releasedAt = System.currentTimeMillis();
+            SofaTracerSpan head;
+            do {
+                head = returned.get();
+                span.nextPooled = head;
+            } while (!returned.compareAndSet(head, span));
+        }
+
+        /**
+         * @param now current time
+         * @return the oldest span out of quarantine, by the owner thread
+         */
+        SofaTracerSpan poll(long now) {
+            if (ready.isEmpty()) {
+                // newest first, every span returned is newer than the ready ones
+                SofaTracerSpan span = returned.getAndSet(null);
+                SofaTracerSpan oldest = null;
+                while (span != null) {
+                    SofaTracerSpan next = span.nextPooled;
+                    span.nextPooled = oldest;
+                    oldest = span;
+                    span = next;
+                }
+                while (oldest != null) {
+                    SofaTracerSpan next = oldest.nextPooled;
+                    oldest.nextPooled = null;
+                    ready.addLast(oldest);
+                    oldest = next;
+                }
+            }
+            SofaTracerSpan span = ready.peekFirst();
+            if (span == null || now - span.releasedAt < quarantine) {
+                return null;
+            }
+            ready.pollFirst();
+            size.decrementAndGet();
+            return span;
+        }
+
+        int size() {
+            return size.get();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.span;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import io.opentracing.Span;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Span built by {@link SofaTracer.SofaTracerSpanBuilder#start()} when it is known to be
+ * unsampled because its parent is, e.g. a propagated {@code X-B3-Sampled: 0}, and
+ * {@link SofaTracerConfiguration#TRACER_STATS_ONLY_SPAN_ENABLED} is true.
+ * <p>
+ * Its digest is never printed, so it only keeps what the stat reporters read: the tags, in a
+ * compact array instead of concurrent hash maps, the times and the context, which is still
+ * propagated downstream as unsampled. Logs are dropped without being built. It is a
+ * {@link SofaTracerSpan} so that the plugins and user code keep working unchanged, and it is
+ * never recycled.
+ *
+ * @since 3.1.10
+ */
+public class StatsOnlySpan extends SofaTracerSpan {
+
+    private static volatile boolean configured;
+    private static boolean          enabled;
+
+    public StatsOnlySpan(SofaTracer sofaTracer, long startTime,
+                         List<SofaTracerSpanReferenceRelationship> spanReferences,
+                         String operationName, SofaTracerSpanContext sofaTracerSpanContext,
+                         Map<String, ?> tags) {
+        super(sofaTracer, startTime, spanReferences, operationName, sofaTracerSpanContext, tags,
+            true);
+    }
+
+    /**
+     * @return true if unsampled spans are built stats only
+     */
+    public static boolean isEnabled() {
+        if (!configured) {
+            configure();
+        }
+        return enabled;
+    }
+
+    /**
+     * Read the configuration again
+     */
+    static synchronized void configure() {
+        enabled = Boolean.parseBoolean(SofaTracerConfiguration
+            .getProperty(SofaTracerConfiguration.TRACER_STATS_ONLY_SPAN_ENABLED));
+        configured = true;
+    }
+
+    @Override
+    public boolean isStatsOnly() {
+        return true;
+    }
+
+    @Override
+    public Span log(long currentTime, String eventValue) {
+        return this;
+    }
+
+    @Override
+    public Span log(LogData logData) {
+        return this;
+    }
+
+    @Override
+    public Span log(long currentTime, Map<String, ?> map) {
+        return this;
+    }
+
+    @Override
+    public Span log(long currentTime, String eventName, Object payload) {
+        return this;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.store;
+
+import java.util.Map;
+
+/**
+ * A span as kept by {@link RecentTraceStore}, times are in microseconds
+ *
+ * @since 3.1.10
+ */
+public class RecentSpan {
+
+    private final String              traceId;
+    private final String              spanId;
+    private final String              parentId;
+    private final String              operationName;
+    private final String              logType;
+    private final long                startTime;
+    private final long                duration;
+    private final boolean             error;
+    private final Map<String, String> tags;
+
+    public RecentSpan(String traceId, String spanId, String parentId, String operationName,
+                      String logType, long startTime, long duration, boolean error,
+                      Map<String, String> tags) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentId = parentId;
+        this.operationName = operationName;
+        this.logType = logType;
+        this.startTime = startTime;
+        this.duration = duration;
+        this.error = error;
+        this.tags = tags;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getParentId() {
+        return parentId;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+
+    public String getLogType() {
+        return logType;
+    }
+
+    /**
+     * @return start time in microseconds since the epoch
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * @return duration in microseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    public boolean isError() {
+        return error;
+    }
+
+    public Map<String, String> getTags() {
+        return tags;
+    }
+}
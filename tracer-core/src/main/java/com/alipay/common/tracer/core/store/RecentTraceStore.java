@@ -0,0 +1,524 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.store;
+
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.listener.SpanReportListener;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.common.tracer.core.utils.StringUtils;
+import com.alipay.common.tracer.core.utils.TracerUtils;
+import io.opentracing.tag.Tags;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-memory store of the recently finished spans, indexed by trace id, with secondary
+ * indexes of the error spans and of the spans slower than a threshold.
+ * <p>
+ * Spans are compacted into byte records appended to a fixed number of segments. A segment is
+ * sealed when it is full or older than its share of the retention, and the oldest segment is
+ * evicted as a whole, so that memory never exceeds the max size: record bytes and an estimate
+ * of the index entries are both charged against it.
+ * <p>
+ * The reporting thread only offers the span to a bounded queue, spans are dropped when it is
+ * full. Records are built and inserted by a single daemon thread.
+ *
+ * @since 3.1.10
+ */
+public class RecentTraceStore implements SpanReportListener, Closeable {
+
+    static final int                            SEGMENT_COUNT          = 8;
+
+    /**
+     * Estimated heap of a trace id entry of a segment index, excluding the id chars
+     */
+    static final int                            INDEX_ENTRY_OVERHEAD   = 96;
+
+    private static final String                 DEFAULT_MAX_SIZE       = "64MB";
+    private static final String                 DEFAULT_RETENTION      = "10";
+    private static final String                 DEFAULT_SLOW_THRESHOLD = "1000";
+    private static final String                 DEFAULT_QUEUE_SIZE     = "4096";
+
+    private final long                          segmentCapacity;
+    private final long                          segmentAgeMillis;
+    private final long                          retentionMillis;
+    private final long                          slowThresholdMicros;
+
+    /**
+     * Oldest segment first, guarded by itself
+     */
+    private final ArrayDeque<Segment>           segments               = new ArrayDeque<Segment>();
+
+    private final BlockingQueue<SofaTracerSpan> queue;
+
+    private final Thread                        worker;
+
+    private final LongAdder                     spansStored            = new LongAdder();
+
+    private final LongAdder                     spansDropped           = new LongAdder();
+
+    private volatile boolean                    closed;
+
+    /**
+     * @param maxBytes            max bytes of all the segments
+     * @param retentionMillis     how long spans are kept at most
+     * @param slowThresholdMillis spans at least this long are indexed as slow
+     * @param queueSize           max spans waiting to be stored
+     */
+    public RecentTraceStore(long maxBytes, long retentionMillis, long slowThresholdMillis,
+                            int queueSize) {
+        this.segmentCapacity = maxBytes / SEGMENT_COUNT;
+        this.retentionMillis = retentionMillis;
+        this.segmentAgeMillis = Math.max(1, retentionMillis / SEGMENT_COUNT);
+        this.slowThresholdMicros = slowThresholdMillis * 1000;
+        this.queue = new ArrayBlockingQueue<SofaTracerSpan>(queueSize);
+        this.worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                storeLoop();
+            }
+        }, "Tracer-RecentTraceStore");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Create a store from {@link SofaTracerConfiguration}
+     * @return store, to be registered with the {@link com.alipay.common.tracer.core.listener.SpanReportListenerHolder}
+     */
+    public static RecentTraceStore fromConfiguration() {
+        long maxBytes = TracerUtils.parseLogSize(SofaTracerConfiguration.getProperty(
+            SofaTracerConfiguration.TRACER_RECENT_TRACE_STORE_MAX_SIZE, DEFAULT_MAX_SIZE));
+        if (maxBytes <= 0) {
+            maxBytes = TracerUtils.parseLogSize(DEFAULT_MAX_SIZE);
+        }
+        long retentionMinutes = parse(SofaTracerConfiguration.TRACER_RECENT_TRACE_STORE_RETENTION,
+            DEFAULT_RETENTION);
+        long slowThreshold = parse(
+            SofaTracerConfiguration.TRACER_RECENT_TRACE_STORE_SLOW_THRESHOLD,
+            DEFAULT_SLOW_THRESHOLD);
+        long queueSize = parse(SofaTracerConfiguration.TRACER_RECENT_TRACE_STORE_QUEUE_SIZE,
+            DEFAULT_QUEUE_SIZE);
+        if (queueSize == 0 || queueSize > Integer.MAX_VALUE) {
+            queueSize = Long.parseLong(DEFAULT_QUEUE_SIZE);
+        }
+        return new RecentTraceStore(maxBytes, TimeUnit.MINUTES.toMillis(retentionMinutes),
+            slowThreshold, (int) queueSize);
+    }
+
+    /**
+     * @return the configured value, or the default if it is malformed or negative
+     */
+    private static long parse(String key, String defaultValue) {
+        String value = SofaTracerConfiguration.getProperty(key, defaultValue);
+        try {
+            long parsed = Long.parseLong(value.trim());
+            if (parsed >= 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        SelfLog.warn("invalid value [" + value + "] of " + key + ", use " + defaultValue);
+        return Long.parseLong(defaultValue);
+    }
+
+    @Override
+    public void onSpanReport(SofaTracerSpan span) {
+        if (span == null) {
+            return;
+        }
+        // a recycled span is kept until stored
+        span.retain();
+        if (closed || !queue.offer(span)) {
+            span.release();
+            spansDropped.increment();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        worker.interrupt();
+    }
+
+    /**
+     * @param traceId trace id
+     * @return the local spans of the trace, ordered by start time
+     */
+    public List<RecentSpan> getTrace(String traceId) {
+        List<RecentSpan> spans = new ArrayList<RecentSpan>();
+        synchronized (segments) {
+            for (Segment segment : segments) {
+                int[] offsets = segment.traces.get(traceId);
+                if (offsets == null) {
+                    continue;
+                }
+                // the first slot holds the count
+                for (int i = 1; i <= offsets[0]; i++) {
+                    spans.add(segment.read(offsets[i]));
+                }
+            }
+        }
+        Collections.sort(spans, new Comparator<RecentSpan>() {
+            @Override
+            public int compare(RecentSpan o1, RecentSpan o2) {
+                return Long.compare(o1.getStartTime(), o2.getStartTime());
+            }
+        });
+        return spans;
+    }
+
+    /**
+     * @param limit max spans returned
+     * @return the most recent error spans, newest first
+     */
+    public List<RecentSpan> getErrorSpans(int limit) {
+        return recent(limit, true);
+    }
+
+    /**
+     * @param limit max spans returned
+     * @return the most recent slow spans, newest first
+     */
+    public List<RecentSpan> getSlowSpans(int limit) {
+        return recent(limit, false);
+    }
+
+    /**
+     * @return occupancy and counters of the store
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<String, Object>();
+        long bytes = 0;
+        int spans = 0;
+        int traces = 0;
+        synchronized (segments) {
+            stats.put("segments", segments.size());
+            for (Segment segment : segments) {
+                bytes += segment.charged;
+                spans += segment.spans;
+                traces += segment.traces.size();
+            }
+        }
+        stats.put("bytes", bytes);
+        stats.put("maxBytes", segmentCapacity * SEGMENT_COUNT);
+        stats.put("spans", spans);
+        stats.put("traces", traces);
+        stats.put("queued", queue.size());
+        stats.put("spansStored", spansStored.sum());
+        stats.put("spansDropped", spansDropped.sum());
+        return stats;
+    }
+
+    private List<RecentSpan> recent(int limit, boolean error) {
+        List<RecentSpan> spans = new ArrayList<RecentSpan>();
+        synchronized (segments) {
+            Iterator<Segment> iterator = segments.descendingIterator();
+            while (iterator.hasNext() && spans.size() < limit) {
+                Segment segment = iterator.next();
+                int[] offsets = error ? segment.errors : segment.slow;
+                int count = error ? segment.errorCount : segment.slowCount;
+                for (int i = count - 1; i >= 0 && spans.size() < limit; i--) {
+                    spans.add(segment.read(offsets[i]));
+                }
+            }
+        }
+        return spans;
+    }
+
+    private void storeLoop() {
+        List<SofaTracerSpan> batch = new ArrayList<SofaTracerSpan>(256);
+        while (!closed) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, 255);
+                long now = System.currentTimeMillis();
+                for (SofaTracerSpan span : batch) {
+                    try {
+                        add(span, now);
+                    } finally {
+                        span.release();
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Throwable e) {
+                SelfLog.error("Fail to store recent spans", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Insert a span synchronously
+     * @param span finished span
+     * @param now current time millis
+     */
+    void add(SofaTracerSpan span, long now) {
+        SofaTracerSpanContext context = span.getSofaTracerSpanContext();
+        String traceId = context.getTraceId();
+        long startMicros = span.getStartTime() * 1000;
+        long durationMicros = span.getDurationMicros();
+        boolean error = isError(span);
+        byte[] record = encode(span, context, startMicros, durationMicros, error);
+        boolean slow = durationMicros >= slowThresholdMicros;
+        // record, its length prefix, and the worst case of the index entries
+        long charge = record.length + 5 + INDEX_ENTRY_OVERHEAD + traceId.length() * 2
+                      + (error ? 4 : 0) + (slow ? 4 : 0);
+        if (charge > segmentCapacity) {
+            spansDropped.increment();
+            return;
+        }
+        synchronized (segments) {
+            Segment segment = segments.peekLast();
+            if (segment == null || segment.charged + charge > segmentCapacity
+                || now - segment.createdAt >= segmentAgeMillis) {
+                segment = new Segment(now, segmentCapacity);
+                segments.addLast(segment);
+                if (segments.size() > SEGMENT_COUNT) {
+                    segments.removeFirst();
+                }
+            }
+            while (segments.size() > 1 && now - segments.peekFirst().createdAt > retentionMillis) {
+                segments.removeFirst();
+            }
+            segment.add(traceId, record, error, slow);
+        }
+        spansStored.increment();
+    }
+
+    private static boolean isError(SofaTracerSpan span) {
+        if (Boolean.TRUE.equals(span.getTagsWithBool().get(Tags.ERROR.getKey()))) {
+            return true;
+        }
+        return StringUtils.isNotBlank(span.getTagsWithStr().get(Tags.ERROR.getKey()));
+    }
+
+    private static byte[] encode(SofaTracerSpan span, SofaTracerSpanContext context,
+                                 long startMicros, long durationMicros, boolean error) {
+        RecordWriter writer = new RecordWriter();
+        writer.writeString(context.getTraceId());
+        writer.writeString(context.getSpanId());
+        writer.writeString(context.getParentId());
+        writer.writeString(span.getOperationName());
+        writer.writeString(span.getLogType());
+        writer.writeLong(startMicros);
+        writer.writeLong(durationMicros);
+        writer.writeLong(error ? 1 : 0);
+        Map<String, String> tagsWithStr = span.getTagsWithStr();
+        Map<String, Number> tagsWithNumber = span.getTagsWithNumber();
+        Map<String, Boolean> tagsWithBool = span.getTagsWithBool();
+        writer.writeLong(tagsWithStr.size() + tagsWithNumber.size() + tagsWithBool.size());
+        for (Map.Entry<String, String> entry : tagsWithStr.entrySet()) {
+            writer.writeString(entry.getKey());
+            writer.writeString(entry.getValue());
+        }
+        for (Map.Entry<String, Number> entry : tagsWithNumber.entrySet()) {
+            writer.writeString(entry.getKey());
+            writer.writeString(String.valueOf(entry.getValue()));
+        }
+        for (Map.Entry<String, Boolean> entry : tagsWithBool.entrySet()) {
+            writer.writeString(entry.getKey());
+            writer.writeString(String.valueOf(entry.getValue()));
+        }
+        return writer.toByteArray();
+    }
+
+    /**
+     * Append only buffer of records, with its indexes. Records are length prefixed.
+     */
+    private static class Segment {
+
+        private final long               createdAt;
+        private final long               capacity;
+        private final Map<String, int[]> traces = new HashMap<String, int[]>();
+        private byte[]                   data   = new byte[4096];
+        private int                      size;
+        private long                     charged;
+        private int                      spans;
+        private int[]                    errors = new int[16];
+        private int                      errorCount;
+        private int[]                    slow   = new int[16];
+        private int                      slowCount;
+
+        Segment(long createdAt, long capacity) {
+            this.createdAt = createdAt;
+            this.capacity = capacity;
+        }
+
+        void add(String traceId, byte[] record, boolean error, boolean slowSpan) {
+            int offset = size;
+            ensureCapacity(5 + record.length);
+            size = RecordWriter.putVarint(data, size, record.length);
+            System.arraycopy(record, 0, data, size, record.length);
+            size += record.length;
+            charged += size - offset;
+
+            int[] offsets = traces.get(traceId);
+            if (offsets == null) {
+                offsets = new int[] { 0, 0 };
+                charged += INDEX_ENTRY_OVERHEAD + traceId.length() * 2;
+            } else if (offsets[0] + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[++offsets[0]] = offset;
+            // array growth of the offsets is covered by the entry overhead for small traces
+            charged += 4;
+            traces.put(traceId, offsets);
+            if (error) {
+                if (errorCount == errors.length) {
+                    errors = Arrays.copyOf(errors, errors.length * 2);
+                }
+                errors[errorCount++] = offset;
+                charged += 4;
+            }
+            if (slowSpan) {
+                if (slowCount == slow.length) {
+                    slow = Arrays.copyOf(slow, slow.length * 2);
+                }
+                slow[slowCount++] = offset;
+                charged += 4;
+            }
+            spans++;
+        }
+
+        RecentSpan read(int offset) {
+            RecordReader reader = new RecordReader(data, offset);
+            int length = (int) reader.readLong();
+            int end = reader.position + length;
+            String traceId = reader.readString();
+            String spanId = reader.readString();
+            String parentId = reader.readString();
+            String operationName = reader.readString();
+            String logType = reader.readString();
+            long startTime = reader.readLong();
+            long duration = reader.readLong();
+            boolean error = reader.readLong() == 1;
+            int tagCount = (int) reader.readLong();
+            Map<String, String> tags = new LinkedHashMap<String, String>();
+            for (int i = 0; i < tagCount && reader.position < end; i++) {
+                tags.put(reader.readString(), reader.readString());
+            }
+            return new RecentSpan(traceId, spanId, parentId, operationName, logType, startTime,
+                duration, error, tags);
+        }
+
+        private void ensureCapacity(int length) {
+            if (size + length > data.length) {
+                // records are charged before they are added, so the data never outgrows the capacity
+                data = Arrays.copyOf(data,
+                    (int) Math.max(Math.min(data.length * 2L, capacity), size + length));
+            }
+        }
+    }
+
+    private static class RecordWriter {
+
+        private byte[] buffer = new byte[256];
+        private int    size;
+
+        void writeString(String value) {
+            if (value == null) {
+                writeLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeLong(bytes.length + 1);
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        void writeLong(long value) {
+            ensureCapacity(10);
+            size = putVarint(buffer, size, value);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        static int putVarint(byte[] buffer, int position, long value) {
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+            return position;
+        }
+
+        private void ensureCapacity(int length) {
+            if (size + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+            }
+        }
+    }
+
+    private static class RecordReader {
+
+        private final byte[] buffer;
+        private int          position;
+
+        RecordReader(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int shift = 0;; shift += 7) {
+                byte b = buffer[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        /**
+         * Length is stored plus one, zero stands for null
+         */
+        String readString() {
+            int length = (int) readLong();
+            if (length == 0) {
+                return null;
+            }
+            String value = new String(buffer, position, length - 1, StandardCharsets.UTF_8);
+            position += length - 1;
+            return value;
+        }
+    }
+}
@@ -123,8 +123,8 @@ public abstract class AbstractTracer {
             Map<String, String> bizBaggage = null;
             Map<String, String> sysBaggage = null;
             if (serverSpan != null) {
-                bizBaggage = serverSpan.getSofaTracerSpanContext().getBizBaggage();
-                sysBaggage = serverSpan.getSofaTracerSpanContext().getSysBaggage();
+                bizBaggage = serverSpan.getSofaTracerSpanContext().getBizBaggageSnapshot();
+                sysBaggage = serverSpan.getSofaTracerSpanContext().getSysBaggageSnapshot();
             }
             clientSpan = this.errorRecover(bizBaggage, sysBaggage);
         } finally {
@@ -153,11 +153,13 @@ public abstract class AbstractTracer {
         if (clientSpan == null) {
             return;
         }
+        // read before finishing, a recycled span is not to be used after
+        SofaTracerSpan parentSpan = clientSpan.getParentSofaTracerSpan();
         // finish and to report
         this.clientReceiveTagFinish(clientSpan, resultCode);
         // restore parent span
-        if (clientSpan.getParentSofaTracerSpan() != null) {
-            sofaTraceContext.push(clientSpan.getParentSofaTracerSpan());
+        if (parentSpan != null) {
+            sofaTraceContext.push(parentSpan);
         }
     }
 
@@ -215,8 +217,8 @@ public abstract class AbstractTracer {
             Map<String, String> bizBaggage = null;
             Map<String, String> sysBaggage = null;
             if (serverSpan != null) {
-                bizBaggage = serverSpan.getSofaTracerSpanContext().getBizBaggage();
-                sysBaggage = serverSpan.getSofaTracerSpanContext().getSysBaggage();
+                bizBaggage = serverSpan.getSofaTracerSpanContext().getBizBaggageSnapshot();
+                sysBaggage = serverSpan.getSofaTracerSpanContext().getSysBaggageSnapshot();
             }
             newSpan = this.errorRecover(bizBaggage, sysBaggage);
         } finally {
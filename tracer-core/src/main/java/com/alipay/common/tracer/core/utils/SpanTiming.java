@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.utils;
+
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+
+import java.math.BigDecimal;
+
+/**
+ * High resolution timing of the spans, see
+ * {@link SofaTracerConfiguration#TRACER_HIGH_RESOLUTION_TIMING_ENABLED}.
+ * <p>
+ * When enabled the wall clock start time of a span is read once and its duration is measured
+ * with {@link System#nanoTime()}, so it is monotonic and keeps sub millisecond durations. The
+ * costs in the digest and stat logs are then printed in milliseconds with three decimals,
+ * e.g. {@code 0.125ms} instead of {@code 0ms}.
+ *
+ * @since 3.1.10
+ */
+public final class SpanTiming {
+
+    private SpanTiming() {
+    }
+
+    /**
+     * Read on each use, so that a configuration set after the first span is applied
+     * @return true if the high resolution timing is enabled
+     */
+    public static boolean isHighResolution() {
+        return Boolean.parseBoolean(SofaTracerConfiguration
+            .getProperty(SofaTracerConfiguration.TRACER_HIGH_RESOLUTION_TIMING_ENABLED));
+    }
+
+    /**
+     * @param micros microseconds
+     * @return milliseconds with three decimals, e.g. {@code 1.250}
+     */
+    public static String formatMillis(long micros) {
+        return BigDecimal.valueOf(micros, 3).toPlainString();
+    }
+
+    /**
+     * Cost of a span as printed in the digest logs, without unit
+     *
+     * @param span finished span
+     * @return milliseconds, with three decimals if high resolution timing is enabled
+     */
+    public static String formatCost(SofaTracerSpan span) {
+        if (isHighResolution()) {
+            return formatMillis(span.getDurationMicros());
+        }
+        return String.valueOf(span.getEndTime() - span.getStartTime());
+    }
+
+    /**
+     * Cost of an operation measured by the caller, e.g. a serialization, to be set as a
+     * number tag
+     *
+     * @param nanos nanoseconds measured with {@link System#nanoTime()}
+     * @return milliseconds, with three decimals if high resolution timing is enabled
+     */
+    public static Number millisCost(long nanos) {
+        if (isHighResolution()) {
+            return BigDecimal.valueOf(nanos / 1000, 3);
+        }
+        return nanos / 1000000;
+    }
+}
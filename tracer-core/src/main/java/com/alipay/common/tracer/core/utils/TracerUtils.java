@@ -188,14 +188,42 @@ public class TracerUtils {
         return new LogReserveConfig(day, hour);
     }
 
+    /**
+     * Parse a log size like 104857600, 512KB, 100MB or 10GB
+     * @param logSize log size config
+     * @return bytes, or 0 if blank or invalid
+     */
+    public static long parseLogSize(String logSize) {
+        if (StringUtils.isBlank(logSize)) {
+            return 0;
+        }
+        String size = logSize.trim().toUpperCase();
+        long unit = 1;
+        if (size.endsWith("KB")) {
+            unit = 1024L;
+        } else if (size.endsWith("MB")) {
+            unit = 1024L * 1024;
+        } else if (size.endsWith("GB")) {
+            unit = 1024L * 1024 * 1024;
+        }
+        if (unit > 1) {
+            size = size.substring(0, size.length() - 2).trim();
+        }
+        try {
+            long value = Long.parseLong(size);
+            return value > 0 ? value * unit : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     public static boolean isLoadTest(SofaTracerSpan sofaTracerSpan) {
         if (sofaTracerSpan == null || sofaTracerSpan.getSofaTracerSpanContext() == null) {
             return false;
         } else {
             SofaTracerSpanContext spanContext = sofaTracerSpan.getSofaTracerSpanContext();
-            Map<String, String> baggage = spanContext.getBizBaggage();
-            return SofaTracerConstant.LOAD_TEST_VALUE.equals(baggage
-                .get(SofaTracerConstant.LOAD_TEST_TAG));
+            return SofaTracerConstant.LOAD_TEST_VALUE.equals(spanContext
+                .getBizBaggageItem(SofaTracerConstant.LOAD_TEST_TAG));
         }
     }
 
@@ -81,15 +81,35 @@ public class DesensitizationHelper {
      * @return
      */
     public static String desensitize(String str) {
+        Desensitizer desensitizer = getEnabledDesensitizer();
         // disabled return original str
-        if (!enabled()) {
+        if (desensitizer == null) {
             return str;
         }
+        return desensitize(desensitizer, str);
+    }
+
+    /**
+     * The desensitizer to use, results of the same desensitizer can be cached
+     *
+     * @return the desensitizer, null if desensitization is disabled
+     */
+    public static Desensitizer getEnabledDesensitizer() {
         Desensitizer desensitizer = DesensitizationHelper.desensitizer;
-        if (desensitizer == null) {
-            return str;
+        if (desensitizer == null || !enabled()) {
+            return null;
         }
+        return desensitizer;
+    }
 
+    /**
+     * Desensitize str with the desensitizer got from {@link #getEnabledDesensitizer()}
+     *
+     * @param desensitizer
+     * @param str
+     * @return
+     */
+    public static String desensitize(Desensitizer desensitizer, String str) {
         try {
             return desensitizer.desensitize(str);
         } catch (Throwable e) {
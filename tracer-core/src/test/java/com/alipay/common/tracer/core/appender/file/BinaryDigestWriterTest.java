@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.appender.TracerLogRootDaemon;
+import com.alipay.common.tracer.core.appender.builder.JsonStringBuilder;
+import com.alipay.common.tracer.core.appender.builder.XStringBuilder;
+import com.alipay.common.tracer.core.appender.self.Timestamp;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.middleware.parent.AbstractDigestSpanEncoder;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @since 3.1.10
+ */
+public class BinaryDigestWriterTest {
+
+    private static final String[]                  LINES   = {
+            "{\"time\":\"2023-10-18 10:22:33.123\",\"local.app\":\"client\",\"traceId\":\"0a0fe8801697595353123100133456\","
+                    + "\"spanId\":\"0.1\",\"span.kind\":\"client\",\"result.code\":\"00\",\"current.thread.name\":\"main\","
+                    + "\"time.cost.milliseconds\":\"12ms\",\"count\":3,\"tags\":{\"a\":\"b,c\"},\"sys.baggage\":\"\",\"biz.baggage\":\"\"}\n",
+            "2024-02-29 23:59:59.999,client,0a0fe8801697595353123100133457,0.1.1,client,00,main,0ms,,中文,-1,007,\n",
+            "", "no new line", ",,,", "\"", "\"\"", "}", "\"a\":", "\"a\":\"}", "x\n\n",
+            "1999-13-01 00:00:00.000\n"                   };
+
+    private static final AbstractDigestSpanEncoder ENCODER = new AbstractDigestSpanEncoder() {
+                                                               @Override
+                                                               protected void appendComponentSlot(XStringBuilder xsb,
+                                                                                                  JsonStringBuilder jsb,
+                                                                                                  SofaTracerSpan span) {
+                                                                   if (jsb != null) {
+                                                                       jsb.append("count", 3);
+                                                                       jsb.append("negative", -1L);
+                                                                       jsb.append("cost", "12ms");
+                                                                       jsb.append("text",
+                                                                           "x,\"y\"}");
+                                                                       jsb.append("object",
+                                                                           "{\"a\":\"b,c\"}");
+                                                                       jsb.append("missing", null);
+                                                                       jsb.append("flag", true);
+                                                                   } else {
+                                                                       xsb.append(3);
+                                                                       xsb.append(-1L);
+                                                                       xsb.append("12ms");
+                                                                       xsb.appendEscape("x,\"y\"}");
+                                                                       xsb.append((String) null);
+                                                                       xsb.append(1L, '|')
+                                                                           .append(2L, "&")
+                                                                           .appendRaw("raw")
+                                                                           .append('c');
+                                                                   }
+                                                               }
+                                                           };
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryDigestWriter writer = new BinaryDigestWriter(64, 4);
+        List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < 10; i++) {
+            for (String line : LINES) {
+                writer.write(out, line);
+                expected.add(line);
+            }
+            if (i == 5) {
+                writer.newBlock();
+            }
+        }
+        BinaryDigestReader reader = new BinaryDigestReader(new ByteArrayInputStream(
+            out.toByteArray()));
+        for (String line : expected) {
+            Assert.assertEquals(line, reader.readLine());
+        }
+        Assert.assertNull(reader.readLine());
+    }
+
+    @Test
+    public void testEncodeSpan() throws IOException {
+        SofaTracerSpan span = createSpan();
+        String json = SofaTracerConfiguration
+            .getProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT);
+        try {
+            for (String jsonFormat : new String[] { "true", "false" }) {
+                SofaTracerConfiguration.setProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT,
+                    jsonFormat);
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                BinaryDigestWriter writer = new BinaryDigestWriter();
+                writer.write(out, span, ENCODER);
+                writer.write(out, span, ENCODER);
+                BinaryDigestReader reader = new BinaryDigestReader(new ByteArrayInputStream(
+                    out.toByteArray()));
+                String line = ENCODER.encode(span);
+                Assert.assertEquals(line, reader.readLine());
+                Assert.assertEquals(line, reader.readLine());
+                Assert.assertNull(reader.readLine());
+            }
+        } finally {
+            SofaTracerConfiguration.setProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT,
+                json == null ? "" : json);
+        }
+    }
+
+    private static SofaTracerSpan createSpan() {
+        SofaTracerSpanContext spanContext = new SofaTracerSpanContext(
+            "0a0fe8801697595353123100133456", "0.1", "0", false);
+        SofaTracerSpan span = new SofaTracerSpan(new SofaTracer.Builder("binaryTest").build(),
+            System.currentTimeMillis() - 12, "binaryTest", spanContext, null);
+        span.setTag("remote.app", "server");
+        span.setEndTime(span.getStartTime() + 12);
+        spanContext.setBizBaggageItem("key", "a,b");
+        return span;
+    }
+
+    @Test
+    public void testEncodeFailure() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryDigestWriter writer = new BinaryDigestWriter();
+        try {
+            writer.write(out, "dropped", (span, binary) -> {
+                binary.appendText(span);
+                throw new IllegalStateException(span);
+            });
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+        }
+        writer.write(out, "dropped,kept\n", (span, binary) -> {
+            binary.appendText("dropped");
+            binary.appendText("kept");
+            binary.endLine();
+        });
+        BinaryDigestReader reader = new BinaryDigestReader(new ByteArrayInputStream(
+            out.toByteArray()));
+        Assert.assertEquals("dropped,kept\n", reader.readLine());
+        Assert.assertNull(reader.readLine());
+    }
+
+    @Test
+    public void testSmallerThanText() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryDigestWriter writer = new BinaryDigestWriter();
+        int textBytes = 0;
+        for (int i = 0; i < 1000; i++) {
+            String line = LINES[0].replace("33456", String.valueOf(10000 + i));
+            textBytes += line.getBytes(StandardCharsets.UTF_8).length;
+            writer.write(out, line);
+        }
+        Assert.assertTrue(out.size() * 2 < textBytes);
+    }
+
+    @Test
+    public void testTimestamp() {
+        long now = System.currentTimeMillis();
+        for (long time = now - 1000L * 86400 * 800; time < now; time += 86400 * 1000L + 3601001) {
+            String formatted = Timestamp.format(time);
+            Assert.assertEquals(formatted,
+                BinaryDigestFormat.formatTimestamp(BinaryDigestFormat.parseTimestamp(formatted)));
+        }
+        Assert.assertEquals(Long.MIN_VALUE,
+            BinaryDigestFormat.parseTimestamp("2023-02-29 00:00:00.000"));
+    }
+
+    @Test
+    public void testAppender() throws IOException {
+        String fileName = BinaryTimedRollingFileAppender.binaryFileName("binary-test.log");
+        Assert.assertEquals("binary-test.bin.log", fileName);
+        File file = new File(TracerLogRootDaemon.LOG_FILE_DIR + File.separator + fileName);
+        FileUtils.deleteQuietly(file);
+        BinaryTimedRollingFileAppender appender = new BinaryTimedRollingFileAppender(fileName,
+            TimedRollingFileAppender.DAILY_ROLLING_PATTERN, "");
+        appender.append(LINES[0]);
+        appender.flush();
+        // a restarted writer appends a new block
+        appender = new BinaryTimedRollingFileAppender(fileName,
+            TimedRollingFileAppender.DAILY_ROLLING_PATTERN, "");
+        appender.append(LINES[1]);
+        SofaTracerSpan span = createSpan();
+        appender.append(span, ENCODER);
+        appender.flush();
+        BinaryDigestReader reader = new BinaryDigestReader(new FileInputStream(file));
+        try {
+            Assert.assertEquals(LINES[0], reader.readLine());
+            Assert.assertEquals(LINES[1], reader.readLine());
+            Assert.assertEquals(ENCODER.encode(span), reader.readLine());
+            Assert.assertNull(reader.readLine());
+        } finally {
+            reader.close();
+        }
+    }
+}
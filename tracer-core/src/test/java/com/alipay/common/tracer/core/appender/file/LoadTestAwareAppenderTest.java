@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import com.alipay.common.tracer.core.appender.TracerLogRootDaemon;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+
+/**
+ * LoadTestAwareAppenderTest
+ *
+ * @since 3.1.10
+ */
+public class LoadTestAwareAppenderTest {
+
+    private static final String LOG_NAME = "lazy-load-test-aware.log";
+
+    private File                file;
+
+    private File                shadowFile;
+
+    @Before
+    public void setUp() throws Exception {
+        file = new File(TracerLogRootDaemon.LOG_FILE_DIR, LOG_NAME);
+        shadowFile = new File(TracerLogRootDaemon.LOG_FILE_DIR, "shadow" + File.separator
+                                                                + LOG_NAME);
+        FileUtils.deleteQuietly(file);
+        FileUtils.deleteQuietly(shadowFile);
+    }
+
+    @After
+    public void tearDown() {
+        SofaTracerConfiguration.removeProperty(SofaTracerConfiguration.TRACER_LAZY_STARTUP_ENABLED);
+        FileUtils.deleteQuietly(file);
+        FileUtils.deleteQuietly(shadowFile);
+    }
+
+    @Test
+    public void testEagerFiles() throws Exception {
+        LoadTestAwareAppender appender = LoadTestAwareAppender
+            .createLoadTestAwareTimedRollingFileAppender(LOG_NAME, "", "");
+        Assert.assertTrue(file.exists());
+        Assert.assertTrue(shadowFile.exists());
+        appender.cleanup();
+    }
+
+    @Test
+    public void testLazyFiles() throws Exception {
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_LAZY_STARTUP_ENABLED,
+            "true");
+        LoadTestAwareAppender appender = LoadTestAwareAppender
+            .createLoadTestAwareTimedRollingFileAppender(LOG_NAME, "", "");
+        appender.flush();
+        Assert.assertFalse(file.exists());
+        Assert.assertFalse(shadowFile.exists());
+
+        appender.append("normal\n", false);
+        appender.flush();
+        Assert.assertEquals("normal\n", FileUtils.readFileToString(file));
+        Assert.assertFalse(shadowFile.exists());
+
+        appender.append("load test\n", true);
+        appender.flush();
+        Assert.assertEquals("load test\n", FileUtils.readFileToString(shadowFile));
+        appender.cleanup();
+    }
+}
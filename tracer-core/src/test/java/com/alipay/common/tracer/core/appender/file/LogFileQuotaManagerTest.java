@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import com.alipay.common.tracer.core.appender.TracerLogRootDaemon;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.utils.TracerUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * @since 3.1.10
+ */
+public class LogFileQuotaManagerTest {
+
+    private final File dir = new File(TracerLogRootDaemon.LOG_FILE_DIR, "quota-test");
+
+    @Before
+    public void before() {
+        FileUtils.deleteQuietly(dir);
+        SofaTracerConfiguration
+            .setProperty(SofaTracerConfiguration.TRACER_LOG_MAX_FILE_SIZE, "1KB");
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_LOG_TOTAL_SIZE_CAP,
+            "4KB");
+    }
+
+    @After
+    public void after() {
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_LOG_MAX_FILE_SIZE, "");
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_LOG_TOTAL_SIZE_CAP, "");
+        LogFileQuotaManager.reset();
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testSizeRollingUnderQuota() throws IOException {
+        TimedRollingFileAppender appender = new TimedRollingFileAppender("quota-test"
+                                                                         + File.separator
+                                                                         + "quota-test.log",
+            TimedRollingFileAppender.DAILY_ROLLING_PATTERN, "");
+        TimedRollingFileAppender shadowAppender = new TimedRollingFileAppender("quota-test"
+                                                                               + File.separator
+                                                                               + "shadow"
+                                                                               + File.separator
+                                                                               + "quota-test.log",
+            TimedRollingFileAppender.DAILY_ROLLING_PATTERN, "");
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 99; i++) {
+            line.append('x');
+        }
+        line.append('\n');
+        for (int i = 0; i < 200; i++) {
+            appender.append(line.toString());
+            appender.flush();
+            shadowAppender.append(line.toString());
+            shadowAppender.flush();
+        }
+        File[] files = dir.listFiles();
+        Assert.assertNotNull(files);
+        // rolled by size with an index suffix
+        boolean indexed = false;
+        for (File file : files) {
+            indexed |= file.getName().matches("quota-test\\.log\\..*\\.\\d+");
+        }
+        Assert.assertTrue(indexed);
+        long total = FileUtils.sizeOfDirectory(dir);
+        // current files may exceed the size cap by one line before rolling
+        Assert.assertTrue(total + " bytes", total <= 4096 + 2 * 100);
+        Assert.assertTrue(LogFileQuotaManager.getRolledBytes() <= 4096);
+    }
+
+    @Test
+    public void testParseLogSize() {
+        Assert.assertEquals(100L * 1024 * 1024, TracerUtils.parseLogSize("100MB"));
+        Assert.assertEquals(2048L, TracerUtils.parseLogSize("2kb"));
+        Assert.assertEquals(123L, TracerUtils.parseLogSize("123"));
+        Assert.assertEquals(0L, TracerUtils.parseLogSize("abc"));
+        Assert.assertEquals(0L, TracerUtils.parseLogSize(null));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import com.alipay.common.tracer.core.appender.TracerLogRootDaemon;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * @since 3.1.10
+ */
+public class RolledFileCompressorTest {
+
+    private final File dir = new File(TracerLogRootDaemon.LOG_FILE_DIR, "compress-test");
+
+    @After
+    public void after() {
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_ROLLED_FILE_COMPRESSION,
+            "");
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testCompress() throws IOException {
+        File rolled = new File(dir, "compress-test.log.2020-01-01");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            content.append("2020-01-01 00:00:00.000,app,traceId").append(i).append('\n');
+        }
+        FileUtils.writeStringToFile(rolled, content.toString(), StandardCharsets.UTF_8);
+
+        RolledFileCompressor.compress(rolled, new GzipRolledFileCodec(), Long.MAX_VALUE / 1000);
+
+        File compressed = new File(dir, "compress-test.log.2020-01-01.gz");
+        Assert.assertFalse(rolled.exists());
+        Assert.assertFalse(new File(dir, "compress-test.log.2020-01-01.gz.tmp").exists());
+        Assert.assertTrue(compressed.length() < content.length());
+        InputStream in = new GZIPInputStream(new FileInputStream(compressed));
+        try {
+            Assert.assertEquals(content.toString(), IOUtils.toString(in, StandardCharsets.UTF_8));
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void testSuffix() {
+        Assert.assertNull(RolledFileCompressor.getCodec());
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_ROLLED_FILE_COMPRESSION,
+            "gzip");
+        Assert.assertTrue(RolledFileCompressor.getCodec() instanceof GzipRolledFileCodec);
+        Assert.assertTrue(RolledFileCompressor.isCompressed("a.log.2020-01-01.gz"));
+        Assert.assertEquals("a.log.2020-01-01",
+            RolledFileCompressor.stripSuffix("a.log.2020-01-01.gz"));
+        Assert.assertFalse(RolledFileCompressor.isCompressed("a.log.2020-01-01"));
+    }
+
+    @Test
+    public void testCleanupCompressedFiles() throws IOException {
+        String logName = "compress-test" + File.separator + "cleanup-test.log";
+        TimedRollingFileAppender appender = new TimedRollingFileAppender(logName,
+            TimedRollingFileAppender.DAILY_ROLLING_PATTERN, "1");
+        File expired = new File(dir, "cleanup-test.log.2020-01-01.gz");
+        File leftover = new File(dir, "cleanup-test.log.2020-01-02.gz.tmp");
+        FileUtils.writeStringToFile(expired, "x", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(leftover, "x", StandardCharsets.UTF_8);
+        appender.cleanup();
+        Assert.assertFalse(expired.exists());
+        Assert.assertFalse(leftover.exists());
+        Assert.assertTrue(new File(dir, "cleanup-test.log").exists());
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import com.alipay.common.tracer.core.appender.TracerLogRootDaemon;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SharedLogWriterTest
+ *
+ * @since 3.1.10
+ */
+public class SharedLogWriterTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = new File(TracerLogRootDaemon.LOG_FILE_DIR, "shared-log-writer");
+        FileUtils.deleteQuietly(dir);
+        Assert.assertTrue(dir.mkdirs());
+    }
+
+    @After
+    public void tearDown() {
+        SofaTracerConfiguration
+            .removeProperty(SofaTracerConfiguration.TRACER_SHARED_LOG_WRITER_ENABLED);
+        SofaTracerConfiguration.removeProperty(SofaTracerConfiguration.TRACER_LOG_MAX_FILE_SIZE);
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testInterleavedFiles() throws Exception {
+        SharedLogWriter writer = new SharedLogWriter(16, 64);
+        File first = new File(dir, "first.log");
+        File second = new File(dir, "second.log");
+        OutputStream firstStream = writer.open(first, true, len -> {});
+        OutputStream secondStream = writer.open(second, true, len -> {});
+        StringBuilder firstExpected = new StringBuilder();
+        StringBuilder secondExpected = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            String line = "line-" + i + "\n";
+            OutputStream stream = i % 3 == 0 ? secondStream : firstStream;
+            (i % 3 == 0 ? secondExpected : firstExpected).append(line);
+            stream.write(line.getBytes(StandardCharsets.UTF_8));
+            if (i % 7 == 0) {
+                stream.flush();
+            }
+        }
+        firstStream.flush();
+        secondStream.flush();
+        Assert.assertTrue(writer.sync(5, TimeUnit.SECONDS));
+        Assert.assertEquals(firstExpected.toString(), FileUtils.readFileToString(first));
+        Assert.assertEquals(secondExpected.toString(), FileUtils.readFileToString(second));
+        Assert.assertTrue(writer.getAllocatedChunks() <= writer.getMaxChunks());
+        firstStream.close();
+        secondStream.close();
+    }
+
+    @Test
+    public void testBoundedBuffers() throws Exception {
+        SharedLogWriter writer = new SharedLogWriter(8, 16);
+        File file = new File(dir, "bounded.log");
+        final long[] handedOff = new long[1];
+        OutputStream stream = writer.open(file, false, len -> handedOff[0] += len);
+        byte[] bytes = new byte[10000];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) ('a' + i % 26);
+        }
+        stream.write(bytes);
+        // close waits until everything is written
+        stream.close();
+        Assert.assertEquals(2, writer.getMaxChunks());
+        Assert.assertTrue(writer.getAllocatedChunks() <= 2);
+        Assert.assertEquals(bytes.length, handedOff[0]);
+        Assert.assertArrayEquals(bytes, FileUtils.readFileToByteArray(file));
+    }
+
+    @Test
+    public void testFlushKeepsPartialChunk() throws Exception {
+        SharedLogWriter writer = new SharedLogWriter(1024, 4096);
+        File file = new File(dir, "partial.log");
+        final long[] handedOff = new long[1];
+        OutputStream stream = writer.open(file, false, len -> handedOff[0] += len);
+        for (int i = 0; i < 10; i++) {
+            stream.write("line\n".getBytes(StandardCharsets.UTF_8));
+            stream.flush();
+        }
+        Assert.assertEquals(0, handedOff[0]);
+        // the partial chunk is taken by the writer, as on its timed flush
+        Assert.assertTrue(writer.sync(5, TimeUnit.SECONDS));
+        Assert.assertEquals(50, handedOff[0]);
+        Assert.assertEquals(50, file.length());
+        stream.close();
+    }
+
+    @Test
+    public void testRollingAppender() throws Exception {
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_SHARED_LOG_WRITER_ENABLED, "true");
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_LOG_MAX_FILE_SIZE,
+            "10");
+        TimedRollingFileAppender appender = new TimedRollingFileAppender("shared-log-writer"
+                                                                         + File.separator
+                                                                         + "rolling.log", true);
+        appender.append("first line\n");
+        appender.flush();
+        Assert.assertTrue(SharedLogWriter.getInstance().sync(5, TimeUnit.SECONDS));
+        Assert.assertEquals(11, appender.getFileSize());
+        // rolled by size, the first line is written before the file is renamed
+        appender.append("second line\n");
+        appender.flush();
+        Assert.assertTrue(SharedLogWriter.getInstance().sync(5, TimeUnit.SECONDS));
+
+        Assert.assertEquals("second line\n",
+            FileUtils.readFileToString(new File(dir, "rolling.log")));
+        File[] rolled = dir.listFiles((d, name) -> name.startsWith("rolling.log.")
+                                                   && name.endsWith(".1"));
+        Assert.assertNotNull(rolled);
+        Assert.assertEquals(1, rolled.length);
+        Assert.assertEquals("first line\n", FileUtils.readFileToString(rolled[0]));
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.file;
+
+import com.alipay.common.tracer.core.appender.TracerLogRootDaemon;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @since 3.1.10
+ */
+public class TraceIdIndexTest {
+
+    private final File dir = new File(TracerLogRootDaemon.LOG_FILE_DIR, "index-test");
+
+    @Before
+    public void before() {
+        FileUtils.deleteQuietly(dir);
+        SofaTracerConfiguration
+            .setProperty(SofaTracerConfiguration.TRACER_LOG_MAX_FILE_SIZE, "8KB");
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_TRACE_ID_INDEX_BLOCK_SIZE, "256");
+    }
+
+    @After
+    public void after() {
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_LOG_MAX_FILE_SIZE, "");
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_TRACE_ID_INDEX_BLOCK_SIZE, "");
+        FileUtils.deleteQuietly(dir);
+    }
+
+    @Test
+    public void testIndexRolledFiles() throws Exception {
+        TimedRollingFileAppender appender = new TimedRollingFileAppender("index-test"
+                                                                         + File.separator
+                                                                         + "index-test.log",
+            TimedRollingFileAppender.DAILY_ROLLING_PATTERN);
+        appender.enableTraceIdIndex();
+        List<String> expected = append(appender, 600, "trace0007");
+
+        File logFile = new File(dir, "index-test.log");
+        List<File> rolledFiles = rolledFiles(logFile);
+        Assert.assertTrue(rolledFiles.size() >= 2);
+        for (File rolledFile : rolledFiles) {
+            waitForIndex(rolledFile);
+            Assert.assertFalse(new File(rolledFile.getPath() + TraceIdIndex.PART_SUFFIX).exists());
+        }
+
+        List<String> found = TraceIdIndexQuery.find(logFile, "trace0007");
+        Collections.sort(expected);
+        Collections.sort(found);
+        Assert.assertEquals(expected, found);
+        Assert.assertTrue(TraceIdIndexQuery.find(logFile, "trace9999").isEmpty());
+
+        File indexFile = TraceIdIndex.indexFileOf(rolledFiles.get(0));
+        Assert.assertTrue(TraceIdIndexQuery.mightContain(indexFile, "trace0007"));
+        int falsePositives = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (TraceIdIndexQuery.mightContain(indexFile, "absent" + i)) {
+                falsePositives++;
+            }
+        }
+        Assert.assertTrue("false positives " + falsePositives, falsePositives < 50);
+    }
+
+    @Test
+    public void testFindInCompressedFile() throws Exception {
+        TimedRollingFileAppender appender = new TimedRollingFileAppender("index-test"
+                                                                         + File.separator
+                                                                         + "gzip-test.log",
+            TimedRollingFileAppender.DAILY_ROLLING_PATTERN);
+        appender.enableTraceIdIndex();
+        List<String> expected = append(appender, 200, "trace0011");
+
+        File logFile = new File(dir, "gzip-test.log");
+        for (File rolledFile : rolledFiles(logFile)) {
+            waitForIndex(rolledFile);
+            RolledFileCompressor.compress(rolledFile, new GzipRolledFileCodec(),
+                Long.MAX_VALUE / 1000);
+            Assert.assertTrue(TraceIdIndex.indexFileOf(
+                new File(rolledFile.getPath() + GzipRolledFileCodec.SUFFIX)).isFile());
+        }
+
+        List<String> found = TraceIdIndexQuery.find(logFile, "trace0011");
+        Collections.sort(expected);
+        Collections.sort(found);
+        Assert.assertEquals(expected, found);
+    }
+
+    @Test
+    public void testExistingFileNotIndexed() throws Exception {
+        File logFile = new File(dir, "existing-test.log");
+        FileUtils.writeStringToFile(logFile, "previous run,trace0003\n", StandardCharsets.UTF_8);
+        TimedRollingFileAppender appender = new TimedRollingFileAppender("index-test"
+                                                                         + File.separator
+                                                                         + "existing-test.log",
+            TimedRollingFileAppender.DAILY_ROLLING_PATTERN);
+        appender.enableTraceIdIndex();
+        Assert.assertFalse(new File(logFile.getPath() + TraceIdIndex.PART_SUFFIX).exists());
+        List<String> expected = append(appender, 200, "trace0003");
+        expected.add("previous run,trace0003");
+
+        // the first rolled file started with lines of the previous run
+        File first = rolledFiles(logFile).get(0);
+        Assert.assertFalse(new File(first.getPath() + TraceIdIndex.PART_SUFFIX).exists());
+        Assert.assertFalse(TraceIdIndex.indexFileOf(first).exists());
+
+        List<String> found = TraceIdIndexQuery.find(logFile, "trace0003");
+        Collections.sort(expected);
+        Collections.sort(found);
+        Assert.assertEquals(expected, found);
+    }
+
+    @Test
+    public void testCleanupIndexFiles() throws IOException {
+        TimedRollingFileAppender appender = new TimedRollingFileAppender("index-test"
+                                                                         + File.separator
+                                                                         + "cleanup-test.log",
+            TimedRollingFileAppender.DAILY_ROLLING_PATTERN, "1");
+        File expired = new File(dir, "cleanup-test.log.2020-01-01");
+        File expiredIndex = new File(dir, "cleanup-test.log.2020-01-01.idx");
+        File orphanIndex = new File(dir, "cleanup-test.log.2020-01-02.idx");
+        File leftover = new File(dir, "cleanup-test.log.2020-01-01.idx.new");
+        for (File file : new File[] { expired, expiredIndex, orphanIndex, leftover }) {
+            FileUtils.writeStringToFile(file, "x", StandardCharsets.UTF_8);
+        }
+        appender.cleanup();
+        Assert.assertFalse(expired.exists());
+        Assert.assertFalse(expiredIndex.exists());
+        Assert.assertFalse(orphanIndex.exists());
+        Assert.assertFalse(leftover.exists());
+        Assert.assertTrue(new File(dir, "cleanup-test.log").exists());
+    }
+
+    /**
+     * Append lines of 50 traces, flushing each so the file is rolled by size
+     * @return the lines of the given trace
+     */
+    private List<String> append(TimedRollingFileAppender appender, int count, String traceId)
+                                                                                             throws IOException {
+        List<String> lines = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            String id = String.format("trace%04d", i % 50);
+            String line = "2020-01-01 00:00:00.000,app," + id + ",0.1,span-" + i;
+            appender.append(line + "\n", id);
+            appender.flush();
+            if (id.equals(traceId)) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private List<File> rolledFiles(File logFile) {
+        List<File> rolledFiles = new ArrayList<File>();
+        for (File file : TraceIdIndexQuery.listFiles(logFile)) {
+            if (!file.getName().equals(logFile.getName())) {
+                rolledFiles.add(file);
+            }
+        }
+        return rolledFiles;
+    }
+
+    private void waitForIndex(File rolledFile) throws InterruptedException {
+        File indexFile = TraceIdIndex.indexFileOf(rolledFile);
+        for (int i = 0; i < 500 && !indexFile.exists(); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(indexFile.getPath(), indexFile.isFile());
+    }
+}
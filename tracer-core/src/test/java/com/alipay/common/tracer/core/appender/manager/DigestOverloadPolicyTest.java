@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.manager;
+
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.constants.SofaTracerConstant;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * DigestOverloadPolicyTest
+ *
+ * @since 3.1.10
+ */
+public class DigestOverloadPolicyTest {
+
+    private static final long BUFFER_SIZE = 100;
+
+    @Test
+    public void testLevelsFollowOccupancyWithHysteresis() {
+        DigestOverloadPolicy policy = new DigestOverloadPolicy(50, 75, 90, 10, 8);
+        Assert.assertEquals(DigestOverloadPolicy.NORMAL, level(policy, 49));
+        Assert.assertEquals(DigestOverloadPolicy.SHED, level(policy, 50));
+        Assert.assertEquals(DigestOverloadPolicy.STATS_ONLY, level(policy, 80));
+        // stays until the occupancy falls below 75 - 10
+        Assert.assertEquals(DigestOverloadPolicy.STATS_ONLY, level(policy, 66));
+        Assert.assertEquals(DigestOverloadPolicy.SHED, level(policy, 64));
+        Assert.assertEquals(DigestOverloadPolicy.SHED, level(policy, 41));
+        Assert.assertEquals(DigestOverloadPolicy.NORMAL, level(policy, 39));
+    }
+
+    @Test
+    public void testMalformedWatermarkUsesDefault() {
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_OVERLOAD_SHED_WATERMARK, "fifty");
+        try {
+            Assert.assertEquals(50, DigestOverloadPolicy.parse(
+                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_OVERLOAD_SHED_WATERMARK, "50"));
+            DigestOverloadPolicy policy = new DigestOverloadPolicy();
+            Assert.assertEquals(DigestOverloadPolicy.NORMAL, level(policy, 49));
+            Assert.assertEquals(DigestOverloadPolicy.SHED, level(policy, 50));
+        } finally {
+            SofaTracerConfiguration
+                .removeProperty(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_OVERLOAD_SHED_WATERMARK);
+        }
+    }
+
+    @Test
+    public void testSampleIntervalAdapts() {
+        DigestOverloadPolicy policy = new DigestOverloadPolicy(50, 75, 90, 10, 8);
+        level(policy, 95);
+        Assert.assertEquals(DigestOverloadPolicy.INITIAL_SAMPLE_INTERVAL,
+            policy.getSampleInterval());
+        int sampled = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (policy.sample(BUFFER_SIZE, BUFFER_SIZE - 95)) {
+                sampled++;
+            }
+        }
+        Assert.assertTrue(sampled > 0);
+        Assert.assertEquals(DigestOverloadPolicy.MAX_SAMPLE_INTERVAL, policy.getSampleInterval());
+        for (int i = 0; i < 100000; i++) {
+            policy.sample(BUFFER_SIZE, BUFFER_SIZE - 70);
+        }
+        Assert.assertEquals(DigestOverloadPolicy.INITIAL_SAMPLE_INTERVAL,
+            policy.getSampleInterval());
+    }
+
+    @Test
+    public void testCompactInstance() {
+        SofaTracerSpan span = ManagerTestUtil.createSofaTracerSpan(1);
+        span.setTag("short", "abc");
+        span.setTag("long", "0123456789abcdef");
+        span.setTag("number", 1);
+        span.log("event");
+        span.setBaggageItem("biz", "value");
+        span.getSofaTracerSpanContext().setBizBaggageItem(SofaTracerConstant.LOAD_TEST_TAG,
+            SofaTracerConstant.LOAD_TEST_VALUE);
+
+        SofaTracerSpan compact = span.compactInstance(8);
+        Assert.assertEquals(span.getSofaTracerSpanContext().getTraceId(), compact
+            .getSofaTracerSpanContext().getTraceId());
+        Assert.assertEquals(span.getLogType(), compact.getLogType());
+        Assert.assertEquals("abc", compact.getTagsWithStr().get("short"));
+        Assert.assertEquals("01234567", compact.getTagsWithStr().get("long"));
+        Assert.assertEquals(1, compact.getTagsWithNumber().get("number"));
+        Assert.assertTrue(compact.getLogs().isEmpty());
+        Assert.assertNull(compact.getBaggageItem("biz"));
+        Assert.assertEquals(SofaTracerConstant.LOAD_TEST_VALUE, compact.getSofaTracerSpanContext()
+            .getBizBaggageItem(SofaTracerConstant.LOAD_TEST_TAG));
+        // the original span is untouched
+        Assert.assertEquals("0123456789abcdef", span.getTagsWithStr().get("long"));
+        Assert.assertFalse(span.getLogs().isEmpty());
+    }
+
+    private int level(DigestOverloadPolicy policy, long used) {
+        return policy.level(BUFFER_SIZE, BUFFER_SIZE - used);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.manager;
+
+import com.alipay.common.tracer.core.TestUtil;
+import com.alipay.common.tracer.core.appender.TraceAppender;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * ProducerBatchTest
+ *
+ * @since 3.1.10
+ */
+public class ProducerBatchTest {
+
+    private final List<String> lines = new CopyOnWriteArrayList<String>();
+
+    @After
+    public void tearDown() {
+        SofaTracerConfiguration
+            .removeProperty(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_PRODUCER_BATCH_SIZE);
+        SofaTracerConfiguration
+            .removeProperty(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_PRODUCER_BATCH_MAX_DELAY);
+        SofaTracerConfiguration
+            .removeProperty(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_ALLOW_DISCARD);
+    }
+
+    @Test
+    public void testBatchPublishedWhenFull() throws Exception {
+        AsyncCommonDigestAppenderManager manager = startManager("4", "60000");
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(manager.append(ManagerTestUtil.createSofaTracerSpan(1)));
+        }
+        Thread.sleep(200);
+        Assert.assertTrue(lines.isEmpty());
+
+        manager.append(ManagerTestUtil.createSofaTracerSpan(1));
+        TestUtil.periodicallyAssert(() -> Assert.assertEquals(4, lines.size()), 3000);
+
+        manager.append(ManagerTestUtil.createSofaTracerSpan(1));
+        manager.flush();
+        TestUtil.periodicallyAssert(() -> Assert.assertEquals(5, lines.size()), 3000);
+    }
+
+    @Test
+    public void testIdleBatchPublishedAfterMaxDelay() throws Exception {
+        AsyncCommonDigestAppenderManager manager = startManager("16", "20");
+        for (int i = 0; i < 3; i++) {
+            manager.append(ManagerTestUtil.createSofaTracerSpan(1));
+        }
+        TestUtil.periodicallyAssert(() -> Assert.assertEquals(3, lines.size()), 3000);
+    }
+
+    @Test
+    public void testConcurrentProducers() throws Exception {
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_ALLOW_DISCARD, "false");
+        final AsyncCommonDigestAppenderManager manager = startManager("8", "20");
+        final CountDownLatch countDownLatch = new CountDownLatch(8);
+        for (int i = 0; i < 8; i++) {
+            new Thread(() -> {
+                for (int j = 0; j < 101; j++) {
+                    manager.append(ManagerTestUtil.createSofaTracerSpan(1));
+                }
+                countDownLatch.countDown();
+            }).start();
+        }
+        countDownLatch.await();
+        // the last span of each thread is left to the flusher
+        TestUtil.periodicallyAssert(() -> Assert.assertEquals(808, lines.size()), 3000);
+    }
+
+    @Test
+    public void testMalformedConfigurationUsesDefaults() throws Exception {
+        // no batching by default, every span is published at once
+        AsyncCommonDigestAppenderManager manager = startManager("4x", "soon");
+        manager.append(ManagerTestUtil.createSofaTracerSpan(1));
+        TestUtil.periodicallyAssert(() -> Assert.assertEquals(1, lines.size()), 3000);
+    }
+
+    private AsyncCommonDigestAppenderManager startManager(String batchSize, String maxDelay) {
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_PRODUCER_BATCH_SIZE, batchSize);
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_PRODUCER_BATCH_MAX_DELAY, maxDelay);
+        AsyncCommonDigestAppenderManager manager = new AsyncCommonDigestAppenderManager(1024);
+        manager.start("ProducerBatchTest");
+        manager.addAppender("logType1", new TraceAppender() {
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void append(String log) {
+                lines.add(log);
+            }
+
+            @Override
+            public void cleanup() {
+            }
+        }, new ClientSpanEncoder());
+        return manager;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.appender.self;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @since 3.1.10
+ */
+public class SelfLogLimiterTest {
+
+    private final List<String> summaries = new ArrayList<String>();
+
+    @Test
+    public void testRepeatsSuppressed() {
+        SelfLogLimiter limiter = new SelfLogLimiter(summaries::add, true, 60000, 3);
+        IOException e = new IOException("No space left on device");
+        Assert.assertEquals(SelfLogLimiter.LOG,
+            limiter.acquire("[ERROR] ", "Failed to write file /home/a.log.1", e));
+        Assert.assertEquals(SelfLogLimiter.LOG_WITHOUT_STACK,
+            limiter.acquire("[ERROR] ", "Failed to write file /home/a.log.2", e));
+        Assert.assertEquals(SelfLogLimiter.LOG_WITHOUT_STACK,
+            limiter.acquire("[ERROR] ", "Failed to write file /home/a.log.3", e));
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(SelfLogLimiter.SUPPRESS,
+                limiter.acquire("[ERROR] ", "Failed to write file /home/a.log." + i, e));
+        }
+        // another exception type, level or message template is another fingerprint
+        Assert.assertEquals(SelfLogLimiter.LOG, limiter.acquire("[ERROR] ",
+            "Failed to write file /home/a.log.1", new IllegalStateException()));
+        Assert.assertEquals(SelfLogLimiter.LOG,
+            limiter.acquire("[WARN]  ", "Failed to write file /home/a.log.1", e));
+        Assert.assertEquals(SelfLogLimiter.LOG,
+            limiter.acquire("[ERROR] ", "Failed to flush file /home/a.log.1", e));
+        Assert.assertTrue(summaries.isEmpty());
+    }
+
+    @Test
+    public void testBracketedValuesIgnored() {
+        Assert.assertEquals(SelfLogLimiter.fingerprint("[ERROR] ",
+            "fail to write log,tracerId[0a1b2c];spanId[0.1]", null), SelfLogLimiter.fingerprint(
+            "[ERROR] ", "fail to write log,tracerId[ffee99];spanId[0.2.1]", null));
+        Assert.assertNotEquals(SelfLogLimiter.fingerprint("[ERROR] ", "fail to write log", null),
+            SelfLogLimiter.fingerprint("[ERROR] ", "fail to read log", null));
+    }
+
+    @Test
+    public void testSummaryAfterWindow() throws InterruptedException {
+        SelfLogLimiter limiter = new SelfLogLimiter(summaries::add, true, 50, 1);
+        Assert.assertEquals(SelfLogLimiter.LOG, limiter.acquire("[WARN]  ", "endpoint down", null));
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(SelfLogLimiter.SUPPRESS,
+                limiter.acquire("[WARN]  ", "endpoint down", null));
+        }
+        Thread.sleep(60);
+        limiter.summarize();
+        Assert.assertEquals(1, summaries.size());
+        Assert.assertTrue(summaries.get(0), summaries.get(0).contains("Suppressed 10 repeats"));
+        Assert.assertTrue(summaries.get(0).contains("endpoint down"));
+        // a new window logs again
+        Assert.assertEquals(SelfLogLimiter.LOG, limiter.acquire("[WARN]  ", "endpoint down", null));
+        limiter.summarize();
+        Assert.assertEquals(1, summaries.size());
+    }
+
+    @Test
+    public void testDisabled() {
+        SelfLogLimiter limiter = new SelfLogLimiter(summaries::add, false, 60000, 1);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(SelfLogLimiter.LOG,
+                limiter.acquire("[ERROR] ", "error", new RuntimeException()));
+        }
+    }
+}
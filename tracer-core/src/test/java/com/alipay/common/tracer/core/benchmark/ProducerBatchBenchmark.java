@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.benchmark;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.appender.TraceAppender;
+import com.alipay.common.tracer.core.appender.manager.AsyncCommonDigestAppenderManager;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of appending digests to the async appender from a growing number of threads,
+ * with and without producer batching. Each operation burns some CPU for the business work
+ * around a span, the encoder and the appender do nothing, so the ring buffer claim is the
+ * contended part. Discarding is allowed, check that the ring keeps up with the discard count
+ * of the RingBuffer MBean, a saturated ring only measures discarding.
+ *
+ * Compare the scores per thread count on a host with at least as many cores as the largest
+ * thread count, e.g. {@code -t 1,8,32,64}. With one core the producers never contend and both
+ * modes score the same.
+ *
+ * @since 3.1.10
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProducerBatchBenchmark {
+
+    private static final String              LOG_TYPE    = "benchmark";
+
+    private static final long                WORK_TOKENS = 200;
+
+    @Param({ "1", "16" })
+    private int                              batchSize;
+
+    private AsyncCommonDigestAppenderManager manager;
+
+    @Setup
+    public void setUp() {
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_PRODUCER_BATCH_SIZE,
+            String.valueOf(batchSize));
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_IS_OUT_DISCARD_NUMBER, "false");
+        manager = new AsyncCommonDigestAppenderManager(16384, 4);
+        manager.start("ProducerBatchBenchmark");
+        manager.addAppender(LOG_TYPE, new TraceAppender() {
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void append(String log) {
+            }
+
+            @Override
+            public void cleanup() {
+            }
+        }, span -> LOG_TYPE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.flush();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadSpan {
+
+        private SofaTracerSpan span;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            SofaTracerSpanContext spanContext = new SofaTracerSpanContext("traceId", "0");
+            span = new SofaTracerSpan(new SofaTracer.Builder("benchmark").build(),
+                System.currentTimeMillis(), "benchmark", spanContext, null);
+            span.setLogType(LOG_TYPE);
+        }
+    }
+
+    @Benchmark
+    public boolean append(ThreadSpan threadSpan) {
+        Blackhole.consumeCPU(WORK_TOKENS);
+        return manager.append(threadSpan.span);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[] { 1, 8, 32, 64 }) {
+            Options opt = new OptionsBuilder()
+                .include(ProducerBatchBenchmark.class.getSimpleName()).threads(threads).forks(1)
+                .build();
+            new Runner(opt).run();
+        }
+    }
+}
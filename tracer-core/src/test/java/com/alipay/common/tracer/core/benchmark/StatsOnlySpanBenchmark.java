@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.benchmark;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.span.CommonSpanTags;
+import com.alipay.common.tracer.core.span.LogData;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import io.opentracing.tag.Tags;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the allocation of a span of an unsampled trace, with the tags and logs a client
+ * plugin records, built as a full span and as a stats only span. Every parameter runs in its
+ * own fork since the configuration is read once.
+ *
+ * JDK 8, Linux, {@code -prof gc -f 1 -wi 5 -i 5}:
+ *
+ * <pre>
+ * Benchmark                                    (statsOnly)  Mode  Cnt     Score   Units
+ * startAndFinish                                     false  avgt    5   846.632   ns/op
+ * startAndFinish:gc.alloc.rate.norm                  false  avgt    5  1504.000    B/op
+ * startAndFinish:gc.count                            false  avgt    5   339.000  counts
+ * startAndFinish                                      true  avgt    5   807.054   ns/op
+ * startAndFinish:gc.alloc.rate.norm                   true  avgt    5   712.000    B/op
+ * startAndFinish:gc.count                             true  avgt    5   169.000  counts
+ * </pre>
+ *
+ * @since 3.1.10
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StatsOnlySpanBenchmark {
+
+    @Param({ "false", "true" })
+    private boolean               statsOnly;
+
+    private SofaTracer            sofaTracer;
+
+    private SofaTracerSpanContext unsampled;
+
+    @Setup
+    public void setUp() {
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_STATS_ONLY_SPAN_ENABLED,
+            String.valueOf(statsOnly));
+        sofaTracer = new SofaTracer.Builder("StatsOnlySpanBenchmark").withTag(
+            Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT).build();
+        unsampled = new SofaTracerSpanContext("0a0fe8ec1521087553061100110001", "0.1", "0", false);
+    }
+
+    @Benchmark
+    public void startAndFinish(Blackhole blackhole) {
+        SofaTracerSpan span = (SofaTracerSpan) sofaTracer.buildSpan("benchmark")
+            .asChildOf(unsampled).start();
+        span.log(LogData.CLIENT_SEND_EVENT_VALUE);
+        span.setTag(CommonSpanTags.LOCAL_APP, "app");
+        span.setTag(CommonSpanTags.REQUEST_URL, "/benchmark");
+        span.setTag(CommonSpanTags.METHOD, "GET");
+        span.setTag(CommonSpanTags.RESULT_CODE, "200");
+        span.setTag(CommonSpanTags.REQ_SIZE, 128);
+        span.log(LogData.CLIENT_RECV_EVENT_VALUE);
+        blackhole.consume(span.getSofaTracerSpanContext().getSpanId());
+        span.finish();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder().include(StatsOnlySpanBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class).forks(1).build();
+        new Runner(opt).run();
+    }
+}
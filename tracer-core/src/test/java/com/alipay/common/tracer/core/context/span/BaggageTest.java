@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.context.span;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @since 3.1.10
+ */
+public class BaggageTest {
+
+    @Test
+    public void testCopyOnWrite() {
+        Baggage empty = Baggage.EMPTY;
+        Baggage one = empty.with("k1", "v1");
+        Baggage two = one.with("k2", "v2");
+
+        assertEquals(0, empty.size());
+        assertEquals(1, one.size());
+        assertEquals(2, two.size());
+        assertSame(one, one.with("k1", "v1"));
+        assertSame(Baggage.EMPTY, one.without("k1"));
+        assertSame(one, empty.withAll(one));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        Baggage.EMPTY.with("k1", "v1").put("k2", "v2");
+    }
+
+    @Test
+    public void testSerializedFormIsMemoized() {
+        Baggage baggage = Baggage.EMPTY.with("k=1", "v&1");
+        String serialized = baggage.getSerialized();
+        assertEquals("k%3D1=v%261&", serialized);
+        assertSame(serialized, baggage.getSerialized());
+        assertSame(serialized, baggage.getDesensitizedSerialized());
+        assertEquals("_sys_k%3D1=v%261&", baggage.getSerialized("_sys_"));
+        assertSame(baggage.getSerialized("_sys_"), baggage.getSerialized("_sys_"));
+    }
+
+    @Test
+    public void testSharedByChildAndCloneUntilWritten() {
+        SofaTracer sofaTracer = new SofaTracer.Builder("BaggageTest").build();
+        SofaTracerSpan parent = (SofaTracerSpan) sofaTracer.buildSpan("parent").start();
+        parent.setBaggageItem("k1", "v1");
+        SofaTracerSpanContext parentContext = parent.getSofaTracerSpanContext();
+        SofaTracerSpanContext childContext = ((SofaTracerSpan) sofaTracer.buildSpan("child")
+            .asChildOf(parent).start()).getSofaTracerSpanContext();
+        SofaTracerSpanContext cloneContext = parentContext.cloneInstance();
+
+        assertSame(parentContext.getBizBaggageSnapshot(), childContext.getBizBaggageSnapshot());
+        assertSame(parentContext.getBizBaggageSnapshot(), cloneContext.getBizBaggageSnapshot());
+
+        childContext.setBizBaggageItem("k2", "v2");
+        assertNotSame(parentContext.getBizBaggageSnapshot(), childContext.getBizBaggageSnapshot());
+        assertNull(parentContext.getBizBaggageItem("k2"));
+        assertEquals("v2", childContext.getBizBaggageItem("k2"));
+        assertEquals("v1", childContext.getBizBaggageItem("k1"));
+        assertSame(parentContext.getBizBaggageSnapshot(), cloneContext.getBizBaggageSnapshot());
+    }
+
+    @Test
+    public void testMapViewWritesThrough() {
+        SofaTracerSpanContext context = new SofaTracerSpanContext("traceId", "0");
+        Map<String, String> view = context.getSysBaggage();
+        view.put("k1", "v1");
+        assertEquals("v1", context.getSysBaggageItem("k1"));
+        assertEquals("k1=v1&", context.getSysSerializedBaggage());
+
+        Baggage snapshot = context.getSysBaggageSnapshot();
+        view.remove("k1");
+        assertEquals(0, context.getSysBaggageSnapshot().size());
+        assertEquals("v1", snapshot.get("k1"));
+    }
+}
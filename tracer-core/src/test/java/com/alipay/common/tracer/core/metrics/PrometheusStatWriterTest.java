@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.metrics;
+
+import com.alipay.common.tracer.core.appender.file.TimedRollingFileAppender;
+import com.alipay.common.tracer.core.reporter.stat.AbstractSofaTracerStatisticReporter;
+import com.alipay.common.tracer.core.reporter.stat.manager.SofaTracerStatisticReporterCycleTimesManager;
+import com.alipay.common.tracer.core.reporter.stat.model.StatKey;
+import com.alipay.common.tracer.core.reporter.stat.model.StatMapKey;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+/**
+ * PrometheusStatWriterTest
+ *
+ * @since 3.1.10
+ */
+public class PrometheusStatWriterTest {
+
+    /**
+     * A cycle long enough for the printer not to switch the stat data during the test
+     */
+    private static final long CYCLE_IN_SECONDS = 7777;
+
+    @BeforeClass
+    public static void before() throws InterruptedException {
+        // the printer runs once as soon as its manager is created
+        SofaTracerStatisticReporterCycleTimesManager
+            .getSofaTracerStatisticReporterManager(CYCLE_IN_SECONDS);
+        Thread.sleep(200);
+    }
+
+    @Test
+    public void testWriteStatData() throws Exception {
+        TestStatReporter statReporter = new TestStatReporter();
+        StatMapKey statKey = new StatMapKey();
+        statKey.addKey("local.app", "app");
+        statKey.addKey("request.url", "/say\"hi\"");
+        statKey.setResult("Y");
+        statReporter.add(statKey, 1, 12);
+        statReporter.add(statKey, 1, 3);
+        StatKey loadTestKey = new StatKey();
+        loadTestKey.setKey("app,GET");
+        loadTestKey.setResult("N");
+        loadTestKey.setLoadTest(true);
+        statReporter.add(loadTestKey, 1, 1500);
+
+        StringWriter writer = new StringWriter();
+        new PrometheusStatWriter(writer).write();
+        String output = writer.toString();
+
+        Assert.assertTrue(output, output.contains("# TYPE sofatracer_stat_count gauge\n"));
+        Assert.assertTrue(output,
+            output.indexOf("# TYPE sofatracer_stat_cost_seconds gauge\n") > output
+                .indexOf("sofatracer_stat_count{stat=\"prometheus-stat.log\""));
+        Assert.assertTrue(output, output.contains("request_url=\"/say\\\"hi\\\"\""));
+        Assert.assertTrue(output, output.contains("local_app=\"app\""));
+        Assert.assertTrue(output, output.contains(",result=\"Y\",load_test=\"false\"} 2\n"));
+        Assert.assertTrue(output, output.contains(",result=\"Y\",load_test=\"false\"} 0.015\n"));
+        Assert.assertTrue(output, output
+            .contains("sofatracer_stat_count{stat=\"prometheus-stat.log\",key=\"app,GET\","
+                      + "result=\"N\",load_test=\"true\"} 1\n"));
+        Assert.assertTrue(output, output
+            .contains("sofatracer_stat_cost_seconds{stat=\"prometheus-stat.log\",key=\"app,GET\","
+                      + "result=\"N\",load_test=\"true\"} 1.500\n"));
+    }
+
+    @Test
+    public void testWriteDecimal() throws Exception {
+        StringWriter writer = new StringWriter();
+        PrometheusStatWriter prometheusStatWriter = new PrometheusStatWriter(writer);
+        prometheusStatWriter.writeDecimal(0, 0);
+        writer.write(' ');
+        prometheusStatWriter.writeDecimal(1250, 3);
+        writer.write(' ');
+        prometheusStatWriter.writeDecimal(7, 6);
+        writer.write(' ');
+        prometheusStatWriter.writeDecimal(Long.MAX_VALUE, 0);
+        Assert.assertEquals("0 1.250 0.000007 " + Long.MAX_VALUE, writer.toString());
+    }
+
+    static class TestStatReporter extends AbstractSofaTracerStatisticReporter {
+
+        TestStatReporter() {
+            super("prometheus-stat.log", CYCLE_IN_SECONDS, DEFAULT_CYCLE,
+                TimedRollingFileAppender.DAILY_ROLLING_PATTERN, "14");
+        }
+
+        @Override
+        public void doReportStat(SofaTracerSpan sofaTracerSpan) {
+        }
+
+        void add(StatKey statKey, long... values) {
+            addStat(statKey, values);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.metrics;
+
+import com.alipay.common.tracer.core.TestUtil;
+import com.alipay.common.tracer.core.appender.TraceAppender;
+import com.alipay.common.tracer.core.appender.TracerLogRootDaemon;
+import com.alipay.common.tracer.core.appender.file.TimedRollingFileAppender;
+import com.alipay.common.tracer.core.appender.manager.AsyncCommonDigestAppenderManager;
+import com.alipay.common.tracer.core.appender.manager.ClientSpanEncoder;
+import com.alipay.common.tracer.core.appender.manager.ManagerTestUtil;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * TracerMetricsTest
+ *
+ * @since 3.1.10
+ */
+public class TracerMetricsTest {
+
+    private static final String fileName = "tracer-metrics-test.log";
+
+    private static final String logType  = "tracerMetricsTest";
+
+    @Before
+    public void setUp() {
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_METRICS_ENABLED, "true");
+    }
+
+    @After
+    public void cleanup() {
+        SofaTracerConfiguration.removeProperty(SofaTracerConfiguration.TRACER_METRICS_ENABLED);
+        FileUtils.deleteQuietly(new File(TracerLogRootDaemon.LOG_FILE_DIR + File.separator
+                                         + fileName));
+    }
+
+    @Test
+    public void testDigestPipelineIsInstrumented() throws Exception {
+        AsyncCommonDigestAppenderManager manager = new AsyncCommonDigestAppenderManager(64);
+        manager.start("TracerMetricsTest");
+        TraceAppender appender = new TimedRollingFileAppender(fileName, true);
+        manager.addAppender(logType, appender, new ClientSpanEncoder());
+
+        for (int i = 0; i < 10; i++) {
+            SofaTracerSpan span = ManagerTestUtil.createSofaTracerSpan(1);
+            span.setLogType(logType);
+            Assert.assertTrue(manager.append(span));
+        }
+
+        final RingBufferMetrics ringBufferMetrics = TracerMetrics.getRingBuffers().get(
+            "TracerMetricsTest");
+        Assert.assertNotNull(ringBufferMetrics);
+        Assert.assertEquals(10, ringBufferMetrics.getPublishCount());
+        Assert.assertEquals(64, ringBufferMetrics.getBufferSize());
+
+        final LogTypeMetrics logTypeMetrics = TracerMetrics.getLogTypes().get(logType);
+        final AppenderMetrics appenderMetrics = TracerMetrics.getAppenders().get(
+            TracerLogRootDaemon.LOG_FILE_DIR + File.separator + fileName);
+        TestUtil.periodicallyAssert(() -> {
+            Assert.assertEquals(10, logTypeMetrics.getEncodeCount());
+            Assert.assertEquals(10, appenderMetrics.getAppendCount());
+            Assert.assertEquals(0, ringBufferMetrics.getConsumerLag());
+        }, 3000);
+        appender.flush();
+        Assert.assertTrue(appenderMetrics.getBytesWritten() > 0);
+        Assert.assertTrue(appenderMetrics.getWriteCalls() > 0);
+        long encoded = 0;
+        for (long count : logTypeMetrics.getEncodeHistogramBucketCounts()) {
+            encoded += count;
+        }
+        Assert.assertEquals(10, encoded);
+
+        Assert.assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(
+            TracerMetrics.objectName("RingBuffer", "TracerMetricsTest")));
+        Assert.assertEquals(10L, ManagementFactory.getPlatformMBeanServer().getAttribute(
+            TracerMetrics.objectName("LogType", logType), "EncodeCount"));
+
+        Map<String, Object> snapshot = TracerMetrics.snapshot();
+        Assert.assertTrue(((Map) snapshot.get("ringBuffers")).containsKey("TracerMetricsTest"));
+        Assert.assertTrue(((Map) snapshot.get("logTypes")).containsKey(logType));
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        SofaTracerConfiguration.removeProperty(SofaTracerConfiguration.TRACER_METRICS_ENABLED);
+        new AsyncCommonDigestAppenderManager(16).start("TracerMetricsDisabled");
+        Assert.assertFalse(TracerMetrics.getRingBuffers().containsKey("TracerMetricsDisabled"));
+        Assert.assertNull(TracerMetrics.appender("tracer-metrics-disabled.log"));
+    }
+
+    @Test
+    public void testSameWorkerNameIsSuffixed() {
+        new AsyncCommonDigestAppenderManager(16).start("TracerMetricsDuplicate");
+        new AsyncCommonDigestAppenderManager(16).start("TracerMetricsDuplicate");
+        Assert.assertTrue(TracerMetrics.getRingBuffers().containsKey("TracerMetricsDuplicate"));
+        Assert.assertTrue(TracerMetrics.getRingBuffers().containsKey("TracerMetricsDuplicate-2"));
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        Assert.assertEquals(0, LatencyHistogram.bucketIndex(999));
+        Assert.assertEquals(1, LatencyHistogram.bucketIndex(1000));
+        Assert.assertEquals(2, LatencyHistogram.bucketIndex(2000));
+        Assert.assertEquals(2, LatencyHistogram.bucketIndex(3999));
+        Assert.assertEquals(LatencyHistogram.BUCKET_SIZE - 1,
+            LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1500);
+        histogram.record(-1);
+        Assert.assertEquals(2, histogram.getCount());
+        Assert.assertEquals(1, histogram.getBucketCounts()[0]);
+        Assert.assertEquals(1, histogram.getBucketCounts()[1]);
+    }
+}
@@ -17,8 +17,12 @@
 package com.alipay.common.tracer.core.reporter.digest;
 
 import com.alipay.common.tracer.core.appender.manager.AsyncCommonDigestAppenderManager;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.reporter.digest.manager.SofaTracerDigestReporterAsyncManager;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.disruptor.BlockingWaitStrategy;
+import com.alipay.disruptor.LiteBlockingWaitStrategy;
+import com.alipay.disruptor.SleepingWaitStrategy;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -68,4 +72,42 @@ public class SofaTracerDigestReporterAsyncManagerTest {
         Assert.assertEquals(0, npeCount.get());
         Assert.assertEquals(testTimes, successCount.get());
     }
+
+    @Test
+    public void testGroupedLogTypesGetIsolatedManager() {
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_GROUP_PREFIX + "groupTest1.log",
+            "isolated");
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_GROUP_PREFIX + "groupTest2.log",
+            "isolated");
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_CONSUMER_NUMBER_PREFIX + "isolated", "1");
+        try {
+            AsyncCommonDigestAppenderManager defaultManager = SofaTracerDigestReporterAsyncManager
+                .getSofaTracerDigestReporterAsyncManager();
+            AsyncCommonDigestAppenderManager isolated = SofaTracerDigestReporterAsyncManager
+                .getSofaTracerDigestReporterAsyncManager("groupTest1.log");
+            Assert.assertNotSame(defaultManager, isolated);
+            Assert.assertSame(isolated, SofaTracerDigestReporterAsyncManager
+                .getSofaTracerDigestReporterAsyncManager("groupTest2.log"));
+            Assert.assertSame(defaultManager, SofaTracerDigestReporterAsyncManager
+                .getSofaTracerDigestReporterAsyncManager("groupTest3.log"));
+        } finally {
+            SofaTracerConfiguration.setProperty(
+                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_GROUP_PREFIX + "groupTest1.log", "");
+            SofaTracerConfiguration.setProperty(
+                SofaTracerConfiguration.TRACER_ASYNC_APPENDER_GROUP_PREFIX + "groupTest2.log", "");
+        }
+    }
+
+    @Test
+    public void testCreateWaitStrategy() {
+        Assert
+            .assertTrue(SofaTracerDigestReporterAsyncManager.createWaitStrategy("Lite-Blocking") instanceof LiteBlockingWaitStrategy);
+        Assert
+            .assertTrue(SofaTracerDigestReporterAsyncManager.createWaitStrategy("sleeping") instanceof SleepingWaitStrategy);
+        Assert
+            .assertTrue(SofaTracerDigestReporterAsyncManager.createWaitStrategy("unknown") instanceof BlockingWaitStrategy);
+    }
 }
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.span;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import io.opentracing.tag.Tags;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 3.1.10
+ */
+public class SpanRecyclerTest {
+
+    private SofaTracer sofaTracer;
+
+    @Before
+    public void setUp() {
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_SPAN_RECYCLING_ENABLED,
+            "true");
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_SPAN_RECYCLING_QUARANTINE, "0");
+        SpanRecycler.configure();
+        SpanRecycler.dropPool();
+        sofaTracer = new SofaTracer.Builder("SpanRecyclerTest").withTag(Tags.SPAN_KIND.getKey(),
+            Tags.SPAN_KIND_CLIENT).build();
+    }
+
+    @After
+    public void tearDown() {
+        SofaTracerConfiguration
+            .removeProperty(SofaTracerConfiguration.TRACER_SPAN_RECYCLING_ENABLED);
+        SofaTracerConfiguration
+            .removeProperty(SofaTracerConfiguration.TRACER_SPAN_RECYCLING_QUARANTINE);
+        SpanRecycler.configure();
+        SpanRecycler.dropPool();
+    }
+
+    @Test
+    public void testReuseAfterFinish() {
+        SofaTracerSpan span = start("first");
+        span.setTag("key", "value");
+        String spanId = span.getSofaTracerSpanContext().getSpanId();
+        String traceId = span.getSofaTracerSpanContext().getTraceId();
+        span.finish();
+
+        long reused = SpanRecycler.getReused();
+        SofaTracerSpan next = start("second");
+        assertSame(span, next);
+        assertEquals(reused + 1, SpanRecycler.getReused());
+        assertEquals("second", next.getOperationName());
+        assertNull(next.getTagsWithStr().get("key"));
+        assertEquals(-1, next.getEndTime());
+        assertNotEquals(traceId, next.getSofaTracerSpanContext().getTraceId());
+        assertEquals(spanId, next.getSofaTracerSpanContext().getSpanId());
+    }
+
+    @Test
+    public void testQuarantine() {
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_SPAN_RECYCLING_QUARANTINE, "60000");
+        SpanRecycler.configure();
+        SpanRecycler.dropPool();
+
+        SofaTracerSpan span = start("first");
+        span.finish();
+        assertNotSame(span, start("second"));
+    }
+
+    @Test
+    public void testRetainedSpanIsNotReused() {
+        SofaTracerSpan span = start("first");
+        span.retain();
+        span.finish();
+        SofaTracerSpan other = start("second");
+        assertNotSame(span, other);
+
+        span.release();
+        assertSame(span, start("third"));
+    }
+
+    @Test
+    public void testUseAfterReleaseEscapes() {
+        SofaTracerSpan span = start("first");
+        span.finish();
+
+        long escaped = SpanRecycler.getEscaped();
+        span.setTag("late", "value");
+        assertEquals(escaped + 1, SpanRecycler.getEscaped());
+        assertNotSame(span, start("second"));
+        assertEquals("value", span.getTagsWithStr().get("late"));
+    }
+
+    @Test
+    public void testReadAfterReleaseEscapes() {
+        SofaTracerSpan span = start("first");
+        span.setTag("key", "value");
+        span.finish();
+
+        long escaped = SpanRecycler.getEscaped();
+        assertEquals("value", span.getTagsWithStr().get("key"));
+        assertEquals(escaped + 1, SpanRecycler.getEscaped());
+        assertNotSame(span, start("second"));
+        assertEquals("first", span.getOperationName());
+    }
+
+    @Test
+    public void testStaleReadAfterReuse() {
+        SofaTracerSpan span = start("first");
+        int generation = span.getGeneration();
+        assertFalse(span.isStale(generation));
+        span.finish();
+
+        SofaTracerSpan next = start("second");
+        assertSame(span, next);
+        assertTrue(span.isStale(generation));
+        assertFalse(next.isStale(next.getGeneration()));
+    }
+
+    @Test
+    public void testParentKeptByChild() {
+        SofaTracerSpan parent = start("parent");
+        SofaTracerSpan child = (SofaTracerSpan) sofaTracer.buildSpan("child").asChildOf(parent)
+            .start();
+        child.setParentSofaTracerSpan(parent);
+        parent.finish();
+        child.finish();
+
+        // the child goes back first, its parent is only released when the child is reused
+        SofaTracerSpan first = start("first");
+        assertSame(child, first);
+        assertSame(parent, start("second"));
+    }
+
+    private SofaTracerSpan start(String operationName) {
+        return (SofaTracerSpan) sofaTracer.buildSpan(operationName).start();
+    }
+}
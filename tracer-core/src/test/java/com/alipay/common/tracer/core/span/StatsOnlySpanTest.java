@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.span;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.reporter.facade.Reporter;
+import io.opentracing.tag.Tags;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @since 3.1.10
+ */
+public class StatsOnlySpanTest {
+
+    private final List<SofaTracerSpan> reported = new ArrayList<SofaTracerSpan>();
+
+    private SofaTracer                 sofaTracer;
+
+    @Before
+    public void setUp() {
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_STATS_ONLY_SPAN_ENABLED,
+            "true");
+        StatsOnlySpan.configure();
+        sofaTracer = new SofaTracer.Builder("StatsOnlySpanTest").withClientReporter(new Reporter() {
+            @Override
+            public String getReporterType() {
+                return "StatsOnlySpanTest";
+            }
+
+            @Override
+            public void report(SofaTracerSpan span) {
+                reported.add(span);
+            }
+
+            @Override
+            public void close() {
+            }
+        }).build();
+    }
+
+    @After
+    public void tearDown() {
+        SofaTracerConfiguration
+            .removeProperty(SofaTracerConfiguration.TRACER_STATS_ONLY_SPAN_ENABLED);
+        StatsOnlySpan.configure();
+    }
+
+    @Test
+    public void testChildOfUnsampledContext() {
+        SofaTracerSpanContext parent = new SofaTracerSpanContext("traceId", "0.1", "0", false);
+        SofaTracerSpan span = (SofaTracerSpan) sofaTracer.buildSpan("child").asChildOf(parent)
+            .withTag(Tags.SPAN_KIND.getKey(), Tags.SPAN_KIND_CLIENT).withTag("tag", "builder")
+            .start();
+        assertTrue(span instanceof StatsOnlySpan);
+        assertTrue(span.isStatsOnly());
+        assertEquals("traceId", span.getSofaTracerSpanContext().getTraceId());
+        assertEquals("0.1.1", span.getSofaTracerSpanContext().getSpanId());
+        assertFalse(span.getSofaTracerSpanContext().isSampled());
+
+        span.setTag(CommonSpanTags.RESULT_CODE, "00");
+        span.setTag("count", 1);
+        span.setTag("error", false);
+        span.log(LogData.CLIENT_SEND_EVENT_VALUE);
+        span.log(Collections.singletonMap("event", "value"));
+        span.finish();
+
+        assertEquals(1, reported.size());
+        assertSame(span, reported.get(0));
+        assertEquals("builder", span.getTagsWithStr().get("tag"));
+        assertEquals("00", span.getTagsWithStr().get(CommonSpanTags.RESULT_CODE));
+        assertEquals(1, span.getTagsWithNumber().get("count"));
+        assertEquals(false, span.getTagsWithBool().get("error"));
+        assertTrue(span.getLogs().isEmpty());
+        assertTrue(span.getEndTime() >= span.getStartTime());
+    }
+
+    @Test
+    public void testSampledOrRootSpansAreNotStatsOnly() {
+        SofaTracerSpanContext parent = new SofaTracerSpanContext("traceId", "0.1", "0", true);
+        SofaTracerSpan child = (SofaTracerSpan) sofaTracer.buildSpan("child").asChildOf(parent)
+            .start();
+        assertFalse(child.isStatsOnly());
+        SofaTracerSpan root = (SofaTracerSpan) sofaTracer.buildSpan("root").start();
+        assertFalse(root.isStatsOnly());
+    }
+
+    @Test
+    public void testDisabled() {
+        SofaTracerConfiguration
+            .removeProperty(SofaTracerConfiguration.TRACER_STATS_ONLY_SPAN_ENABLED);
+        StatsOnlySpan.configure();
+        SofaTracerSpanContext parent = new SofaTracerSpanContext("traceId", "0.1", "0", false);
+        SofaTracerSpan span = (SofaTracerSpan) sofaTracer.buildSpan("child").asChildOf(parent)
+            .start();
+        assertFalse(span.isStatsOnly());
+        span.log(LogData.CLIENT_SEND_EVENT_VALUE);
+        assertEquals(1, span.getLogs().size());
+    }
+
+    @Test
+    public void testCompactTagMap() {
+        Map<String, String> tags = new CompactTagMap<String>();
+        for (int i = 0; i < 20; i++) {
+            assertNull(tags.put("key" + i, "value" + i));
+        }
+        assertEquals(20, tags.size());
+        assertEquals("value7", tags.put("key7", "changed"));
+        assertEquals("changed", tags.get("key7"));
+        assertEquals("value0", tags.remove("key0"));
+        assertFalse(tags.containsKey("key0"));
+        assertEquals(19, tags.size());
+        assertEquals("value19", tags.get("key19"));
+        assertEquals(19, tags.entrySet().size());
+        tags.clear();
+        assertTrue(tags.isEmpty());
+        assertNull(tags.get("key1"));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.store;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import io.opentracing.tag.Tags;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * @since 3.1.10
+ */
+public class RecentTraceStoreTest {
+
+    private final SofaTracer sofaTracer = new SofaTracer.Builder("storeTracerType").build();
+
+    private RecentTraceStore store;
+
+    @After
+    public void after() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    public void testTraceLookupAndSecondaryIndexes() {
+        store = new RecentTraceStore(1024 * 1024, 60000, 100, 16);
+        SofaTracerSpan root = span(null, "root", 10);
+        SofaTracerSpan slowChild = span(root, "slow", 200);
+        SofaTracerSpan errorChild = span(root, "error", 5);
+        // started within the same millisecond otherwise
+        slowChild.setStartTime(root.getStartTime() + 1);
+        slowChild.setEndTime(slowChild.getStartTime() + 200);
+        errorChild.setStartTime(root.getStartTime() + 2);
+        errorChild.setEndTime(errorChild.getStartTime() + 5);
+        errorChild.setTag(Tags.ERROR.getKey(), true);
+        errorChild.setTag("http.status_code", 500);
+        SofaTracerSpan other = span(null, "other", 1);
+        long now = System.currentTimeMillis();
+        store.add(slowChild, now);
+        store.add(errorChild, now);
+        store.add(other, now);
+        store.add(root, now);
+
+        List<RecentSpan> trace = store.getTrace(root.getSofaTracerSpanContext().getTraceId());
+        Assert.assertEquals(3, trace.size());
+        Assert.assertEquals("root", trace.get(0).getOperationName());
+        Assert.assertEquals(root.getStartTime() * 1000, trace.get(0).getStartTime());
+        Assert.assertEquals(10000, trace.get(0).getDuration());
+        RecentSpan error = null;
+        for (RecentSpan span : trace) {
+            Assert.assertEquals(root.getSofaTracerSpanContext().getTraceId(), span.getTraceId());
+            if (span.isError()) {
+                error = span;
+            }
+        }
+        Assert.assertNotNull(error);
+        Assert.assertEquals("500", error.getTags().get("http.status_code"));
+        Assert.assertEquals(errorChild.getSofaTracerSpanContext().getParentId(),
+            error.getParentId());
+
+        List<RecentSpan> errors = store.getErrorSpans(10);
+        Assert.assertEquals(1, errors.size());
+        Assert.assertEquals("error", errors.get(0).getOperationName());
+        List<RecentSpan> slow = store.getSlowSpans(10);
+        Assert.assertEquals(1, slow.size());
+        Assert.assertEquals("slow", slow.get(0).getOperationName());
+        Assert.assertTrue(store.getTrace("unknown").isEmpty());
+    }
+
+    @Test
+    public void testMalformedConfiguration() {
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_RECENT_TRACE_STORE_RETENTION, "ten");
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_RECENT_TRACE_STORE_SLOW_THRESHOLD, "-1");
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_RECENT_TRACE_STORE_QUEUE_SIZE, "0");
+        try {
+            store = RecentTraceStore.fromConfiguration();
+            SofaTracerSpan span = span(null, "fast", 500);
+            store.add(span, System.currentTimeMillis());
+            // the default retention and slow threshold of 1000ms apply
+            Assert.assertEquals(1, store.getTrace(span.getSofaTracerSpanContext().getTraceId())
+                .size());
+            Assert.assertTrue(store.getSlowSpans(10).isEmpty());
+        } finally {
+            SofaTracerConfiguration
+                .removeProperty(SofaTracerConfiguration.TRACER_RECENT_TRACE_STORE_RETENTION);
+            SofaTracerConfiguration
+                .removeProperty(SofaTracerConfiguration.TRACER_RECENT_TRACE_STORE_SLOW_THRESHOLD);
+            SofaTracerConfiguration
+                .removeProperty(SofaTracerConfiguration.TRACER_RECENT_TRACE_STORE_QUEUE_SIZE);
+        }
+    }
+
+    @Test
+    public void testMemoryBounded() {
+        long maxBytes = 64 * 1024;
+        store = new RecentTraceStore(maxBytes, 60000, 1000, 16);
+        long now = System.currentTimeMillis();
+        String firstTraceId = null;
+        for (int i = 0; i < 5000; i++) {
+            SofaTracerSpan span = span(null, "span" + i, 1);
+            span.setTag("payload", "0123456789012345678901234567890123456789");
+            if (firstTraceId == null) {
+                firstTraceId = span.getSofaTracerSpanContext().getTraceId();
+            }
+            store.add(span, now);
+            Assert.assertTrue((Long) store.getStats().get("bytes") <= maxBytes);
+        }
+        Assert.assertEquals(RecentTraceStore.SEGMENT_COUNT, store.getStats().get("segments"));
+        // the oldest segments were evicted
+        Assert.assertTrue(store.getTrace(firstTraceId).isEmpty());
+    }
+
+    @Test
+    public void testRetention() {
+        store = new RecentTraceStore(1024 * 1024, 8000, 1000, 16);
+        SofaTracerSpan old = span(null, "old", 1);
+        long now = System.currentTimeMillis();
+        store.add(old, now);
+        store.add(span(null, "recent", 1), now + 9000);
+        Assert.assertTrue(store.getTrace(old.getSofaTracerSpanContext().getTraceId()).isEmpty());
+        Assert.assertEquals(1, store.getStats().get("segments"));
+    }
+
+    @Test
+    public void testFedAsynchronously() throws InterruptedException {
+        store = new RecentTraceStore(1024 * 1024, 60000, 1000, 16);
+        SofaTracerSpan span = span(null, "async", 1);
+        store.onSpanReport(span);
+        String traceId = span.getSofaTracerSpanContext().getTraceId();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (store.getTrace(traceId).isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, store.getTrace(traceId).size());
+    }
+
+    private SofaTracerSpan span(SofaTracerSpan parent, String operationName, long duration) {
+        SofaTracer.SofaTracerSpanBuilder builder = (SofaTracer.SofaTracerSpanBuilder) sofaTracer
+            .buildSpan(operationName);
+        if (parent != null) {
+            builder.asChildOf(parent);
+        }
+        SofaTracerSpan span = (SofaTracerSpan) builder.start();
+        span.setEndTime(span.getStartTime() + duration);
+        return span;
+    }
+}
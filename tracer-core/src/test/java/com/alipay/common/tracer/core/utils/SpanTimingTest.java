@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.core.utils;
+
+import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SpanTiming Tester.
+ *
+ * @since 3.1.10
+ */
+public class SpanTimingTest {
+
+    private SofaTracer sofaTracer;
+
+    @Before
+    public void before() {
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_HIGH_RESOLUTION_TIMING_ENABLED, "true");
+        sofaTracer = new SofaTracer.Builder("spanTimingTest").build();
+    }
+
+    @After
+    public void after() {
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_HIGH_RESOLUTION_TIMING_ENABLED, "");
+    }
+
+    @Test
+    public void testFormatMillis() {
+        assertEquals("1.250", SpanTiming.formatMillis(1250));
+        assertEquals("0.007", SpanTiming.formatMillis(7));
+        assertEquals("0.000", SpanTiming.formatMillis(0));
+        assertEquals("12.000", SpanTiming.millisCost(12000999).toString());
+    }
+
+    @Test
+    public void testMonotonicDuration() throws InterruptedException {
+        SofaTracerSpan span = (SofaTracerSpan) sofaTracer.buildSpan("timing").start();
+        Thread.sleep(2);
+        span.finish();
+        long micros = span.getDurationMicros();
+        assertTrue(String.valueOf(micros), micros >= 2000);
+        assertEquals(span.getStartTime() + micros / 1000, span.getEndTime());
+        assertEquals(SpanTiming.formatMillis(micros), SpanTiming.formatCost(span));
+    }
+
+    @Test
+    public void testExplicitTimestamps() {
+        SofaTracerSpan span = (SofaTracerSpan) sofaTracer.buildSpan("timing")
+            .withStartTimestamp(111).start();
+        span.finish(222);
+        assertEquals(111000, span.getDurationMicros());
+        // kept as the difference of the millisecond timestamps
+        assertEquals(111, span.getDurationMicroseconds());
+        assertEquals("111.000", SpanTiming.formatCost(span));
+    }
+
+    @Test
+    public void testDisabled() {
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_HIGH_RESOLUTION_TIMING_ENABLED, "false");
+        SofaTracerSpan span = (SofaTracerSpan) sofaTracer.buildSpan("timing")
+            .withStartTimestamp(111).start();
+        span.finish(222);
+        assertEquals("111", SpanTiming.formatCost(span));
+        assertEquals(12L, SpanTiming.millisCost(12000999));
+    }
+}
@@ -31,6 +31,9 @@ public class MDCSpanExtension implements SpanExtension {
 
     @Override
     public void logStartedSpan(Span currentSpan) {
+        if (TracerLogContext.isLazyMDCEnabled()) {
+            return;
+        }
         if (currentSpan != null) {
             SofaTracerSpan span = (SofaTracerSpan) currentSpan;
             SofaTracerSpanContext sofaTracerSpanContext = span.getSofaTracerSpanContext();
@@ -44,6 +47,9 @@ public class MDCSpanExtension implements SpanExtension {
 
     @Override
     public void logStoppedSpan(Span currentSpan) {
+        if (TracerLogContext.isLazyMDCEnabled()) {
+            return;
+        }
         MDC.remove(MDCKeyConstants.MDC_TRACEID);
         MDC.remove(MDCKeyConstants.MDC_SPANID);
         if (currentSpan != null) {
@@ -61,6 +67,9 @@ public class MDCSpanExtension implements SpanExtension {
 
     @Override
     public void logStoppedSpanInRunnable(Span currentSpan) {
+        if (TracerLogContext.isLazyMDCEnabled()) {
+            return;
+        }
         MDC.remove(MDCKeyConstants.MDC_TRACEID);
         MDC.remove(MDCKeyConstants.MDC_SPANID);
     }
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.extensions.log;
+
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.core.context.trace.SofaTraceContext;
+import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
+import com.alipay.common.tracer.core.span.SofaTracerSpan;
+
+/**
+ * Ids of the current span for the logging frameworks, read when a log event is created
+ * instead of being copied to the MDC by {@link MDCSpanExtension} on every span start and stop.
+ *
+ * @since 3.1.10
+ */
+public final class TracerLogContext {
+
+    /**
+     * Stop copying the span ids to the MDC, they are read by
+     * {@link com.alipay.common.tracer.extensions.log.logback.SofaTracerMDCTurboFilter} or
+     * {@link com.alipay.common.tracer.extensions.log.log4j2.SofaTracerContextDataProvider}
+     */
+    public static final String LAZY_MDC_ENABLED_KEY = "com.alipay.sofa.tracer.mdc.lazy.enabled";
+
+    private TracerLogContext() {
+    }
+
+    public static boolean isLazyMDCEnabled() {
+        return Boolean.parseBoolean(SofaTracerConfiguration.getProperty(LAZY_MDC_ENABLED_KEY));
+    }
+
+    /**
+     * @return context of the current span of this thread, or null if there is none
+     */
+    public static SofaTracerSpanContext currentSpanContext() {
+        SofaTraceContext sofaTraceContext = SofaTraceContextHolder.getSofaTraceContext();
+        SofaTracerSpan currentSpan = sofaTraceContext.getCurrentSpan();
+        return currentSpan == null ? null : currentSpan.getSofaTracerSpanContext();
+    }
+}
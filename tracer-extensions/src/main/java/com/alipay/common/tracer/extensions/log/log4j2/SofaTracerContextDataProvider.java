@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.extensions.log.log4j2;
+
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.extensions.log.TracerLogContext;
+import com.alipay.common.tracer.extensions.log.constants.MDCKeyConstants;
+import org.apache.logging.log4j.core.util.ContextDataProvider;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Supplies the ids of the current span to every Log4j2 event when it is created, so that
+ * {@code %X{SOFA-TraceId}} and {@code %X{SOFA-SpanId}} work without the MDC. Registered with
+ * the {@link java.util.ServiceLoader}, only active with {@link TracerLogContext#LAZY_MDC_ENABLED_KEY}.
+ * Log4j2 2.13.2 or later is required.
+ *
+ * @since 3.1.10
+ */
+public class SofaTracerContextDataProvider implements ContextDataProvider {
+
+    @Override
+    public Map<String, String> supplyContextData() {
+        if (!TracerLogContext.isLazyMDCEnabled()) {
+            return Collections.emptyMap();
+        }
+        SofaTracerSpanContext sofaTracerSpanContext = TracerLogContext.currentSpanContext();
+        if (sofaTracerSpanContext == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> contextData = new HashMap<String, String>(4);
+        contextData.put(MDCKeyConstants.MDC_TRACEID, sofaTracerSpanContext.getTraceId());
+        contextData.put(MDCKeyConstants.MDC_SPANID, sofaTracerSpanContext.getSpanId());
+        return contextData;
+    }
+}
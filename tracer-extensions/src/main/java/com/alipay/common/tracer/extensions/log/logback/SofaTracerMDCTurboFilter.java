@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.common.tracer.extensions.log.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import com.alipay.common.tracer.core.context.span.SofaTracerSpanContext;
+import com.alipay.common.tracer.extensions.log.TracerLogContext;
+import com.alipay.common.tracer.extensions.log.constants.MDCKeyConstants;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Copies the ids of the current span to the MDC right before a Logback event is created, and
+ * only if the logger is enabled for it. Unlike a converter this also works behind an
+ * {@code AsyncAppender}, which formats the event on another thread. Only active with
+ * {@link TracerLogContext#LAZY_MDC_ENABLED_KEY}, declare it in logback.xml:
+ *
+ * <pre>
+ * &lt;turboFilter class="com.alipay.common.tracer.extensions.log.logback.SofaTracerMDCTurboFilter"/&gt;
+ * </pre>
+ *
+ * @since 3.1.10
+ */
+public class SofaTracerMDCTurboFilter extends TurboFilter {
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format,
+                              Object[] params, Throwable t) {
+        // Logger.isEnabledFor would call the turbo filters again
+        if (level != null && level.isGreaterOrEqual(logger.getEffectiveLevel())
+            && TracerLogContext.isLazyMDCEnabled()) {
+            updateMDC();
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    private void updateMDC() {
+        SofaTracerSpanContext sofaTracerSpanContext = TracerLogContext.currentSpanContext();
+        if (sofaTracerSpanContext == null) {
+            if (MDC.get(MDCKeyConstants.MDC_TRACEID) != null) {
+                MDC.remove(MDCKeyConstants.MDC_TRACEID);
+                MDC.remove(MDCKeyConstants.MDC_SPANID);
+            }
+            return;
+        }
+        String traceId = sofaTracerSpanContext.getTraceId();
+        if (traceId != null && !traceId.equals(MDC.get(MDCKeyConstants.MDC_TRACEID))) {
+            MDC.put(MDCKeyConstants.MDC_TRACEID, traceId);
+        }
+        String spanId = sofaTracerSpanContext.getSpanId();
+        if (spanId != null && !spanId.equals(MDC.get(MDCKeyConstants.MDC_SPANID))) {
+            MDC.put(MDCKeyConstants.MDC_SPANID, spanId);
+        }
+    }
+}
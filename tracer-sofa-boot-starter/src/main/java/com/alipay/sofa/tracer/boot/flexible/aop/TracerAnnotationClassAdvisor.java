@@ -16,6 +16,7 @@
  */
 package com.alipay.sofa.tracer.boot.flexible.aop;
 
+import com.alipay.sofa.tracer.boot.flexible.processor.SofaTracerIntroductionInterceptor;
 import org.aopalliance.aop.Advice;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.springframework.aop.Pointcut;
@@ -33,7 +34,9 @@ public class TracerAnnotationClassAdvisor extends AbstractPointcutAdvisor {
 
     public TracerAnnotationClassAdvisor(MethodInterceptor interceptor) {
         this.advice = interceptor;
-        this.pointcut = new TracerAnnotationClassPointcut();
+        this.pointcut = new TracerAnnotationClassPointcut(
+            interceptor instanceof SofaTracerIntroductionInterceptor ? (SofaTracerIntroductionInterceptor) interceptor
+                : null);
     }
 
     @Override
@@ -16,9 +16,10 @@
  */
 package com.alipay.sofa.tracer.boot.flexible.aop;
 
+import com.alipay.sofa.tracer.boot.flexible.processor.SofaTracerIntroductionInterceptor;
 import com.alipay.sofa.tracer.plugin.flexible.annotations.Tracer;
 import org.springframework.aop.ClassFilter;
-import org.springframework.aop.support.DynamicMethodMatcherPointcut;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
 import org.springframework.aop.support.annotation.AnnotationClassFilter;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.util.ReflectionUtils;
@@ -31,11 +32,25 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * @author: guolei.sgl (guolei.sgl@antfin.com) 2019/8/9 3:12 PM
  * @since:
  **/
-public class TracerAnnotationClassPointcut extends DynamicMethodMatcherPointcut {
+public class TracerAnnotationClassPointcut extends StaticMethodMatcherPointcut {
+
+    private final SofaTracerIntroductionInterceptor interceptor;
+
+    public TracerAnnotationClassPointcut() {
+        this(null);
+    }
+
+    /**
+     * @param interceptor resolves and caches the metadata of the annotated methods when the
+     *                    proxy is created, null to match every method of the matched classes
+     */
+    public TracerAnnotationClassPointcut(SofaTracerIntroductionInterceptor interceptor) {
+        this.interceptor = interceptor;
+    }
 
     @Override
-    public boolean matches(Method method, Class<?> aClass, Object... objects) {
-        return true;
+    public boolean matches(Method method, Class<?> aClass) {
+        return interceptor == null || interceptor.getMetadata(method, aClass) != null;
     }
 
     @Override
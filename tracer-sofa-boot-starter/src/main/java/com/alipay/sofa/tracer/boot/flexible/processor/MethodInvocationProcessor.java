@@ -33,4 +33,16 @@ public interface MethodInvocationProcessor {
      * @throws Throwable
      */
     Object process(MethodInvocation invocation, Tracer tracerSpan) throws Throwable;
+
+    /**
+     * proxy method, with the metadata resolved when the proxy was created
+     * @param invocation
+     * @param metadata
+     * @return
+     * @throws Throwable
+     */
+    default Object process(MethodInvocation invocation, TracerMethodMetadata metadata)
+                                                                                        throws Throwable {
+        return process(invocation, metadata.getTracer());
+    }
 }
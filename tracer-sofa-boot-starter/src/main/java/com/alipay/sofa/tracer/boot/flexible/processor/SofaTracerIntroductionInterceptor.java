@@ -16,15 +16,13 @@
  */
 package com.alipay.sofa.tracer.boot.flexible.processor;
 
-import com.alipay.common.tracer.core.appender.self.SelfLog;
-import com.alipay.sofa.tracer.plugin.flexible.annotations.Tracer;
 import org.aopalliance.intercept.MethodInvocation;
 import org.springframework.aop.IntroductionInterceptor;
-import org.springframework.aop.support.AopUtils;
-import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.MethodClassKey;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * @author: guolei.sgl (guolei.sgl@antfin.com) 2019/8/9 3:05 PM
@@ -32,7 +30,14 @@ import java.lang.reflect.Method;
  **/
 public class SofaTracerIntroductionInterceptor implements IntroductionInterceptor {
 
-    private final MethodInvocationProcessor sofaMethodInvocationProcessor;
+    /**
+     * Cached for the methods which are not annotated
+     */
+    private static final Object                             NOT_ANNOTATED  = new Object();
+
+    private final MethodInvocationProcessor                 sofaMethodInvocationProcessor;
+
+    private final ConcurrentMap<MethodClassKey, Object>     metadataCache  = new ConcurrentHashMap<MethodClassKey, Object>();
 
     public SofaTracerIntroductionInterceptor(MethodInvocationProcessor sofaMethodInvocationProcessor) {
         this.sofaMethodInvocationProcessor = sofaMethodInvocationProcessor;
@@ -44,32 +49,36 @@ public class SofaTracerIntroductionInterceptor implements IntroductionIntercepto
         if (method == null) {
             return invocation.proceed();
         }
-        Method mostSpecificMethod = AopUtils.getMostSpecificMethod(method, invocation.getThis()
-            .getClass());
-
-        Tracer tracerSpan = findAnnotation(mostSpecificMethod, Tracer.class);
-        if (tracerSpan == null) {
+        Object target = invocation.getThis();
+        TracerMethodMetadata metadata = getMetadata(method,
+            target == null ? method.getDeclaringClass() : target.getClass());
+        if (metadata == null) {
             return invocation.proceed();
         }
-        return sofaMethodInvocationProcessor.process(invocation, tracerSpan);
+        return sofaMethodInvocationProcessor.process(invocation, metadata);
+    }
+
+    /**
+     * Resolve the metadata of a method once, the pointcut calls it when the proxy is created
+     * @param method      method
+     * @param targetClass class of the target object
+     * @return metadata, or null if the method is not annotated
+     */
+    public TracerMethodMetadata getMetadata(Method method, Class<?> targetClass) {
+        MethodClassKey cacheKey = new MethodClassKey(method, targetClass);
+        Object metadata = metadataCache.get(cacheKey);
+        if (metadata == null) {
+            metadata = TracerMethodMetadata.resolve(method, targetClass);
+            if (metadata == null) {
+                metadata = NOT_ANNOTATED;
+            }
+            metadataCache.putIfAbsent(cacheKey, metadata);
+        }
+        return metadata == NOT_ANNOTATED ? null : (TracerMethodMetadata) metadata;
     }
 
     @Override
     public boolean implementsInterface(Class<?> aClass) {
         return true;
     }
-
-    private <T extends Annotation> T findAnnotation(Method method, Class<T> clazz) {
-        T annotation = AnnotationUtils.findAnnotation(method, clazz);
-        if (annotation == null) {
-            try {
-                annotation = AnnotationUtils.findAnnotation(
-                    method.getDeclaringClass().getMethod(method.getName(),
-                        method.getParameterTypes()), clazz);
-            } catch (NoSuchMethodException | SecurityException ex) {
-                SelfLog.warn("Exception occurred while tyring to find the annotation");
-            }
-        }
-        return annotation;
-    }
 }
@@ -18,7 +18,6 @@ package com.alipay.sofa.tracer.boot.flexible.processor;
 
 import com.alipay.common.tracer.core.span.CommonSpanTags;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
-import com.alipay.common.tracer.core.utils.StringUtils;
 import com.alipay.sofa.tracer.plugin.flexible.FlexibleTracer;
 import com.alipay.sofa.tracer.plugin.flexible.annotations.Tracer;
 import org.aopalliance.intercept.MethodInvocation;
@@ -37,27 +36,29 @@ public class SofaTracerMethodInvocationProcessor implements MethodInvocationProc
 
     @Override
     public Object process(MethodInvocation invocation, Tracer tracerSpan) throws Throwable {
-        return proceedProxyMethodWithTracerAnnotation(invocation, tracerSpan);
+        return proceedProxyMethodWithTracerAnnotation(invocation, new TracerMethodMetadata(
+            invocation.getMethod(), tracerSpan));
+    }
+
+    @Override
+    public Object process(MethodInvocation invocation, TracerMethodMetadata metadata)
+                                                                                     throws Throwable {
+        return proceedProxyMethodWithTracerAnnotation(invocation, metadata);
     }
 
     private Object proceedProxyMethodWithTracerAnnotation(MethodInvocation invocation,
-                                                          Tracer tracerSpan) throws Throwable {
+                                                          TracerMethodMetadata metadata)
+                                                                                        throws Throwable {
         if (tracer instanceof FlexibleTracer) {
             try {
-                String operationName = tracerSpan.operateName();
-                if (StringUtils.isBlank(operationName)) {
-                    operationName = invocation.getMethod().getName();
-                }
-                SofaTracerSpan sofaTracerSpan = ((FlexibleTracer) tracer)
-                    .beforeInvoke(operationName);
-                sofaTracerSpan.setTag(CommonSpanTags.METHOD, invocation.getMethod().getName());
-                if (invocation.getArguments() != null && invocation.getArguments().length != 0) {
-                    StringBuilder stringBuilder = new StringBuilder();
-                    for (Object obj : invocation.getArguments()) {
-                        stringBuilder.append(obj.getClass().getName()).append(";");
+                SofaTracerSpan sofaTracerSpan = ((FlexibleTracer) tracer).beforeInvoke(metadata
+                    .getOperationName());
+                sofaTracerSpan.setTag(CommonSpanTags.METHOD, metadata.getMethodName());
+                if (isSampled(sofaTracerSpan)) {
+                    String paramTypes = metadata.getParamTypes(invocation.getArguments());
+                    if (paramTypes != null) {
+                        sofaTracerSpan.setTag("param.types", paramTypes);
                     }
-                    sofaTracerSpan.setTag("param.types",
-                        stringBuilder.toString().substring(0, stringBuilder.length() - 1));
                 }
                 return invocation.proceed();
             } catch (Throwable t) {
@@ -71,4 +72,13 @@ public class SofaTracerMethodInvocationProcessor implements MethodInvocationProc
         }
     }
 
+    /**
+     * A child of an unsampled trace is never printed in the digest log, so the tags which are
+     * only printed there are skipped. Root spans are sampled again when reported.
+     */
+    private boolean isSampled(SofaTracerSpan sofaTracerSpan) {
+        return sofaTracerSpan.getParentSofaTracerSpan() == null
+               || sofaTracerSpan.getSofaTracerSpanContext().isSampled();
+    }
+
 }
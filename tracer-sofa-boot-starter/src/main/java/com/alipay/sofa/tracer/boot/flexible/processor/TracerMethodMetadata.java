@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.boot.flexible.processor;
+
+import com.alipay.common.tracer.core.appender.self.SelfLog;
+import com.alipay.common.tracer.core.utils.StringUtils;
+import com.alipay.sofa.tracer.plugin.flexible.annotations.Tracer;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * What the {@link Tracer} processing needs to know about an annotated method: the annotation,
+ * the operation name and the declared parameter types. Resolved once per method and target
+ * class when the proxy is created, instead of on every invocation. The {@code param.types} tag
+ * still shows the runtime classes of the arguments, see {@link #getParamTypes(Object[])}.
+ *
+ * @since 3.1.10
+ */
+public class TracerMethodMetadata {
+
+    private final Tracer tracer;
+
+    private final String operationName;
+
+    private final String methodName;
+
+    private final Class<?>[] parameterTypes;
+
+    TracerMethodMetadata(Method method, Tracer tracer) {
+        this.tracer = tracer;
+        this.methodName = method.getName();
+        this.operationName = StringUtils.isBlank(tracer.operateName()) ? methodName : tracer
+            .operateName();
+        this.parameterTypes = method.getParameterTypes();
+    }
+
+    /**
+     * @param method      invoked method
+     * @param targetClass class of the target object
+     * @return metadata, or null if the method is not annotated with {@link Tracer}
+     */
+    public static TracerMethodMetadata resolve(Method method, Class<?> targetClass) {
+        Method mostSpecificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        Tracer tracer = findAnnotation(mostSpecificMethod);
+        return tracer == null ? null : new TracerMethodMetadata(mostSpecificMethod, tracer);
+    }
+
+    private static Tracer findAnnotation(Method method) {
+        Tracer annotation = AnnotationUtils.findAnnotation(method, Tracer.class);
+        // only public methods can be looked up again on the declaring class
+        if (annotation == null && Modifier.isPublic(method.getModifiers())) {
+            try {
+                annotation = AnnotationUtils.findAnnotation(
+                    method.getDeclaringClass().getMethod(method.getName(),
+                        method.getParameterTypes()), Tracer.class);
+            } catch (NoSuchMethodException | SecurityException ex) {
+                SelfLog.warn("Exception occurred while tyring to find the annotation");
+            }
+        }
+        return annotation;
+    }
+
+    public Tracer getTracer() {
+        return tracer;
+    }
+
+    public String getOperationName() {
+        return operationName;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    /**
+     * @param arguments arguments of the invocation
+     * @return the runtime classes of the arguments separated by ';', the declared type for a
+     *         null argument; null if there is no argument
+     */
+    public String getParamTypes(Object[] arguments) {
+        if (arguments == null || arguments.length == 0) {
+            return null;
+        }
+        StringBuilder stringBuilder = new StringBuilder();
+        for (int i = 0; i < arguments.length; i++) {
+            Object argument = arguments[i];
+            Class<?> type = argument != null ? argument.getClass()
+                : i < parameterTypes.length ? parameterTypes[i] : Object.class;
+            stringBuilder.append(type.getName()).append(";");
+        }
+        return stringBuilder.substring(0, stringBuilder.length() - 1);
+    }
+}
@@ -19,6 +19,8 @@ package com.alipay.sofa.tracer.boot.listener;
 import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.utils.StringUtils;
 import com.alipay.sofa.tracer.boot.properties.SofaTracerProperties;
+import com.sofa.alipay.tracer.plugins.kafkamq.properties.KafkaMqProperties;
+import com.sofa.alipay.tracer.plugins.spring.redis.properties.RedisProperties;
 import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.Bindable;
@@ -31,6 +33,8 @@ import org.springframework.core.env.Environment;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 
+import java.util.Map;
+
 /**
  * Parse SOFATracer Configuration in early stage.
  *
@@ -106,6 +110,100 @@ public class SofaTracerConfigurationListener
 
         SofaTracerConfiguration.setProperty(SofaTracerConfiguration.JSON_FORMAT_OUTPUT,
             String.valueOf(tempTarget.isJsonOutput()));
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_DIGEST_LOG_FORMAT,
+            tempTarget.getDigestLogFormat());
+        if (StringUtils.isNotBlank(tempTarget.getRolledFileCompression())) {
+            SofaTracerConfiguration.setProperty(
+                SofaTracerConfiguration.TRACER_ROLLED_FILE_COMPRESSION,
+                tempTarget.getRolledFileCompression());
+        }
+        if (StringUtils.isNotBlank(tempTarget.getLogMaxFileSize())) {
+            SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_LOG_MAX_FILE_SIZE,
+                tempTarget.getLogMaxFileSize());
+        }
+        if (StringUtils.isNotBlank(tempTarget.getLogTotalSizeCap())) {
+            SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_LOG_TOTAL_SIZE_CAP,
+                tempTarget.getLogTotalSizeCap());
+        }
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_TRACE_ID_INDEX_ENABLED,
+            String.valueOf(tempTarget.isTraceIdIndexEnabled()));
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_SPAN_RECYCLING_ENABLED,
+            String.valueOf(tempTarget.isSpanRecyclingEnabled()));
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_HIGH_RESOLUTION_TIMING_ENABLED,
+            String.valueOf(tempTarget.isHighResolutionTimingEnabled()));
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_HTTP_CLIENT_PHASE_TIMING_ENABLED,
+            String.valueOf(tempTarget.isHttpClientPhaseTimingEnabled()));
+
+        //redis and kafka batch modes, the plugin keys are constants so the plugins are optional
+        SofaTracerConfiguration.setProperty(RedisProperties.REDIS_BATCH_AGGREGATION_ENABLED_KEY,
+            String.valueOf(tempTarget.isRedisBatchAggregationEnabled()));
+        SofaTracerConfiguration.setProperty(RedisProperties.REDIS_BATCH_MAX_SAMPLE_KEYS_KEY,
+            tempTarget.getRedisBatchMaxSampleKeys());
+        SofaTracerConfiguration.setProperty(RedisProperties.REDIS_BATCH_MAX_KEY_LENGTH_KEY,
+            tempTarget.getRedisBatchMaxKeyLength());
+        SofaTracerConfiguration.setProperty(KafkaMqProperties.KAFKA_BATCH_CONSUME_ENABLED_KEY,
+            String.valueOf(tempTarget.isKafkaBatchConsumeEnabled()));
+
+        //internal metrics
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_METRICS_ENABLED,
+            String.valueOf(tempTarget.isMetricsEnabled()));
+        SofaTracerConfiguration.setProperty(SofaTracerConfiguration.TRACER_METRICS_JMX_ENABLED,
+            String.valueOf(tempTarget.isMetricsJmxEnabled()));
+
+        //recent trace store
+        if (StringUtils.isNotBlank(tempTarget.getRecentTraceStoreMaxSize())) {
+            SofaTracerConfiguration.setProperty(
+                SofaTracerConfiguration.TRACER_RECENT_TRACE_STORE_MAX_SIZE,
+                tempTarget.getRecentTraceStoreMaxSize());
+        }
+        if (StringUtils.isNotBlank(tempTarget.getRecentTraceStoreRetention())) {
+            SofaTracerConfiguration.setProperty(
+                SofaTracerConfiguration.TRACER_RECENT_TRACE_STORE_RETENTION,
+                tempTarget.getRecentTraceStoreRetention());
+        }
+        if (StringUtils.isNotBlank(tempTarget.getRecentTraceStoreSlowThreshold())) {
+            SofaTracerConfiguration.setProperty(
+                SofaTracerConfiguration.TRACER_RECENT_TRACE_STORE_SLOW_THRESHOLD,
+                tempTarget.getRecentTraceStoreSlowThreshold());
+        }
+
+        //isolated async appenders
+        setProperties(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_GROUP_PREFIX,
+            tempTarget.getAsyncAppenderGroups());
+        setProperties(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_QUEUE_SIZE_PREFIX,
+            tempTarget.getAsyncAppenderQueueSize());
+        setProperties(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_CONSUMER_NUMBER_PREFIX,
+            tempTarget.getAsyncAppenderConsumerNumber());
+        setProperties(SofaTracerConfiguration.TRACER_ASYNC_APPENDER_WAIT_STRATEGY_PREFIX,
+            tempTarget.getAsyncAppenderWaitStrategy());
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_PRODUCER_BATCH_SIZE,
+            tempTarget.getAsyncAppenderProducerBatchSize());
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_ASYNC_APPENDER_PRODUCER_BATCH_MAX_DELAY,
+            tempTarget.getAsyncAppenderProducerBatchMaxDelay());
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_SHARED_LOG_WRITER_ENABLED,
+            String.valueOf(tempTarget.isSharedLogWriterEnabled()));
+        if (StringUtils.isNotBlank(tempTarget.getSharedLogWriterBufferSize())) {
+            SofaTracerConfiguration.setProperty(
+                SofaTracerConfiguration.TRACER_SHARED_LOG_WRITER_BUFFER_SIZE,
+                tempTarget.getSharedLogWriterBufferSize());
+        }
+        SofaTracerConfiguration.setProperty(
+            SofaTracerConfiguration.TRACER_STATS_ONLY_SPAN_ENABLED,
+            String.valueOf(tempTarget.isStatsOnlySpanEnabled()));
+    }
+
+    private void setProperties(String prefix, Map<String, String> properties) {
+        if (properties == null) {
+            return;
+        }
+        for (Map.Entry<String, String> entry : properties.entrySet()) {
+            SofaTracerConfiguration.setProperty(prefix + entry.getKey(), entry.getValue());
+        }
     }
 
     @Override
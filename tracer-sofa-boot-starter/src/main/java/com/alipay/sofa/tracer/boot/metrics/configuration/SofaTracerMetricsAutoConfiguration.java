@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.boot.metrics.configuration;
+
+import com.alipay.sofa.tracer.boot.metrics.endpoint.SofaTracerMetricsEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * SofaTracerMetricsAutoConfiguration
+ *
+ * @since 3.1.10
+ */
+@Configuration
+@ConditionalOnClass(Endpoint.class)
+@ConditionalOnProperty(name = "com.alipay.sofa.tracer.metricsEnabled", havingValue = "true")
+public class SofaTracerMetricsAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SofaTracerMetricsEndpoint sofaTracerMetricsEndpoint() {
+        return new SofaTracerMetricsEndpoint();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.boot.metrics.configuration;
+
+import com.alipay.sofa.tracer.boot.metrics.endpoint.SofaTracerPrometheusEndpoint;
+import org.springframework.boot.actuate.endpoint.web.annotation.ServletEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.servlet.http.HttpServlet;
+
+/**
+ * SofaTracerPrometheusAutoConfiguration
+ *
+ * @since 3.1.10
+ */
+@Configuration
+@ConditionalOnClass({ ServletEndpoint.class, HttpServlet.class })
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "com.alipay.sofa.tracer.statPrometheusEnabled", havingValue = "true", matchIfMissing = false)
+public class SofaTracerPrometheusAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public SofaTracerPrometheusEndpoint sofaTracerPrometheusEndpoint() {
+        return new SofaTracerPrometheusEndpoint();
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.boot.metrics.endpoint;
+
+import com.alipay.common.tracer.core.metrics.TracerMetrics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * Exposes the metrics about the tracer itself: ring buffers, digest encoding, log file I/O
+ * and stat keys. The same values are available as MBeans in the {@link TracerMetrics#JMX_DOMAIN} domain.
+ *
+ * @since 3.1.10
+ */
+@Endpoint(id = "sofatracer")
+public class SofaTracerMetricsEndpoint {
+
+    @ReadOperation
+    public Map<String, Object> metrics() {
+        return TracerMetrics.snapshot();
+    }
+}
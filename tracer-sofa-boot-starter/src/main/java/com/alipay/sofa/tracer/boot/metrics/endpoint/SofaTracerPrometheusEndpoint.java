@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.boot.metrics.endpoint;
+
+import com.alipay.common.tracer.core.metrics.PrometheusStatWriter;
+import org.springframework.boot.actuate.endpoint.web.EndpointServlet;
+import org.springframework.boot.actuate.endpoint.web.annotation.ServletEndpoint;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Exposes the stat data of the current stat cycle in the Prometheus text format, e.g.
+ * {@code /actuator/sofatracerprometheus}. A servlet endpoint is used so that the stat keys are
+ * streamed to the response instead of being rendered to a String first.
+ *
+ * @since 3.1.10
+ */
+@ServletEndpoint(id = "sofatracerprometheus")
+public class SofaTracerPrometheusEndpoint implements Supplier<EndpointServlet> {
+
+    @Override
+    public EndpointServlet get() {
+        return new EndpointServlet(new PrometheusServlet());
+    }
+
+    static class PrometheusServlet extends HttpServlet {
+
+        private static final long serialVersionUID = 3818596244418562530L;
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+            resp.setContentType(PrometheusStatWriter.CONTENT_TYPE);
+            new PrometheusStatWriter(resp.getWriter()).write();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.boot.otlp.configuration;
+
+import com.alipay.sofa.tracer.boot.otlp.properties.OtlpSofaTracerProperties;
+import com.alipay.sofa.tracer.plugins.otlp.OtlpSofaTracerSpanRemoteReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+/**
+ * OtlpSofaTracerAutoConfiguration
+ *
+ * @since 3.1.10
+ */
+@Configuration
+@EnableConfigurationProperties(OtlpSofaTracerProperties.class)
+@ConditionalOnProperty(value = "com.alipay.sofa.tracer.otlp.enabled", matchIfMissing = false)
+@ConditionalOnClass(OtlpSofaTracerSpanRemoteReporter.class)
+public class OtlpSofaTracerAutoConfiguration {
+
+    @Autowired
+    private OtlpSofaTracerProperties otlpProperties;
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public OtlpSofaTracerSpanRemoteReporter otlpSofaTracerSpanReporter() throws IOException {
+        return new OtlpSofaTracerSpanRemoteReporter(otlpProperties.toExportOptions());
+    }
+}
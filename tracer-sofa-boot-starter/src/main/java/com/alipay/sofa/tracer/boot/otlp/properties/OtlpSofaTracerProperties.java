@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.boot.otlp.properties;
+
+import com.alipay.sofa.tracer.plugins.otlp.properties.OtlpExportOptions;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * OtlpSofaTracerProperties
+ *
+ * @since 3.1.10
+ */
+@ConfigurationProperties("com.alipay.sofa.tracer.otlp")
+public class OtlpSofaTracerProperties {
+
+    /**
+     * OTLP reporter is disabled by default
+     */
+    private boolean enabled       = false;
+    /**
+     * URL of the OTLP/HTTP traces endpoint of the collector
+     */
+    private String  endpoint      = OtlpExportOptions.DEFAULT_ENDPOINT;
+    /**
+     * When enabled, requests are gzipped before sent to the collector
+     */
+    private boolean gzipped       = true;
+    /**
+     * Max spans in one request
+     */
+    private int     batchSize     = 512;
+    /**
+     * Max spans waiting to be exported, more are dropped
+     */
+    private int     queueSize     = 8192;
+    /**
+     * Max millis a span waits in a batch before it is sent
+     */
+    private long    flushInterval = 1000;
+    /**
+     * Connect and read timeout of a request in milliseconds
+     */
+    private int     timeout       = 10000;
+    /**
+     * Retries of a failed request before its batch is dropped
+     */
+    private int     maxRetries    = 3;
+    /**
+     * Millis before the first retry, doubled at each retry
+     */
+    private long    retryBackoff  = 100;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public boolean isGzipped() {
+        return gzipped;
+    }
+
+    public void setGzipped(boolean gzipped) {
+        this.gzipped = gzipped;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public long getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    public void setRetryBackoff(long retryBackoff) {
+        this.retryBackoff = retryBackoff;
+    }
+
+    public OtlpExportOptions toExportOptions() {
+        OtlpExportOptions options = new OtlpExportOptions();
+        options.setEndpoint(endpoint);
+        options.setGzipped(gzipped);
+        options.setBatchSize(batchSize);
+        options.setQueueSize(queueSize);
+        options.setFlushIntervalMillis(flushInterval);
+        options.setTimeoutMillis(timeout);
+        options.setMaxRetries(maxRetries);
+        options.setRetryBackoffMillis(retryBackoff);
+        return options;
+    }
+}
@@ -88,6 +88,146 @@ public class SofaTracerProperties {
      */
     private boolean             jsonOutput                       = true;
 
+    /**
+     * digest log format : com.alipay.sofa.tracer.digestLogFormat=text, or binary
+     */
+    private String              digestLogFormat                  = "text";
+
+    /**
+     * com.alipay.sofa.tracer.rolledFileCompression=gzip, compress the rolled log files in background
+     */
+    private String              rolledFileCompression;
+
+    /**
+     * com.alipay.sofa.tracer.logMaxFileSize=100MB, also roll a log file within its period beyond this size
+     */
+    private String              logMaxFileSize;
+
+    /**
+     * com.alipay.sofa.tracer.logTotalSizeCap=10GB, delete the oldest rolled log files beyond this total size
+     */
+    private String              logTotalSizeCap;
+
+    /**
+     * com.alipay.sofa.tracer.traceIdIndexEnabled=false, write a traceId index and bloom filter per rolled digest log file
+     */
+    private boolean             traceIdIndexEnabled              = false;
+
+    /**
+     * com.alipay.sofa.tracer.spanRecyclingEnabled=false, pool and reuse the finished spans
+     */
+    private boolean             spanRecyclingEnabled             = false;
+
+    /**
+     * com.alipay.sofa.tracer.highResolutionTimingEnabled=false, measure span durations with nanoTime and print sub millisecond costs
+     */
+    private boolean             highResolutionTimingEnabled      = false;
+
+    /**
+     * com.alipay.sofa.tracer.httpClientPhaseTimingEnabled=false, record dns, connect, tls, connection acquire and ttfb of OkHttp and HttpClient calls
+     */
+    private boolean             httpClientPhaseTimingEnabled     = false;
+
+    /**
+     * com.alipay.sofa.tracer.redisBatchAggregationEnabled=false, one span per flushed pipeline or MULTI/EXEC block
+     */
+    private boolean             redisBatchAggregationEnabled     = false;
+
+    /**
+     * com.alipay.sofa.tracer.redisBatchMaxSampleKeys=16, max keys sampled into an aggregated redis span
+     */
+    private int                 redisBatchMaxSampleKeys          = 16;
+
+    /**
+     * com.alipay.sofa.tracer.redisBatchMaxKeyLength=128, max bytes decoded for each sampled redis key
+     */
+    private int                 redisBatchMaxKeyLength           = 128;
+
+    /**
+     * com.alipay.sofa.tracer.kafkaBatchConsumeEnabled=false, one kafka consume span per poll and partition
+     */
+    private boolean             kafkaBatchConsumeEnabled         = false;
+
+    /**
+     * com.alipay.sofa.tracer.metricsEnabled=false, metrics about the tracer internals
+     */
+    private boolean             metricsEnabled                   = false;
+
+    /**
+     * com.alipay.sofa.tracer.metricsJmxEnabled=true, register the internal metrics as MBeans
+     */
+    private boolean             metricsJmxEnabled                = true;
+
+    /**
+     * com.alipay.sofa.tracer.statPrometheusEnabled=false, expose the stat data in the Prometheus format
+     */
+    private boolean             statPrometheusEnabled            = false;
+
+    /**
+     * com.alipay.sofa.tracer.recentTraceStoreEnabled=false, keep the recent spans in memory, looked up by the sofatracertrace endpoint
+     */
+    private boolean             recentTraceStoreEnabled          = false;
+
+    /**
+     * com.alipay.sofa.tracer.recentTraceStoreMaxSize=64MB, max memory of the recent trace store
+     */
+    private String              recentTraceStoreMaxSize;
+
+    /**
+     * com.alipay.sofa.tracer.recentTraceStoreRetention=10, minutes the recent spans are kept at most
+     */
+    private String              recentTraceStoreRetention;
+
+    /**
+     * com.alipay.sofa.tracer.recentTraceStoreSlowThreshold=1000, milliseconds from which a recent span is indexed as slow
+     */
+    private String              recentTraceStoreSlowThreshold;
+
+    /**
+     * com.alipay.sofa.tracer.asyncAppenderGroups[kafka-mq-consume-digest.log]=mq, log type to isolated async appender group
+     */
+    private Map<String, String> asyncAppenderGroups              = new HashMap<String, String>();
+
+    /**
+     * com.alipay.sofa.tracer.asyncAppenderQueueSize[mq]=4096, ring buffer size by async appender group
+     */
+    private Map<String, String> asyncAppenderQueueSize           = new HashMap<String, String>();
+
+    /**
+     * com.alipay.sofa.tracer.asyncAppenderConsumerNumber[mq]=1, consumer threads by async appender group
+     */
+    private Map<String, String> asyncAppenderConsumerNumber      = new HashMap<String, String>();
+
+    /**
+     * com.alipay.sofa.tracer.asyncAppenderWaitStrategy[mq]=sleeping, consumer wait strategy by async appender group
+     */
+    private Map<String, String> asyncAppenderWaitStrategy        = new HashMap<String, String>();
+
+    /**
+     * com.alipay.sofa.tracer.asyncAppenderProducerBatchSize=1, digests a business thread buffers before publishing them at once
+     */
+    private int                 asyncAppenderProducerBatchSize   = 1;
+
+    /**
+     * com.alipay.sofa.tracer.asyncAppenderProducerBatchMaxDelay=5, max milliseconds a digest stays in a producer batch
+     */
+    private int                 asyncAppenderProducerBatchMaxDelay = 5;
+
+    /**
+     * com.alipay.sofa.tracer.sharedLogWriterEnabled=false, write all the log files from one shared I/O thread
+     */
+    private boolean             sharedLogWriterEnabled           = false;
+
+    /**
+     * com.alipay.sofa.tracer.sharedLogWriterBufferSize=4MB, total size of the buffers of the shared log writer
+     */
+    private String              sharedLogWriterBufferSize;
+
+    /**
+     * com.alipay.sofa.tracer.statsOnlySpanEnabled=false, build the children of unsampled spans as lightweight spans only feeding the stat logs
+     */
+    private boolean             statsOnlySpanEnabled             = false;
+
     public String getDisableDigestLog() {
         return disableDigestLog;
     }
@@ -176,6 +316,230 @@ public class SofaTracerProperties {
         this.jsonOutput = jsonOutput;
     }
 
+    public String getDigestLogFormat() {
+        return digestLogFormat;
+    }
+
+    public void setDigestLogFormat(String digestLogFormat) {
+        this.digestLogFormat = digestLogFormat;
+    }
+
+    public String getRolledFileCompression() {
+        return rolledFileCompression;
+    }
+
+    public void setRolledFileCompression(String rolledFileCompression) {
+        this.rolledFileCompression = rolledFileCompression;
+    }
+
+    public String getLogMaxFileSize() {
+        return logMaxFileSize;
+    }
+
+    public void setLogMaxFileSize(String logMaxFileSize) {
+        this.logMaxFileSize = logMaxFileSize;
+    }
+
+    public String getLogTotalSizeCap() {
+        return logTotalSizeCap;
+    }
+
+    public void setLogTotalSizeCap(String logTotalSizeCap) {
+        this.logTotalSizeCap = logTotalSizeCap;
+    }
+
+    public boolean isTraceIdIndexEnabled() {
+        return traceIdIndexEnabled;
+    }
+
+    public void setTraceIdIndexEnabled(boolean traceIdIndexEnabled) {
+        this.traceIdIndexEnabled = traceIdIndexEnabled;
+    }
+
+    public boolean isSpanRecyclingEnabled() {
+        return spanRecyclingEnabled;
+    }
+
+    public void setSpanRecyclingEnabled(boolean spanRecyclingEnabled) {
+        this.spanRecyclingEnabled = spanRecyclingEnabled;
+    }
+
+    public boolean isHighResolutionTimingEnabled() {
+        return highResolutionTimingEnabled;
+    }
+
+    public void setHighResolutionTimingEnabled(boolean highResolutionTimingEnabled) {
+        this.highResolutionTimingEnabled = highResolutionTimingEnabled;
+    }
+
+    public boolean isRedisBatchAggregationEnabled() {
+        return redisBatchAggregationEnabled;
+    }
+
+    public void setRedisBatchAggregationEnabled(boolean redisBatchAggregationEnabled) {
+        this.redisBatchAggregationEnabled = redisBatchAggregationEnabled;
+    }
+
+    public int getRedisBatchMaxSampleKeys() {
+        return redisBatchMaxSampleKeys;
+    }
+
+    public void setRedisBatchMaxSampleKeys(int redisBatchMaxSampleKeys) {
+        this.redisBatchMaxSampleKeys = redisBatchMaxSampleKeys;
+    }
+
+    public int getRedisBatchMaxKeyLength() {
+        return redisBatchMaxKeyLength;
+    }
+
+    public void setRedisBatchMaxKeyLength(int redisBatchMaxKeyLength) {
+        this.redisBatchMaxKeyLength = redisBatchMaxKeyLength;
+    }
+
+    public boolean isKafkaBatchConsumeEnabled() {
+        return kafkaBatchConsumeEnabled;
+    }
+
+    public void setKafkaBatchConsumeEnabled(boolean kafkaBatchConsumeEnabled) {
+        this.kafkaBatchConsumeEnabled = kafkaBatchConsumeEnabled;
+    }
+
+    public boolean isHttpClientPhaseTimingEnabled() {
+        return httpClientPhaseTimingEnabled;
+    }
+
+    public void setHttpClientPhaseTimingEnabled(boolean httpClientPhaseTimingEnabled) {
+        this.httpClientPhaseTimingEnabled = httpClientPhaseTimingEnabled;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    public boolean isMetricsJmxEnabled() {
+        return metricsJmxEnabled;
+    }
+
+    public void setMetricsJmxEnabled(boolean metricsJmxEnabled) {
+        this.metricsJmxEnabled = metricsJmxEnabled;
+    }
+
+    public boolean isStatPrometheusEnabled() {
+        return statPrometheusEnabled;
+    }
+
+    public void setStatPrometheusEnabled(boolean statPrometheusEnabled) {
+        this.statPrometheusEnabled = statPrometheusEnabled;
+    }
+
+    public boolean isRecentTraceStoreEnabled() {
+        return recentTraceStoreEnabled;
+    }
+
+    public void setRecentTraceStoreEnabled(boolean recentTraceStoreEnabled) {
+        this.recentTraceStoreEnabled = recentTraceStoreEnabled;
+    }
+
+    public String getRecentTraceStoreMaxSize() {
+        return recentTraceStoreMaxSize;
+    }
+
+    public void setRecentTraceStoreMaxSize(String recentTraceStoreMaxSize) {
+        this.recentTraceStoreMaxSize = recentTraceStoreMaxSize;
+    }
+
+    public String getRecentTraceStoreRetention() {
+        return recentTraceStoreRetention;
+    }
+
+    public void setRecentTraceStoreRetention(String recentTraceStoreRetention) {
+        this.recentTraceStoreRetention = recentTraceStoreRetention;
+    }
+
+    public String getRecentTraceStoreSlowThreshold() {
+        return recentTraceStoreSlowThreshold;
+    }
+
+    public void setRecentTraceStoreSlowThreshold(String recentTraceStoreSlowThreshold) {
+        this.recentTraceStoreSlowThreshold = recentTraceStoreSlowThreshold;
+    }
+
+    public Map<String, String> getAsyncAppenderGroups() {
+        return asyncAppenderGroups;
+    }
+
+    public void setAsyncAppenderGroups(Map<String, String> asyncAppenderGroups) {
+        this.asyncAppenderGroups = asyncAppenderGroups;
+    }
+
+    public Map<String, String> getAsyncAppenderQueueSize() {
+        return asyncAppenderQueueSize;
+    }
+
+    public void setAsyncAppenderQueueSize(Map<String, String> asyncAppenderQueueSize) {
+        this.asyncAppenderQueueSize = asyncAppenderQueueSize;
+    }
+
+    public Map<String, String> getAsyncAppenderConsumerNumber() {
+        return asyncAppenderConsumerNumber;
+    }
+
+    public void setAsyncAppenderConsumerNumber(Map<String, String> asyncAppenderConsumerNumber) {
+        this.asyncAppenderConsumerNumber = asyncAppenderConsumerNumber;
+    }
+
+    public Map<String, String> getAsyncAppenderWaitStrategy() {
+        return asyncAppenderWaitStrategy;
+    }
+
+    public void setAsyncAppenderWaitStrategy(Map<String, String> asyncAppenderWaitStrategy) {
+        this.asyncAppenderWaitStrategy = asyncAppenderWaitStrategy;
+    }
+
+    public int getAsyncAppenderProducerBatchSize() {
+        return asyncAppenderProducerBatchSize;
+    }
+
+    public void setAsyncAppenderProducerBatchSize(int asyncAppenderProducerBatchSize) {
+        this.asyncAppenderProducerBatchSize = asyncAppenderProducerBatchSize;
+    }
+
+    public int getAsyncAppenderProducerBatchMaxDelay() {
+        return asyncAppenderProducerBatchMaxDelay;
+    }
+
+    public void setAsyncAppenderProducerBatchMaxDelay(int asyncAppenderProducerBatchMaxDelay) {
+        this.asyncAppenderProducerBatchMaxDelay = asyncAppenderProducerBatchMaxDelay;
+    }
+
+    public boolean isSharedLogWriterEnabled() {
+        return sharedLogWriterEnabled;
+    }
+
+    public void setSharedLogWriterEnabled(boolean sharedLogWriterEnabled) {
+        this.sharedLogWriterEnabled = sharedLogWriterEnabled;
+    }
+
+    public String getSharedLogWriterBufferSize() {
+        return sharedLogWriterBufferSize;
+    }
+
+    public void setSharedLogWriterBufferSize(String sharedLogWriterBufferSize) {
+        this.sharedLogWriterBufferSize = sharedLogWriterBufferSize;
+    }
+
+    public boolean isStatsOnlySpanEnabled() {
+        return statsOnlySpanEnabled;
+    }
+
+    public void setStatsOnlySpanEnabled(boolean statsOnlySpanEnabled) {
+        this.statsOnlySpanEnabled = statsOnlySpanEnabled;
+    }
+
     /**
      * Getter method for property <tt>fillMinuteSwitch</tt>.
      *
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.boot.store.configuration;
+
+import com.alipay.common.tracer.core.store.RecentTraceStore;
+import com.alipay.sofa.tracer.boot.store.endpoint.RecentTraceEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RecentTraceStoreAutoConfiguration, the store is registered as a span report listener by
+ * {@link com.alipay.sofa.tracer.boot.configuration.SofaTracerAutoConfiguration}
+ *
+ * @since 3.1.10
+ */
+@Configuration
+@ConditionalOnProperty(name = "com.alipay.sofa.tracer.recentTraceStoreEnabled", havingValue = "true")
+public class RecentTraceStoreAutoConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public RecentTraceStore recentTraceStore() {
+        return RecentTraceStore.fromConfiguration();
+    }
+
+    @Configuration
+    @ConditionalOnClass(Endpoint.class)
+    static class RecentTraceEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public RecentTraceEndpoint recentTraceEndpoint(RecentTraceStore recentTraceStore) {
+            return new RecentTraceEndpoint(recentTraceStore);
+        }
+    }
+}
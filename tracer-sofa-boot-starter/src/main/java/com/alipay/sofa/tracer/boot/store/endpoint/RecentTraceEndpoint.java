@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.boot.store.endpoint;
+
+import com.alipay.common.tracer.core.store.RecentSpan;
+import com.alipay.common.tracer.core.store.RecentTraceStore;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks up the local spans of a trace in the {@link RecentTraceStore}, e.g.
+ * {@code /actuator/sofatracertrace/{traceId}}. Without a trace id, lists the recent error and
+ * slow spans.
+ *
+ * @since 3.1.10
+ */
+@Endpoint(id = "sofatracertrace")
+public class RecentTraceEndpoint {
+
+    private static final int       RECENT_LIMIT = 20;
+
+    private final RecentTraceStore recentTraceStore;
+
+    public RecentTraceEndpoint(RecentTraceStore recentTraceStore) {
+        this.recentTraceStore = recentTraceStore;
+    }
+
+    @ReadOperation
+    public Map<String, Object> recent() {
+        Map<String, Object> recent = new LinkedHashMap<String, Object>();
+        recent.put("stats", recentTraceStore.getStats());
+        recent.put("errors", recentTraceStore.getErrorSpans(RECENT_LIMIT));
+        recent.put("slow", recentTraceStore.getSlowSpans(RECENT_LIMIT));
+        return recent;
+    }
+
+    @ReadOperation
+    public List<RecentSpan> trace(@Selector String traceId) {
+        return recentTraceStore.getTrace(traceId);
+    }
+}
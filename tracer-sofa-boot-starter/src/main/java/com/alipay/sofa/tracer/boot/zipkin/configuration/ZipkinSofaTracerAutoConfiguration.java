@@ -46,7 +46,8 @@ public class ZipkinSofaTracerAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public ZipkinSofaTracerRestTemplateCustomizer zipkinSofaTracerRestTemplateCustomizer() {
-        return new ZipkinSofaTracerRestTemplateCustomizer(zipkinProperties.isGzipped());
+        return new ZipkinSofaTracerRestTemplateCustomizer(zipkinProperties.isGzipped()
+                                                          || zipkinProperties.isHighThroughput());
     }
 
     @Bean
@@ -54,6 +55,10 @@ public class ZipkinSofaTracerAutoConfiguration {
     public ZipkinSofaTracerSpanRemoteReporter zipkinSofaTracerSpanReporter(ZipkinSofaTracerRestTemplateCustomizer zipkinSofaTracerRestTemplateCustomizer) {
         RestTemplate restTemplate = new RestTemplate();
         zipkinSofaTracerRestTemplateCustomizer.customize(restTemplate);
+        if (zipkinProperties.isHighThroughput()) {
+            return new ZipkinSofaTracerSpanRemoteReporter(restTemplate,
+                zipkinProperties.getBaseUrl(), zipkinProperties.toExportOptions());
+        }
         return new ZipkinSofaTracerSpanRemoteReporter(restTemplate, zipkinProperties.getBaseUrl());
     }
 }
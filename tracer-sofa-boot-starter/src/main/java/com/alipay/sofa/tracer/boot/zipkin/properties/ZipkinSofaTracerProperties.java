@@ -16,7 +16,9 @@
  */
 package com.alipay.sofa.tracer.boot.zipkin.properties;
 
+import com.alipay.sofa.tracer.plugins.zipkin.properties.ZipkinExportOptions;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import zipkin2.codec.Encoding;
 
 /**
  * ZipkinSofaTracerProperties
@@ -39,6 +41,39 @@ public class ZipkinSofaTracerProperties {
      * When enabled, spans are gzipped before sent to the zipkin server
      */
     private boolean gzipped = false;
+    /**
+     * Batch spans into PROTO3 messages sent asynchronously with retries, spans are always
+     * gzipped in this mode
+     */
+    private boolean highThroughput = false;
+    /**
+     * Encoding of the messages in high throughput mode
+     */
+    private Encoding encoding = Encoding.PROTO3;
+    /**
+     * Max size of one message in high throughput mode
+     */
+    private int messageMaxBytes = 512 * 1024;
+    /**
+     * Max time a span waits to be batched in high throughput mode
+     */
+    private long messageTimeout = 1000;
+    /**
+     * Max bytes of spans waiting to be sent in high throughput mode, spans are dropped beyond
+     */
+    private int queuedMaxBytes = 16 * 1024 * 1024;
+    /**
+     * Max concurrent requests to the zipkin server in high throughput mode
+     */
+    private int maxInFlight = 4;
+    /**
+     * Retries of a failed message in high throughput mode
+     */
+    private int maxRetries = 3;
+    /**
+     * Initial backoff between retries in milliseconds, doubled on every retry
+     */
+    private long retryBackoff = 100;
 
     public String getBaseUrl() {
         return this.baseUrl;
@@ -63,4 +98,80 @@ public class ZipkinSofaTracerProperties {
     public void setGzipped(boolean gzipped) {
         this.gzipped = gzipped;
     }
+
+    public boolean isHighThroughput() {
+        return highThroughput;
+    }
+
+    public void setHighThroughput(boolean highThroughput) {
+        this.highThroughput = highThroughput;
+    }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    public void setEncoding(Encoding encoding) {
+        this.encoding = encoding;
+    }
+
+    public int getMessageMaxBytes() {
+        return messageMaxBytes;
+    }
+
+    public void setMessageMaxBytes(int messageMaxBytes) {
+        this.messageMaxBytes = messageMaxBytes;
+    }
+
+    public long getMessageTimeout() {
+        return messageTimeout;
+    }
+
+    public void setMessageTimeout(long messageTimeout) {
+        this.messageTimeout = messageTimeout;
+    }
+
+    public int getQueuedMaxBytes() {
+        return queuedMaxBytes;
+    }
+
+    public void setQueuedMaxBytes(int queuedMaxBytes) {
+        this.queuedMaxBytes = queuedMaxBytes;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public long getRetryBackoff() {
+        return retryBackoff;
+    }
+
+    public void setRetryBackoff(long retryBackoff) {
+        this.retryBackoff = retryBackoff;
+    }
+
+    public ZipkinExportOptions toExportOptions() {
+        ZipkinExportOptions options = new ZipkinExportOptions();
+        options.setEncoding(encoding);
+        options.setMessageMaxBytes(messageMaxBytes);
+        options.setMessageTimeoutMillis(messageTimeout);
+        options.setQueuedMaxBytes(queuedMaxBytes);
+        options.setMaxInFlight(maxInFlight);
+        options.setMaxRetries(maxRetries);
+        options.setRetryBackoffMillis(retryBackoff);
+        return options;
+    }
 }
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alipay.sofa.tracer.boot.flexible;
+
+import com.alipay.sofa.tracer.boot.flexible.aop.TracerAnnotationClassPointcut;
+import com.alipay.sofa.tracer.boot.flexible.processor.SofaTracerIntroductionInterceptor;
+import com.alipay.sofa.tracer.boot.flexible.processor.SofaTracerMethodInvocationProcessor;
+import com.alipay.sofa.tracer.boot.flexible.processor.TracerMethodMetadata;
+import com.alipay.sofa.tracer.plugin.flexible.annotations.Tracer;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.*;
+
+/**
+ * TracerMethodMetadataTest
+ *
+ * @since 3.1.10
+ */
+public class TracerMethodMetadataTest {
+
+    private final SofaTracerIntroductionInterceptor interceptor = new SofaTracerIntroductionInterceptor(
+                                                                    new SofaTracerMethodInvocationProcessor(
+                                                                        null));
+
+    @Test
+    public void testResolveMetadata() throws Exception {
+        Method named = TracedService.class.getMethod("named", String.class, int.class);
+        TracerMethodMetadata metadata = interceptor.getMetadata(named, TracedService.class);
+        assertNotNull(metadata);
+        assertEquals("customName", metadata.getOperationName());
+        assertEquals("named", metadata.getMethodName());
+        // runtime classes of the arguments, the declared type for null
+        assertEquals("java.lang.String;java.lang.Integer",
+            metadata.getParamTypes(new Object[] { "value", 1 }));
+        assertEquals("java.lang.String;java.lang.Integer",
+            metadata.getParamTypes(new Object[] { null, 1 }));
+        assertSame(metadata, interceptor.getMetadata(named, TracedService.class));
+
+        Method unnamed = TracedService.class.getMethod("unnamed");
+        metadata = interceptor.getMetadata(unnamed, TracedService.class);
+        assertEquals("unnamed", metadata.getOperationName());
+        assertNull(metadata.getParamTypes(new Object[0]));
+
+        Method generic = TracedService.class.getMethod("generic", Object.class);
+        metadata = interceptor.getMetadata(generic, TracedService.class);
+        assertEquals("java.lang.Long", metadata.getParamTypes(new Object[] { 1L }));
+
+        assertNull(interceptor.getMetadata(TracedService.class.getMethod("notTraced"),
+            TracedService.class));
+    }
+
+    @Test
+    public void testPointcutMatchesAnnotatedMethodsOnly() throws Exception {
+        TracerAnnotationClassPointcut pointcut = new TracerAnnotationClassPointcut(interceptor);
+        assertTrue(pointcut.getClassFilter().matches(TracedService.class));
+        assertFalse(pointcut.isRuntime());
+        assertTrue(pointcut.matches(TracedService.class.getMethod("unnamed"), TracedService.class));
+        assertFalse(pointcut.matches(TracedService.class.getMethod("notTraced"),
+            TracedService.class));
+    }
+
+    public static class TracedService {
+
+        @Tracer(operateName = "customName")
+        public String named(String value, int times) {
+            return value;
+        }
+
+        @Tracer
+        public void unnamed() {
+        }
+
+        @Tracer
+        public Object generic(Object value) {
+            return value;
+        }
+
+        public void notTraced() {
+        }
+    }
+}
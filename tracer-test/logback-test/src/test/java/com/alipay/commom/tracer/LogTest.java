@@ -17,13 +17,17 @@
 package com.alipay.commom.tracer;
 
 import com.alipay.common.tracer.core.SofaTracer;
+import com.alipay.common.tracer.core.configuration.SofaTracerConfiguration;
 import com.alipay.common.tracer.core.holder.SofaTraceContextHolder;
 import com.alipay.common.tracer.core.span.SofaTracerSpan;
+import com.alipay.common.tracer.extensions.log.TracerLogContext;
+import com.alipay.common.tracer.extensions.log.constants.MDCKeyConstants;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -114,4 +118,57 @@ public class LogTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testLogbackLazyMDC() throws IOException {
+        SofaTraceContextHolder.getSofaTraceContext().clear();
+        MDC.clear();
+        SofaTracerConfiguration.setProperty(TracerLogContext.LAZY_MDC_ENABLED_KEY, "true");
+        try {
+            SofaTracerSpan parent = (SofaTracerSpan) this.sofaTracer.buildSpan("lazyParent")
+                .start();
+            SofaTraceContextHolder.getSofaTraceContext().push(parent);
+            // nothing is copied to the MDC when the span starts
+            Assert.assertNull(MDC.get(MDCKeyConstants.MDC_TRACEID));
+            logger.info("lazy parent");
+
+            SofaTracerSpan child = (SofaTracerSpan) this.sofaTracer.buildSpan("lazyChild")
+                .asChildOf(parent).start();
+            child.setParentSofaTracerSpan(parent);
+            SofaTraceContextHolder.getSofaTraceContext().push(child);
+            logger.info("lazy child");
+            // the context holds one span, the parent is pushed back like the plugins do
+            SofaTraceContextHolder.getSofaTraceContext().pop();
+            child.finish();
+            SofaTraceContextHolder.getSofaTraceContext().push(parent);
+            logger.info("lazy back to parent");
+            SofaTraceContextHolder.getSofaTraceContext().pop();
+            parent.finish();
+            logger.info("lazy no span");
+
+            fos.flush();
+            fos.close();
+            Scanner scanner = new Scanner(new FileInputStream("output.log"));
+            String parentLine = scanner.nextLine();
+            String childLine = scanner.nextLine();
+            String backLine = scanner.nextLine();
+            String noSpanLine = scanner.nextLine();
+
+            String parentIds = parent.getSofaTracerSpanContext().getTraceId() + " "
+                               + parent.getSofaTracerSpanContext().getSpanId() + " ----";
+            String childIds = child.getSofaTracerSpanContext().getTraceId() + " "
+                              + child.getSofaTracerSpanContext().getSpanId() + " ----";
+            Assert.assertTrue(parentLine, parentLine.contains("lazy parent"));
+            Assert.assertTrue(parentLine, parentLine.contains(parentIds));
+            Assert.assertTrue(childLine, childLine.contains("lazy child"));
+            Assert.assertTrue(childLine, childLine.contains(childIds));
+            Assert.assertTrue(backLine, backLine.contains("lazy back to parent"));
+            Assert.assertTrue(backLine, backLine.contains(parentIds));
+            Assert.assertTrue(noSpanLine, noSpanLine.contains("lazy no span"));
+            Assert.assertFalse(noSpanLine,
+                noSpanLine.contains(parent.getSofaTracerSpanContext().getTraceId()));
+        } finally {
+            SofaTracerConfiguration.removeProperty(TracerLogContext.LAZY_MDC_ENABLED_KEY);
+        }
+    }
+
+}